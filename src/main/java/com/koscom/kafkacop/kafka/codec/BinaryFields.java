@@ -0,0 +1,60 @@
+package com.koscom.kafkacop.kafka.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RecordCodec 구현용 필드 인코딩 헬퍼
+ * - 문자열: short 길이(-1 = null) + UTF-8 바이트
+ * - 문자열 목록: short 개수(-1 = null) + 문자열 반복
+ */
+public final class BinaryFields {
+
+	private BinaryFields() {
+	}
+
+	public static void putString(ByteBuffer out, String value) {
+		if (value == null) {
+			out.putShort((short) -1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.putShort((short) bytes.length);
+		out.put(bytes);
+	}
+
+	public static String getString(ByteBuffer in) {
+		short length = in.getShort();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	public static void putStringList(ByteBuffer out, List<String> values) {
+		if (values == null) {
+			out.putShort((short) -1);
+			return;
+		}
+		out.putShort((short) values.size());
+		for (String value : values) {
+			putString(out, value);
+		}
+	}
+
+	public static List<String> getStringList(ByteBuffer in) {
+		short count = in.getShort();
+		if (count < 0) {
+			return null;
+		}
+		List<String> values = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			values.add(getString(in));
+		}
+		return values;
+	}
+}
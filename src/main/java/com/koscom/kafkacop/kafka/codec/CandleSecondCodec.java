@@ -0,0 +1,44 @@
+package com.koscom.kafkacop.kafka.codec;
+
+import com.koscom.kafkacop.kafka.dto.CandleSecondMessage;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+
+import static com.koscom.kafkacop.kafka.codec.BinaryFields.*;
+
+@Component
+public class CandleSecondCodec implements RecordCodec<CandleSecondMessage> {
+
+	@Override
+	public void encode(CandleSecondMessage value, ByteBuffer out) {
+		putStringList(out, value.mktCode());
+		putString(out, value.exchange());
+		putString(out, value.candleDateTimeUtc());
+		putString(out, value.candleDateTimeKst());
+		out.putLong(value.openingPrice());
+		out.putLong(value.highPrice());
+		out.putLong(value.lowPrice());
+		out.putLong(value.tradePrice());
+		out.putDouble(value.candleAccTradeVolume());
+		out.putDouble(value.candleAccTradePrice());
+		out.putLong(value.timestamp());
+	}
+
+	@Override
+	public CandleSecondMessage decode(ByteBuffer in) {
+		return new CandleSecondMessage(
+			getStringList(in),
+			getString(in),
+			getString(in),
+			getString(in),
+			in.getLong(),
+			in.getLong(),
+			in.getLong(),
+			in.getLong(),
+			in.getDouble(),
+			in.getDouble(),
+			in.getLong()
+		);
+	}
+}
@@ -0,0 +1,53 @@
+package com.koscom.kafkacop.kafka.codec;
+
+import com.koscom.kafkacop.kafka.dto.MarketDataMessage;
+import com.koscom.kafkacop.kafka.serde.LazyMessage;
+import com.koscom.kafkacop.kafka.serde.LazyMessageDeserializer;
+import com.koscom.kafkacop.kafka.serde.MarketSymbolTable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * LazyMessage 스필 / journal 인코딩
+ * - 원본 바이트를 보관한 메시지: RAW_MARKER + int 길이 + 원본 바이트 (디코딩 없이 기록, 읽을 때 다시 색인해서 지연 메시지로 복원)
+ * - 디코딩된 메시지: 메시지 타입 codec 인코딩 그대로 (기존 세그먼트와 같은 포맷)
+ * - 마켓 심볼 ID 는 프로세스 안에서만 유효하므로 기록하지 않고 복원 시 다시 intern
+ * - 기존 포맷은 첫 필드가 mkt_code 목록의 short 개수(-1 또는 0 이상)라서 Short.MIN_VALUE 마커와 겹치지 않음
+ */
+public class LazyMessageCodec<T extends MarketDataMessage> implements RecordCodec<LazyMessage<T>> {
+
+	private static final short RAW_MARKER = Short.MIN_VALUE;
+
+	private final RecordCodec<T> delegate;
+	private final LazyMessageDeserializer<T> deserializer;
+
+	public LazyMessageCodec(RecordCodec<T> delegate, LazyMessageDeserializer<T> deserializer) {
+		this.delegate = delegate;
+		this.deserializer = deserializer;
+	}
+
+	@Override
+	public void encode(LazyMessage<T> value, ByteBuffer out) {
+		if (value.hasPayload()) {
+			byte[] payload = value.payload();
+			out.putShort(RAW_MARKER);
+			out.putInt(payload.length);
+			out.put(payload);
+			return;
+		}
+		delegate.encode(value.get(), out);
+	}
+
+	@Override
+	public LazyMessage<T> decode(ByteBuffer in) {
+		if (in.getShort(in.position()) == RAW_MARKER) {
+			in.getShort();
+			byte[] payload = new byte[in.getInt()];
+			in.get(payload);
+			LazyMessage<T> restored = deserializer.wrap(payload);
+			// 기록 시점에 색인 / 디코딩된 바이트라 실패하지 않지만, 실패하면 디코딩 실패 메시지로 복원 (BatchWriter 가 스킵)
+			return restored != null ? restored : LazyMessage.parsed(payload, null, MarketSymbolTable.NO_SYMBOL);
+		}
+		return deserializer.decoded(delegate.decode(in));  // 마켓 심볼 재부착
+	}
+}
@@ -0,0 +1,56 @@
+package com.koscom.kafkacop.kafka.codec;
+
+import com.koscom.kafkacop.kafka.dto.Orderbook5Message;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.koscom.kafkacop.kafka.codec.BinaryFields.*;
+
+@Component
+public class Orderbook5Codec implements RecordCodec<Orderbook5Message> {
+
+	@Override
+	public void encode(Orderbook5Message value, ByteBuffer out) {
+		putStringList(out, value.mktCode());
+		putString(out, value.exchange());
+		out.putLong(value.timestamp());
+		out.putDouble(value.totalAskSize());
+		out.putDouble(value.totalBidSize());
+
+		List<Orderbook5Message.OrderbookUnit> units = value.orderbookUnits();
+		if (units == null) {
+			out.putShort((short) -1);
+			return;
+		}
+		out.putShort((short) units.size());
+		for (Orderbook5Message.OrderbookUnit unit : units) {
+			out.putDouble(unit.askPrice());
+			out.putDouble(unit.bidPrice());
+			out.putDouble(unit.askSize());
+			out.putDouble(unit.bidSize());
+		}
+	}
+
+	@Override
+	public Orderbook5Message decode(ByteBuffer in) {
+		List<String> mktCode = getStringList(in);
+		String exchange = getString(in);
+		long timestamp = in.getLong();
+		double totalAskSize = in.getDouble();
+		double totalBidSize = in.getDouble();
+
+		List<Orderbook5Message.OrderbookUnit> units = null;
+		short count = in.getShort();
+		if (count >= 0) {
+			units = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				units.add(new Orderbook5Message.OrderbookUnit(
+					in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble()));
+			}
+		}
+		return new Orderbook5Message(mktCode, exchange, timestamp, totalAskSize, totalBidSize, units);
+	}
+}
@@ -0,0 +1,18 @@
+package com.koscom.kafkacop.kafka.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 메시지 ↔ 바이너리 변환 (JSON 보다 작고 파싱 비용이 없는 고정 순서 인코딩)
+ * - 스필(디스크 오버플로) 세그먼트 등 프로세스 내부 저장용 (외부 교환 포맷 아님)
+ * - 필드 순서를 바꾸면 기존 세그먼트를 읽을 수 없으므로 필드 추가는 맨 뒤에만
+ */
+public interface RecordCodec<T> {
+
+	/**
+	 * @throws java.nio.BufferOverflowException 버퍼가 부족한 경우 (호출자가 더 큰 버퍼로 재시도)
+	 */
+	void encode(T value, ByteBuffer out);
+
+	T decode(ByteBuffer in);
+}
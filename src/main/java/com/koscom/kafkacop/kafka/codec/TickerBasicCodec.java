@@ -0,0 +1,38 @@
+package com.koscom.kafkacop.kafka.codec;
+
+import com.koscom.kafkacop.kafka.dto.TickerBasicMessage;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+
+import static com.koscom.kafkacop.kafka.codec.BinaryFields.*;
+
+@Component
+public class TickerBasicCodec implements RecordCodec<TickerBasicMessage> {
+
+	@Override
+	public void encode(TickerBasicMessage value, ByteBuffer out) {
+		putStringList(out, value.mktCode());
+		putString(out, value.exchange());
+		out.putLong(value.tradePrice());
+		out.putLong(value.signedChangePrice());
+		out.putDouble(value.signedChangeRate());
+		out.putDouble(value.accTradePrice());
+		out.putDouble(value.accTradePrice24h());
+		out.putLong(value.timestamp());
+	}
+
+	@Override
+	public TickerBasicMessage decode(ByteBuffer in) {
+		return new TickerBasicMessage(
+			getStringList(in),
+			getString(in),
+			in.getLong(),
+			in.getLong(),
+			in.getDouble(),
+			in.getDouble(),
+			in.getDouble(),
+			in.getLong()
+		);
+	}
+}
@@ -1,26 +1,67 @@
 package com.koscom.kafkacop.kafka.config;
 
+import com.koscom.kafkacop.kafka.codec.CandleSecondCodec;
+import com.koscom.kafkacop.kafka.codec.LazyMessageCodec;
+import com.koscom.kafkacop.kafka.codec.Orderbook5Codec;
+import com.koscom.kafkacop.kafka.codec.RecordCodec;
+import com.koscom.kafkacop.kafka.codec.TickerBasicCodec;
+import com.koscom.kafkacop.kafka.config.properties.AdaptiveBatchProperties;
+import com.koscom.kafkacop.kafka.config.properties.SharedFlushSchedulerProperties;
+import com.koscom.kafkacop.kafka.listener.OffsetCommitMode;
+import com.koscom.kafkacop.kafka.metrics.PipelineLatencyRecorder;
+import com.koscom.kafkacop.kafka.serde.LazyMessage;
+import com.koscom.kafkacop.kafka.serde.LazyMessageDeserializer;
+import com.koscom.kafkacop.kafka.writer.AdaptiveBatchController;
 import com.koscom.kafkacop.kafka.writer.BatchAccumulator;
 import com.koscom.kafkacop.kafka.writer.CandleSecondBatchWriter;
+import com.koscom.kafkacop.kafka.writer.DltPublisher;
+import com.koscom.kafkacop.kafka.writer.FlushCircuitBreaker;
+import com.koscom.kafkacop.kafka.writer.FlushExecutor;
+import com.koscom.kafkacop.kafka.writer.HeapPressureMonitor;
+import com.koscom.kafkacop.kafka.writer.MemoryBudget;
+import com.koscom.kafkacop.kafka.writer.MessageSizeEstimator;
 import com.koscom.kafkacop.kafka.writer.Orderbook5BatchWriter;
+import com.koscom.kafkacop.kafka.writer.SharedFlushScheduler;
 import com.koscom.kafkacop.kafka.writer.TickerBasicBatchWriter;
+import com.koscom.kafkacop.kafka.writer.queue.QueueStrategy;
+import com.koscom.kafkacop.kafka.writer.queue.WaitStrategy;
 import com.koscom.kafkacop.kafka.dto.CandleSecondMessage;
+import com.koscom.kafkacop.kafka.dto.MarketDataMessage;
 import com.koscom.kafkacop.kafka.dto.Orderbook5Message;
 import com.koscom.kafkacop.kafka.dto.TickerBasicMessage;
+import com.zaxxer.hikari.HikariDataSource;
 import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.KafkaTemplate;
 
+import javax.sql.DataSource;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.function.ToLongFunction;
 
 /**
  * BatchAccumulator 설정
  * - 각 메시지 타입별로 별도의 accumulator 생성
  * - 튜닝 파라미터: application.yml의 app.batch-accumulator에서 설정
  * - DLT: 최종 실패 시 {topic}.DLT로 전송
+ * - 샤드 라우팅: 마켓 심볼 ID(exchange, mkt_code) 기준 (coordinator-thread-count > 1 일 때 같은 마켓은 같은 코디네이터가 처리)
+ * - flush-mode: PARTITIONED 이면 마켓 심볼 ID 파티션별 고정 워커가 flush (같은 마켓 upsert 직렬화)
+ * - adaptive: 토픽별 AIMD 자동 조정 (batch-size / max-latency-ms 는 초기값으로 사용)
+ * - handoff: 워커가 모두 바쁠 때 코디네이터가 flush 를 직접 실행하지 않고 스테이징에 모아둔 채 drain 계속
+ * - memory-budget: 메시지 타입별 추정 크기 기준 전체 accumulator 공유 메모리 예산 (리스너 pause/resume 기준)
+ * - heap-pressure: Old Gen 압박 중에는 전체 accumulator 의 동시 flush 수 제한
+ * - spill: 큐/예산 가득 참 시 단건 DLT 대신 토픽별 mmap 세그먼트 파일에 기록 후 코디네이터가 FIFO 로 복귀
+ * - journal: 적재된 메시지를 ack 전에 토픽/샤드별 write-ahead journal 에 기록, 재기동 시 flush 되지 않은 메시지 복구
+ * - app.kafka.commit.mode=FLUSH_WATERMARK: 적재 순번별 flush 완료 추적 (리스너가 flush 완료 지점까지만 오프셋 커밋)
+ * - 지연 메트릭: 거래소(exchange) 태그 / 메시지 자체 timestamp 기준 (kafka.pipeline.latency)
+ * - shared-scheduler: 토픽별 워커 풀 대신 DB 커넥션 수 기준의 공유 flush 스케줄러 사용 (토픽 가중치 공정 분배)
+ * - 적재 단위는 LazyMessage: 라우팅 키(마켓 심볼 ID) / 지연 메트릭 exchange / timestamp 는 공통 필드 접근자 사용
+ *   (app.kafka.consumer.raw-passthrough=true 면 원본 바이트 색인 값 → 적재 / 라우팅 시점에 디코딩하지 않음)
  */
+@Slf4j
 @Configuration
 public class BatchAccumulatorConfig {
 
@@ -42,57 +83,193 @@ public class BatchAccumulatorConfig {
 	@Value("${app.batch-accumulator.worker-queue-capacity}")
 	private int workerQueueCapacity;
 
+	@Value("${app.batch-accumulator.queue-strategy:BLOCKING}")
+	private QueueStrategy queueStrategy;
+
+	@Value("${app.batch-accumulator.wait-strategy:PARK}")
+	private WaitStrategy waitStrategy;
+
+	@Value("${app.batch-accumulator.flush-mode:POOLED}")
+	private FlushExecutor.Mode flushMode;
+
+	@Value("${app.batch-accumulator.virtual.max-concurrency:0}")
+	private int virtualMaxConcurrency;
+
+	@Value("${app.batch-accumulator.handoff.enabled:false}")
+	private boolean handoffEnabled;
+
+	@Value("${app.batch-accumulator.handoff.staging-capacity:30000}")
+	private int handoffStagingCapacity;
+
+	@Value("${app.batch-accumulator.spill.enabled:false}")
+	private boolean spillEnabled;
+
+	@Value("${app.batch-accumulator.spill.directory:${java.io.tmpdir}/kafkacop-spill}")
+	private String spillDirectory;
+
+	@Value("${app.batch-accumulator.spill.segment-bytes:67108864}")
+	private int spillSegmentBytes;
+
+	@Value("${app.batch-accumulator.spill.max-bytes:2147483648}")
+	private long spillMaxBytes;
+
+	@Value("${app.batch-accumulator.journal.enabled:false}")
+	private boolean journalEnabled;
+
+	@Value("${app.batch-accumulator.journal.directory:${java.io.tmpdir}/kafkacop-journal}")
+	private String journalDirectory;
+
+	@Value("${app.batch-accumulator.journal.segment-bytes:67108864}")
+	private int journalSegmentBytes;
+
+	@Value("${app.batch-accumulator.journal.force-on-commit:true}")
+	private boolean journalForceOnCommit;
+
+	@Value("${app.batch-accumulator.retry.bisect:false}")
+	private boolean retryBisect;
+
+	@Value("${app.batch-accumulator.retry.max-retries:3}")
+	private int retryMaxRetries;
+
+	@Value("${app.batch-accumulator.retry.backoff-ms:20}")
+	private long retryBackoffMs;
+
+	@Value("${app.batch-accumulator.retry.max-backoff-ms:1000}")
+	private long retryMaxBackoffMs;
+
+	@Value("${app.batch-accumulator.retry.max-isolated:32}")
+	private int retryMaxIsolated;
+
+	@Value("${app.kafka.commit.mode:ENQUEUE}")
+	private OffsetCommitMode commitMode;
+
+	@Value("${app.batch-accumulator.memory-budget.enabled:false}")
+	private boolean memoryBudgetEnabled;
+
+	@Value("${app.batch-accumulator.memory-budget.max-bytes:0}")
+	private long memoryBudgetMaxBytes;
+
+	@Value("${app.batch-accumulator.memory-budget.heap-ratio:0.4}")
+	private double memoryBudgetHeapRatio;
+
+	/**
+	 * 공유 flush 스케줄러
+	 * - 동시 flush 수 = Hikari maximum-pool-size - reserved-connections (최소 1)
+	 * - enabled=false 이면 워커를 띄우지 않고 각 accumulator 가 전용 워커 풀 사용
+	 */
+	@Bean
+	public SharedFlushScheduler sharedFlushScheduler(
+		DataSource dataSource,
+		SharedFlushSchedulerProperties properties,
+		MeterRegistry meterRegistry
+	) {
+		int poolSize = dataSource instanceof HikariDataSource hikari
+			? hikari.getMaximumPoolSize()
+			: workerThreadCount;
+		int concurrency = Math.max(1, poolSize - properties.reservedConnections());
+		if (properties.enabled()) {
+			log.info("Shared flush scheduler enabled: dbPoolSize={}, reserved={}, concurrency={}",
+				poolSize, properties.reservedConnections(), concurrency);
+		}
+		return new SharedFlushScheduler(concurrency, meterRegistry);
+	}
+
+	/**
+	 * 전체 accumulator 공유 메모리 예산
+	 * - max-bytes 가 0 이면 최대 힙(-Xmx) × heap-ratio
+	 * - enabled=false 이면 accumulator 에 연결하지 않음 (바이트 추적 / 예산 제한 없이 큐 용량으로만 백프레셔)
+	 */
+	@Bean
+	public MemoryBudget memoryBudget(MeterRegistry meterRegistry) {
+		long limitBytes = memoryBudgetMaxBytes > 0
+			? memoryBudgetMaxBytes
+			: (long) (Runtime.getRuntime().maxMemory() * memoryBudgetHeapRatio);
+		if (memoryBudgetEnabled) {
+			log.info("Batch memory budget enabled: {} MB", limitBytes / (1024 * 1024));
+		}
+		return new MemoryBudget(limitBytes, meterRegistry);
+	}
+
 	@Bean
-	public BatchAccumulator<TickerBasicMessage> tickerBasicAccumulator(
+	public BatchAccumulator<LazyMessage<TickerBasicMessage>> tickerBasicAccumulator(
 		TickerBasicBatchWriter writer,
+		TickerBasicCodec codec,
+		LazyMessageDeserializer<TickerBasicMessage> tickerBasicDeserializer,
 		KafkaTemplate<String, Object> kafkaTemplate,
-		MeterRegistry meterRegistry
+		DltPublisher dltPublisher,
+		MeterRegistry meterRegistry,
+		AdaptiveBatchProperties adaptiveBatchProperties,
+		SharedFlushScheduler sharedFlushScheduler,
+		SharedFlushSchedulerProperties sharedFlushSchedulerProperties,
+		MemoryBudget memoryBudget,
+		HeapPressureMonitor heapPressureMonitor,
+		FlushCircuitBreaker flushCircuitBreaker,
+		PipelineLatencyRecorder latencyRecorder
 	) {
-		BatchAccumulator<TickerBasicMessage> accumulator = new BatchAccumulator<>(
-			writer,
-			batchSize,
-			Duration.ofMillis(maxLatencyMs),
-			queueCapacity,
-			workerThreadCount,
-			coordinatorThreadCount,
-			workerQueueCapacity,
-			"ticker-basic",
-			kafkaTemplate,
-			meterRegistry
-		);
-		accumulator.start();
-		return accumulator;
+		return createAccumulator(writer, new LazyMessageCodec<>(codec, tickerBasicDeserializer), "ticker-basic", MessageSizeEstimator::tickerBasic,
+			kafkaTemplate, dltPublisher, meterRegistry, adaptiveBatchProperties, sharedFlushScheduler, sharedFlushSchedulerProperties, memoryBudget,
+			heapPressureMonitor, flushCircuitBreaker, latencyRecorder);
 	}
 
 	@Bean
-	public BatchAccumulator<CandleSecondMessage> candleSecondAccumulator(
+	public BatchAccumulator<LazyMessage<CandleSecondMessage>> candleSecondAccumulator(
 		CandleSecondBatchWriter writer,
+		CandleSecondCodec codec,
+		LazyMessageDeserializer<CandleSecondMessage> candleSecondDeserializer,
 		KafkaTemplate<String, Object> kafkaTemplate,
-		MeterRegistry meterRegistry
+		DltPublisher dltPublisher,
+		MeterRegistry meterRegistry,
+		AdaptiveBatchProperties adaptiveBatchProperties,
+		SharedFlushScheduler sharedFlushScheduler,
+		SharedFlushSchedulerProperties sharedFlushSchedulerProperties,
+		MemoryBudget memoryBudget,
+		HeapPressureMonitor heapPressureMonitor,
+		FlushCircuitBreaker flushCircuitBreaker,
+		PipelineLatencyRecorder latencyRecorder
 	) {
-		BatchAccumulator<CandleSecondMessage> accumulator = new BatchAccumulator<>(
-			writer,
-			batchSize,
-			Duration.ofMillis(maxLatencyMs),
-			queueCapacity,
-			workerThreadCount,
-			coordinatorThreadCount,
-			workerQueueCapacity,
-			"candel-1s",
-			kafkaTemplate,
-			meterRegistry
-		);
-		accumulator.start();
-		return accumulator;
+		return createAccumulator(writer, new LazyMessageCodec<>(codec, candleSecondDeserializer), "candel-1s", MessageSizeEstimator::candleSecond,
+			kafkaTemplate, dltPublisher, meterRegistry, adaptiveBatchProperties, sharedFlushScheduler, sharedFlushSchedulerProperties, memoryBudget,
+			heapPressureMonitor, flushCircuitBreaker, latencyRecorder);
 	}
 
 	@Bean
-	public BatchAccumulator<Orderbook5Message> orderbook5Accumulator(
+	public BatchAccumulator<LazyMessage<Orderbook5Message>> orderbook5Accumulator(
 		Orderbook5BatchWriter writer,
+		Orderbook5Codec codec,
+		LazyMessageDeserializer<Orderbook5Message> orderbook5Deserializer,
 		KafkaTemplate<String, Object> kafkaTemplate,
-		MeterRegistry meterRegistry
+		DltPublisher dltPublisher,
+		MeterRegistry meterRegistry,
+		AdaptiveBatchProperties adaptiveBatchProperties,
+		SharedFlushScheduler sharedFlushScheduler,
+		SharedFlushSchedulerProperties sharedFlushSchedulerProperties,
+		MemoryBudget memoryBudget,
+		HeapPressureMonitor heapPressureMonitor,
+		FlushCircuitBreaker flushCircuitBreaker,
+		PipelineLatencyRecorder latencyRecorder
+	) {
+		return createAccumulator(writer, new LazyMessageCodec<>(codec, orderbook5Deserializer), "orderbook-5", MessageSizeEstimator::orderbook5,
+			kafkaTemplate, dltPublisher, meterRegistry, adaptiveBatchProperties, sharedFlushScheduler, sharedFlushSchedulerProperties, memoryBudget,
+			heapPressureMonitor, flushCircuitBreaker, latencyRecorder);
+	}
+
+	private <T extends MarketDataMessage> BatchAccumulator<LazyMessage<T>> createAccumulator(
+		BatchAccumulator.BatchWriter<LazyMessage<T>> writer,
+		RecordCodec<LazyMessage<T>> codec,
+		String topic,
+		ToLongFunction<T> sizeEstimator,
+		KafkaTemplate<String, Object> kafkaTemplate,
+		DltPublisher dltPublisher,
+		MeterRegistry meterRegistry,
+		AdaptiveBatchProperties adaptiveBatchProperties,
+		SharedFlushScheduler sharedFlushScheduler,
+		SharedFlushSchedulerProperties sharedFlushSchedulerProperties,
+		MemoryBudget memoryBudget,
+		HeapPressureMonitor heapPressureMonitor,
+		FlushCircuitBreaker flushCircuitBreaker,
+		PipelineLatencyRecorder latencyRecorder
 	) {
-		BatchAccumulator<Orderbook5Message> accumulator = new BatchAccumulator<>(
+		BatchAccumulator<LazyMessage<T>> accumulator = new BatchAccumulator<>(
 			writer,
 			batchSize,
 			Duration.ofMillis(maxLatencyMs),
@@ -100,10 +277,48 @@ public class BatchAccumulatorConfig {
 			workerThreadCount,
 			coordinatorThreadCount,
 			workerQueueCapacity,
-			"orderbook-5",
+			queueStrategy,
+			waitStrategy,
+			topic,
 			kafkaTemplate,
 			meterRegistry
 		);
+		accumulator.setMarketKey(LazyMessage::symbol);
+		accumulator.setRecordKey(LazyMessage::mktCode);
+		accumulator.setSourcePosition(LazyMessage::sourcePartition, LazyMessage::sourceOffset);
+		accumulator.setDltPublisher(dltPublisher);
+		accumulator.setFlushRetry(retryBisect, retryMaxRetries, retryBackoffMs, retryMaxBackoffMs, retryMaxIsolated);
+		accumulator.setFlushMode(flushMode);
+		accumulator.setVirtualFlushConcurrency(virtualMaxConcurrency);
+		if (memoryBudgetEnabled) {
+			accumulator.setMemoryBudget(MessageSizeEstimator.lazy(sizeEstimator), memoryBudget);
+		}
+		accumulator.setHeapPressureMonitor(heapPressureMonitor);
+		accumulator.setCircuitBreaker(flushCircuitBreaker);
+		accumulator.setLatencyRecorder(latencyRecorder, LazyMessage::exchange, LazyMessage::timestamp);
+		if (spillEnabled) {
+			accumulator.setSpill(codec, Path.of(spillDirectory, topic), spillSegmentBytes, spillMaxBytes);
+		}
+		if (journalEnabled) {
+			accumulator.setJournal(codec, Path.of(journalDirectory, topic), journalSegmentBytes, journalForceOnCommit);
+		}
+		if (handoffEnabled) {
+			accumulator.setHandoffStagingCapacity(handoffStagingCapacity);
+		}
+		accumulator.setFlushWatermarkTracking(commitMode == OffsetCommitMode.FLUSH_WATERMARK);
+
+		// 토픽별 AIMD 자동 조정 (app.batch-accumulator.adaptive.topics.{topic})
+		AdaptiveBatchController.Settings adaptiveSettings = adaptiveBatchProperties.forTopic(topic);
+		if (adaptiveSettings != null) {
+			accumulator.setAdaptiveController(new AdaptiveBatchController(
+				topic, adaptiveSettings, batchSize, Duration.ofMillis(maxLatencyMs)));
+		}
+
+		// 공유 flush 스케줄러 (app.batch-accumulator.shared-scheduler.weights.{topic})
+		if (sharedFlushSchedulerProperties.enabled()) {
+			accumulator.setSharedFlushScheduler(sharedFlushScheduler, sharedFlushSchedulerProperties.weightOf(topic));
+		}
+
 		accumulator.start();
 		return accumulator;
 	}
@@ -1,11 +1,14 @@
 package com.koscom.kafkacop.kafka.config;
 
+import java.util.EnumMap;
 import java.util.Map;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.boot.ssl.SslBundles;
 import org.springframework.context.annotation.Bean;
@@ -25,62 +28,151 @@ import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import com.koscom.kafkacop.kafka.dto.CandleSecondMessage;
+import com.koscom.kafkacop.kafka.dto.MarketDataMessage;
 import com.koscom.kafkacop.kafka.dto.Orderbook5Message;
 import com.koscom.kafkacop.kafka.dto.TickerBasicMessage;
+import com.koscom.kafkacop.kafka.listener.FlushWatermarkCommitter;
+import com.koscom.kafkacop.kafka.serde.CandleSecondJsonDeserializer;
+import com.koscom.kafkacop.kafka.serde.ContentTypeDeserializer;
+import com.koscom.kafkacop.kafka.serde.LazyMessage;
+import com.koscom.kafkacop.kafka.serde.LazyMessageDeserializer;
+import com.koscom.kafkacop.kafka.serde.MarketSymbolTable;
+import com.koscom.kafkacop.kafka.serde.Orderbook5JsonDeserializer;
+import com.koscom.kafkacop.kafka.serde.PayloadFormat;
+import com.koscom.kafkacop.kafka.serde.TickerBasicJsonDeserializer;
+import com.koscom.kafkacop.kafka.writer.DltPublisher;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @EnableKafka
 @Configuration
 public class KafkaConfig {
 
+	// FLUSH_WATERMARK 커밋 모드에서 새 레코드가 없을 때 flush 완료분을 커밋하는 주기 (idle 이벤트)
+	@Value("${app.kafka.commit.idle-commit-interval-ms:1000}")
+	private long idleCommitIntervalMs;
+
+	// true: 메시지 타입별 스트리밍 역직렬화기 (JsonParser 토큰 → DTO 직접 생성) / false: Spring JsonDeserializer
+	@Value("${app.kafka.consumer.streaming-deserializer:true}")
+	private boolean streamingDeserializer;
+
+	// true: 원본 값 바이트를 그대로 SSE 로 전송하고 DTO 디코딩은 flush 워커에서 지연 수행 / false: 컨슈머 스레드에서 즉시 디코딩
+	@Value("${app.kafka.consumer.raw-passthrough:false}")
+	private boolean rawPassthrough;
+
+	// DLT 전용 producer 설정 (flush 실패 배치 전송)
+	@Value("${app.kafka.dlt.linger-ms:20}")
+	private int dltLingerMs;
+
+	@Value("${app.kafka.dlt.batch-size:262144}")
+	private int dltBatchSize;
+
+	@Value("${app.kafka.dlt.compression-type:lz4}")
+	private String dltCompressionType;
+
+	@Value("${app.kafka.dlt.acks:all}")
+	private String dltAcks;
+
+	@Value("${app.kafka.dlt.max-in-flight:10000}")
+	private int dltMaxInFlight;
+
+	@Value("${app.kafka.dlt.window-timeout-ms:5000}")
+	private long dltWindowTimeoutMs;
+
 	private Map<String, Object> getBaseConsumerProps(KafkaProperties kafkaProperties, SslBundles sslBundles) {
 		Map<String, Object> props = kafkaProperties.buildConsumerProperties(sslBundles);
 		props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
-		props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-		props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
 		return props;
 	}
 
-	@Bean
-	public ConsumerFactory<String, TickerBasicMessage> tickerBasicConsumerFactory(KafkaProperties kafkaProperties, SslBundles sslBundles) {
-		Map<String, Object> props = getBaseConsumerProps(kafkaProperties, sslBundles);
+	/**
+	 * 값 역직렬화기
+	 * - streaming-deserializer=true: 메시지 타입별 스트리밍 역직렬화기 (잘못된 페이로드는 null + 카운터)
+	 * - false: ErrorHandlingDeserializer로 감싼 JsonDeserializer (역직렬화 에러를 헤더로 전달, 값은 null)
+	 * - 레코드 content-type 헤더(application/json, application/cbor, application/x-jackson-smile)로 포맷 선택, 헤더 없으면 JSON
+	 *   (스트리밍 역직렬화기는 자체 판별, databind 는 포맷별 JsonDeserializer 를 ContentTypeDeserializer 로 묶음)
+	 * - raw-passthrough=true: 위 역직렬화기는 LazyMessage.get() 시점(flush 워커)에 호출, 컨슈머 스레드는 원본 바이트만 보관
+	 * - 스필 / journal codec 도 같은 인스턴스로 원본 바이트를 복원하므로 빈으로 등록
+	 * - 역직렬화 시 (exchange, mkt_code) 를 공유 심볼 테이블에 intern → 이후 단계는 int 심볼 ID 사용
+	 */
+	private <T extends MarketDataMessage> LazyMessageDeserializer<T> createDeserializer(String topic, Class<T> valueType,
+		Deserializer<T> streaming, MarketSymbolTable marketSymbolTable, MeterRegistry meterRegistry) {
+		Deserializer<T> delegate = streamingDeserializer
+			? streaming
+			: new ErrorHandlingDeserializer<>(createDatabindDeserializer(valueType));
+		return new LazyMessageDeserializer<>(topic, delegate, rawPassthrough, marketSymbolTable, meterRegistry);
+	}
 
-		// ErrorHandlingDeserializer로 감싸서 역직렬화 에러를 명시적으로 로깅
-		props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-		props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-		props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
-		props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
-		props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, TickerBasicMessage.class.getName());
+	private <T> Deserializer<T> createDatabindDeserializer(Class<T> valueType) {
+		Map<PayloadFormat, Deserializer<T>> delegates = new EnumMap<>(PayloadFormat.class);
+		for (PayloadFormat format : PayloadFormat.values()) {
+			delegates.put(format, format == PayloadFormat.JSON
+				? new JsonDeserializer<>(valueType, false)
+				: new JsonDeserializer<>(valueType, createBinaryObjectMapper(format), false));
+		}
+		return new ContentTypeDeserializer<>(delegates);
+	}
 
-		return new DefaultKafkaConsumerFactory<>(props);
+	// JsonDeserializer 기본 ObjectMapper 와 같이 모르는 필드는 무시 (팩토리는 공유 인스턴스라 복사본 사용)
+	private ObjectMapper createBinaryObjectMapper(PayloadFormat format) {
+		return new ObjectMapper(format.factory().copy())
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 	}
 
+	/** (exchange, mkt_code) → int 심볼 ID (전체 토픽 공유, BatchWriter 가 마켓코드 / Market 조회에 사용) */
 	@Bean
-	public ConsumerFactory<String, CandleSecondMessage> candleSecondConsumerFactory(KafkaProperties kafkaProperties, SslBundles sslBundles) {
-		Map<String, Object> props = getBaseConsumerProps(kafkaProperties, sslBundles);
+	public MarketSymbolTable marketSymbolTable() {
+		return new MarketSymbolTable();
+	}
 
-		// ErrorHandlingDeserializer로 감싸서 역직렬화 에러를 명시적으로 로깅
-		props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-		props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-		props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
-		props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
-		props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, CandleSecondMessage.class.getName());
+	@Bean
+	public LazyMessageDeserializer<TickerBasicMessage> tickerBasicDeserializer(MeterRegistry meterRegistry,
+		MarketSymbolTable marketSymbolTable) {
+		return createDeserializer("ticker-basic", TickerBasicMessage.class,
+			new TickerBasicJsonDeserializer("ticker-basic", meterRegistry), marketSymbolTable, meterRegistry);
+	}
 
-		return new DefaultKafkaConsumerFactory<>(props);
+	@Bean
+	public LazyMessageDeserializer<CandleSecondMessage> candleSecondDeserializer(MeterRegistry meterRegistry,
+		MarketSymbolTable marketSymbolTable) {
+		return createDeserializer("candel-1s", CandleSecondMessage.class,
+			new CandleSecondJsonDeserializer("candel-1s", meterRegistry), marketSymbolTable, meterRegistry);
+	}
+
+	@Bean
+	public LazyMessageDeserializer<Orderbook5Message> orderbook5Deserializer(MeterRegistry meterRegistry,
+		MarketSymbolTable marketSymbolTable) {
+		return createDeserializer("orderbook-5", Orderbook5Message.class,
+			new Orderbook5JsonDeserializer("orderbook-5", meterRegistry), marketSymbolTable, meterRegistry);
+	}
+
+	private <T extends MarketDataMessage> ConsumerFactory<String, LazyMessage<T>> createConsumerFactory(KafkaProperties kafkaProperties,
+		SslBundles sslBundles, LazyMessageDeserializer<T> valueDeserializer) {
+		// 역직렬화기 인스턴스를 컨슈머 스레드들이 공유 (delegate 는 생성 시 설정 완료)
+		return new DefaultKafkaConsumerFactory<>(getBaseConsumerProps(kafkaProperties, sslBundles),
+			new StringDeserializer(), valueDeserializer);
 	}
 
 	@Bean
-	public ConsumerFactory<String, Orderbook5Message> orderbook5ConsumerFactory(KafkaProperties kafkaProperties, SslBundles sslBundles) {
-		Map<String, Object> props = getBaseConsumerProps(kafkaProperties, sslBundles);
+	public ConsumerFactory<String, LazyMessage<TickerBasicMessage>> tickerBasicConsumerFactory(KafkaProperties kafkaProperties,
+		SslBundles sslBundles, LazyMessageDeserializer<TickerBasicMessage> tickerBasicDeserializer) {
+		return createConsumerFactory(kafkaProperties, sslBundles, tickerBasicDeserializer);
+	}
 
-		// ErrorHandlingDeserializer로 감싸서 역직렬화 에러를 명시적으로 로깅
-		props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-		props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-		props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
-		props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
-		props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, Orderbook5Message.class.getName());
+	@Bean
+	public ConsumerFactory<String, LazyMessage<CandleSecondMessage>> candleSecondConsumerFactory(KafkaProperties kafkaProperties,
+		SslBundles sslBundles, LazyMessageDeserializer<CandleSecondMessage> candleSecondDeserializer) {
+		return createConsumerFactory(kafkaProperties, sslBundles, candleSecondDeserializer);
+	}
 
-		return new DefaultKafkaConsumerFactory<>(props);
+	@Bean
+	public ConsumerFactory<String, LazyMessage<Orderbook5Message>> orderbook5ConsumerFactory(KafkaProperties kafkaProperties,
+		SslBundles sslBundles, LazyMessageDeserializer<Orderbook5Message> orderbook5Deserializer) {
+		return createConsumerFactory(kafkaProperties, sslBundles, orderbook5Deserializer);
 	}
 
 	@Bean
@@ -96,8 +188,26 @@ public class KafkaConfig {
 		return new KafkaTemplate<>(producerFactory);
 	}
 
+	/**
+	 * accumulator flush 실패 배치용 DLT 전송 단계
+	 * - 리스너 에러 핸들러용 kafkaTemplate 과 분리된 전용 producer (linger / batch / 압축)
+	 */
+	@Bean(destroyMethod = "close")
+	public DltPublisher dltPublisher(KafkaProperties kafkaProperties, SslBundles sslBundles, MeterRegistry meterRegistry) {
+		Map<String, Object> props = kafkaProperties.buildProducerProperties(sslBundles);
+		props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+		props.put(ProducerConfig.LINGER_MS_CONFIG, dltLingerMs);
+		props.put(ProducerConfig.BATCH_SIZE_CONFIG, dltBatchSize);
+		props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, dltCompressionType);
+		props.put(ProducerConfig.ACKS_CONFIG, dltAcks);
+		DefaultKafkaProducerFactory<String, Object> producerFactory = new DefaultKafkaProducerFactory<>(props);
+		producerFactory.setClientIdPrefix("dlt-publisher");
+		return new DltPublisher(new KafkaTemplate<>(producerFactory), dltMaxInFlight, dltWindowTimeoutMs, meterRegistry);
+	}
+
 	private <T> ConcurrentKafkaListenerContainerFactory<String, T> createContainerFactory(
-		ConsumerFactory<String, T> consumerFactory, KafkaTemplate<String, Object> kafkaTemplate
+		ConsumerFactory<String, T> consumerFactory, KafkaTemplate<String, Object> kafkaTemplate,
+		FlushWatermarkCommitter flushWatermarkCommitter
 	) {
 		ConcurrentKafkaListenerContainerFactory<String, T> factory = new ConcurrentKafkaListenerContainerFactory<>();
 		factory.setConsumerFactory(consumerFactory);
@@ -106,6 +216,14 @@ public class KafkaConfig {
 		// Acknowledgment 파라미터 사용을 위해 MANUAL 모드 설정
 		factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
 
+		// 파티션 회수 시 해당 토픽 accumulator 즉시 flush (FLUSH_WATERMARK 모드면 회수 파티션 flush 완료분 커밋)
+		factory.getContainerProperties().setConsumerRebalanceListener(flushWatermarkCommitter);
+
+		// FLUSH_WATERMARK 커밋 모드: 리스너가 직접 커밋 (idle 중에도 주기적 커밋)
+		if (flushWatermarkCommitter.isEnabled()) {
+			factory.getContainerProperties().setIdleEventInterval(idleCommitIntervalMs);
+		}
+
 		// 재시도/백오프 설정
 		ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(3); // 최대 3회 재시도
 		backOff.setInitialInterval(100L); // 초기 대기 시간 100ms
@@ -125,23 +243,26 @@ public class KafkaConfig {
 	}
 
 	@Bean
-	public ConcurrentKafkaListenerContainerFactory<String, TickerBasicMessage> tickerBasicListenerContainerFactory(
-		ConsumerFactory<String, TickerBasicMessage> tickerBasicConsumerFactory, KafkaTemplate<String, Object> kafkaTemplate
+	public ConcurrentKafkaListenerContainerFactory<String, LazyMessage<TickerBasicMessage>> tickerBasicListenerContainerFactory(
+		ConsumerFactory<String, LazyMessage<TickerBasicMessage>> tickerBasicConsumerFactory, KafkaTemplate<String, Object> kafkaTemplate,
+		FlushWatermarkCommitter flushWatermarkCommitter
 	) {
-		return createContainerFactory(tickerBasicConsumerFactory, kafkaTemplate);
+		return createContainerFactory(tickerBasicConsumerFactory, kafkaTemplate, flushWatermarkCommitter);
 	}
 
 	@Bean
-	public ConcurrentKafkaListenerContainerFactory<String, CandleSecondMessage> candleSecondListenerContainerFactory(
-		ConsumerFactory<String, CandleSecondMessage> candleSecondConsumerFactory, KafkaTemplate<String, Object> kafkaTemplate
+	public ConcurrentKafkaListenerContainerFactory<String, LazyMessage<CandleSecondMessage>> candleSecondListenerContainerFactory(
+		ConsumerFactory<String, LazyMessage<CandleSecondMessage>> candleSecondConsumerFactory, KafkaTemplate<String, Object> kafkaTemplate,
+		FlushWatermarkCommitter flushWatermarkCommitter
 	) {
-		return createContainerFactory(candleSecondConsumerFactory, kafkaTemplate);
+		return createContainerFactory(candleSecondConsumerFactory, kafkaTemplate, flushWatermarkCommitter);
 	}
 
 	@Bean
-	public ConcurrentKafkaListenerContainerFactory<String, Orderbook5Message> orderbook5ListenerContainerFactory(
-		ConsumerFactory<String, Orderbook5Message> orderbook5ConsumerFactory, KafkaTemplate<String, Object> kafkaTemplate
+	public ConcurrentKafkaListenerContainerFactory<String, LazyMessage<Orderbook5Message>> orderbook5ListenerContainerFactory(
+		ConsumerFactory<String, LazyMessage<Orderbook5Message>> orderbook5ConsumerFactory, KafkaTemplate<String, Object> kafkaTemplate,
+		FlushWatermarkCommitter flushWatermarkCommitter
 	) {
-		return createContainerFactory(orderbook5ConsumerFactory, kafkaTemplate);
+		return createContainerFactory(orderbook5ConsumerFactory, kafkaTemplate, flushWatermarkCommitter);
 	}
 }
@@ -0,0 +1,27 @@
+package com.koscom.kafkacop.kafka.config.properties;
+
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConfigurationPropertiesBinding;
+
+import com.koscom.kafkacop.kafka.writer.AdaptiveBatchController;
+
+/**
+ * 토픽별 AIMD 배치 자동 조정 설정
+ * - topics 의 키는 토픽명 (ticker-basic, candel-1s, orderbook-5)
+ * - enabled=false 이거나 토픽 설정이 없으면 batch-size / max-latency-ms 고정값 사용
+ */
+@ConfigurationProperties(prefix = "app.batch-accumulator.adaptive")
+@ConfigurationPropertiesBinding
+public record AdaptiveBatchProperties(
+        boolean enabled,
+        Map<String, AdaptiveBatchController.Settings> topics
+) {
+    public AdaptiveBatchController.Settings forTopic(String topic) {
+        if (!enabled || topics == null) {
+            return null;
+        }
+        return topics.get(topic);
+    }
+}
@@ -0,0 +1,26 @@
+package com.koscom.kafkacop.kafka.config.properties;
+
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConfigurationPropertiesBinding;
+
+/**
+ * 공유 flush 스케줄러 설정
+ * - concurrency = DB 커넥션 풀 최대 크기 - reservedConnections (API 조회용으로 남겨둘 커넥션)
+ * - weights 의 키는 토픽명, 값은 스케줄링 가중치 (미설정 토픽은 1)
+ */
+@ConfigurationProperties(prefix = "app.batch-accumulator.shared-scheduler")
+@ConfigurationPropertiesBinding
+public record SharedFlushSchedulerProperties(
+        boolean enabled,
+        int reservedConnections,
+        Map<String, Integer> weights
+) {
+    public int weightOf(String topic) {
+        if (weights == null) {
+            return 1;
+        }
+        return weights.getOrDefault(topic, 1);
+    }
+}
@@ -39,5 +39,5 @@ public record CandleSecondMessage(
 
         @JsonProperty("timestamp")
         long timestamp
-) {
+) implements MarketDataMessage {
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.koscom.kafkacop.kafka.dto;
+
+import java.util.List;
+
+/**
+ * 시세 메시지 공통 필드 (샤드 라우팅 / 검증 / 마켓 조회 / 지연 메트릭 태그)
+ * - 지연 디코딩(LazyMessage)은 이 필드들만 원본 바이트에서 먼저 읽고 나머지는 flush 시점에 디코딩
+ */
+public interface MarketDataMessage {
+
+    List<String> mktCode();
+
+    String exchange();
+
+    long timestamp();
+}
@@ -24,7 +24,7 @@ public record Orderbook5Message(
 
         @JsonProperty("OrderbookUnits")
         List<OrderbookUnit> orderbookUnits
-) {
+) implements MarketDataMessage {
     @JsonIgnoreProperties(ignoreUnknown = true)
     public record OrderbookUnit(
             @JsonProperty("ask_price")
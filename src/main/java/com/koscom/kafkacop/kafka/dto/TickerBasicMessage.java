@@ -30,5 +30,5 @@ public record TickerBasicMessage(
 
         @JsonProperty("timestamp")
         long timestamp
-) {
+) implements MarketDataMessage {
 }
@@ -3,27 +3,28 @@ package com.koscom.kafkacop.kafka.listener;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
-import org.springframework.kafka.listener.MessageListenerContainer;
 import org.springframework.kafka.support.Acknowledgment;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import com.koscom.kafkacop.kafka.metrics.PipelineLatencyRecorder;
 import com.koscom.kafkacop.kafka.writer.BatchAccumulator;
 import com.koscom.kafkacop.kafka.dto.CandleSecondMessage;
+import com.koscom.kafkacop.kafka.dto.MarketDataMessage;
 import com.koscom.kafkacop.kafka.dto.Orderbook5Message;
 import com.koscom.kafkacop.kafka.dto.TickerBasicMessage;
+import com.koscom.kafkacop.kafka.serde.LazyMessage;
 import com.koscom.kafkacop.kafka.sse.SseBroadcaster;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.function.BooleanSupplier;
-import java.util.function.Consumer;
 
 @Slf4j
 @Component
@@ -31,23 +32,16 @@ import java.util.function.Consumer;
 public class CoinWtsListener {
 
 	private final SseBroadcaster sseBroadcaster;
-	private final BatchAccumulator<TickerBasicMessage> tickerBasicAccumulator;
-	private final BatchAccumulator<CandleSecondMessage> candleSecondAccumulator;
-	private final BatchAccumulator<Orderbook5Message> orderbook5Accumulator;
+	private final BatchAccumulator<LazyMessage<TickerBasicMessage>> tickerBasicAccumulator;
+	private final BatchAccumulator<LazyMessage<CandleSecondMessage>> candleSecondAccumulator;
+	private final BatchAccumulator<LazyMessage<Orderbook5Message>> orderbook5Accumulator;
 	private final MeterRegistry meterRegistry;
-	private final KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+	private final PartitionBackpressureController backpressureController;
+	private final FlushWatermarkCommitter flushWatermarkCommitter;
+	private final PipelineLatencyRecorder latencyRecorder;
 
-	// 백프레셔 설정
-	@Value("${app.kafka.backpressure.pause-threshold:0.80}")
-	private double pauseThreshold;
-
-	@Value("${app.kafka.backpressure.resume-threshold:0.50}")
-	private double resumeThreshold;
-
-	// Pause 상태 추적
-	private volatile boolean tickerBasicPaused = false;
-	private volatile boolean candleSecondPaused = false;
-	private volatile boolean orderbook5Paused = false;
+	@Value("${app.kafka.backpressure.nack-sleep-ms:100}")
+	private long nackSleepMs;
 
 	// 메트릭
 	private Counter tickerBasicConsumedCounter;
@@ -70,6 +64,16 @@ public class CoinWtsListener {
 			.tag("topic", "orderbook-5")
 			.description("Number of messages consumed from orderbook-5 topic")
 			.register(meterRegistry);
+
+		// 이벤트 기반 파티션 백프레셔 (accumulator 임계값 통과 시 즉시 pause/resume)
+		backpressureController.register("ticker-basic", "ticker-basic-listener", tickerBasicAccumulator);
+		backpressureController.register("candel-1s", "candle-second-listener", candleSecondAccumulator);
+		backpressureController.register("orderbook-5", "orderbook5-listener", orderbook5Accumulator);
+
+		// 파티션 회수 시 즉시 flush 대상
+		flushWatermarkCommitter.register("ticker-basic", tickerBasicAccumulator);
+		flushWatermarkCommitter.register("candel-1s", candleSecondAccumulator);
+		flushWatermarkCommitter.register("orderbook-5", orderbook5Accumulator);
 	}
 
 	/**
@@ -82,46 +86,9 @@ public class CoinWtsListener {
 		topics = "ticker-basic",
 		containerFactory = "tickerBasicListenerContainerFactory"
 	)
-	public void onTickerBasic(List<ConsumerRecord<String, TickerBasicMessage>> records, Acknowledgment ack) {
-		try {
-			int processedCount = 0;
-			int nullCount = 0;
-
-			for (ConsumerRecord<String, TickerBasicMessage> record : records) {
-				TickerBasicMessage message = record.value();
-
-				// 역직렬화 실패 감지 (null 체크)
-				if (message == null) {
-					nullCount++;
-					log.error("[ticker-basic] Deserialization failed - NULL message received! " +
-						"topic={}, partition={}, offset={}, key={}, timestamp={}, headers={}",
-						record.topic(), record.partition(), record.offset(), record.key(),
-						record.timestamp(), record.headers());
-					// null 메시지는 스킵하고 계속 진행
-					continue;
-				}
-
-				// 1) 즉시 SSE 브로드캐스트 (저지연)
-				sseBroadcaster.broadcast("ticker-basic", message);
-
-				// 2) 배치 저장용 큐에 적재 (비차단)
-				tickerBasicAccumulator.add(message);
-
-				processedCount++;
-			}
-
-			// 3) 배치 전체 처리 완료 후 오프셋 커밋
-			ack.acknowledge();
-
-			// 4) 메트릭 기록 (배치 단위)
-			tickerBasicConsumedCounter.increment(processedCount);
-
-			log.debug("Processed ticker-basic batch: total={}, processed={}, null={}",
-				records.size(), processedCount, nullCount);
-		} catch (Exception e) {
-			log.error("Failed to process ticker-basic batch", e);
-			throw e;
-		}
+	public void onTickerBasic(List<ConsumerRecord<String, LazyMessage<TickerBasicMessage>>> records, Acknowledgment ack,
+		Consumer<?, ?> consumer) {
+		consumeBatch("ticker-basic", records, ack, consumer, tickerBasicAccumulator, tickerBasicConsumedCounter);
 	}
 
 	@KafkaListener(
@@ -129,46 +96,9 @@ public class CoinWtsListener {
 		topics = "candel-1s",
 		containerFactory = "candleSecondListenerContainerFactory"
 	)
-	public void onCandleSecond(List<ConsumerRecord<String, CandleSecondMessage>> records, Acknowledgment ack) {
-		try {
-			int processedCount = 0;
-			int nullCount = 0;
-
-			for (ConsumerRecord<String, CandleSecondMessage> record : records) {
-				CandleSecondMessage message = record.value();
-
-				// 역직렬화 실패 감지 (null 체크)
-				if (message == null) {
-					nullCount++;
-					log.error("[candel-1s] Deserialization failed - NULL message received! " +
-						"topic={}, partition={}, offset={}, key={}, timestamp={}, headers={}",
-						record.topic(), record.partition(), record.offset(), record.key(),
-						record.timestamp(), record.headers());
-					// null 메시지는 스킵하고 계속 진행
-					continue;
-				}
-
-				// 1) 즉시 SSE 브로드캐스트
-				sseBroadcaster.broadcast("candel-1s", message);
-
-				// 2) 배치 저장용 큐에 적재
-				candleSecondAccumulator.add(message);
-
-				processedCount++;
-			}
-
-			// 3) 배치 전체 처리 완료 후 오프셋 커밋
-			ack.acknowledge();
-
-			// 4) 메트릭 기록 (배치 단위)
-			candleSecondConsumedCounter.increment(processedCount);
-
-			log.debug("Processed candel-1s batch: total={}, processed={}, null={}",
-				records.size(), processedCount, nullCount);
-		} catch (Exception e) {
-			log.error("Failed to process candel-1s batch", e);
-			throw e;
-		}
+	public void onCandleSecond(List<ConsumerRecord<String, LazyMessage<CandleSecondMessage>>> records, Acknowledgment ack,
+		Consumer<?, ?> consumer) {
+		consumeBatch("candel-1s", records, ack, consumer, candleSecondAccumulator, candleSecondConsumedCounter);
 	}
 
 	@KafkaListener(
@@ -176,120 +106,114 @@ public class CoinWtsListener {
 		topics = "orderbook-5",
 		containerFactory = "orderbook5ListenerContainerFactory"
 	)
-	public void onOrderbook5(List<ConsumerRecord<String, Orderbook5Message>> records, Acknowledgment ack) {
+	public void onOrderbook5(List<ConsumerRecord<String, LazyMessage<Orderbook5Message>>> records, Acknowledgment ack,
+		Consumer<?, ?> consumer) {
+		consumeBatch("orderbook-5", records, ack, consumer, orderbook5Accumulator, orderbook5ConsumedCounter);
+	}
+
+	/**
+	 * poll 1회분 레코드 처리
+	 * 1) null(역직렬화 실패) 레코드 스킵
+	 * 2) accumulator.addAll()로 한 번에 적재 (용량 예약 1회, 메트릭 갱신 1회)
+	 * 3) 적재된 메시지만 SSE 브로드캐스트
+	 *    (레코드 timestamp 기준 적재 / SSE 전송 지연 기록, 레코드 timestamp 는 accumulator 의 commit 지연 샘플에 전달)
+	 *    raw-passthrough 모드면 원본 JSON 바이트를 그대로 전송하고 DTO 디코딩은 flush 워커로 미룸
+	 *    (exchange 태그는 역직렬화 시 색인한 값)
+	 * 4) 전부 적재 → 오프셋 커밋 / 일부만 적재 → 적재된 구간까지만 커밋하고 나머지는 nack로 재전달
+	 *    (거절된 레코드의 파티션은 과부하가 풀릴 때까지 pause)
+	 * - FLUSH_WATERMARK 모드: 4) 대신 적재 구간을 파티션별로 기록만 하고, DB flush 가 끝난 지점까지만 커밋
+	 *   (거절된 레코드는 커밋 없이 seek 으로 재전달)
+	 */
+	private <T extends MarketDataMessage> void consumeBatch(
+		String topic,
+		List<ConsumerRecord<String, LazyMessage<T>>> records,
+		Acknowledgment ack,
+		Consumer<?, ?> consumer,
+		BatchAccumulator<LazyMessage<T>> accumulator,
+		Counter consumedCounter
+	) {
 		try {
-			int processedCount = 0;
+			List<LazyMessage<T>> messages = new ArrayList<>(records.size());
+			int[] recordIndexes = new int[records.size()];  // messages[i] 의 원본 레코드 인덱스
+			long[] recordTimestamps = new long[records.size()];  // messages[i] 의 레코드 timestamp
 			int nullCount = 0;
 
-			for (ConsumerRecord<String, Orderbook5Message> record : records) {
-				Orderbook5Message message = record.value();
+			for (int i = 0; i < records.size(); i++) {
+				ConsumerRecord<String, LazyMessage<T>> record = records.get(i);
+				LazyMessage<T> message = record.value();
 
 				// 역직렬화 실패 감지 (null 체크)
 				if (message == null) {
 					nullCount++;
-					log.error("[orderbook-5] Deserialization failed - NULL message received! " +
+					log.error("[{}] Deserialization failed - NULL message received! " +
 						"topic={}, partition={}, offset={}, key={}, timestamp={}, headers={}",
-						record.topic(), record.partition(), record.offset(), record.key(),
+						topic, record.topic(), record.partition(), record.offset(), record.key(),
 						record.timestamp(), record.headers());
 					// null 메시지는 스킵하고 계속 진행
 					continue;
 				}
 
-				// 1) 즉시 SSE 브로드캐스트
-				sseBroadcaster.broadcast("orderbook-5", message);
-
-				// 2) 배치 저장용 큐에 적재
-				orderbook5Accumulator.add(message);
+				recordIndexes[messages.size()] = i;
+				recordTimestamps[messages.size()] = record.timestamp();
+				message.setSource(record.partition(), record.offset());  // DLT 원본 위치 헤더
+				messages.add(message);
+			}
 
-				processedCount++;
+			// 1) 배치 저장용 큐에 한 번에 적재 (비차단, 부분 수용 가능)
+			//    적재 중 임계값을 넘으면 accumulator 가 즉시 백프레셔 통지 → 핫 파티션 pause
+			//    FLUSH_WATERMARK 모드면 이전 poll 들 중 flush 가 끝난 지점을 먼저 커밋하고, 이번 적재분의 flush 완료를 추적
+			backpressureController.recordArrivals(topic, records);
+			FlushWatermarkCommitter.PollTicket ticket = null;
+			if (flushWatermarkCommitter.isEnabled()) {
+				flushWatermarkCommitter.commitFlushed(consumer);
+				ticket = flushWatermarkCommitter.newTicket();
+			}
+			BatchAccumulator.EnqueueResult result = accumulator.addAll(messages, ticket, recordTimestamps);
+			long enqueuedAtMillis = System.currentTimeMillis();
+
+			// 2) 적재된 메시지만 SSE 브로드캐스트 (재전달될 메시지가 중복 전송되지 않도록)
+			for (int i = 0; i < result.accepted(); i++) {
+				LazyMessage<T> message = messages.get(i);
+				String exchange = message.exchange();
+				latencyRecorder.recordSince(PipelineLatencyRecorder.Stage.CONSUME, topic, exchange,
+					recordTimestamps[i], enqueuedAtMillis);
+				boolean sent = message.hasPayload()
+					? sseBroadcaster.broadcastJson(topic, message.payload())
+					: sseBroadcaster.broadcast(topic, message.get());
+				if (sent) {
+					latencyRecorder.recordSince(PipelineLatencyRecorder.Stage.SSE, topic, exchange,
+						recordTimestamps[i], System.currentTimeMillis());
+				}
 			}
 
-			// 3) 배치 전체 처리 완료 후 오프셋 커밋
-			ack.acknowledge();
+			// 3) 오프셋 커밋: 전부 적재되었으면 전체 커밋, 아니면 적재되지 않은 첫 레코드부터 재전달
+			if (ticket != null) {
+				int endIndex = result.isFullyAccepted() ? records.size() : recordIndexes[result.accepted()];
+				flushWatermarkCommitter.track(ticket, records, endIndex);
+				if (!result.isFullyAccepted()) {
+					backpressureController.pauseRejected(topic, records.get(endIndex));
+					flushWatermarkCommitter.rewind(consumer, records, endIndex);
+					log.warn("[{}] Accumulator queue full - accepted {}/{} messages, redelivering from record index {}",
+						topic, result.accepted(), result.requested(), endIndex);
+				}
+			} else if (result.isFullyAccepted()) {
+				ack.acknowledge();
+			} else {
+				int nackIndex = recordIndexes[result.accepted()];
+				backpressureController.pauseRejected(topic, records.get(nackIndex));
+				ack.nack(nackIndex, Duration.ofMillis(nackSleepMs));
+				log.warn("[{}] Accumulator queue full - accepted {}/{} messages, redelivering from record index {} after {}ms",
+					topic, result.accepted(), result.requested(), nackIndex, nackSleepMs);
+			}
 
 			// 4) 메트릭 기록 (배치 단위)
-			orderbook5ConsumedCounter.increment(processedCount);
+			consumedCounter.increment(result.accepted());
 
-			log.debug("Processed orderbook-5 batch: total={}, processed={}, null={}",
-				records.size(), processedCount, nullCount);
+			log.debug("Processed {} batch: total={}, processed={}, null={}, rejected={}",
+				topic, records.size(), result.accepted(), nullCount, result.rejected());
 		} catch (Exception e) {
-			log.error("Failed to process orderbook-5 batch", e);
+			log.error("Failed to process {} batch", topic, e);
 			throw e;
 		}
 	}
-
-	/**
-	 * 주기적으로 모든 토픽의 백프레셔 상태를 체크하고 Consumer pause/resume 적용
-	 * 0.1초마다 실행
-	 */
-	@Scheduled(fixedDelay = 100)
-	public void monitorAndControlBackpressure() {
-		checkAndApplyBackpressure(
-			"ticker-basic-listener",
-			tickerBasicAccumulator,
-			() -> tickerBasicPaused,
-			paused -> tickerBasicPaused = paused
-		);
-
-		checkAndApplyBackpressure(
-			"candle-second-listener",
-			candleSecondAccumulator,
-			() -> candleSecondPaused,
-			paused -> candleSecondPaused = paused
-		);
-
-		checkAndApplyBackpressure(
-			"orderbook5-listener",
-			orderbook5Accumulator,
-			() -> orderbook5Paused,
-			paused -> orderbook5Paused = paused
-		);
-	}
-
-	/**
-	 * 백프레셔 체크 및 Consumer pause/resume 적용
-	 *
-	 * @param listenerId Kafka Listener ID
-	 * @param accumulator 해당 토픽의 BatchAccumulator
-	 * @param isPausedGetter 현재 pause 상태 조회 함수
-	 * @param isPausedSetter pause 상태 설정 함수
-	 */
-	private void checkAndApplyBackpressure(
-		String listenerId,
-		BatchAccumulator<?> accumulator,
-		BooleanSupplier isPausedGetter,
-		Consumer<Boolean> isPausedSetter
-	) {
-		try {
-			double queueUsage = accumulator.getQueueUsageRatio();
-			boolean currentlyPaused = isPausedGetter.getAsBoolean();
-
-			MessageListenerContainer container =
-				kafkaListenerEndpointRegistry.getListenerContainer(listenerId);
-
-			if (container == null) {
-				log.warn("[{}] ListenerContainer not found, cannot apply backpressure", listenerId);
-				return;
-			}
-
-			// 임계값 초과 → Pause
-			if (!currentlyPaused && queueUsage >= pauseThreshold) {
-				container.pause();
-				isPausedSetter.accept(true);
-				log.warn(String.format("⏸️  PAUSED consumer [%s] - Queue usage: %.1f%% >= %.1f%% (threshold). " +
-					"Kafka consumption stopped to prevent message loss.",
-					listenerId, queueUsage * 100, pauseThreshold * 100));
-			}
-			// 여유 생김 → Resume
-			else if (currentlyPaused && queueUsage <= resumeThreshold) {
-				container.resume();
-				isPausedSetter.accept(false);
-				log.info(String.format("▶️  RESUMED consumer [%s] - Queue usage: %.1f%% <= %.1f%% (threshold). " +
-					"Kafka consumption restarted.",
-					listenerId, queueUsage * 100, resumeThreshold * 100));
-			}
-		} catch (Exception e) {
-			log.error("[{}] Failed to check and apply backpressure", listenerId, e);
-		}
-	}
 }
@@ -0,0 +1,295 @@
+package com.koscom.kafkacop.kafka.listener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import com.koscom.kafkacop.kafka.writer.BatchAccumulator;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * FLUSH_WATERMARK 커밋 모드: DB flush 가 끝난 지점까지만 오프셋 커밋 → Kafka 가 버퍼 역할
+ * - 리스너가 poll 1회분마다 PollTicket 을 만들어 accumulator 에 넘기고, 파티션별로 (ticket, 다음 오프셋) 을 순서대로 기록
+ * - accumulator 가 적재분이 모두 flush 되면 ticket 완료 표시 (워커 스레드)
+ * - 컨슈머 스레드(다음 poll 처리 / idle 이벤트 / 리밸런스)에서 파티션별로 앞에서부터 완료된 ticket 까지 commitAsync
+ * - 파티션 회수 시 (모든 커밋 모드):
+ *   1) 토픽 accumulator 에 즉시 flush 요청 (N/T 대기 없이 버퍼/큐를 바로 배치로 넘김)
+ *   2) FLUSH_WATERMARK 모드면 회수된 파티션의 미커밋 poll 만 flush 완료를 revoke-drain-timeout-ms 까지 기다림
+ *      (유지되는 파티션은 기다리지 않음) → 완료된 지점까지 commitSync 후 추적 상태 삭제
+ *   3) 시간 안에 끝나지 않은 나머지는 새 소유자에게 재전달 (upsert 멱등)
+ *   → 리밸런스 중 멈춘 시간은 kafka.consumer.rebalance.revoke.duration 으로 기록
+ * - 파티션별 상태는 해당 파티션을 소유한 컨슈머 스레드에서만 접근
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FlushWatermarkCommitter implements ConsumerAwareRebalanceListener {
+
+	private final MeterRegistry meterRegistry;
+
+	@Value("${app.kafka.commit.mode:ENQUEUE}")
+	private OffsetCommitMode commitMode;
+
+	@Value("${app.kafka.commit.revoke-drain-timeout-ms:3000}")
+	private long revokeDrainTimeoutMs;
+
+	private final Map<TopicPartition, PartitionOffsets> partitions = new ConcurrentHashMap<>();
+	private final Map<String, BatchAccumulator<?>> accumulators = new ConcurrentHashMap<>();
+	private final Map<String, Timer> commitLagTimers = new ConcurrentHashMap<>();
+	private final Map<String, Timer> revokeTimers = new ConcurrentHashMap<>();
+	private final Map<String, Counter> revokeTimeoutCounters = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	public void init() {
+		Gauge.builder("kafka.consumer.offsets.uncommitted_polls", this, committer -> committer.pendingPolls())
+			.description("Polled record ranges enqueued but not yet committed (waiting for DB flush)")
+			.register(meterRegistry);
+
+		if (isEnabled()) {
+			log.info("Offset commit mode: FLUSH_WATERMARK (offsets are committed only after DB flush)");
+		}
+	}
+
+	public boolean isEnabled() {
+		return commitMode == OffsetCommitMode.FLUSH_WATERMARK;
+	}
+
+	/** 파티션 회수 시 즉시 flush 를 요청할 토픽 accumulator 등록 */
+	public void register(String topic, BatchAccumulator<?> accumulator) {
+		accumulators.put(topic, accumulator);
+	}
+
+	/** poll 1회분 flush 완료 표시 (accumulator 콜백으로 전달) */
+	public PollTicket newTicket() {
+		return new PollTicket(System.nanoTime());
+	}
+
+	/**
+	 * records[0, endIndex) 를 ticket 에 묶어 파티션별로 기록 (컨슈머 스레드)
+	 * - 파티션별 다음 커밋 오프셋 = 해당 구간 내 마지막 레코드 오프셋 + 1
+	 */
+	public void track(PollTicket ticket, List<? extends ConsumerRecord<?, ?>> records, int endIndex) {
+		Map<TopicPartition, Long> nextOffsets = new HashMap<>();
+		for (int i = 0; i < endIndex; i++) {
+			ConsumerRecord<?, ?> record = records.get(i);
+			nextOffsets.merge(new TopicPartition(record.topic(), record.partition()), record.offset() + 1, Math::max);
+		}
+		nextOffsets.forEach((topicPartition, nextOffset) ->
+			partitions.computeIfAbsent(topicPartition, tp -> new PartitionOffsets())
+				.pending.addLast(new Pending(ticket, nextOffset)));
+	}
+
+	/**
+	 * records[fromIndex, ...) 재전달: 파티션별 첫 오프셋으로 seek (커밋은 하지 않음, 컨슈머 스레드)
+	 * - nack() 은 앞쪽 레코드를 즉시 커밋하므로 이 모드에서는 사용하지 않음
+	 */
+	public void rewind(Consumer<?, ?> consumer, List<? extends ConsumerRecord<?, ?>> records, int fromIndex) {
+		Map<TopicPartition, Long> seekOffsets = new HashMap<>();
+		for (int i = fromIndex; i < records.size(); i++) {
+			ConsumerRecord<?, ?> record = records.get(i);
+			seekOffsets.putIfAbsent(new TopicPartition(record.topic(), record.partition()), record.offset());
+		}
+		seekOffsets.forEach(consumer::seek);
+	}
+
+	/** 이 컨슈머에 할당된 파티션의 flush 완료 지점 커밋 (컨슈머 스레드) */
+	public void commitFlushed(Consumer<?, ?> consumer) {
+		Map<TopicPartition, OffsetAndMetadata> offsets = collectFlushed(consumer.assignment());
+		if (offsets.isEmpty()) {
+			return;
+		}
+		consumer.commitAsync(offsets, (committed, exception) -> {
+			if (exception != null) {
+				log.warn("Flush watermark commit failed (will retry on next commit): {}", committed, exception);
+			}
+		});
+	}
+
+	/** 데이터가 없어 리스너가 호출되지 않는 동안에도 커밋 (idle 이벤트는 컨슈머 스레드에서 발행) */
+	@EventListener
+	public void onIdle(ListenerContainerIdleEvent event) {
+		Consumer<?, ?> consumer = event.getConsumer();
+		if (isEnabled() && consumer != null) {
+			commitFlushed(consumer);
+		}
+	}
+
+	@Override
+	public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> revoked) {
+		if (revoked.isEmpty()) {
+			return;
+		}
+		long startNanos = System.nanoTime();
+		Set<String> topics = new HashSet<>();
+		for (TopicPartition topicPartition : revoked) {
+			topics.add(topicPartition.topic());
+		}
+
+		// 1) 회수된 파티션의 메시지가 N/T 대기 없이 바로 flush 되도록 요청 (큐에는 파티션 정보가 없어 토픽 단위)
+		for (String topic : topics) {
+			BatchAccumulator<?> accumulator = accumulators.get(topic);
+			if (accumulator != null) {
+				accumulator.requestFlush();
+			}
+		}
+
+		// 2) 회수된 파티션의 미커밋 poll 만 flush 완료 대기 (상한 있음) → 완료 지점까지 커밋
+		if (isEnabled()) {
+			boolean drained = awaitFlushed(revoked, startNanos + TimeUnit.MILLISECONDS.toNanos(revokeDrainTimeoutMs));
+			Map<TopicPartition, OffsetAndMetadata> offsets = collectFlushed(revoked);
+			if (!offsets.isEmpty()) {
+				try {
+					consumer.commitSync(offsets);
+				} catch (Exception e) {
+					log.warn("Flush watermark commit on revocation failed: {}", offsets, e);
+				}
+			}
+			if (!drained) {
+				topics.forEach(topic -> revokeTimeoutCounter(topic).increment());
+				log.warn("Revoked partitions {} not fully flushed within {}ms; the rest will be redelivered to the new owner",
+					revoked, revokeDrainTimeoutMs);
+			}
+			forget(revoked);
+		}
+
+		long elapsedNanos = System.nanoTime() - startNanos;
+		topics.forEach(topic -> revokeTimer(topic).record(elapsedNanos, TimeUnit.NANOSECONDS));
+		log.info("Partitions revoked {}: drained in {}ms", revoked, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+	}
+
+	@Override
+	public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> lost) {
+		forget(lost);
+	}
+
+	/** 회수된 파티션의 미커밋 poll 이 모두 flush 될 때까지 대기 (deadline 까지) */
+	private boolean awaitFlushed(Collection<TopicPartition> topicPartitions, long deadlineNanos) {
+		for (TopicPartition topicPartition : topicPartitions) {
+			PartitionOffsets state = partitions.get(topicPartition);
+			if (state == null) {
+				continue;
+			}
+			for (Pending pending : state.pending) {
+				while (!pending.ticket().flushed) {
+					if (System.nanoTime() >= deadlineNanos) {
+						return false;
+					}
+					LockSupport.parkNanos(1_000_000L);  // 1ms
+					if (Thread.currentThread().isInterrupted()) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	private void forget(Collection<TopicPartition> topicPartitions) {
+		for (TopicPartition topicPartition : topicPartitions) {
+			PartitionOffsets state = partitions.remove(topicPartition);
+			if (state != null && !state.pending.isEmpty()) {
+				log.info("Dropping {} uncommitted poll ranges of {} (will be redelivered to the new owner)",
+					state.pending.size(), topicPartition);
+			}
+		}
+	}
+
+	/** 파티션별로 앞에서부터 완료된 ticket 을 꺼내 커밋할 오프셋 계산 */
+	private Map<TopicPartition, OffsetAndMetadata> collectFlushed(Collection<TopicPartition> topicPartitions) {
+		Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+		long now = System.nanoTime();
+		for (TopicPartition topicPartition : topicPartitions) {
+			PartitionOffsets state = partitions.get(topicPartition);
+			if (state == null) {
+				continue;
+			}
+			long commitOffset = -1;
+			Pending head;
+			while ((head = state.pending.peekFirst()) != null && head.ticket().flushed) {
+				state.pending.pollFirst();
+				commitOffset = head.nextOffset();
+				commitLagTimer(topicPartition.topic()).record(now - head.ticket().polledAtNanos, TimeUnit.NANOSECONDS);
+			}
+			if (commitOffset >= 0) {
+				offsets.put(topicPartition, new OffsetAndMetadata(commitOffset));
+			}
+		}
+		return offsets;
+	}
+
+	private Timer commitLagTimer(String topic) {
+		return commitLagTimers.computeIfAbsent(topic, key -> Timer.builder("kafka.consumer.offset.commit.lag")
+			.tag("topic", key)
+			.description("Time from poll until the polled offsets were committed after DB flush")
+			.register(meterRegistry));
+	}
+
+	private Timer revokeTimer(String topic) {
+		return revokeTimers.computeIfAbsent(topic, key -> Timer.builder("kafka.consumer.rebalance.revoke.duration")
+			.tag("topic", key)
+			.description("Time the consumer spent in partition revocation flushing and committing revoked partitions")
+			.register(meterRegistry));
+	}
+
+	private Counter revokeTimeoutCounter(String topic) {
+		return revokeTimeoutCounters.computeIfAbsent(topic, key -> Counter.builder("kafka.consumer.rebalance.revoke.timeouts")
+			.tag("topic", key)
+			.description("Revocations that hit the drain timeout before all revoked partitions were flushed")
+			.register(meterRegistry));
+	}
+
+	private int pendingPolls() {
+		int pending = 0;
+		for (PartitionOffsets state : partitions.values()) {
+			pending += state.pending.size();
+		}
+		return pending;
+	}
+
+	/** poll 1회분: accumulator 적재분이 모두 flush 되면 완료 */
+	public static final class PollTicket implements Runnable {
+		private final long polledAtNanos;
+		private volatile boolean flushed = false;
+
+		private PollTicket(long polledAtNanos) {
+			this.polledAtNanos = polledAtNanos;
+		}
+
+		@Override
+		public void run() {
+			flushed = true;
+		}
+	}
+
+	/** 파티션별 커밋 대기 구간 (소유 컨슈머 스레드만 접근, 게이지는 근사값) */
+	private static final class PartitionOffsets {
+		private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+	}
+
+	private record Pending(PollTicket ticket, long nextOffset) {
+	}
+}
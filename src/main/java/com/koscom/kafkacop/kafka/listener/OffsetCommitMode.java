@@ -0,0 +1,11 @@
+package com.koscom.kafkacop.kafka.listener;
+
+/**
+ * 오프셋 커밋 시점
+ * - ENQUEUE: accumulator 에 적재되면 즉시 커밋 (적재 후 flush 전 장애 시 메모리 큐의 메시지 유실 가능 → 큰 큐/DLT/스필로 보완)
+ * - FLUSH_WATERMARK: 파티션별로 DB flush 가 연속으로 끝난 지점까지만 커밋 (미처리분은 Kafka 에 남아 재전달)
+ */
+public enum OffsetCommitMode {
+	ENQUEUE,
+	FLUSH_WATERMARK
+}
@@ -0,0 +1,281 @@
+package com.koscom.kafkacop.kafka.listener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.koscom.kafkacop.kafka.writer.BatchAccumulator;
+import com.koscom.kafkacop.kafka.writer.FlushCircuitBreaker;
+import com.koscom.kafkacop.kafka.writer.HeapPressureMonitor;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 파티션 단위 이벤트 기반 백프레셔
+ * - accumulator 가 적재 경로에서 임계값을 넘는 순간 통지 → 해당 토픽에서 최근 유입이 많은(평균 이상) 파티션만 pause
+ * - 적재가 거절된 레코드의 파티션은 과부하 동안 추가로 pause (nack 재전달 대상)
+ * - 코디네이터 drain 후 해제 임계값 이하로 내려가는 순간 통지 → pause 한 파티션 모두 resume
+ * - pause/resume 은 컨테이너의 pausePartition()/resumePartition() 사용
+ *   (컨슈머 스레드가 다음 poll 전에 consumer.pause(partitions) 적용 - KafkaConsumer 는 다른 스레드에서 직접 호출 불가)
+ * - 힙 압박(HeapPressureMonitor) / DB flush 차단(FlushCircuitBreaker)은 파티션과 무관하므로 컨테이너 전체 pause/resume
+ *   (둘 중 하나라도 해당하면 pause, 모두 해제되면 resume)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PartitionBackpressureController {
+
+	private final KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+	private final HeapPressureMonitor heapPressureMonitor;
+	private final FlushCircuitBreaker flushCircuitBreaker;
+	private final MeterRegistry meterRegistry;
+
+	// 백프레셔 설정
+	@Value("${app.kafka.backpressure.pause-threshold:0.80}")
+	private double pauseThreshold;
+
+	@Value("${app.kafka.backpressure.resume-threshold:0.50}")
+	private double resumeThreshold;
+
+	private final Map<String, TopicState> topics = new ConcurrentHashMap<>();
+	private boolean heapPaused = false;     // guarded by this
+	private boolean circuitPaused = false;  // guarded by this
+
+	@PostConstruct
+	public void init() {
+		heapPressureMonitor.addListener(this::onHeapPressure);
+		flushCircuitBreaker.addListener(this::onFlushCircuit);
+	}
+
+	/** 토픽의 accumulator 에 백프레셔 통지 등록 */
+	public void register(String topic, String listenerId, BatchAccumulator<?> accumulator) {
+		TopicState state = new TopicState(topic, listenerId);
+		topics.put(topic, state);
+		accumulator.setPressureListener(state::onPressureChanged, pauseThreshold, resumeThreshold);
+	}
+
+	/** 적재 직전 호출 (컨슈머 스레드): 파티션별 유입 건수 기록 → pause 대상(핫 파티션) 선정에 사용 */
+	public void recordArrivals(String topic, List<? extends ConsumerRecord<?, ?>> records) {
+		TopicState state = topics.get(topic);
+		if (state == null || records.isEmpty()) {
+			return;
+		}
+		// 같은 파티션 레코드가 연속으로 오므로 파티션이 바뀔 때만 맵 조회
+		int runPartition = records.get(0).partition();
+		int runLength = 0;
+		for (ConsumerRecord<?, ?> record : records) {
+			if (record.partition() != runPartition) {
+				state.partition(runPartition).arrivals.add(runLength);
+				runPartition = record.partition();
+				runLength = 0;
+			}
+			runLength++;
+		}
+		state.partition(runPartition).arrivals.add(runLength);
+	}
+
+	/** 적재가 거절된 레코드의 파티션 pause (컨슈머 스레드) */
+	public void pauseRejected(String topic, ConsumerRecord<?, ?> rejected) {
+		TopicState state = topics.get(topic);
+		if (state != null) {
+			state.pauseRejected(rejected.partition());
+		}
+	}
+
+	private synchronized void onHeapPressure(boolean pressure) {
+		heapPaused = pressure;
+		applyContainerPause(pressure
+			? "Heap pressure (old gen occupancy after GC above threshold). Kafka consumption stopped until GC reclaims memory."
+			: "Heap pressure cleared.");
+	}
+
+	private synchronized void onFlushCircuit(boolean open) {
+		// 통지 순서가 뒤바뀌어도 현재 상태 기준으로 적용
+		circuitPaused = !flushCircuitBreaker.isClosed();
+		applyContainerPause(circuitPaused
+			? "DB flush circuit open. Kafka consumption stopped until a probe flush succeeds."
+			: "DB flush circuit closed.");
+	}
+
+	/** 힙 압박 또는 flush 차단 중이면 컨테이너 전체 pause, 모두 해제되면 resume (guarded by this) */
+	private void applyContainerPause(String reason) {
+		boolean pause = heapPaused || circuitPaused;
+		for (TopicState state : topics.values()) {
+			MessageListenerContainer container = state.container();
+			if (container == null) {
+				continue;
+			}
+			if (pause) {
+				if (!container.isPauseRequested()) {
+					container.pause();
+					log.warn("⏸️  PAUSED consumer [{}] - {}", state.listenerId, reason);
+				}
+			} else if (container.isPauseRequested()) {
+				container.resume();
+				log.info("▶️  RESUMED consumer [{}] - {}", state.listenerId, reason);
+			}
+		}
+	}
+
+	/** 토픽별 과부하 상태 + 파티션 상태 (pause/resume 은 synchronized 로 직렬화) */
+	private final class TopicState {
+		private final String topic;
+		private final String listenerId;
+		private final Map<Integer, PartitionState> partitions = new ConcurrentHashMap<>();
+		private boolean overloaded = false;  // guarded by this
+
+		private TopicState(String topic, String listenerId) {
+			this.topic = topic;
+			this.listenerId = listenerId;
+		}
+
+		private PartitionState partition(int partition) {
+			return partitions.computeIfAbsent(partition, p -> new PartitionState(new TopicPartition(topic, p)));
+		}
+
+		private MessageListenerContainer container() {
+			MessageListenerContainer container = kafkaListenerEndpointRegistry.getListenerContainer(listenerId);
+			if (container == null) {
+				log.warn("[{}] ListenerContainer not found, cannot apply backpressure", listenerId);
+			}
+			return container;
+		}
+
+		private synchronized void onPressureChanged(boolean isOverloaded, double pressureRatio) {
+			MessageListenerContainer container = container();
+			if (container == null) {
+				return;
+			}
+			overloaded = isOverloaded;
+			if (isOverloaded) {
+				List<PartitionState> hot = selectHotPartitions(container);
+				for (PartitionState state : hot) {
+					pause(container, state);
+				}
+				log.warn(String.format("⏸️  PAUSED partitions %s [%s] - usage: %.1f%% >= %.1f%% (threshold).",
+					hot.stream().map(state -> state.topicPartition.partition()).toList(), listenerId,
+					pressureRatio * 100, pauseThreshold * 100));
+			} else {
+				List<Integer> resumed = new ArrayList<>();
+				for (PartitionState state : partitions.values()) {
+					if (state.paused) {
+						resume(container, state);
+						resumed.add(state.topicPartition.partition());
+					}
+				}
+				log.info(String.format("▶️  RESUMED partitions %s [%s] - usage: %.1f%% <= %.1f%% (threshold).",
+					resumed, listenerId, pressureRatio * 100, resumeThreshold * 100));
+			}
+			partitions.values().forEach(state -> state.arrivals.reset());  // 다음 과부하 구간의 유입량을 새로 집계
+		}
+
+		private synchronized void pauseRejected(int partition) {
+			if (!overloaded) {
+				return;  // 이미 해제됨 → nack 재전달만으로 충분
+			}
+			MessageListenerContainer container = container();
+			PartitionState state = partition(partition);
+			if (container != null && !state.paused) {
+				pause(container, state);
+				log.warn("⏸️  PAUSED partition {} [{}] - records rejected by accumulator", partition, listenerId);
+			}
+		}
+
+		/** 최근 유입량이 평균 이상인 파티션 (유입 기록이 없으면 할당된 전체 파티션) */
+		private List<PartitionState> selectHotPartitions(MessageListenerContainer container) {
+			List<PartitionState> active = new ArrayList<>();
+			long total = 0;
+			for (PartitionState state : partitions.values()) {
+				long arrivals = state.arrivals.sum();
+				if (arrivals > 0 && !state.paused) {
+					active.add(state);
+					total += arrivals;
+				}
+			}
+			List<PartitionState> hot = new ArrayList<>();
+			if (active.isEmpty()) {
+				Collection<TopicPartition> assigned = container.getAssignedPartitions();
+				if (assigned != null) {
+					for (TopicPartition topicPartition : assigned) {
+						hot.add(partition(topicPartition.partition()));
+					}
+				}
+				return hot;
+			}
+			double mean = (double) total / active.size();
+			for (PartitionState state : active) {
+				if (state.arrivals.sum() >= mean) {
+					hot.add(state);
+				}
+			}
+			return hot;
+		}
+
+		private void pause(MessageListenerContainer container, PartitionState state) {
+			if (state.paused) {
+				return;
+			}
+			container.pausePartition(state.topicPartition);
+			state.paused = true;
+			state.pausedAtNanos = System.nanoTime();
+			state.pauseCounter.increment();
+		}
+
+		private void resume(MessageListenerContainer container, PartitionState state) {
+			container.resumePartition(state.topicPartition);
+			state.paused = false;
+			state.pauseTimer.record(System.nanoTime() - state.pausedAtNanos, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/** 파티션별 유입량 + pause 상태 + 메트릭 */
+	private final class PartitionState {
+		private final TopicPartition topicPartition;
+		private final LongAdder arrivals = new LongAdder();
+		private final Counter pauseCounter;
+		private final Timer pauseTimer;
+		private volatile boolean paused = false;
+		private volatile long pausedAtNanos = 0;
+
+		private PartitionState(TopicPartition topicPartition) {
+			this.topicPartition = topicPartition;
+			String topic = topicPartition.topic();
+			String partition = String.valueOf(topicPartition.partition());
+
+			Gauge.builder("kafka.consumer.partition.paused", this, state -> state.paused ? 1.0 : 0.0)
+				.tag("topic", topic)
+				.tag("partition", partition)
+				.description("1 while the partition is paused by accumulator backpressure")
+				.register(meterRegistry);
+
+			this.pauseCounter = Counter.builder("kafka.consumer.partition.pauses")
+				.tag("topic", topic)
+				.tag("partition", partition)
+				.description("Number of times the partition was paused by accumulator backpressure")
+				.register(meterRegistry);
+
+			this.pauseTimer = Timer.builder("kafka.consumer.partition.pause.duration")
+				.tag("topic", topic)
+				.tag("partition", partition)
+				.description("How long the partition stayed paused by accumulator backpressure")
+				.register(meterRegistry);
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package com.koscom.kafkacop.kafka.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 메시지 경로 구간별 지연 (kafka.pipeline.latency{stage, topic, exchange})
+ * - consume: Kafka 레코드 timestamp → accumulator 적재 (레코드마다)
+ * - queue: accumulator 적재 → 코디네이터가 큐에서 꺼냄 (샤드별 샘플)
+ * - flush: 배치 DB flush 소요 시간 (배치마다, 배치 첫 메시지의 거래소)
+ * - commit: Kafka 레코드 timestamp → DB 커밋 (queue 샘플을 flush 까지 추적)
+ * - source: 메시지 자체 timestamp(거래소 이벤트 시각) → DB 커밋 (commit 과 같은 샘플)
+ * - sse: Kafka 레코드 timestamp → SSE 전송 (구독자가 있을 때 레코드마다)
+ * - 히스토그램 버킷은 management.metrics.distribution.slo.kafka.pipeline.latency 로 설정 (application.yml)
+ * - timestamp 기준 구간은 wall clock 차이 (프로듀서/거래소와 시계가 어긋나 음수면 0 으로 기록)
+ */
+@Component
+public class PipelineLatencyRecorder {
+
+	public enum Stage {
+		CONSUME, QUEUE, FLUSH, COMMIT, SOURCE, SSE;
+
+		private final String tag = name().toLowerCase();
+	}
+
+	private static final int MAX_EXCHANGES = 20;  // exchange 태그 카디널리티 상한 (초과분은 "other")
+
+	private final MeterRegistry meterRegistry;
+	private final Map<Key, Timer> timers = new ConcurrentHashMap<>();
+	private final Set<String> exchanges = ConcurrentHashMap.newKeySet();
+
+	public PipelineLatencyRecorder(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	public void record(Stage stage, String topic, String exchange, long nanos) {
+		timer(stage, topic, exchange).record(Math.max(0, nanos), TimeUnit.NANOSECONDS);
+	}
+
+	/** fromEpochMillis → nowEpochMillis 구간 기록 (fromEpochMillis 가 0 이하면 timestamp 없음 → 기록 안 함) */
+	public void recordSince(Stage stage, String topic, String exchange, long fromEpochMillis, long nowEpochMillis) {
+		if (fromEpochMillis <= 0) {
+			return;
+		}
+		timer(stage, topic, exchange).record(Math.max(0, nowEpochMillis - fromEpochMillis), TimeUnit.MILLISECONDS);
+	}
+
+	private Timer timer(Stage stage, String topic, String exchange) {
+		Key key = new Key(stage, topic, exchangeTag(exchange));
+		Timer timer = timers.get(key);
+		if (timer != null) {
+			return timer;
+		}
+		return timers.computeIfAbsent(key, k -> Timer.builder("kafka.pipeline.latency")
+			.tag("stage", k.stage().tag)
+			.tag("topic", k.topic())
+			.tag("exchange", k.exchange())
+			.description("Latency of a market data message through each stage of the Kafka to DB/SSE pipeline")
+			.register(meterRegistry));
+	}
+
+	private String exchangeTag(String exchange) {
+		if (exchange == null || exchange.isEmpty()) {
+			return "unknown";
+		}
+		if (exchanges.contains(exchange)) {
+			return exchange;
+		}
+		if (exchanges.size() >= MAX_EXCHANGES) {
+			return "other";
+		}
+		exchanges.add(exchange);
+		return exchange;
+	}
+
+	private record Key(Stage stage, String topic, String exchange) {
+	}
+}
@@ -0,0 +1,51 @@
+package com.koscom.kafkacop.kafka.serde;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.koscom.kafkacop.kafka.dto.CandleSecondMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.util.List;
+
+public class CandleSecondJsonDeserializer extends StreamingJsonDeserializer<CandleSecondMessage> {
+
+	public CandleSecondJsonDeserializer(String topic, MeterRegistry meterRegistry) {
+		super(topic, meterRegistry);
+	}
+
+	@Override
+	protected CandleSecondMessage read(JsonParser parser) throws IOException {
+		List<String> mktCode = null;
+		String exchange = null;
+		String candleDateTimeUtc = null;
+		String candleDateTimeKst = null;
+		long openingPrice = 0;
+		long highPrice = 0;
+		long lowPrice = 0;
+		long tradePrice = 0;
+		double candleAccTradeVolume = 0;
+		double candleAccTradePrice = 0;
+		long timestamp = 0;
+
+		String field;
+		while ((field = parser.nextFieldName()) != null) {
+			parser.nextToken();
+			switch (field) {
+				case "mkt_code" -> mktCode = readStringList(parser);
+				case "exchange" -> exchange = readString(parser);
+				case "candle_date_time_utc" -> candleDateTimeUtc = readString(parser);
+				case "candle_date_time_kst" -> candleDateTimeKst = readString(parser);
+				case "opening_price" -> openingPrice = readLong(parser);
+				case "high_price" -> highPrice = readLong(parser);
+				case "low_price" -> lowPrice = readLong(parser);
+				case "trade_price" -> tradePrice = readLong(parser);
+				case "candle_acc_trade_volume" -> candleAccTradeVolume = readDouble(parser);
+				case "candle_acc_trade_price" -> candleAccTradePrice = readDouble(parser);
+				case "timestamp" -> timestamp = readLong(parser);
+				default -> parser.skipChildren();
+			}
+		}
+		return new CandleSecondMessage(mktCode, exchange, candleDateTimeUtc, candleDateTimeKst, openingPrice, highPrice,
+			lowPrice, tradePrice, candleAccTradeVolume, candleAccTradePrice, timestamp);
+	}
+}
@@ -0,0 +1,40 @@
+package com.koscom.kafkacop.kafka.serde;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
+/**
+ * content-type 헤더로 포맷별 역직렬화기를 골라 위임 (streaming-deserializer=false 의 databind 경로용)
+ * - 헤더 없는 deserialize(topic, data) 는 JSON 역직렬화기
+ * - 스트리밍 역직렬화기는 자체적으로 헤더를 보므로 감싸지 않음
+ */
+public class ContentTypeDeserializer<T> implements Deserializer<T> {
+
+	private final Map<PayloadFormat, Deserializer<T>> delegates;
+
+	public ContentTypeDeserializer(Map<PayloadFormat, Deserializer<T>> delegates) {
+		if (!delegates.keySet().containsAll(EnumSet.allOf(PayloadFormat.class))) {
+			throw new IllegalArgumentException("Deserializer required for every payload format: " + delegates.keySet());
+		}
+		this.delegates = new EnumMap<>(delegates);
+	}
+
+	@Override
+	public T deserialize(String topic, byte[] data) {
+		return delegates.get(PayloadFormat.JSON).deserialize(topic, data);
+	}
+
+	@Override
+	public T deserialize(String topic, Headers headers, byte[] data) {
+		return delegates.get(PayloadFormat.of(headers)).deserialize(topic, headers, data);
+	}
+
+	@Override
+	public void close() {
+		delegates.values().forEach(Deserializer::close);
+	}
+}
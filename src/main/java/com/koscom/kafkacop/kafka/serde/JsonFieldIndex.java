@@ -0,0 +1,380 @@
+package com.koscom.kafkacop.kafka.serde;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JSON 객체 최상위 필드 오프셋 색인 (원본 바이트 1회 순회)
+ * - 값은 변환하지 않고 필드마다 이름 / 값의 [시작, 끝) 오프셋만 기록 → 필요한 필드만 꺼내서 변환
+ * - 같은 순회에서 문서 전체의 JSON 문법을 검증 (중첩 객체 / 배열(호가 목록 등)은 색인하지 않고 문법만 확인하며 건너뜀)
+ *   → scan 이 true 인 바이트는 그대로 SSE 로 보내도 되는 올바른 JSON (값의 타입은 검증하지 않음 - DTO 디코딩 시 확인)
+ * - 이스케이프 문자열이나 일반 정수가 아닌 값은 해당 구간만 JsonParser 로 읽음
+ * - 인스턴스는 재사용 (scan 마다 초기화, 스레드 간 공유 금지)
+ */
+public final class JsonFieldIndex {
+
+	private static final int MAX_DEPTH = 64;  // 중첩 깊이 상한 (초과 시 잘못된 페이로드로 처리)
+	private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+	private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+	private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+	private byte[] json;
+	private int[] offsets = new int[16 * 4];  // 필드마다 nameStart, nameEnd, valueStart, valueEnd
+	private int count;
+
+	/**
+	 * @return 전체가 올바른 JSON 객체인지 여부 (중첩 값 / 뒤따르는 바이트 포함, false 면 접근자를 호출하지 말 것)
+	 */
+	public boolean scan(byte[] json) {
+		this.json = json;
+		this.count = 0;
+		try {
+			int i = skipWhitespace(0);
+			if (json[i] != '{') {
+				return false;
+			}
+			i = skipWhitespace(i + 1);
+			if (json[i] == '}') {
+				return skipWhitespace(i + 1) == json.length;
+			}
+			while (true) {
+				if (json[i] != '"') {
+					return false;
+				}
+				int nameStart = i + 1;
+				i = skipString(i);
+				if (i < 0) {
+					return false;
+				}
+				int nameEnd = i - 1;
+				i = skipWhitespace(i);
+				if (json[i] != ':') {
+					return false;
+				}
+				int valueStart = skipWhitespace(i + 1);
+				i = skipValue(valueStart, 0);
+				if (i < 0) {
+					return false;
+				}
+				add(nameStart, nameEnd, valueStart, i);
+				i = skipWhitespace(i);
+				if (json[i] == '}') {
+					return skipWhitespace(i + 1) == json.length;
+				}
+				if (json[i] != ',') {
+					return false;
+				}
+				i = skipWhitespace(i + 1);
+			}
+		} catch (ArrayIndexOutOfBoundsException e) {
+			return false;  // 닫히지 않은 객체 / 배열 / 문자열
+		}
+	}
+
+	/** 문자열 필드 (없거나 null 이면 null) */
+	public String string(String name) throws IOException {
+		int field = find(name);
+		if (field < 0 || isNull(field)) {
+			return null;
+		}
+		int start = offsets[field * 4 + 2];
+		int end = offsets[field * 4 + 3];
+		if (json[start] == '"' && indexOf((byte) '\\', start + 1, end - 1) < 0) {
+			return new String(json, start + 1, end - start - 2, StandardCharsets.UTF_8);
+		}
+		try (JsonParser parser = parserAt(field)) {
+			return StreamingJsonDeserializer.readString(parser);
+		}
+	}
+
+	/** 정수 필드 (없거나 null 이면 0, 실수 / 문자열 숫자는 스트리밍 역직렬화기와 같은 규칙, 그 외 값은 JsonParseException) */
+	public long longValue(String name) throws IOException {
+		int field = find(name);
+		if (field < 0 || isNull(field)) {
+			return 0;
+		}
+		int start = offsets[field * 4 + 2];
+		int end = offsets[field * 4 + 3];
+		boolean negative = json[start] == '-';
+		int i = negative ? start + 1 : start;
+		if (end - i > 0 && end - i <= 18) {
+			long value = 0;
+			while (i < end && json[i] >= '0' && json[i] <= '9') {
+				value = value * 10 + (json[i++] - '0');
+			}
+			if (i == end) {
+				return negative ? -value : value;
+			}
+		}
+		try (JsonParser parser = parserAt(field)) {
+			return StreamingJsonDeserializer.readLong(parser);
+		}
+	}
+
+	/** 문자열 배열 필드 (없거나 null 이면 null) */
+	public List<String> stringList(String name) throws IOException {
+		int field = find(name);
+		if (field < 0 || isNull(field)) {
+			return null;
+		}
+		int start = offsets[field * 4 + 2];
+		int end = offsets[field * 4 + 3];
+		if (json[start] == '[' && indexOf((byte) '\\', start, end) < 0) {
+			List<String> values = plainStringList(start + 1, end - 1);
+			if (values != null) {
+				return values;
+			}
+		}
+		try (JsonParser parser = parserAt(field)) {
+			return StreamingJsonDeserializer.readStringList(parser);
+		}
+	}
+
+	/** 이스케이프 없는 문자열만 있는 배열 내부 [from, to) → 목록 (다른 값이 섞여 있으면 null) */
+	private List<String> plainStringList(int from, int to) {
+		List<String> values = new ArrayList<>(2);
+		int i = skipWhitespace(from);
+		while (i < to) {
+			if (json[i] != '"') {
+				return null;
+			}
+			int end = skipString(i);
+			values.add(new String(json, i + 1, end - i - 2, StandardCharsets.UTF_8));
+			i = skipWhitespace(end);
+			if (i < to) {
+				if (json[i] != ',') {
+					return null;
+				}
+				i = skipWhitespace(i + 1);
+			}
+		}
+		return switch (values.size()) {
+			case 0 -> List.of();
+			case 1 -> List.of(values.get(0));
+			case 2 -> List.of(values.get(0), values.get(1));
+			default -> values;
+		};
+	}
+
+	/** 필드 값 위치에서 시작하는 파서 (첫 토큰까지 진행) */
+	private JsonParser parserAt(int field) throws IOException {
+		int start = offsets[field * 4 + 2];
+		int end = offsets[field * 4 + 3];
+		JsonParser parser = PayloadFormat.JSON.factory().createParser(json, start, end - start);
+		parser.nextToken();
+		return parser;
+	}
+
+	private int find(String name) {
+		int length = name.length();
+		for (int field = 0; field < count; field++) {
+			int start = offsets[field * 4];
+			if (offsets[field * 4 + 1] - start != length) {
+				continue;
+			}
+			int i = 0;
+			while (i < length && json[start + i] == name.charAt(i)) {
+				i++;
+			}
+			if (i == length) {
+				return field;
+			}
+		}
+		return -1;
+	}
+
+	private boolean isNull(int field) {
+		int start = offsets[field * 4 + 2];
+		return offsets[field * 4 + 3] - start == 4 && json[start] == 'n';
+	}
+
+	private void add(int nameStart, int nameEnd, int valueStart, int valueEnd) {
+		if ((count + 1) * 4 > offsets.length) {
+			offsets = Arrays.copyOf(offsets, offsets.length * 2);
+		}
+		int base = count * 4;
+		offsets[base] = nameStart;
+		offsets[base + 1] = nameEnd;
+		offsets[base + 2] = valueStart;
+		offsets[base + 3] = valueEnd;
+		count++;
+	}
+
+	/** 여는 따옴표 위치 → 닫는 따옴표 다음 위치 (제어 문자 / 잘못된 이스케이프면 -1) */
+	private int skipString(int i) {
+		i++;
+		while (true) {
+			byte b = json[i];
+			if (b == '"') {
+				return i + 1;
+			}
+			if (b == '\\') {
+				byte escaped = json[i + 1];
+				if (escaped == 'u') {
+					for (int k = i + 2; k < i + 6; k++) {
+						if (!isHexDigit(json[k])) {
+							return -1;
+						}
+					}
+					i += 6;
+				} else if (escaped == '"' || escaped == '\\' || escaped == '/' || escaped == 'b' || escaped == 'f'
+					|| escaped == 'n' || escaped == 'r' || escaped == 't') {
+					i += 2;
+				} else {
+					return -1;
+				}
+			} else if (b >= 0 && b < 0x20) {
+				return -1;  // 이스케이프되지 않은 제어 문자 (UTF-8 다중 바이트는 음수라 통과)
+			} else {
+				i++;
+			}
+		}
+	}
+
+	/** 값 시작 위치 → 값 끝 다음 위치 (문법 오류면 -1) */
+	private int skipValue(int i, int depth) {
+		return switch (json[i]) {
+			case '"' -> skipString(i);
+			case '{' -> depth < MAX_DEPTH ? skipObject(i, depth + 1) : -1;
+			case '[' -> depth < MAX_DEPTH ? skipArray(i, depth + 1) : -1;
+			case 't' -> skipLiteral(i, TRUE);
+			case 'f' -> skipLiteral(i, FALSE);
+			case 'n' -> skipLiteral(i, NULL);
+			default -> skipNumber(i);
+		};
+	}
+
+	/** 중첩 객체: 색인하지 않고 문법만 검증 */
+	private int skipObject(int i, int depth) {
+		i = skipWhitespace(i + 1);
+		if (json[i] == '}') {
+			return i + 1;
+		}
+		while (true) {
+			if (json[i] != '"') {
+				return -1;
+			}
+			i = skipString(i);
+			if (i < 0) {
+				return -1;
+			}
+			i = skipWhitespace(i);
+			if (json[i] != ':') {
+				return -1;
+			}
+			i = skipValue(skipWhitespace(i + 1), depth);
+			if (i < 0) {
+				return -1;
+			}
+			i = skipWhitespace(i);
+			if (json[i] == '}') {
+				return i + 1;
+			}
+			if (json[i] != ',') {
+				return -1;
+			}
+			i = skipWhitespace(i + 1);
+		}
+	}
+
+	private int skipArray(int i, int depth) {
+		i = skipWhitespace(i + 1);
+		if (json[i] == ']') {
+			return i + 1;
+		}
+		while (true) {
+			i = skipValue(i, depth);
+			if (i < 0) {
+				return -1;
+			}
+			i = skipWhitespace(i);
+			if (json[i] == ']') {
+				return i + 1;
+			}
+			if (json[i] != ',') {
+				return -1;
+			}
+			i = skipWhitespace(i + 1);
+		}
+	}
+
+	private int skipLiteral(int i, byte[] literal) {
+		for (byte b : literal) {
+			if (json[i++] != b) {
+				return -1;
+			}
+		}
+		return i;
+	}
+
+	/** -?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)? */
+	private int skipNumber(int i) {
+		if (json[i] == '-') {
+			i++;
+		}
+		if (json[i] == '0') {
+			i++;
+		} else if (isDigit(json[i])) {
+			i = skipDigits(i);
+		} else {
+			return -1;
+		}
+		if (i < json.length && json[i] == '.') {
+			if (!isDigit(json[++i])) {
+				return -1;
+			}
+			i = skipDigits(i);
+		}
+		if (i < json.length && (json[i] == 'e' || json[i] == 'E')) {
+			i++;
+			if (json[i] == '+' || json[i] == '-') {
+				i++;
+			}
+			if (!isDigit(json[i])) {
+				return -1;
+			}
+			i = skipDigits(i);
+		}
+		return i;
+	}
+
+	private int skipDigits(int i) {
+		while (i < json.length && isDigit(json[i])) {
+			i++;
+		}
+		return i;
+	}
+
+	private int skipWhitespace(int i) {
+		while (i < json.length && isWhitespace(json[i])) {
+			i++;
+		}
+		return i;
+	}
+
+	private int indexOf(byte target, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (json[i] == target) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean isDigit(byte b) {
+		return b >= '0' && b <= '9';
+	}
+
+	private static boolean isHexDigit(byte b) {
+		return isDigit(b) || (b >= 'a' && b <= 'f') || (b >= 'A' && b <= 'F');
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+	}
+}
@@ -0,0 +1,151 @@
+package com.koscom.kafkacop.kafka.serde;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.koscom.kafkacop.kafka.dto.MarketDataMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 컨슈머 레코드 값: 디코딩된 DTO 또는 원본 바이트 위의 지연 뷰
+ * - 즉시 모드: 컨슈머 스레드에서 디코딩한 DTO 만 보관 (payload 없음)
+ * - raw-passthrough 모드: 원본 JSON 바이트 + 필드 색인(JsonFieldIndex)에서 읽은 mkt_code / exchange / timestamp 만 보관
+ *   → 라우팅 / 검증 / 마켓 조회 / 지연 메트릭은 DTO 없이 처리, SSE 는 바이트를 그대로 전송
+ *   → 가격 / 수량 / 호가 목록 등 나머지 필드는 BatchWriter 가 바인딩 직전 get() 으로 디코딩 (flush 워커)
+ * - 색인에 실패한 페이로드는 컨슈머 스레드에서 디코딩한 DTO 만 보관 (원본 바이트를 SSE 로 보내지 않음)
+ * - 모든 메시지는 역직렬화 시 intern 한 마켓 심볼 ID 를 가짐 (MarketSymbolTable, mkt_code 없으면 NO_SYMBOL)
+ * - 디코딩 실패 시 get() 은 null (BatchWriter 가 스킵)
+ * - DLT 전송(JsonSerializer) 시 원본 바이트가 있으면 그대로, 없으면 DTO 를 직렬화
+ * - 원본 레코드 위치(파티션 / 오프셋)는 리스너가 적재 전에 기록 → DLT 원본 위치 헤더
+ *   (스필 / journal 에서 복원한 메시지는 위치 없음: -1)
+ */
+public final class LazyMessage<T extends MarketDataMessage> {
+
+	private static final Object UNDECODED = new Object();
+
+	private final byte[] payload;
+	private final Function<byte[], T> decoder;
+	private final List<String> mktCode;  // 색인된 라우팅 필드 (null: 색인 없음 → DTO 에서 읽음)
+	private final String exchange;
+	private final long timestamp;
+	private final int symbol;
+	private volatile Object value;  // UNDECODED → T (디코딩 실패 시 null), 동시에 디코딩해도 결과가 같으므로 락 없음
+	private int sourcePartition = -1;  // 컨슈머 스레드에서 적재 전에 1회 기록 (큐 전달로 워커에 보임)
+	private long sourceOffset = -1;
+
+	private LazyMessage(byte[] payload, Function<byte[], T> decoder, List<String> mktCode, String exchange,
+		long timestamp, int symbol, Object value) {
+		this.payload = payload;
+		this.decoder = decoder;
+		this.mktCode = mktCode;
+		this.exchange = exchange;
+		this.timestamp = timestamp;
+		this.symbol = symbol;
+		this.value = value;
+	}
+
+	public static <T extends MarketDataMessage> LazyMessage<T> decoded(T value, int symbol) {
+		return new LazyMessage<>(null, null, null, null, 0, symbol, value);
+	}
+
+	/** 원본 바이트 + 이미 디코딩한 DTO (스필 / journal 에서 복원한 바이트를 다시 읽지 못한 경우 value 는 null) */
+	public static <T extends MarketDataMessage> LazyMessage<T> parsed(byte[] payload, T value, int symbol) {
+		return new LazyMessage<>(payload, null, null, null, 0, symbol, value);
+	}
+
+	/** 색인에서 라우팅 필드를 미리 읽은 지연 메시지 (mktCode 는 null 이 아니어야 함) */
+	public static <T extends MarketDataMessage> LazyMessage<T> indexed(byte[] payload, Function<byte[], T> decoder,
+		List<String> mktCode, String exchange, long timestamp, int symbol) {
+		return new LazyMessage<>(payload, decoder, mktCode, exchange, timestamp, symbol, UNDECODED);
+	}
+
+	public boolean hasPayload() {
+		return payload != null;
+	}
+
+	/** 원본 값 바이트 (즉시 모드면 null) */
+	public byte[] payload() {
+		return payload;
+	}
+
+	/** 라우팅 필드를 디코딩 없이 읽을 수 있는지 여부 */
+	public boolean isIndexed() {
+		return mktCode != null;
+	}
+
+	public boolean isDecoded() {
+		return value != UNDECODED;
+	}
+
+	/** 디코딩된 DTO (지연 모드면 첫 호출 스레드에서 디코딩, 실패 시 null) */
+	@SuppressWarnings("unchecked")
+	public T get() {
+		Object current = value;
+		if (current == UNDECODED) {
+			current = decoder.apply(payload);
+			value = current;
+		}
+		return (T) current;
+	}
+
+	/** 원본 레코드 위치 기록 (리스너, accumulator 적재 전) */
+	public void setSource(int partition, long offset) {
+		this.sourcePartition = partition;
+		this.sourceOffset = offset;
+	}
+
+	/** 원본 레코드 파티션 (모르면 -1) */
+	public int sourcePartition() {
+		return sourcePartition;
+	}
+
+	/** 원본 레코드 오프셋 (모르면 -1) */
+	public long sourceOffset() {
+		return sourceOffset;
+	}
+
+	/** 마켓 심볼 ID (MarketSymbolTable, mkt_code 가 없으면 NO_SYMBOL) */
+	public int symbol() {
+		return symbol;
+	}
+
+	public List<String> mktCode() {
+		if (mktCode != null) {
+			return mktCode;
+		}
+		T decoded = get();
+		return decoded != null ? decoded.mktCode() : null;
+	}
+
+	public String exchange() {
+		if (mktCode != null) {
+			return exchange;
+		}
+		T decoded = get();
+		return decoded != null ? decoded.exchange() : null;
+	}
+
+	public long timestamp() {
+		if (mktCode != null) {
+			return timestamp;
+		}
+		T decoded = get();
+		return decoded != null ? decoded.timestamp() : 0;
+	}
+
+	@JsonValue
+	public Object jsonValue() {
+		return payload != null ? new RawValue(new String(payload, StandardCharsets.UTF_8)) : get();
+	}
+
+	@Override
+	public String toString() {
+		if (payload != null && !isDecoded()) {
+			return "LazyMessage[" + payload.length + " bytes, symbol=" + symbol + ", mktCode=" + mktCode
+				+ ", exchange=" + exchange + ", timestamp=" + timestamp + "]";
+		}
+		return "LazyMessage[symbol=" + symbol + ", " + value + "]";
+	}
+}
@@ -0,0 +1,124 @@
+package com.koscom.kafkacop.kafka.serde;
+
+import com.koscom.kafkacop.kafka.dto.MarketDataMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 레코드 값 → LazyMessage
+ * - passthrough=false: 컨슈머 스레드에서 delegate 로 즉시 디코딩 (실패 시 null → 리스너가 스킵)
+ * - passthrough=true: 원본 바이트를 1회 순회해 최상위 필드 오프셋을 색인하고 mkt_code / exchange / timestamp 만 읽어서 반환,
+ *   delegate 디코딩(가격 / 수량 / 호가 목록)은 LazyMessage.get() 시점으로 미룸
+ *   → 색인(JsonFieldIndex.scan)이 중첩 값까지 JSON 문법을 검증하므로 SSE 로 그대로 보내는 바이트는 항상 올바른 JSON
+ *   → 값 타입 오류(예: 숫자 필드에 문자열)는 flush 워커의 지연 디코딩에서야 드러남: 이미 SSE 로 전송된 뒤이므로 DB 저장만 스킵되고
+ *     kafka.consumer.passthrough.deferred.malformed 카운터로 집계 (즉시 모드에서는 컨슈머 스레드에서 null 로 걸러져 SSE 전송도 안 됨)
+ * - 색인에 실패했지만 디코딩되는 페이로드(뒤에 남는 바이트 등)는 원본 바이트 없이 DTO 만 보관 → SSE 는 DTO 직렬화 결과를 전송
+ * - 색인도 디코딩도 실패한 페이로드는 null (리스너가 역직렬화 실패로 스킵 → SSE 전송 / 적재 안 함)
+ * - 모든 메시지에 (exchange, mkt_code) 마켓 심볼 ID 를 intern 해서 부착 (색인된 mkt_code / exchange 는 심볼 테이블의 공유 인스턴스로 교체)
+ * - CBOR / Smile 레코드(content-type 헤더)는 passthrough 여도 즉시 디코딩 (SSE 는 JSON 만 그대로 전송 가능, 필드 색인도 JSON 전용)
+ * - delegate 는 생성 시점에 설정이 끝난 인스턴스 (configure 는 전달하지 않음)
+ */
+public class LazyMessageDeserializer<T extends MarketDataMessage> implements Deserializer<LazyMessage<T>> {
+
+	private final String topic;
+	private final Deserializer<T> delegate;
+	private final boolean passthrough;
+	private final MarketSymbolTable symbolTable;
+	private final Function<byte[], T> decoder = this::decodeDeferred;
+	private final ThreadLocal<JsonFieldIndex> fieldIndex = ThreadLocal.withInitial(JsonFieldIndex::new);
+	private final Counter deferredMalformedCounter;
+
+	public LazyMessageDeserializer(String topic, Deserializer<T> delegate, boolean passthrough,
+		MarketSymbolTable symbolTable, MeterRegistry meterRegistry) {
+		this.topic = topic;
+		this.delegate = delegate;
+		this.passthrough = passthrough;
+		this.symbolTable = symbolTable;
+		this.deferredMalformedCounter = Counter.builder("kafka.consumer.passthrough.deferred.malformed")
+			.tag("topic", topic)
+			.description("Raw-passthrough records already sent to SSE whose deferred decoding failed (not stored)")
+			.register(meterRegistry);
+	}
+
+	@Override
+	public LazyMessage<T> deserialize(String topic, byte[] data) {
+		if (data == null) {
+			return null;
+		}
+		if (passthrough) {
+			return wrap(data);
+		}
+		T value = delegate.deserialize(topic, data);
+		return value != null ? decoded(value) : null;
+	}
+
+	@Override
+	public LazyMessage<T> deserialize(String topic, Headers headers, byte[] data) {
+		if (data == null) {
+			return null;
+		}
+		if (passthrough && PayloadFormat.of(headers) == PayloadFormat.JSON) {
+			return wrap(data);
+		}
+		T value = delegate.deserialize(topic, headers, data);  // ErrorHandlingDeserializer 는 실패 원인을 헤더로 남김
+		return value != null ? decoded(value) : null;
+	}
+
+	/** 원본 JSON 바이트 → DTO (지연 디코딩 / 스필·journal 복구용, 실패 시 null) */
+	public T decode(byte[] data) {
+		return delegate.deserialize(topic, data);
+	}
+
+	/** LazyMessage.get() 의 지연 디코딩 (flush 워커) - 실패 시 SSE 로는 이미 전송된 레코드이므로 별도 집계 */
+	private T decodeDeferred(byte[] data) {
+		T value = decode(data);
+		if (value == null) {
+			deferredMalformedCounter.increment();
+		}
+		return value;
+	}
+
+	/** 디코딩된 DTO + 마켓 심볼 (즉시 모드 / 스필·journal 에서 읽은 DTO 복원) */
+	public LazyMessage<T> decoded(T value) {
+		return LazyMessage.decoded(value, symbolTable.intern(value.exchange(), value.mktCode()));
+	}
+
+	/**
+	 * 원본 바이트를 감싼 지연 메시지 (컨슈머 스레드 / 스필·journal 에서 읽은 바이트 복원)
+	 * @return 색인도 전체 디코딩도 실패하면 null (잘못된 바이트를 SSE 로 보내지 않도록)
+	 */
+	public LazyMessage<T> wrap(byte[] data) {
+		JsonFieldIndex index = fieldIndex.get();
+		if (index.scan(data)) {
+			try {
+				List<String> mktCode = index.stringList("mkt_code");
+				if (mktCode != null) {
+					String exchange = index.string("exchange");
+					long timestamp = index.longValue("timestamp");
+					int symbol = symbolTable.intern(exchange, mktCode);
+					if (symbol != MarketSymbolTable.NO_SYMBOL) {
+						mktCode = symbolTable.mktCode(symbol);
+						exchange = symbolTable.exchange(symbol);
+					}
+					return LazyMessage.indexed(data, decoder, mktCode, exchange, timestamp, symbol);
+				}
+			} catch (IOException | RuntimeException e) {
+				// 색인 값을 읽지 못한 페이로드: 아래에서 전체 디코딩 (실패 원인은 delegate 가 기록)
+			}
+		}
+		// 색인 실패(문법 검증 실패 포함) → 원본 바이트는 버리고 DTO 만 보관 (SSE 는 DTO 를 직렬화해서 전송)
+		T value = decode(data);
+		return value != null ? decoded(value) : null;
+	}
+
+	@Override
+	public void close() {
+		delegate.close();
+	}
+}
@@ -0,0 +1,80 @@
+package com.koscom.kafkacop.kafka.serde;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * (exchange, mkt_code) → 조밀한 int 심볼 ID (0, 1, 2, ...) 테이블
+ * - 역직렬화 시 1회 intern → 이후 단계(샤드 라우팅 / 마켓 조회 / 바인딩)는 int 키와 미리 만든 마켓코드 문자열만 사용
+ * - 이미 등록된 심볼 조회는 락 / 할당 없음 (mkt_code 목록 자체를 키로 조회), 새 심볼 등록만 synchronized
+ * - 마켓 수만큼만 증가하고 삭제하지 않음 (전체 토픽 공유)
+ */
+public final class MarketSymbolTable {
+
+	/** mkt_code 가 없거나 비어 있는 메시지 */
+	public static final int NO_SYMBOL = -1;
+
+	private static final String NO_EXCHANGE = "";
+
+	private final ConcurrentHashMap<String, ConcurrentHashMap<List<String>, Integer>> idsByExchange =
+		new ConcurrentHashMap<>();
+	// 심볼 ID → 값 (배열에 먼저 기록한 뒤 맵에 ID 공개 → 맵에서 ID 를 읽은 스레드는 항상 값을 봄)
+	private volatile Symbol[] symbols = new Symbol[256];
+	private int size;  // guarded by this
+
+	private record Symbol(String exchange, List<String> mktCode, String marketCode) {
+	}
+
+	/**
+	 * @return 심볼 ID (mktCode 가 null / 빈 목록 / null 원소를 포함하면 NO_SYMBOL)
+	 */
+	public int intern(String exchange, List<String> mktCode) {
+		if (mktCode == null || mktCode.isEmpty()) {
+			return NO_SYMBOL;
+		}
+		String exchangeKey = exchange != null ? exchange : NO_EXCHANGE;
+		ConcurrentHashMap<List<String>, Integer> ids = idsByExchange.get(exchangeKey);
+		if (ids == null) {
+			ids = idsByExchange.computeIfAbsent(exchangeKey, k -> new ConcurrentHashMap<>());
+		}
+		Integer id = ids.get(mktCode);
+		return id != null ? id : register(exchange, ids, mktCode);
+	}
+
+	private synchronized int register(String exchange, ConcurrentHashMap<List<String>, Integer> ids,
+		List<String> mktCode) {
+		Integer existing = ids.get(mktCode);
+		if (existing != null) {
+			return existing;
+		}
+		for (String code : mktCode) {
+			if (code == null) {
+				return NO_SYMBOL;  // List.contains(null) 은 불변 목록에서 NPE
+			}
+		}
+		int id = size;
+		if (id == symbols.length) {
+			symbols = Arrays.copyOf(symbols, id * 2);
+		}
+		List<String> key = List.copyOf(mktCode);  // 호출자의 목록이 가변이어도 키는 고정
+		symbols[id] = new Symbol(exchange, key, String.join("/", key));
+		size = id + 1;
+		ids.put(key, id);
+		return id;
+	}
+
+	/** 마켓코드 (예: KRW/BTC - ref_market.market_code 와 같은 형식) */
+	public String marketCode(int id) {
+		return symbols[id].marketCode();
+	}
+
+	/** 심볼의 공유 mkt_code 목록 (메시지마다 파싱한 목록 대신 보관해서 메모리 절약) */
+	public List<String> mktCode(int id) {
+		return symbols[id].mktCode();
+	}
+
+	public String exchange(int id) {
+		return symbols[id].exchange();
+	}
+}
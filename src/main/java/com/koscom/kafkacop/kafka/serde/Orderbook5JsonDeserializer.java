@@ -0,0 +1,81 @@
+package com.koscom.kafkacop.kafka.serde;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.koscom.kafkacop.kafka.dto.Orderbook5Message;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class Orderbook5JsonDeserializer extends StreamingJsonDeserializer<Orderbook5Message> {
+
+	public Orderbook5JsonDeserializer(String topic, MeterRegistry meterRegistry) {
+		super(topic, meterRegistry);
+	}
+
+	@Override
+	protected Orderbook5Message read(JsonParser parser) throws IOException {
+		List<String> mktCode = null;
+		String exchange = null;
+		long timestamp = 0;
+		double totalAskSize = 0;
+		double totalBidSize = 0;
+		List<Orderbook5Message.OrderbookUnit> orderbookUnits = null;
+
+		String field;
+		while ((field = parser.nextFieldName()) != null) {
+			parser.nextToken();
+			switch (field) {
+				case "mkt_code" -> mktCode = readStringList(parser);
+				case "exchange" -> exchange = readString(parser);
+				case "timestamp" -> timestamp = readLong(parser);
+				case "total_ask_size" -> totalAskSize = readDouble(parser);
+				case "total_bid_size" -> totalBidSize = readDouble(parser);
+				case "OrderbookUnits" -> orderbookUnits = readUnits(parser);
+				default -> parser.skipChildren();
+			}
+		}
+		return new Orderbook5Message(mktCode, exchange, timestamp, totalAskSize, totalBidSize, orderbookUnits);
+	}
+
+	private static List<Orderbook5Message.OrderbookUnit> readUnits(JsonParser parser) throws IOException {
+		if (parser.currentToken() == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		if (parser.currentToken() != JsonToken.START_ARRAY) {
+			throw new JsonParseException(parser, "Expected an array of orderbook units");
+		}
+		List<Orderbook5Message.OrderbookUnit> units = new ArrayList<>(16);
+		JsonToken token;
+		while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+			if (token != JsonToken.START_OBJECT) {
+				throw new JsonParseException(parser, "Expected an orderbook unit object");
+			}
+			units.add(readUnit(parser));
+		}
+		return units;
+	}
+
+	private static Orderbook5Message.OrderbookUnit readUnit(JsonParser parser) throws IOException {
+		double askPrice = 0;
+		double bidPrice = 0;
+		double askSize = 0;
+		double bidSize = 0;
+
+		String field;
+		while ((field = parser.nextFieldName()) != null) {
+			parser.nextToken();
+			switch (field) {
+				case "ask_price" -> askPrice = readDouble(parser);
+				case "bid_price" -> bidPrice = readDouble(parser);
+				case "ask_size" -> askSize = readDouble(parser);
+				case "bid_size" -> bidSize = readDouble(parser);
+				default -> parser.skipChildren();
+			}
+		}
+		return new Orderbook5Message.OrderbookUnit(askPrice, bidPrice, askSize, bidSize);
+	}
+}
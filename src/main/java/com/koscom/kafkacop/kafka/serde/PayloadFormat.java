@@ -0,0 +1,95 @@
+package com.koscom.kafkacop.kafka.serde;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 레코드 값 인코딩 (content-type 레코드 헤더로 판별)
+ * - 세 포맷 모두 Jackson 토큰 스트림이라 같은 역직렬화 코드(JsonParser)로 같은 DTO 레코드를 생성
+ * - 헤더가 없으면 JSON (기존 producer), 모르는 값도 JSON 으로 파싱 시도 → 실패 시 malformed 처리
+ * - 파서 버퍼는 컨슈머 스레드별로 재사용 (thread-local recycler pool)
+ */
+public enum PayloadFormat {
+
+	JSON("application/json", JsonFactory.builder()
+		.recyclerPool(JsonRecyclerPools.threadLocalPool())
+		.enable(StreamReadFeature.USE_FAST_DOUBLE_PARSER)  // 호가/수량 double 파싱 비용이 가장 큼
+		.build()),
+	CBOR("application/cbor", CBORFactory.builder()
+		.recyclerPool(JsonRecyclerPools.threadLocalPool())
+		.build()),
+	SMILE("application/x-jackson-smile", SmileFactory.builder()
+		.recyclerPool(JsonRecyclerPools.threadLocalPool())
+		.build());
+
+	/** 인코딩 헤더 이름 (Spring Messaging 의 contentType 헤더도 허용) */
+	public static final String CONTENT_TYPE_HEADER = "content-type";
+	private static final String SPRING_CONTENT_TYPE_HEADER = "contentType";
+
+	private static final PayloadFormat[] VALUES = values();
+
+	private final String contentType;
+	private final byte[] contentTypeBytes;
+	private final JsonFactory factory;
+
+	PayloadFormat(String contentType, JsonFactory factory) {
+		this.contentType = contentType;
+		this.contentTypeBytes = contentType.getBytes(StandardCharsets.US_ASCII);
+		this.factory = factory;
+	}
+
+	public String contentType() {
+		return contentType;
+	}
+
+	/** 포맷별 파서 팩토리 (공유 인스턴스 - ObjectMapper 에 넘길 때는 copy() 사용) */
+	public JsonFactory factory() {
+		return factory;
+	}
+
+	/** 레코드 헤더 → 포맷 (헤더 값을 문자열로 바꾸지 않고 바이트 비교, charset 등 파라미터는 무시) */
+	public static PayloadFormat of(Headers headers) {
+		if (headers == null) {
+			return JSON;
+		}
+		Header header = headers.lastHeader(CONTENT_TYPE_HEADER);
+		if (header == null) {
+			header = headers.lastHeader(SPRING_CONTENT_TYPE_HEADER);
+		}
+		byte[] value = header != null ? header.value() : null;
+		if (value == null) {
+			return JSON;
+		}
+		for (PayloadFormat format : VALUES) {
+			if (format.matches(value)) {
+				return format;
+			}
+		}
+		return JSON;
+	}
+
+	/** 헤더 값이 content type 과 같은지 (대소문자 무시, 뒤의 ';' 파라미터 / 공백 허용) */
+	private boolean matches(byte[] value) {
+		byte[] expected = contentTypeBytes;
+		if (value.length < expected.length) {
+			return false;
+		}
+		for (int i = 0; i < expected.length; i++) {
+			byte b = value[i];
+			if (b >= 'A' && b <= 'Z') {
+				b += 'a' - 'A';
+			}
+			if (b != expected[i]) {
+				return false;
+			}
+		}
+		return value.length == expected.length || value[expected.length] == ';' || value[expected.length] == ' ';
+	}
+}
@@ -0,0 +1,151 @@
+package com.koscom.kafkacop.kafka.serde;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Jackson 토큰 스트림(JsonParser)으로 레코드 값을 DTO 레코드에 직접 디코딩하는 Kafka 역직렬화기
+ * - databind(JsonDeserializer)의 타입 해석 / 트리 없이 필드 이름을 순회하며 값을 읽고 생성자 1회 호출
+ * - 파서 버퍼는 컨슈머 스레드별로 재사용 (thread-local recycler pool), double 은 fast double parser 사용
+ * - content-type 헤더가 CBOR / Smile 이면 해당 포맷 파서로 같은 read() 를 호출 (PayloadFormat)
+ * - 잘못된 페이로드는 예외 대신 null 반환 + kafka.consumer.deserialize.malformed 카운터
+ *   (리스너가 null 레코드를 역직렬화 실패로 로깅 후 스킵 - ErrorHandlingDeserializer 와 같은 결과)
+ * - 상태가 없으므로 인스턴스 하나를 컨슈머 팩토리의 모든 컨슈머 스레드가 공유
+ */
+@Slf4j
+public abstract class StreamingJsonDeserializer<T> implements Deserializer<T> {
+
+	private final Counter malformedCounter;
+
+	protected StreamingJsonDeserializer(String topic, MeterRegistry meterRegistry) {
+		this.malformedCounter = Counter.builder("kafka.consumer.deserialize.malformed")
+			.tag("topic", topic)
+			.description("Record values that could not be decoded and were delivered as null")
+			.register(meterRegistry);
+	}
+
+	@Override
+	public T deserialize(String topic, byte[] data) {
+		return deserialize(topic, PayloadFormat.JSON, data);
+	}
+
+	@Override
+	public T deserialize(String topic, Headers headers, byte[] data) {
+		return deserialize(topic, PayloadFormat.of(headers), data);
+	}
+
+	private T deserialize(String topic, PayloadFormat format, byte[] data) {
+		if (data == null) {
+			return null;
+		}
+		try (JsonParser parser = format.factory().createParser(data)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw new JsonParseException(parser, "Expected an object");
+			}
+			return read(parser);
+		} catch (IOException | RuntimeException e) {
+			malformedCounter.increment();
+			log.debug("[{}] Malformed {} record value ({} bytes): {}", topic, format, data.length, e.getMessage());
+			return null;
+		}
+	}
+
+	/** START_OBJECT 다음 토큰부터 END_OBJECT 까지 읽어 DTO 생성 (모르는 필드는 skipChildren) */
+	protected abstract T read(JsonParser parser) throws IOException;
+
+	/*
+	 * 스칼라 필드 읽기 (databind 와 같은 수용 범위, 그 외 토큰은 JsonParseException → malformed)
+	 * - 숫자 / 숫자 문자열 / null(0) 만 허용: getValueAsLong() 처럼 숫자가 아닌 문자열을 0 으로 바꾸지 않음
+	 * - 객체 / 배열 값은 예외: 소비하지 않고 넘어가면 nextFieldName() 이 중첩 객체 안에서 계속되어 일부 필드만 채워짐
+	 */
+
+	protected static long readLong(JsonParser parser) throws IOException {
+		return switch (parser.currentToken()) {
+			case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getLongValue();
+			case VALUE_NULL -> 0;
+			case VALUE_STRING -> {
+				try {
+					yield Long.parseLong(parser.getText().trim());
+				} catch (NumberFormatException e) {
+					throw new JsonParseException(parser, "Expected an integer: " + parser.getText());
+				}
+			}
+			default -> throw new JsonParseException(parser, "Expected an integer, got " + parser.currentToken());
+		};
+	}
+
+	protected static double readDouble(JsonParser parser) throws IOException {
+		return switch (parser.currentToken()) {
+			case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getDoubleValue();
+			case VALUE_NULL -> 0;
+			case VALUE_STRING -> {
+				try {
+					yield Double.parseDouble(parser.getText().trim());
+				} catch (NumberFormatException e) {
+					throw new JsonParseException(parser, "Expected a number: " + parser.getText());
+				}
+			}
+			default -> throw new JsonParseException(parser, "Expected a number, got " + parser.currentToken());
+		};
+	}
+
+	/** 문자열 (숫자 / 불리언은 텍스트로, null 토큰이면 null) */
+	protected static String readString(JsonParser parser) throws IOException {
+		JsonToken token = parser.currentToken();
+		if (token == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		if (token == null || !token.isScalarValue()) {
+			throw new JsonParseException(parser, "Expected a string, got " + token);
+		}
+		return parser.getText();
+	}
+
+	/** 문자열 배열 (null 토큰이면 null) */
+	protected static List<String> readStringList(JsonParser parser) throws IOException {
+		if (parser.currentToken() == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		if (parser.currentToken() != JsonToken.START_ARRAY) {
+			throw new JsonParseException(parser, "Expected an array of strings");
+		}
+		String first = parser.nextTextValue();
+		if (first == null) {
+			return endStringList(parser, List.of());
+		}
+		String second = parser.nextTextValue();
+		if (second == null) {
+			return endStringList(parser, List.of(first));
+		}
+		// mkt_code 는 보통 [quote, base] 2개 → 그 이상일 때만 가변 목록
+		String next = parser.nextTextValue();
+		if (next == null) {
+			return endStringList(parser, List.of(first, second));
+		}
+		List<String> values = new ArrayList<>(4);
+		values.add(first);
+		values.add(second);
+		do {
+			values.add(next);
+		} while ((next = parser.nextTextValue()) != null);
+		return endStringList(parser, values);
+	}
+
+	/** nextTextValue() 가 null 을 반환한 위치가 배열 끝인지 확인 */
+	private static List<String> endStringList(JsonParser parser, List<String> values) throws IOException {
+		if (parser.currentToken() != JsonToken.END_ARRAY) {
+			throw new JsonParseException(parser, "Expected only strings in array");
+		}
+		return values;
+	}
+}
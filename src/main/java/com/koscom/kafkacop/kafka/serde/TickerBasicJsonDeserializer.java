@@ -0,0 +1,45 @@
+package com.koscom.kafkacop.kafka.serde;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.koscom.kafkacop.kafka.dto.TickerBasicMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.util.List;
+
+public class TickerBasicJsonDeserializer extends StreamingJsonDeserializer<TickerBasicMessage> {
+
+	public TickerBasicJsonDeserializer(String topic, MeterRegistry meterRegistry) {
+		super(topic, meterRegistry);
+	}
+
+	@Override
+	protected TickerBasicMessage read(JsonParser parser) throws IOException {
+		List<String> mktCode = null;
+		String exchange = null;
+		long tradePrice = 0;
+		long signedChangePrice = 0;
+		double signedChangeRate = 0;
+		double accTradePrice = 0;
+		double accTradePrice24h = 0;
+		long timestamp = 0;
+
+		String field;
+		while ((field = parser.nextFieldName()) != null) {
+			parser.nextToken();
+			switch (field) {
+				case "mkt_code" -> mktCode = readStringList(parser);
+				case "exchange" -> exchange = readString(parser);
+				case "trade_price" -> tradePrice = readLong(parser);
+				case "signed_change_price" -> signedChangePrice = readLong(parser);
+				case "signed_change_rate" -> signedChangeRate = readDouble(parser);
+				case "acc_trade_price" -> accTradePrice = readDouble(parser);
+				case "acc_trade_price_24h" -> accTradePrice24h = readDouble(parser);
+				case "timestamp" -> timestamp = readLong(parser);
+				default -> parser.skipChildren();
+			}
+		}
+		return new TickerBasicMessage(mktCode, exchange, tradePrice, signedChangePrice, signedChangeRate,
+			accTradePrice, accTradePrice24h, timestamp);
+	}
+}
@@ -1,6 +1,7 @@
 package com.koscom.kafkacop.kafka.sse;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
@@ -49,20 +50,40 @@ public class SseBroadcaster {
 	 * 특정 토픽의 모든 구독자에게 메시지 브로드캐스트
 	 * @param topic 토픽명
 	 * @param message 전송할 메시지
+	 * @return 구독자가 있어 전송을 시도했는지 여부
 	 */
-	public void broadcast(String topic, Object message) {
+	public boolean broadcast(String topic, Object message) {
 		CopyOnWriteArraySet<SseEmitter> emitters = topicEmitters.get(topic);
 		if (emitters == null || emitters.isEmpty()) {
-			return;
+			return false;
 		}
+		sendAll(topic, emitters, message, null);
+		return true;
+	}
+
+	/**
+	 * Kafka 레코드 값(JSON 원본 바이트)을 그대로 브로드캐스트 (DTO 재직렬화 없음, raw-passthrough 모드)
+	 * - SSE data 줄이 끊기지 않도록 CR/LF 는 공백으로 치환 (JSON 문자열 안의 개행은 이스케이프되어 있으므로 값은 그대로)
+	 * @return 구독자가 있어 전송을 시도했는지 여부
+	 */
+	public boolean broadcastJson(String topic, byte[] json) {
+		CopyOnWriteArraySet<SseEmitter> emitters = topicEmitters.get(topic);
+		if (emitters == null || emitters.isEmpty()) {
+			return false;
+		}
+		sendAll(topic, emitters, singleLine(json), MediaType.APPLICATION_JSON);
+		return true;
+	}
 
+	private void sendAll(String topic, CopyOnWriteArraySet<SseEmitter> emitters, Object data, MediaType mediaType) {
 		// 실패한 emitter 목록
 		CopyOnWriteArraySet<SseEmitter> deadEmitters = new CopyOnWriteArraySet<>();
 
 		for (SseEmitter emitter : emitters) {
 			try {
-				emitter.send(SseEmitter.event()
-					.data(message));
+				emitter.send(mediaType != null
+					? SseEmitter.event().data(data, mediaType)
+					: SseEmitter.event().data(data));
 			} catch (IOException e) {
 				log.warn("Failed to send SSE message to client, removing emitter: {}", e.getMessage());
 				deadEmitters.add(emitter);
@@ -76,6 +97,20 @@ public class SseBroadcaster {
 		deadEmitters.forEach(emitter -> unsubscribe(topic, emitter));
 	}
 
+	/** CR/LF 가 있을 때만 복사본에서 공백으로 치환 */
+	private static byte[] singleLine(byte[] json) {
+		byte[] result = json;
+		for (int i = 0; i < json.length; i++) {
+			if (json[i] == '\n' || json[i] == '\r') {
+				if (result == json) {
+					result = json.clone();
+				}
+				result[i] = ' ';
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * 연결된 총 구독자 수 반환
 	 */
@@ -46,6 +46,16 @@ public class TimestampConverter {
 		}
 	}
 
+	/**
+	 * 타임스탬프를 epoch 밀리초로 변환 (마이크로초/밀리초 자동 감지)
+	 *
+	 * @param timestamp 타임스탬프 (밀리초 또는 마이크로초)
+	 * @return epoch 밀리초
+	 */
+	public static long toEpochMillis(long timestamp) {
+		return isMicroseconds(timestamp) ? timestamp / 1_000 : timestamp;
+	}
+
 	/**
 	 * 타임스탬프가 마이크로초 단위인지 확인
 	 *
@@ -0,0 +1,143 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AIMD(가산 증가 / 승산 감소) 배치 크기 · 대기시간 자동 조정기
+ * - 워커: flush 1회마다 recordFlush() 로 DB 지연 기록
+ * - 조정 주기마다 adjust(): 구간 평균 flush 지연과 워커 큐 사용률을 보고
+ *   - 목표 지연 이내 + 워커 큐 여유 → batchSize += step, maxLatency += step (가산 증가)
+ *   - 목표 지연 초과 또는 워커 큐 적체 → batchSize *= factor, maxLatency *= factor (승산 감소)
+ */
+@Slf4j
+public class AdaptiveBatchController {
+
+	private final String topic;
+	private final Settings settings;
+
+	private volatile int batchSize;
+	private volatile long maxLatencyMs;
+
+	// 조정 구간 동안의 flush 지연 통계
+	private final LongAdder flushCount = new LongAdder();
+	private final LongAdder flushNanosSum = new LongAdder();
+	private final AtomicLong flushNanosMax = new AtomicLong();
+
+	public AdaptiveBatchController(String topic, Settings settings, int initialBatchSize, Duration initialMaxLatency) {
+		this.topic = topic;
+		this.settings = settings;
+		this.batchSize = clamp(initialBatchSize, settings.minBatchSize(), settings.maxBatchSize());
+		this.maxLatencyMs = clamp(initialMaxLatency.toMillis(), settings.minLatencyMs(), settings.maxLatencyMs());
+	}
+
+	/** 워커 스레드: flush 1회 소요 시간 기록 */
+	public void recordFlush(long elapsedNanos) {
+		flushCount.increment();
+		flushNanosSum.add(elapsedNanos);
+		flushNanosMax.accumulateAndGet(elapsedNanos, Math::max);
+	}
+
+	/**
+	 * 조정 주기마다 호출 (단일 스레드)
+	 * @param workerQueueUsage 워커 작업 큐 사용률 (0.0 ~ 1.0)
+	 */
+	public void adjust(double workerQueueUsage) {
+		long count = flushCount.sumThenReset();
+		long sumNanos = flushNanosSum.sumThenReset();
+		long maxNanos = flushNanosMax.getAndSet(0);
+
+		boolean queueCongested = workerQueueUsage >= settings.workerQueueHighWatermark();
+		if (count == 0 && !queueCongested) {
+			return;  // 관측값 없음 → 유지
+		}
+
+		double avgLatencyMs = count > 0 ? (double) sumNanos / count / 1_000_000 : 0.0;
+		double maxLatencyObservedMs = (double) maxNanos / 1_000_000;
+		int previousBatchSize = batchSize;
+		long previousMaxLatencyMs = maxLatencyMs;
+
+		if (queueCongested || avgLatencyMs > settings.targetFlushLatencyMs()) {
+			// 승산 감소
+			batchSize = clamp((int) (batchSize * settings.decreaseFactor()), settings.minBatchSize(), settings.maxBatchSize());
+			maxLatencyMs = clamp((long) (maxLatencyMs * settings.decreaseFactor()), settings.minLatencyMs(), settings.maxLatencyMs());
+		} else {
+			// 가산 증가
+			batchSize = clamp(batchSize + settings.batchSizeStep(), settings.minBatchSize(), settings.maxBatchSize());
+			maxLatencyMs = clamp(maxLatencyMs + settings.latencyStepMs(), settings.minLatencyMs(), settings.maxLatencyMs());
+		}
+
+		if (batchSize != previousBatchSize || maxLatencyMs != previousMaxLatencyMs) {
+			log.debug("[{}] Adaptive batch adjusted: batchSize {} -> {}, maxLatency {}ms -> {}ms " +
+					"(flushes={}, avgFlush={}ms, maxFlush={}ms, workerQueue={}%)",
+				topic, previousBatchSize, batchSize, previousMaxLatencyMs, maxLatencyMs,
+				count, String.format("%.1f", avgLatencyMs), String.format("%.1f", maxLatencyObservedMs),
+				String.format("%.1f", workerQueueUsage * 100));
+		}
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public long getMaxLatencyMs() {
+		return maxLatencyMs;
+	}
+
+	public long getAdjustIntervalMs() {
+		return settings.adjustIntervalMs();
+	}
+
+	private static int clamp(int value, int min, int max) {
+		return Math.max(min, Math.min(max, value));
+	}
+
+	private static long clamp(long value, long min, long max) {
+		return Math.max(min, Math.min(max, value));
+	}
+
+	/**
+	 * 토픽별 AIMD 설정
+	 * @param minBatchSize 배치 크기 하한
+	 * @param maxBatchSize 배치 크기 상한
+	 * @param batchSizeStep 가산 증가 폭 (건)
+	 * @param minLatencyMs 최대 대기시간(T) 하한
+	 * @param maxLatencyMs 최대 대기시간(T) 상한
+	 * @param latencyStepMs T 가산 증가 폭 (ms)
+	 * @param decreaseFactor 승산 감소 비율 (0.0 ~ 1.0, 예: 0.5)
+	 * @param targetFlushLatencyMs 목표 flush(DB) 평균 지연 (ms)
+	 * @param workerQueueHighWatermark 이 사용률 이상이면 적체로 보고 감소 (0.0 ~ 1.0)
+	 * @param adjustIntervalMs 조정 주기 (ms)
+	 */
+	public record Settings(
+		int minBatchSize,
+		int maxBatchSize,
+		int batchSizeStep,
+		long minLatencyMs,
+		long maxLatencyMs,
+		long latencyStepMs,
+		double decreaseFactor,
+		long targetFlushLatencyMs,
+		double workerQueueHighWatermark,
+		long adjustIntervalMs
+	) {
+		public Settings {
+			if (minBatchSize <= 0 || maxBatchSize < minBatchSize) {
+				throw new IllegalArgumentException("invalid batch size range: " + minBatchSize + " ~ " + maxBatchSize);
+			}
+			if (minLatencyMs <= 0 || maxLatencyMs < minLatencyMs) {
+				throw new IllegalArgumentException("invalid latency range: " + minLatencyMs + " ~ " + maxLatencyMs);
+			}
+			if (decreaseFactor <= 0.0 || decreaseFactor >= 1.0) {
+				throw new IllegalArgumentException("decreaseFactor must be in (0, 1): " + decreaseFactor);
+			}
+			if (adjustIntervalMs <= 0) {
+				adjustIntervalMs = TimeUnit.SECONDS.toMillis(1);
+			}
+		}
+	}
+}
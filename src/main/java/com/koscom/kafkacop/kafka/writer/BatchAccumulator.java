@@ -1,6 +1,15 @@
 package com.koscom.kafkacop.kafka.writer;
 
+import com.koscom.kafkacop.kafka.codec.RecordCodec;
+import com.koscom.kafkacop.kafka.metrics.PipelineLatencyRecorder;
+import com.koscom.kafkacop.kafka.util.TimestampConverter;
+import com.koscom.kafkacop.kafka.writer.journal.WriteAheadJournal;
+import com.koscom.kafkacop.kafka.writer.queue.AccumulatorQueue;
+import com.koscom.kafkacop.kafka.writer.queue.QueueStrategy;
+import com.koscom.kafkacop.kafka.writer.queue.WaitStrategy;
+import com.koscom.kafkacop.kafka.writer.spill.SpillQueue;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
@@ -9,57 +18,145 @@ import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
 
 /**
  * 단건 수신 → 큐 적재 → 워커가 N/T 조건으로 배치 flush.
  * - 리스너(컨슈머) 스레드: add() 만 수행 (지연 최소화)
  * - 워커 스레드: 큐 poll/drain → 배치 구성 → DB writer.flush()
+ * - 코디네이터가 여러 개면 코디네이터마다 전용 샤드(큐 + 버퍼)를 소유하고,
+ *   리스너는 마켓 키(mktCode) 해시로 샤드를 선택 → 같은 마켓은 항상 같은 샤드에서 순서대로 처리
+ * - handoff 모드: 워커가 모두 바쁘면 코디네이터가 flush 를 직접 실행하지 않고 스테이징에 배치를 모아둔 채
+ *   큐 drain 을 계속함 (스테이징이 가득 찬 경우에만 drain 중단 → 명시적 백프레셔)
+ * - journal 모드: 메모리 큐에 적재된 메시지를 샤드별 write-ahead journal 에 기록한 뒤 반환 (ack 전 디스크 반영)
+ *   → flush 완료 구간만큼 journal 정리, 재기동 시 flush 되지 않은 메시지를 먼저 flush
+ * - flush watermark 추적: 샤드별 적재 순번의 연속 flush 완료 지점을 추적하여 addAll(items, onFlushed) 의
+ *   메시지가 모두 flush 되면 콜백 (리스너가 그 시점에만 오프셋 커밋 → 미처리분은 Kafka 에 남김)
  */
 @Slf4j
 public class BatchAccumulator<T> {
 
+	private static final int DEFAULT_DLT_MAX_IN_FLIGHT = 10_000;
+	private static final long DEFAULT_DLT_WINDOW_TIMEOUT_MS = 5_000;
+	private static final int THROUGHPUT_WINDOW_SECONDS = 60;
+	private static final long COMMIT_PROBE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);  // DLT/종료로 커밋되지 않은 샘플 정리
+	private static final long OFFER_RETRY_NANOS = TimeUnit.MICROSECONDS.toNanos(100);  // 순번 추적 중 큐 가득 참 시 락 밖 재시도 간격
+	private static final CompletableFuture<Void> FLUSHED = CompletableFuture.completedFuture(null);
+	private static final CompletableFuture<Void> ABANDONED =
+		CompletableFuture.failedFuture(new CancellationException("Flush abandoned"));
+	// 큐 오버플로우로 DLT 전송되는 메시지의 원인 헤더 (메시지마다 스택 트레이스를 만들지 않도록 공유)
+	private static final Exception QUEUE_FULL =
+		new RejectedExecutionException("Accumulator queue full or memory budget exhausted");
+
 	// === 튜닝 파라미터 ===
 	private final int batchSize;                        // N: 배치 최대 개수
 	private final Duration maxLatency;                  // T: 배치 최대 대기시간
 	private final int queueCapacity;                    // 내부 큐 용량(백프레셔 임계)
 	private final int workerThreadCount;                // 워커 스레드 수 (병렬 처리)
-	private final int coordinatorThreadCount;           // 코디네이터 스레드 수 (큐 소비)
+	private final int coordinatorThreadCount;           // 코디네이터 스레드 수 (= 샤드 수)
 	private final int workerQueueCapacity;              // 워커 작업 큐 용량 (메모리 누수 방지)
+	private final QueueStrategy queueStrategy;          // 내부 큐 구현 (BLOCKING / MPSC_RING)
 
 	// === 구성 요소 ===
-	private final BlockingQueue<T> queue;
-	private final List<T> buffer;
+	private final List<Shard> shards;                   // 코디네이터별 큐 + 버퍼
+	private ToIntFunction<? super T> marketKey;         // 샤드 라우팅 키 (예: 마켓 심볼 ID)
+	private Function<? super T, ?> recordKey;          // 로그용 레코드 키 (예: mkt_code, null 이면 생략)
+	private ToIntFunction<? super T> sourcePartitionOf; // 원본 레코드 파티션 (DLT 헤더, null 이면 생략)
+	private ToLongFunction<? super T> sourceOffsetOf;   // 원본 레코드 오프셋
 	private final BatchWriter<T> writer;                // DB upsert 수행
 	private final String sourceTopic;                   // 원본 토픽명 (DLT 전송용)
-	private final KafkaTemplate<String, Object> kafkaTemplate;  // DLT 전송용
+	private final KafkaTemplate<String, Object> kafkaTemplate;  // DLT 전송 단계 미설정 시 기본 DLT 전송용
+	private DltPublisher dltPublisher;                  // DLT 전송 단계 (전체 accumulator 공유, 비동기)
+	private FlushRetry<T> flushRetry;                   // flush 실패 배치 재시도 (start() 에서 생성)
+	private boolean retryBisect = false;                // 데이터 오류 시 배치 분할 재시도 (기본: 배치 전체 재시도)
+	private int retryMaxRetries = 3;                    // 일시 장애 시 같은 구간 재시도 횟수
+	private long retryBackoffMs = 50;                   // 재시도 백오프 시작값
+	private long retryMaxBackoffMs = 1000;              // 재시도 백오프 상한
+	private int retryMaxIsolated = 0;                   // 배치당 격리할 최대 레코드 수
+	private FlushCircuitBreaker circuitBreaker;         // DB flush 차단기 (null 이면 차단 없음)
+	private PipelineLatencyRecorder latencyRecorder;    // 구간별 지연 기록 (null 이면 기록 안 함)
+	private Function<? super T, String> exchangeOf;     // 지연 메트릭 exchange 태그
+	private ToLongFunction<? super T> eventTimestampOf; // 메시지 자체 timestamp (밀리초 또는 마이크로초)
+	private final AtomicReference<QueueProbe> commitProbe = new AtomicReference<>();  // DB 커밋까지 추적 중인 샘플 (1건)
 	private final MeterRegistry meterRegistry;          // 메트릭 레지스트리
 
 	private ExecutorService coordinatorExecutor;        // 배치 수집 스레드
-	private ExecutorService flushExecutorPool;          // 배치 flush 스레드 풀
+	private FlushExecutor flushExecutorPool;            // 배치 flush 스레드 풀
+	private FlushExecutor.Mode flushMode = FlushExecutor.Mode.POOLED;  // flush 실행 방식
+	private int virtualFlushConcurrency = 0;            // VIRTUAL 모드 동시 flush 수 (0 이면 workerThreadCount)
+	private AdaptiveBatchController adaptiveController; // AIMD 배치 크기/대기시간 자동 조정 (null 이면 고정값)
+	private SharedFlushScheduler sharedFlushScheduler;  // 공유 flush 스케줄러 (null 이면 전용 워커 풀)
+	private int sharedFlushWeight = 1;                  // 공유 스케줄러 가중치
+	private ToLongFunction<? super T> sizeEstimator;    // 메시지 추정 크기 (null 이면 바이트 추적 안 함)
+	private MemoryBudget memoryBudget;                  // 전체 accumulator 공유 메모리 예산 (null 이면 제한 없음)
+	private HeapPressureMonitor heapPressureMonitor;    // 힙 압박 시 동시 flush 제한 (null 이면 제한 없음)
+	private RecordCodec<T> spillCodec;                  // 스필 인코딩 (null 이면 스필 비활성)
+	private Path spillDirectory;                        // 스필 세그먼트 디렉터리 (샤드별 하위 디렉터리)
+	private int spillSegmentBytes;                      // 스필 세그먼트 파일 크기
+	private long spillMaxBytes;                         // 스필 최대 크기 (전체 샤드 합계)
+	private RecordCodec<T> journalCodec;                // journal 인코딩 (null 이면 journal 비활성)
+	private Path journalDirectory;                      // journal 세그먼트 디렉터리 (샤드별 하위 디렉터리)
+	private int journalSegmentBytes;                    // journal 세그먼트 파일 크기
+	private boolean journalForceOnCommit;               // group commit 마다 force() (OS 크래시까지 대비)
+	private boolean flushWatermarkTracking = false;     // 적재 순번별 flush 완료 추적 (addAll 콜백용)
+	private int stagingCapacity = 0;                    // handoff 스테이징 최대 메시지 수 (샤드당, 0 이면 handoff 비활성)
 	private ScheduledExecutorService metricsScheduler;  // 메트릭 업데이트 스케줄러
+	private volatile PressureListener pressureListener; // 백프레셔 임계값 통과 시 즉시 통지 (null 이면 통지 안 함)
+	private volatile double pressureOnThreshold = 1.0;  // 사용률이 이 이상이면 과부하 통지
+	private volatile double pressureOffThreshold = 0.0; // 과부하 중 사용률이 이 이하이면 해제 통지
+	private final AtomicBoolean overloaded = new AtomicBoolean(false);
 	private volatile boolean running = true;
+	private final AtomicBoolean started = new AtomicBoolean(false);
 
 	// === 메트릭 ===
 	private Counter messagesQueuedCounter;              // 큐에 추가된 메시지 수
 	private Counter messagesDroppedCounter;             // 큐 가득 차서 드롭된 메시지 수
+	private Counter messagesRejectedCounter;            // addAll()에서 수용되지 못해 호출자에게 반환된 메시지 수
 	private Counter batchesProcessedCounter;            // 처리된 배치 수
 	private Counter messagesProcessedCounter;           // 처리된 메시지 수
 	private Counter coordinatorProcessedCounter;        // Coordinator가 처리한 메시지 수
 	private Timer flushTimer;                           // flush 소요 시간
-
-	// === 분당 처리량 추적 (per-minute throughput) ===
-	private final AtomicLong messagesQueuedLastMinute = new AtomicLong(0);
-	private final AtomicLong coordinatorProcessedLastMinute = new AtomicLong(0);
-	private final AtomicLong workerProcessedLastMinute = new AtomicLong(0);
-	private final AtomicLong messagesQueuedPerMinute = new AtomicLong(0);
-	private final AtomicLong coordinatorThroughputPerMinute = new AtomicLong(0);
-	private final AtomicLong workerThroughputPerMinute = new AtomicLong(0);
-	private volatile long lastResetTime = System.currentTimeMillis();
+	private Counter spillWrittenCounter;                // 디스크 스필에 기록된 메시지 수
+	private Counter spillRestoredCounter;               // 스필에서 다시 읽어 배치로 복귀한 메시지 수
+	private Counter spillRejectedCounter;               // 스필 용량 초과로 기록하지 못한 메시지 수
+	private Counter stagingCoalescedCounter;            // 스테이징에서 앞 배치에 합쳐진 배치 수
+	private Counter stagingFullCounter;                 // 스테이징이 가득 차 코디네이터가 drain 을 멈춘 횟수
+	private Timer stagingWaitTimer;                     // 배치가 스테이징에서 워커 빈자리를 기다린 시간
+	private Timer stagingBlockedTimer;                  // 스테이징 가득 참으로 코디네이터가 멈춘 시간
+	private Counter journalReplayedCounter;             // 재기동 시 journal 에서 복구해 flush 한 메시지 수
+	private Timer journalCommitTimer;                   // journal group commit(force) 대기 시간
+	private Counter retrySplitsCounter;                 // flush 실패 배치 분할 횟수 (bisect 재시도)
+	private Counter retryIsolatedCounter;               // 분할로 격리되어 DLT 로 보낸 레코드 수
+	private Counter dltRetryCounter;                    // DLT 전송 실패로 구간을 다시 보낸 횟수
+
+	private DistributionSummary batchSizeSummary;       // flush 배치 크기 분포
+	private Timer queueWaitTimer;                       // 메시지가 큐에서 코디네이터에 꺼내지기까지 대기한 시간 (샘플)
+
+	// === 단계별 처리량 (최근 1분 슬라이딩 윈도우) ===
+	private final WindowedRateMeter consumerRate = new WindowedRateMeter(THROUGHPUT_WINDOW_SECONDS);
+	private final WindowedRateMeter coordinatorRate = new WindowedRateMeter(THROUGHPUT_WINDOW_SECONDS);
+	private final WindowedRateMeter workerRate = new WindowedRateMeter(THROUGHPUT_WINDOW_SECONDS);
+
+	// === 추정 메모리 사용량 (바이트) ===
+	private final AtomicLong queuedBytes = new AtomicLong(0);    // 큐 + 코디네이터 버퍼
+	private final AtomicLong inflightBytes = new AtomicLong(0);  // 스테이징 + 워커 대기열 + flush 중
+	private final AtomicInteger pendingDltBatches = new AtomicInteger(0);  // DLT 전송 완료를 기다리는 배치 수
 
 	public BatchAccumulator(BatchWriter<T> writer, int batchSize, Duration maxLatency, int queueCapacity,
 	                        String sourceTopic, KafkaTemplate<String, Object> kafkaTemplate,
@@ -77,6 +174,15 @@ public class BatchAccumulator<T> {
 	                        int workerThreadCount, int coordinatorThreadCount, int workerQueueCapacity,
 	                        String sourceTopic, KafkaTemplate<String, Object> kafkaTemplate,
 	                        MeterRegistry meterRegistry) {
+		this(writer, batchSize, maxLatency, queueCapacity, workerThreadCount, coordinatorThreadCount, workerQueueCapacity,
+			QueueStrategy.BLOCKING, WaitStrategy.PARK, sourceTopic, kafkaTemplate, meterRegistry);
+	}
+
+	public BatchAccumulator(BatchWriter<T> writer, int batchSize, Duration maxLatency, int queueCapacity,
+	                        int workerThreadCount, int coordinatorThreadCount, int workerQueueCapacity,
+	                        QueueStrategy queueStrategy, WaitStrategy waitStrategy,
+	                        String sourceTopic, KafkaTemplate<String, Object> kafkaTemplate,
+	                        MeterRegistry meterRegistry) {
 		this.writer = writer;
 		this.batchSize = batchSize;
 		this.maxLatency = maxLatency;
@@ -84,11 +190,19 @@ public class BatchAccumulator<T> {
 		this.workerThreadCount = workerThreadCount;
 		this.coordinatorThreadCount = coordinatorThreadCount;
 		this.workerQueueCapacity = workerQueueCapacity;
+		this.queueStrategy = queueStrategy;
 		this.sourceTopic = sourceTopic;
 		this.kafkaTemplate = kafkaTemplate;
 		this.meterRegistry = meterRegistry;
-		this.queue = new ArrayBlockingQueue<>(queueCapacity);
-		this.buffer = new ArrayList<>(batchSize);
+
+		// 샤드 구성: 전체 큐 용량을 코디네이터 수만큼 나눠 각 샤드에 할당
+		int shardCount = Math.max(1, coordinatorThreadCount);
+		int shardCapacity = (queueCapacity + shardCount - 1) / shardCount;
+		List<Shard> shardList = new ArrayList<>(shardCount);
+		for (int i = 0; i < shardCount; i++) {
+			shardList.add(new Shard(i, queueStrategy.create(shardCapacity, waitStrategy), batchSize));
+		}
+		this.shards = List.copyOf(shardList);
 
 		// 메트릭 초기화
 		initializeMetrics();
@@ -97,12 +211,20 @@ public class BatchAccumulator<T> {
 	private void initializeMetrics() {
 		String topicTag = sourceTopic != null ? sourceTopic : "unknown";
 
-		// 큐 크기 게이지 (현재 큐에 대기 중인 메시지 수)
-		meterRegistry.gaugeCollectionSize(
-			"batch.accumulator.queue.size",
-			io.micrometer.core.instrument.Tags.of("topic", topicTag),
-			queue
-		);
+		// 큐 크기 게이지 (현재 큐에 대기 중인 메시지 수, 전체 샤드 합계)
+		Gauge.builder("batch.accumulator.queue.size", () -> (double) getCurrentQueueSize())
+			.tag("topic", topicTag)
+			.description("Number of messages waiting in the queue")
+			.register(meterRegistry);
+
+		// 샤드별 큐 크기 게이지
+		for (Shard shard : shards) {
+			Gauge.builder("batch.accumulator.shard.queue.size", shard.queue, AccumulatorQueue::size)
+				.tag("topic", topicTag)
+				.tag("shard", String.valueOf(shard.id))
+				.description("Number of messages waiting in the shard queue")
+				.register(meterRegistry);
+		}
 
 		// 큐 용량 게이지 (최대 큐 크기)
 		Gauge.builder("batch.accumulator.queue.capacity", () -> (double) queueCapacity)
@@ -111,17 +233,28 @@ public class BatchAccumulator<T> {
 			.register(meterRegistry);
 
 		// 큐 사용률 게이지 (0.0 ~ 1.0, 즉 0% ~ 100%)
-		Gauge.builder("batch.accumulator.queue.usage_ratio", () -> (double) queue.size() / queueCapacity)
+		Gauge.builder("batch.accumulator.queue.usage_ratio", this::getQueueUsageRatio)
 			.tag("topic", topicTag)
 			.description("Queue usage ratio (0.0 to 1.0)")
 			.register(meterRegistry);
 
 		// 큐 여유 공간 게이지
-		Gauge.builder("batch.accumulator.queue.remaining", () -> (double) (queueCapacity - queue.size()))
+		Gauge.builder("batch.accumulator.queue.remaining", () -> (double) (queueCapacity - getCurrentQueueSize()))
 			.tag("topic", topicTag)
 			.description("Remaining space in the queue")
 			.register(meterRegistry);
 
+		// 추정 메모리 사용량 게이지 (메시지 타입별 추정 크기 기준)
+		Gauge.builder("batch.accumulator.bytes.queued", queuedBytes, AtomicLong::get)
+			.tag("topic", topicTag)
+			.description("Estimated bytes of messages in queues and coordinator buffers")
+			.register(meterRegistry);
+
+		Gauge.builder("batch.accumulator.bytes.inflight", inflightBytes, AtomicLong::get)
+			.tag("topic", topicTag)
+			.description("Estimated bytes of batches staged, waiting for or running on flush workers")
+			.register(meterRegistry);
+
 		// 카운터 초기화
 		messagesQueuedCounter = Counter.builder("batch.accumulator.messages.queued")
 			.tag("topic", topicTag)
@@ -133,6 +266,11 @@ public class BatchAccumulator<T> {
 			.description("Number of messages dropped due to queue full")
 			.register(meterRegistry);
 
+		messagesRejectedCounter = Counter.builder("batch.accumulator.messages.rejected")
+			.tag("topic", topicTag)
+			.description("Number of messages not accepted by addAll() and handed back to the caller")
+			.register(meterRegistry);
+
 		batchesProcessedCounter = Counter.builder("batch.accumulator.batches.processed")
 			.tag("topic", topicTag)
 			.description("Number of batches flushed to database")
@@ -153,28 +291,148 @@ public class BatchAccumulator<T> {
 			.description("Time taken to flush a batch to database")
 			.register(meterRegistry);
 
-		// 분당 처리량 게이지 (Kafka Consumer Thread)
-		Gauge.builder("batch.accumulator.consumer.throughput.per_minute", messagesQueuedPerMinute, AtomicLong::get)
+		// 디스크 스필 메트릭 (스필 비활성 시 0)
+		Gauge.builder("batch.accumulator.spill.size", () -> (double) getSpilledMessageCount())
+			.tag("topic", topicTag)
+			.description("Messages waiting in the on-disk overflow segments")
+			.register(meterRegistry);
+
+		Gauge.builder("batch.accumulator.spill.bytes", () -> (double) getSpilledBytes())
+			.tag("topic", topicTag)
+			.description("Encoded bytes waiting in the on-disk overflow segments")
+			.register(meterRegistry);
+
+		spillWrittenCounter = Counter.builder("batch.accumulator.spill.written")
+			.tag("topic", topicTag)
+			.description("Messages written to the on-disk overflow segments")
+			.register(meterRegistry);
+
+		spillRestoredCounter = Counter.builder("batch.accumulator.spill.drained")
+			.tag("topic", topicTag)
+			.description("Messages drained back from the on-disk overflow segments into batches")
+			.register(meterRegistry);
+
+		spillRejectedCounter = Counter.builder("batch.accumulator.spill.rejected")
+			.tag("topic", topicTag)
+			.description("Messages not spilled because the overflow segments reached max bytes")
+			.register(meterRegistry);
+
+		// write-ahead journal 메트릭 (journal 비활성 시 0)
+		Gauge.builder("batch.accumulator.journal.pending", () -> (double) getJournalPendingEntries())
+			.tag("topic", topicTag)
+			.description("Journaled messages not yet flushed to database")
+			.register(meterRegistry);
+
+		Gauge.builder("batch.accumulator.journal.bytes", () -> (double) getJournalBytes())
+			.tag("topic", topicTag)
+			.description("Encoded bytes of journal segments not yet truncated")
+			.register(meterRegistry);
+
+		retrySplitsCounter = Counter.builder("batch.accumulator.retry.splits")
+			.tag("topic", topicTag)
+			.description("Times a failing batch was split in half to isolate bad records")
+			.register(meterRegistry);
+
+		retryIsolatedCounter = Counter.builder("batch.accumulator.retry.isolated")
+			.tag("topic", topicTag)
+			.description("Records isolated by batch bisection and sent to the DLT")
+			.register(meterRegistry);
+
+		dltRetryCounter = Counter.builder("batch.accumulator.dlt.retries")
+			.tag("topic", topicTag)
+			.description("Times a rejected range was re-sent because the DLT publish failed")
+			.register(meterRegistry);
+
+		journalReplayedCounter = Counter.builder("batch.accumulator.journal.replayed")
+			.tag("topic", topicTag)
+			.description("Unflushed messages recovered from the journal and flushed on startup")
+			.register(meterRegistry);
+
+		journalCommitTimer = Timer.builder("batch.accumulator.journal.commit")
+			.tag("topic", topicTag)
+			.description("Time an enqueue waited for the journal group commit")
+			.register(meterRegistry);
+
+		// handoff 스테이징 메트릭 (handoff 비활성 시 0)
+		Gauge.builder("batch.accumulator.staging.size", () -> (double) getStagedMessageCount())
+			.tag("topic", topicTag)
+			.description("Messages staged by coordinators waiting for a free flush worker")
+			.register(meterRegistry);
+
+		Gauge.builder("batch.accumulator.staging.batches", () -> (double) getStagedBatchCount())
+			.tag("topic", topicTag)
+			.description("Batches staged by coordinators waiting for a free flush worker")
+			.register(meterRegistry);
+
+		stagingCoalescedCounter = Counter.builder("batch.accumulator.staging.coalesced")
+			.tag("topic", topicTag)
+			.description("Batches merged into an earlier staged batch of the same partition")
+			.register(meterRegistry);
+
+		stagingFullCounter = Counter.builder("batch.accumulator.staging.full")
+			.tag("topic", topicTag)
+			.description("Times a coordinator stopped draining because its staging area was full")
+			.register(meterRegistry);
+
+		stagingWaitTimer = Timer.builder("batch.accumulator.staging.wait")
+			.tag("topic", topicTag)
+			.description("Time a batch waited in staging before being handed to a flush worker")
+			.register(meterRegistry);
+
+		stagingBlockedTimer = Timer.builder("batch.accumulator.staging.blocked")
+			.tag("topic", topicTag)
+			.description("Time a coordinator stopped draining while its staging area was full")
+			.register(meterRegistry);
+
+		// 분당 처리량 게이지 (Kafka Consumer Thread, 최근 1분 슬라이딩 윈도우)
+		Gauge.builder("batch.accumulator.consumer.throughput.per_minute", consumerRate, meter -> meter.ratePerSecond() * 60)
+			.tag("topic", topicTag)
+			.description("Messages received from Kafka per minute over a sliding one-minute window (consumer thread throughput)")
+			.register(meterRegistry);
+
+		// 분당 처리량 게이지 (Coordinator Thread, 최근 1분 슬라이딩 윈도우)
+		Gauge.builder("batch.accumulator.coordinator.throughput.per_minute", coordinatorRate, meter -> meter.ratePerSecond() * 60)
 			.tag("topic", topicTag)
-			.description("Messages received from Kafka per minute (consumer thread throughput)")
+			.description("Messages coordinated per minute over a sliding one-minute window (coordinator thread throughput)")
 			.register(meterRegistry);
 
-		// 분당 처리량 게이지 (Coordinator Thread)
-		Gauge.builder("batch.accumulator.coordinator.throughput.per_minute", coordinatorThroughputPerMinute, AtomicLong::get)
+		// 분당 처리량 게이지 (Worker Thread, 최근 1분 슬라이딩 윈도우)
+		Gauge.builder("batch.accumulator.worker.throughput.per_minute", workerRate, meter -> meter.ratePerSecond() * 60)
 			.tag("topic", topicTag)
-			.description("Messages coordinated per minute (coordinator thread throughput)")
+			.description("Messages flushed to DB per minute over a sliding one-minute window (worker thread throughput)")
 			.register(meterRegistry);
 
-		// 분당 처리량 게이지 (Worker Thread)
-		Gauge.builder("batch.accumulator.worker.throughput.per_minute", workerThroughputPerMinute, AtomicLong::get)
+		// 배치 크기 / 큐 대기시간 분포 (백분위 히스토그램)
+		batchSizeSummary = DistributionSummary.builder("batch.accumulator.batch.size")
 			.tag("topic", topicTag)
-			.description("Messages flushed to DB per minute (worker thread throughput)")
+			.baseUnit("messages")
+			.description("Messages per batch handed to the DB writer")
+			.publishPercentileHistogram()
+			.minimumExpectedValue(1.0)
+			.register(meterRegistry);
+
+		queueWaitTimer = Timer.builder("batch.accumulator.queue.wait")
+			.tag("topic", topicTag)
+			.description("Time a sampled message waited in the accumulator queue before a coordinator drained it")
+			.publishPercentileHistogram()
+			.minimumExpectedValue(Duration.ofMillis(1))
+			.register(meterRegistry);
+
+		// 현재 적용 중인 배치 크기 / 최대 대기시간 게이지 (자동 조정 시 변동)
+		Gauge.builder("batch.accumulator.effective.batch_size", () -> (double) currentBatchSize())
+			.tag("topic", topicTag)
+			.description("Batch size currently applied by coordinators (N)")
+			.register(meterRegistry);
+
+		Gauge.builder("batch.accumulator.effective.max_latency_ms", () -> (double) currentMaxLatencyMs())
+			.tag("topic", topicTag)
+			.description("Max batch latency currently applied by coordinators (T, ms)")
 			.register(meterRegistry);
 
 		// 워커 작업 큐 크기 게이지 (현재 대기 중인 flush 작업 수)
 		Gauge.builder("batch.accumulator.worker.queue.size", () -> {
-			if (flushExecutorPool instanceof ThreadPoolExecutor tpe) {
-				return (double) tpe.getQueue().size();
+			if (flushExecutorPool != null) {
+				return (double) flushExecutorPool.getQueuedTaskCount();
 			}
 			return 0.0;
 		})
@@ -189,20 +447,15 @@ public class BatchAccumulator<T> {
 			.register(meterRegistry);
 
 		// 워커 작업 큐 사용률 게이지 (0.0 ~ 1.0)
-		Gauge.builder("batch.accumulator.worker.queue.usage_ratio", () -> {
-			if (flushExecutorPool instanceof ThreadPoolExecutor tpe) {
-				return (double) tpe.getQueue().size() / workerQueueCapacity;
-			}
-			return 0.0;
-		})
+		Gauge.builder("batch.accumulator.worker.queue.usage_ratio", this::workerQueueUsageRatio)
 			.tag("topic", topicTag)
 			.description("Worker queue usage ratio (0.0 to 1.0)")
 			.register(meterRegistry);
 
 		// 워커 활성 스레드 수 게이지
 		Gauge.builder("batch.accumulator.worker.active_threads", () -> {
-			if (flushExecutorPool instanceof ThreadPoolExecutor tpe) {
-				return (double) tpe.getActiveCount();
+			if (flushExecutorPool != null) {
+				return (double) flushExecutorPool.getActiveCount();
 			}
 			return 0.0;
 		})
@@ -213,352 +466,1754 @@ public class BatchAccumulator<T> {
 
 	/** 리스너(단건 소비)에서 호출: 매우 빠르게 끝나야 함 */
 	public void add(T item) {
-		// DEBUG: null 체크 (ArrayBlockingQueue는 null을 허용하지 않으므로 NPE 발생)
+		// DEBUG: null 체크 (내부 큐는 null을 허용하지 않음 - 링 버퍼에서는 빈 슬롯과 구분 불가)
 		if (item == null) {
 			log.error("[{}] CRITICAL: Attempting to add NULL item to accumulator! This will cause NPE. " +
 				"Caller should never pass null.", sourceTopic);
 			throw new NullPointerException("Cannot add null item to BatchAccumulator for topic: " + sourceTopic);
 		}
 
+		Shard shard = shardFor(item);
+
+		// 메모리 예산 예약 (예산 소진 시 큐 가득 참과 동일하게 처리)
+		// 스필이 비어있지 않으면 순서 유지를 위해 메모리 큐를 건너뛰고 스필 뒤에 붙임
+		long bytes = sizeEstimator != null ? sizeEstimator.applyAsLong(item) : 0;
+		boolean reserved = !shard.isSpilling() && (memoryBudget == null || memoryBudget.tryReserve(bytes));
+
 		// 정책 1) 초고신뢰: 대기해서라도 반드시 적재 (offer with timeout)
-		boolean ok;
-		try {
-			ok = queue.offer(item, 5, TimeUnit.MILLISECONDS);
-		} catch (InterruptedException e) {
-			Thread.currentThread().interrupt();
-			ok = false;
-		} catch (NullPointerException e) {
-			log.error("[{}] NPE occurred while adding to queue - item was null!", sourceTopic, e);
-			throw e;
+		boolean ok = false;
+		if (reserved) {
+			try {
+				ok = shard.offer(item, 5, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				ok = false;
+			} catch (NullPointerException e) {
+				log.error("[{}] NPE occurred while adding to queue - item was null!", sourceTopic, e);
+				throw e;
+			}
+			if (ok) {
+				queuedBytes.addAndGet(bytes);
+			} else if (memoryBudget != null) {
+				memoryBudget.release(bytes);
+			}
 		}
+		// 큐 가득참: 디스크 스필로 넘김 (코디네이터가 메모리 큐가 비면 FIFO 로 다시 읽어감)
+		boolean spilled = !ok && spill(shard, item);
+		checkPressureOn(!ok && !spilled);
 		if (ok) {
 			messagesQueuedCounter.increment();
-			messagesQueuedLastMinute.incrementAndGet();  // 분당 처리량 추적
-		} else {
-			// 큐 가득참: DLT로 전송
+			consumerRate.record(1);
+		} else if (!spilled) {
+			// 큐 가득참 + 스필 불가(비활성/용량 초과): DLT로 전송
 			messagesDroppedCounter.increment();
-			log.warn("[{}] Accumulator queue full (capacity={}); sending message to DLT. item={}",
-				sourceTopic, queueCapacity, item);
+			log.warn("[{}] Accumulator queue full or memory budget exhausted (capacity={}); sending message to DLT",
+				sourceTopic, queueCapacity);
 
 			// DLT로 단건 전송 (비동기)
 			sendSingleMessageToDlt(item);
 		}
 	}
 
-	@PostConstruct
-	public void start() {
-		// 경고: coordinator가 여러 개일 경우 buffer thread-safety 문제 발생 가능
-		if (coordinatorThreadCount > 1) {
-			log.warn("coordinatorThreadCount > 1 is experimental and may cause thread-safety issues with buffer. " +
-				"Recommended value is 1. Current value: {}", coordinatorThreadCount);
-		}
-
-		// 1. 배치 수집 코디네이터 스레드 풀
-		coordinatorExecutor = Executors.newFixedThreadPool(coordinatorThreadCount, r -> {
-			Thread t = new Thread(r, "batch-coordinator-" + System.identityHashCode(this));
-			t.setDaemon(true);
-			return t;
-		});
-
-		// 2. 배치 flush 워커 풀 (병렬 처리) - bounded queue + CallerRunsPolicy로 메모리 누수 방지
-		flushExecutorPool = new ThreadPoolExecutor(
-			workerThreadCount,                       // corePoolSize
-			workerThreadCount,                       // maximumPoolSize
-			60L, TimeUnit.SECONDS,                   // keepAliveTime
-			new ArrayBlockingQueue<>(workerQueueCapacity),  // bounded queue (메모리 제한)
-			r -> {
-				Thread t = new Thread(r, "batch-flush-worker-" + System.identityHashCode(this));
-				t.setDaemon(true);
-				return t;
-			},
-			new ThreadPoolExecutor.CallerRunsPolicy()  // 큐 가득 차면 Coordinator가 직접 실행 → 자연스러운 백프레셔
-		);
-
-		// 3. 메트릭 업데이트 스케줄러 (5초마다 업데이트, 1분마다 리셋)
-		metricsScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-			Thread t = new Thread(r, "batch-metrics-updater-" + System.identityHashCode(this));
-			t.setDaemon(true);
-			return t;
-		});
-
-		// 5초마다 메트릭 업데이트 (현재 누적값 반영)
-		// 1분마다 자동으로 리셋 (내부 로직에서 처리)
-		metricsScheduler.scheduleAtFixedRate(this::updateThroughputMetrics, 5, 5, TimeUnit.SECONDS);
-
-		// 코디네이터 수만큼 runLoop 실행
-		for (int i = 0; i < coordinatorThreadCount; i++) {
-			int coordinatorId = i;
-			coordinatorExecutor.submit(() -> {
-				log.info("[{}] Coordinator thread #{} started", sourceTopic, coordinatorId);
-				runLoop();
-			});
-		}
-
-		log.info("[{}] BatchAccumulator started: batchSize={}, maxLatency={}ms, queueCapacity={}, " +
-			"coordinatorThreads={}, workerThreads={}",
-			sourceTopic, batchSize, maxLatency.toMillis(), queueCapacity, coordinatorThreadCount, workerThreadCount);
-	}
-
-	/**
-	 * 현재 큐 사용률 반환 (0.0 ~ 1.0)
-	 * Kafka Consumer pause/resume 판단에 사용
-	 */
-	public double getQueueUsageRatio() {
-		return (double) queue.size() / queueCapacity;
-	}
-
 	/**
-	 * 큐가 임계값 이상으로 차 있는지 확인
-	 * @param threshold 임계값 (0.0 ~ 1.0, 예: 0.8 = 80%)
-	 * @return 임계값 이상이면 true
+	 * 리스너(배치 소비)에서 호출: poll 한 번의 메시지를 한 번에 적재
+	 * - 큐 용량을 한 번에 예약하고 메트릭도 배치 단위로 1회만 갱신
+	 * - 큐 여유가 부족하면 앞에서부터 들어가는 만큼만 적재 (부분 수용)
+	 * - 스필이 설정되어 있으면 메모리 큐에 못 들어간 메시지는 디스크 스필에 기록 (스필 용량까지 수용)
+	 * - 수용되지 않은 나머지는 DLT로 보내지 않고 호출자에게 반환 → 호출자가 재전달(nack)로 백프레셔 적용
+	 * - journal 모드면 메모리 큐에 적재된 메시지는 journal group commit 까지 끝난 뒤 반환 (반환 후 ack 해도 안전)
+	 * - items 에 null 이 포함되면 안 됨 (호출자에서 필터링)
+	 * - 샤드가 여러 개면 샤드별로 나눠 예약하고, 처음 거절된 메시지 앞까지를 accepted 로 반환
+	 *   (그 뒤 메시지 중 다른 샤드에 적재된 것은 재전달 시 한 번 더 upsert 됨 - 멱등이므로 결과 동일)
 	 */
-	public boolean isQueueOverThreshold(double threshold) {
-		return getQueueUsageRatio() >= threshold;
+	public EnqueueResult addAll(List<T> items) {
+		return addAll(items, null);
 	}
 
 	/**
-	 * 현재 큐 사이즈 반환
+	 * addAll() + flush 완료 콜백 (flush watermark 추적 설정 시에만 사용 가능)
+	 * - onFlushed: 이번 호출로 메모리 큐에 적재된 메시지가 모두 flush(재시도/DLT 포함) 되면 워커 스레드에서 1회 실행
+	 *   (같은 샤드에 먼저 적재된 메시지까지 모두 끝난 시점 = 샤드별 연속 flush 완료 지점 기준)
+	 * - 적재되지 않은 메시지는 스필하지 않고 호출자에게 반환 (Kafka 가 버퍼 역할 → 재전달로 처리)
 	 */
-	public int getCurrentQueueSize() {
-		return queue.size();
+	public EnqueueResult addAll(List<T> items, Runnable onFlushed) {
+		return addAll(items, onFlushed, null);
 	}
 
 	/**
-	 * 5초마다 실행: 현재 누적된 처리량을 게이지에 업데이트
-	 * 1분마다: 누적 카운터를 0으로 리셋하여 새로운 1분 측정 시작
+	 * addAll() + 메시지별 Kafka 레코드 timestamp (recordTimestamps[i] = items[i] 의 레코드 timestamp, null 허용)
+	 * - 지연 샘플(큐 대기 → DB 커밋)에 함께 실려 commit 구간 지연 계산에 사용
 	 */
-	private void updateThroughputMetrics() {
-		try {
-			long currentTime = System.currentTimeMillis();
-			long elapsedSeconds = (currentTime - lastResetTime) / 1000;
-
-			// 현재 누적값을 게이지에 설정 (리셋하지 않음)
-			long consumerThroughput = messagesQueuedLastMinute.get();
-			long coordinatorThroughput = coordinatorProcessedLastMinute.get();
-			long workerThroughput = workerProcessedLastMinute.get();
-
-			messagesQueuedPerMinute.set(consumerThroughput);
-			coordinatorThroughputPerMinute.set(coordinatorThroughput);
-			workerThroughputPerMinute.set(workerThroughput);
-
-			// 1분(60초) 경과 시 리셋
-			if (elapsedSeconds >= 60) {
-				messagesQueuedLastMinute.set(0);
-				coordinatorProcessedLastMinute.set(0);
-				workerProcessedLastMinute.set(0);
-				lastResetTime = currentTime;
-
-				log.debug("[{}] Throughput metrics RESET after 1 minute: consumer={}/min, coordinator={}/min, worker={}/min, queue={}",
-					sourceTopic, consumerThroughput, coordinatorThroughput, workerThroughput, queue.size());
-			} else {
-				log.debug("[{}] Throughput metrics updated ({}s): consumer={}, coordinator={}, worker={}, queue={}",
-					sourceTopic, elapsedSeconds, consumerThroughput, coordinatorThroughput, workerThroughput, queue.size());
-			}
-		} catch (Exception e) {
-			log.error("Failed to update throughput metrics", e);
+	public EnqueueResult addAll(List<T> items, Runnable onFlushed, long[] recordTimestamps) {
+		if (onFlushed != null && !flushWatermarkTracking) {
+			throw new IllegalStateException("Flush watermark tracking is not enabled for topic: " + sourceTopic);
+		}
+		FlushCompletion completion = onFlushed != null ? new FlushCompletion(onFlushed) : null;
+		EnqueueResult result = enqueueAll(items, completion, recordTimestamps);
+		if (completion != null) {
+			completion.arm();
 		}
+		return result;
 	}
 
-	@PreDestroy
-	public void stop() {
-		running = false;
-
-		// 메트릭 스케줄러 종료
-		if (metricsScheduler != null) {
-			metricsScheduler.shutdownNow();
+	private EnqueueResult enqueueAll(List<T> items, FlushCompletion completion, long[] recordTimestamps) {
+		int requested = items.size();
+		if (requested == 0) {
+			return new EnqueueResult(0, 0);
 		}
 
-		coordinatorExecutor.shutdownNow();
-		try {
-			coordinatorExecutor.awaitTermination(5, TimeUnit.SECONDS);
-		} catch (InterruptedException ignored) {
-			Thread.currentThread().interrupt();
+		// 메모리 예산: 앞에서부터 예산 안에 들어가는 메시지까지만 메모리 큐 적재 대상
+		long[] sizes = estimateSizes(items);
+		int admissible = requested;
+		long reservedBytes = 0;
+		if (sizes != null) {
+			long total = 0;
+			for (long size : sizes) {
+				total += size;
+			}
+			if (memoryBudget != null) {
+				long granted = memoryBudget.tryReserveUpTo(total);
+				admissible = 0;
+				while (admissible < requested && reservedBytes + sizes[admissible] <= granted) {
+					reservedBytes += sizes[admissible++];
+				}
+				memoryBudget.release(granted - reservedBytes);  // 메시지 경계에 맞지 않는 나머지 반납
+			} else {
+				reservedBytes = total;
+			}
 		}
 
-		// 남은 것 최종 flush
-		flushRemainder();
+		// 메모리 큐 적재 (샤드별, 원래 순서 유지) → 적재되지 않은 메시지 표시
+		int enqueued = 0;
+		long enqueuedBytes = 0;
+		boolean[] leftover = null;  // 샤드가 여러 개일 때만 사용 (적재 안 된 메시지 = true)
+		int firstLeftover;          // 샤드 1개: 이 인덱스부터 모두 적재 안 됨
+		if (shards.size() == 1) {
+			Shard shard = shards.get(0);
+			if (admissible > 0 && !shard.isSpilling()) {
+				enqueued = shard.offerBatch(admissible == requested ? items : items.subList(0, admissible), completion,
+					recordTimestamps != null ? recordTimestamps[0] : 0);
+			}
+			if (sizes != null) {
+				for (int i = 0; i < enqueued; i++) {
+					enqueuedBytes += sizes[i];
+				}
+			}
+			firstLeftover = enqueued;
+		} else {
+			leftover = new boolean[requested];
+			List<List<T>> perShard = new ArrayList<>(shards.size());
+			List<int[]> perShardIndexes = new ArrayList<>(shards.size());
+			int[] counts = new int[shards.size()];
+			int[] shardOfItem = new int[admissible];
+			for (int i = 0; i < admissible; i++) {
+				int shardId = shardFor(items.get(i)).id;
+				shardOfItem[i] = shardId;
+				counts[shardId]++;
+			}
+			for (int s = 0; s < shards.size(); s++) {
+				perShard.add(new ArrayList<>(counts[s]));
+				perShardIndexes.add(new int[counts[s]]);
+			}
+			for (int i = 0; i < admissible; i++) {
+				List<T> target = perShard.get(shardOfItem[i]);
+				perShardIndexes.get(shardOfItem[i])[target.size()] = i;
+				target.add(items.get(i));
+			}
+			for (int i = admissible; i < requested; i++) {
+				leftover[i] = true;
+			}
 
-		// flush 워커 풀 종료
-		flushExecutorPool.shutdown();
-		try {
-			flushExecutorPool.awaitTermination(10, TimeUnit.SECONDS);
-		} catch (InterruptedException ignored) {
-			Thread.currentThread().interrupt();
+			for (int s = 0; s < shards.size(); s++) {
+				List<T> shardItems = perShard.get(s);
+				if (shardItems.isEmpty()) {
+					continue;
+				}
+				Shard shard = shards.get(s);
+				int[] indexes = perShardIndexes.get(s);
+				int shardAccepted = shard.isSpilling() ? 0
+					: shard.offerBatch(shardItems, completion, recordTimestamps != null ? recordTimestamps[indexes[0]] : 0);
+				enqueued += shardAccepted;
+				if (sizes != null) {
+					for (int j = 0; j < shardAccepted; j++) {
+						enqueuedBytes += sizes[indexes[j]];
+					}
+				}
+				for (int j = shardAccepted; j < indexes.length; j++) {
+					leftover[indexes[j]] = true;
+				}
+			}
+			firstLeftover = requested;
+			for (int i = 0; i < requested; i++) {
+				if (leftover[i]) {
+					firstLeftover = i;
+					break;
+				}
+			}
 		}
 
-		log.info("BatchAccumulator stopped");
-	}
-
-	/** 워커 스레드 메인 루프: N 또는 T 조건으로 flush */
-	private void runLoop() {
-		long lastFlushNanos = System.nanoTime();
-		final long maxWaitNanos = maxLatency.toNanos();
-
-		try {
-			while (running) {
-				// 1) 첫 건을 poll (최대 maxLatency 대기) → 없으면 타임아웃으로 주기적 flush 기회
-				T first = queue.poll(maxLatency.toMillis(), TimeUnit.MILLISECONDS);
-				long now = System.nanoTime();
-
-				if (first != null) {
-					buffer.add(first);
-					int coordinatorProcessedCount = 1;  // poll로 1개 가져옴
-
-					// 2) 큐에 남은 것 한 번에 더 가져오기 (drainTo로 I/O 호출 수 최소화)
-					int drained = queue.drainTo(buffer, batchSize - buffer.size());
-					coordinatorProcessedCount += drained;
+		if (sizes != null) {
+			queuedBytes.addAndGet(enqueuedBytes);
+			if (memoryBudget != null) {
+				memoryBudget.release(reservedBytes - enqueuedBytes);  // 큐에 들어가지 못한 메시지 몫 반납
+			}
+		}
 
-					// Coordinator 처리량 메트릭 기록
-					coordinatorProcessedCounter.increment(coordinatorProcessedCount);
-					coordinatorProcessedLastMinute.addAndGet(coordinatorProcessedCount);
+		// 메모리 큐에 못 들어간 메시지: 스필이 있으면 순서대로 디스크에 기록, 스필도 가득 차면 그 앞까지만 수용
+		int accepted = firstLeftover;
+		if (firstLeftover < requested && hasSpill() && completion == null) {
+			accepted = requested;
+			for (int i = firstLeftover; i < requested; i++) {
+				if (leftover != null && !leftover[i]) {
+					continue;
 				}
-
-				boolean sizeReached = buffer.size() >= batchSize;
-				boolean timeReached = !buffer.isEmpty() && (now - lastFlushNanos) >= maxWaitNanos;
-
-				if (sizeReached || timeReached) {
-					List<T> toFlush = new ArrayList<>(buffer);
-					int currentBatchSize = toFlush.size();
-					buffer.clear();
-					lastFlushNanos = now;
-
-					// 워커 풀에 비동기로 flush 작업 제출 (병렬 처리)
-					flushExecutorPool.submit(() -> {
-						flushTimer.record(() -> {
-							try {
-								writer.flush(toFlush); // DB 배치 UPSERT (트랜잭션 내부)
-
-								// 메트릭 기록
-								batchesProcessedCounter.increment();
-								messagesProcessedCounter.increment(currentBatchSize);
-								workerProcessedLastMinute.addAndGet(currentBatchSize);
-
-								log.debug("Batch flushed successfully: size={}", currentBatchSize);
-							} catch (Exception e) {
-								log.error("Batch flush failed; size={}", currentBatchSize, e);
-								retryFlush(toFlush, 3);
-							}
-						});
-					});
+				T item = items.get(i);
+				if (!spill(shardFor(item), item)) {
+					accepted = i;
+					break;
 				}
 			}
-		} catch (InterruptedException ie) {
-			Thread.currentThread().interrupt();
-		} finally {
-			flushRemainder();
 		}
-	}
 
-	private void retryFlush(List<T> batch, int maxRetry) {
-		int attempt = 0;
-		while (attempt++ < maxRetry) {
-			try {
-				writer.flush(batch);
-				log.info("Retry {}/{} succeeded", attempt, maxRetry);
-				return;
-			} catch (Exception e) {
-				log.warn("Retry {}/{} failed", attempt, maxRetry, e);
-				sleepQuiet(50L * attempt);
-			}
+		if (enqueued > 0) {
+			messagesQueuedCounter.increment(enqueued);
+			consumerRate.record(enqueued);
 		}
-		// 최종 실패 시 DLT로 전송
-		log.error("Permanent failure after {} attempts; sending {} messages to DLT", maxRetry, batch.size());
-		sendToDlt(batch);
+		checkPressureOn(accepted < requested);
+		if (accepted < requested) {
+			messagesRejectedCounter.increment(requested - accepted);
+			log.debug("[{}] Accumulator queue full or memory budget exhausted (capacity={}); accepted {}/{} messages",
+				sourceTopic, queueCapacity, accepted, requested);
+		}
+		return new EnqueueResult(requested, accepted);
 	}
 
 	/**
-	 * 큐 오버플로우 시 단건 메시지를 DLT로 즉시 전송 (비동기, 비차단)
-	 * - 리스너 스레드를 차단하지 않도록 fire-and-forget 방식
+	 * 백프레셔 통지 설정 (기동 후 리스너에서 등록 가능)
+	 * - 적재 경로에서 사용률(큐 / 메모리 예산 중 큰 값)이 onThreshold 를 넘거나 적재가 거절되는 순간 overloaded=true 통지
+	 * - 코디네이터가 drain 한 뒤 사용률이 offThreshold 이하로 내려가는 순간 overloaded=false 통지
+	 * - 임계값을 넘을 때 1회씩만 통지 (edge-triggered)
 	 */
-	private void sendSingleMessageToDlt(T message) {
-		if (kafkaTemplate == null || sourceTopic == null) {
-			log.warn("KafkaTemplate or sourceTopic not configured; cannot send to DLT");
-			return;
-		}
+	public void setPressureListener(PressureListener pressureListener, double onThreshold, double offThreshold) {
+		this.pressureOnThreshold = onThreshold;
+		this.pressureOffThreshold = offThreshold;
+		this.pressureListener = pressureListener;  // volatile 쓰기 → 임계값이 먼저 보이도록 마지막에 설정
+	}
 
-		String dltTopic = sourceTopic + ".DLT";
+	/** 백프레셔 판단용 사용률: 샤드 큐 사용률, 전체 메모리 예산 사용률, 스필 사용률 중 가장 큰 값 */
+	public double getPressureRatio() {
+		double ratio = getQueueUsageRatio();
+		if (memoryBudget != null) {
+			ratio = Math.max(ratio, memoryBudget.usageRatio());
+		}
+		for (Shard shard : shards) {
+			SpillQueue<T> spill = shard.spill;
+			if (spill != null) {
+				ratio = Math.max(ratio, (double) spill.bytes() / spill.maxBytes());
+			}
+		}
+		return ratio;
+	}
 
-		// 비동기 전송 (리스너 스레드를 차단하지 않음)
-		kafkaTemplate.send(dltTopic, message)
-			.whenComplete((result, ex) -> {
-				if (ex != null) {
-					log.error("[{}] Failed to send dropped message to DLT topic={}, message={}",
-						sourceTopic, dltTopic, message, ex);
-				} else {
-					log.info("[{}] Successfully sent dropped message to DLT topic={}, offset={}",
-						sourceTopic, dltTopic, result.getRecordMetadata().offset());
-				}
-			});
+	public boolean isOverloaded() {
+		return overloaded.get();
 	}
 
 	/**
-	 * 최종 실패한 배치를 DLT(Dead Letter Topic)로 전송
-	 * - 각 메시지의 전체 value 데이터를 JSON으로 직렬화하여 전송
-	 * - 동기적으로 전송 결과를 확인하여 성공/실패 여부 판단
+	 * 즉시 flush 요청 (리밸런스로 파티션이 회수될 때 등)
+	 * - 코디네이터가 N/T 조건을 기다리지 않고 버퍼를 바로 배치로 넘기고, 큐가 빌 때까지 계속 바로 넘김
+	 * - 큐의 메시지는 Kafka 파티션 정보가 없으므로 토픽 전체(모든 샤드) 대상
 	 */
-	private void sendToDlt(List<T> batch) {
-		if (kafkaTemplate == null || sourceTopic == null) {
-			log.warn("KafkaTemplate or sourceTopic not configured; cannot send to DLT");
-			return;
+	public void requestFlush() {
+		for (Shard shard : shards) {
+			shard.flushRequested = true;
 		}
+	}
 
-		String dltTopic = sourceTopic + ".DLT";
-		int successCount = 0;
-		int failureCount = 0;
-
-		for (T message : batch) {
-			try {
-				// 동기적으로 전송하고 결과 확인 (블로킹)
-				// message 객체 전체가 JSON으로 직렬화되어 value로 전송됨
-				kafkaTemplate.send(dltTopic, message)
-					.whenComplete((result, ex) -> {
-						if (ex != null) {
-							log.error("Failed to send message to DLT topic={}, message={}", dltTopic, message, ex);
-						} else {
-							log.debug("Successfully sent message to DLT topic={}, offset={}",
-								dltTopic, result.getRecordMetadata().offset());
-						}
-					})
-					.get(5, TimeUnit.SECONDS);  // 최대 5초 대기
-				successCount++;
-			} catch (Exception e) {
-				log.error("Failed to send message to DLT topic={}, message={}", dltTopic, message, e);
-				failureCount++;
-			}
+	/** 적재 경로(리스너 스레드)에서 호출 */
+	private void checkPressureOn(boolean rejected) {
+		PressureListener listener = pressureListener;
+		if (listener == null || overloaded.get()) {
+			return;
 		}
+		double ratio = getPressureRatio();
+		if ((rejected || ratio >= pressureOnThreshold) && overloaded.compareAndSet(false, true)) {
+			notifyPressure(listener, true, ratio);
+		}
+	}
 
-		log.info("Sent {} messages to DLT topic={} (success={}, failure={})",
-			batch.size(), dltTopic, successCount, failureCount);
+	/** drain 경로(코디네이터 스레드)에서 호출 */
+	private void checkPressureOff() {
+		PressureListener listener = pressureListener;
+		if (listener == null || !overloaded.get()) {
+			return;
+		}
+		double ratio = getPressureRatio();
+		if (ratio <= pressureOffThreshold && overloaded.compareAndSet(true, false)) {
+			notifyPressure(listener, false, ratio);
+		}
 	}
 
-	private void sleepQuiet(long ms) {
+	private void notifyPressure(PressureListener listener, boolean isOverloaded, double ratio) {
 		try {
-			Thread.sleep(ms);
-		} catch (InterruptedException ignored) {
-			Thread.currentThread().interrupt();
+			listener.onPressureChanged(isOverloaded, ratio);
+		} catch (Exception e) {
+			log.error("[{}] Pressure listener failed (overloaded={})", sourceTopic, isOverloaded, e);
 		}
 	}
 
-	private void flushRemainder() {
-		if (!buffer.isEmpty()) {
-			try {
-				writer.flush(new ArrayList<>(buffer));
-				log.info("Final buffer flush: size={}", buffer.size());
-			} catch (Exception e) {
-				log.error("Final flush failed", e);
-			}
-			buffer.clear();
-		}
-		List<T> tail = new ArrayList<>(queue.size());
-		queue.drainTo(tail);
-		if (!tail.isEmpty()) {
-			try {
-				writer.flush(tail);
-				log.info("Final drain flush: size={}", tail.size());
-			} catch (Exception e) {
-				log.error("Final drain flush failed", e);
-			}
-		}
+	/**
+	 * 샤드 라우팅 키 설정 (start() 이전에 호출)
+	 * - 같은 키(마켓)의 메시지는 항상 같은 샤드 → 같은 코디네이터가 순서대로 처리
+	 * - 미설정 시 호출 스레드 기준으로 샤드 선택
+	 */
+	public void setMarketKey(ToIntFunction<? super T> marketKey) {
+		this.marketKey = marketKey;
+	}
+
+	/**
+	 * 로그용 레코드 키 설정 (start() 이전에 호출)
+	 * - 재시도로 격리한 레코드를 메시지 본문 대신 이 키로 로그
+	 */
+	public void setRecordKey(Function<? super T, ?> recordKey) {
+		this.recordKey = recordKey;
+	}
+
+	/**
+	 * 원본 레코드 위치 설정 (start() 이전에 호출)
+	 * - DLT 로 보내는 메시지마다 원본 파티션 / 오프셋 헤더를 붙임 (음수면 위치 모름 → 생략)
+	 */
+	public void setSourcePosition(ToIntFunction<? super T> partitionOf, ToLongFunction<? super T> offsetOf) {
+		this.sourcePartitionOf = partitionOf;
+		this.sourceOffsetOf = offsetOf;
+	}
+
+	/**
+	 * DLT 전송 단계 설정 (start() 이전에 호출)
+	 * - 미설정 시 생성자의 kafkaTemplate 으로 기본 전송 단계 구성
+	 */
+	public void setDltPublisher(DltPublisher dltPublisher) {
+		this.dltPublisher = dltPublisher;
+	}
+
+	/**
+	 * flush 실패 배치 재시도 방식 설정 (start() 이전에 호출)
+	 * - bisect: 데이터 오류로 실패한 배치를 반씩 나눠 다시 flush → 문제 레코드만 DLT, 나머지는 저장
+	 *   (일시 장애로 판단되는 오류는 분할하지 않고 같은 구간을 재시도)
+	 * - maxRetries: 일시 장애 시 같은 구간 재시도 횟수 (bisect 비활성 시 모든 오류)
+	 * - backoffMs: 분할 구간 flush 전 대기 / 일시 장애 재시도 백오프 시작값 (지수 증가, 최대 maxBackoffMs)
+	 * - maxIsolated: 배치당 격리할 최대 레코드 수 (초과 시 남은 실패 구간은 분할 없이 DLT)
+	 */
+	public void setFlushRetry(boolean bisect, int maxRetries, long backoffMs, long maxBackoffMs, int maxIsolated) {
+		this.retryBisect = bisect;
+		this.retryMaxRetries = maxRetries;
+		this.retryBackoffMs = backoffMs;
+		this.retryMaxBackoffMs = maxBackoffMs;
+		this.retryMaxIsolated = maxIsolated;
+	}
+
+	/**
+	 * DB flush 차단기 설정 (start() 이전에 호출)
+	 * - 차단 중: 코디네이터는 배치를 만들지 않고(큐 적재만), 워커는 재시도 횟수를 쓰지 않고 probe 차례를 기다림
+	 *   → DB 장애 동안 재시도 폭주 / DLT 전송 없이 메시지를 메모리 큐(및 journal)에 유지
+	 */
+	public void setCircuitBreaker(FlushCircuitBreaker circuitBreaker) {
+		this.circuitBreaker = circuitBreaker;
+	}
+
+	/**
+	 * 구간별 지연 기록 설정 (start() 이전에 호출)
+	 * - queue: 샤드별 샘플 메시지의 큐 대기, flush: 배치 DB flush 소요 시간
+	 * - commit/source: 샘플 메시지가 DB 에 커밋된 시점까지 (Kafka 레코드 timestamp / 메시지 자체 timestamp 기준)
+	 */
+	public void setLatencyRecorder(PipelineLatencyRecorder latencyRecorder, Function<? super T, String> exchangeOf,
+	                               ToLongFunction<? super T> eventTimestampOf) {
+		this.latencyRecorder = latencyRecorder;
+		this.exchangeOf = exchangeOf;
+		this.eventTimestampOf = eventTimestampOf;
+	}
+
+	/**
+	 * flush 실행 방식 설정 (start() 이전에 호출)
+	 * - PARTITIONED: 배치를 마켓 키 해시로 나눠 파티션별 고정 워커가 flush (마켓 키 필요)
+	 */
+	public void setFlushMode(FlushExecutor.Mode flushMode) {
+		this.flushMode = flushMode;
+	}
+
+	/**
+	 * VIRTUAL 모드 동시 flush 수 설정 (start() 이전에 호출)
+	 * - 가상 스레드는 I/O 대기 중 캐리어를 점유하지 않으므로 플랫폼 워커 수보다 크게 잡을 수 있음 (DB 커넥션 풀 이하 권장)
+	 */
+	public void setVirtualFlushConcurrency(int virtualFlushConcurrency) {
+		this.virtualFlushConcurrency = virtualFlushConcurrency;
+	}
+
+	/**
+	 * AIMD 자동 조정기 설정 (start() 이전에 호출)
+	 * - 설정 시 batchSize / maxLatency 는 초기값으로만 사용되고 flush 지연에 따라 조정됨
+	 */
+	public void setAdaptiveController(AdaptiveBatchController adaptiveController) {
+		this.adaptiveController = adaptiveController;
+	}
+
+	/**
+	 * 공유 flush 스케줄러 사용 설정 (start() 이전에 호출)
+	 * - 전용 워커 풀 대신 모든 토픽이 DB 커넥션 수만큼의 워커를 가중치 기반으로 나눠 씀
+	 * - flushMode=PARTITIONED 이면 공유 스케줄러에서도 파티션별 직렬 실행 유지
+	 */
+	public void setSharedFlushScheduler(SharedFlushScheduler sharedFlushScheduler, int weight) {
+		this.sharedFlushScheduler = sharedFlushScheduler;
+		this.sharedFlushWeight = weight;
+	}
+
+	/**
+	 * 디스크 스필 설정 (start() 이전에 호출)
+	 * - 메모리 큐/예산이 가득 차면 단건 DLT 전송 대신 mmap 세그먼트 파일에 기록
+	 * - 스필이 비어있지 않은 동안 새 메시지도 스필 뒤에 붙이고, 코디네이터는 메모리 큐가 비면 스필에서 FIFO 로 읽어 배치 구성
+	 * - 종료 시 남은 스필은 디스크에 유지되어 재기동 시 복구
+	 * @param maxBytes 전체 샤드 합계 최대 크기 (샤드별로 균등 분할)
+	 */
+	public void setSpill(RecordCodec<T> codec, Path directory, int segmentBytes, long maxBytes) {
+		this.spillCodec = codec;
+		this.spillDirectory = directory;
+		this.spillSegmentBytes = segmentBytes;
+		this.spillMaxBytes = maxBytes;
+	}
+
+	/**
+	 * write-ahead journal 설정 (start() 이전에 호출)
+	 * - 메모리 큐에 적재된 메시지를 샤드별 mmap 세그먼트에 기록하고 group commit 후 적재 호출이 반환됨
+	 * - flush(재시도/DLT 포함)가 끝난 구간은 순서와 무관하게 표시되고, 연속 구간까지 세그먼트 삭제
+	 * - start() 시 이전 실행에서 flush 되지 않은 메시지를 코디네이터 기동 전에 먼저 flush
+	 * - 프로세스가 죽어도 ack 한 메시지가 유실되지 않으므로 batch-size / max-latency 를 더 크게 잡을 수 있음
+	 * @param forceOnCommit true 면 commit 마다 force() (OS 크래시 대비), false 면 mmap 기록만 (프로세스 크래시 대비)
+	 */
+	public void setJournal(RecordCodec<T> codec, Path directory, int segmentBytes, boolean forceOnCommit) {
+		this.journalCodec = codec;
+		this.journalDirectory = directory;
+		this.journalSegmentBytes = segmentBytes;
+		this.journalForceOnCommit = forceOnCommit;
+	}
+
+	/**
+	 * flush watermark 추적 설정 (start() 이전에 호출)
+	 * - 샤드별 적재 순번과 flush 완료 구간을 추적 → addAll(items, onFlushed) 사용 가능
+	 * - 적재 시 샤드 단위 락으로 큐 순서와 순번을 맞추므로 비활성 시보다 적재 경합이 조금 늘어남
+	 */
+	public void setFlushWatermarkTracking(boolean flushWatermarkTracking) {
+		this.flushWatermarkTracking = flushWatermarkTracking;
+	}
+
+	/**
+	 * journal 복구: 이전 실행에서 flush 되지 않은 메시지를 호출 스레드에서 배치 크기 단위로 flush (재시도/DLT 포함)
+	 */
+	private void replayJournal(WriteAheadJournal<T> journal) {
+		journal.recover(recovered -> {
+			int chunk = Math.max(1, batchSize);
+			for (int from = 0; from < recovered.size(); from += chunk) {
+				flushWithRetry(recovered.subList(from, Math.min(recovered.size(), from + chunk))).join();
+			}
+			journalReplayedCounter.increment(recovered.size());
+			log.info("[{}] Replayed {} unflushed messages from journal", sourceTopic, recovered.size());
+		});
+	}
+
+	/** 코디네이터 수가 줄어 더 이상 쓰지 않는 샤드 디렉터리의 journal 도 복구 */
+	private void replayOrphanJournals() {
+		if (!Files.isDirectory(journalDirectory)) {
+			return;
+		}
+		List<Path> orphans;
+		try (Stream<Path> stream = Files.list(journalDirectory)) {
+			orphans = stream.filter(path -> {
+				String name = path.getFileName().toString();
+				return name.matches("shard-\\d+") && Integer.parseInt(name.substring(6)) >= shards.size();
+			}).toList();
+		} catch (IOException e) {
+			log.warn("[{}] Failed to scan journal directory {}", sourceTopic, journalDirectory, e);
+			return;
+		}
+		for (Path orphan : orphans) {
+			WriteAheadJournal<T> journal = new WriteAheadJournal<>(orphan, journalCodec, journalSegmentBytes,
+				journalForceOnCommit);
+			replayJournal(journal);
+			journal.close();
+		}
+	}
+
+	private long getJournalPendingEntries() {
+		long pending = 0;
+		for (Shard shard : shards) {
+			WriteAheadJournal<T> journal = shard.journal;
+			if (journal != null) {
+				pending += journal.pendingEntries();
+			}
+		}
+		return pending;
+	}
+
+	private long getJournalBytes() {
+		long bytes = 0;
+		for (Shard shard : shards) {
+			WriteAheadJournal<T> journal = shard.journal;
+			if (journal != null) {
+				bytes += journal.bytes();
+			}
+		}
+		return bytes;
+	}
+
+	/** 코디네이터 배치의 적재 순번 구간 (순번 추적 비활성 또는 스필에서만 온 배치면 null) */
+	private FlushRange flushRange(Shard shard) {
+		FlushRange range = null;
+		if (shard.tracksSequences() && shard.drainSeq > shard.batchFromSeq) {
+			range = new FlushRange(shard, shard.batchFromSeq, shard.drainSeq);
+		}
+		shard.batchFromSeq = shard.drainSeq;
+		return range;
+	}
+
+	private List<FlushRange> rangesOf(FlushRange range) {
+		return range != null ? List.of(range) : List.of();
+	}
+
+	private boolean hasSpill() {
+		return spillCodec != null;
+	}
+
+	/** 스필 기록 (실패 시 false) */
+	private boolean spill(Shard shard, T item) {
+		SpillQueue<T> spill = shard.spill;
+		if (spill == null) {
+			return false;
+		}
+		if (spill.offer(item)) {
+			spillWrittenCounter.increment();
+			return true;
+		}
+		spillRejectedCounter.increment();
+		return false;
+	}
+
+	/**
+	 * 스필 → 코디네이터 버퍼 복귀 (코디네이터 스레드)
+	 * - 메모리 큐가 비었을 때만 호출 (스필보다 먼저 들어온 메시지가 먼저 처리되도록)
+	 * - 메모리 예산이 가득 차 있으면 복귀하지 않음
+	 */
+	private int restoreFromSpill(Shard shard, int max) {
+		if (max <= 0 || (memoryBudget != null && memoryBudget.usageRatio() >= 1.0)) {
+			return 0;
+		}
+		int before = shard.buffer.size();
+		int restored = shard.spill.drainTo(shard.buffer, max);
+		if (restored > 0) {
+			long bytes = estimateBytes(shard.buffer.subList(before, before + restored));
+			queuedBytes.addAndGet(bytes);
+			if (memoryBudget != null) {
+				memoryBudget.forceReserve(bytes);
+			}
+			spillRestoredCounter.increment(restored);
+		}
+		return restored;
+	}
+
+	private long getSpilledMessageCount() {
+		long spilled = 0;
+		for (Shard shard : shards) {
+			SpillQueue<T> spill = shard.spill;
+			if (spill != null) {
+				spilled += spill.size();
+			}
+		}
+		return spilled;
+	}
+
+	private long getSpilledBytes() {
+		long spilled = 0;
+		for (Shard shard : shards) {
+			SpillQueue<T> spill = shard.spill;
+			if (spill != null) {
+				spilled += spill.bytes();
+			}
+		}
+		return spilled;
+	}
+
+	/**
+	 * handoff 모드 설정 (start() 이전에 호출)
+	 * - 워커 대기열이 가득 차면 CallerRunsPolicy/대기 대신 샤드별 스테이징에 배치를 모아두고 큐 drain 을 계속함
+	 * @param stagingCapacity 샤드당 스테이징 최대 메시지 수 (0 이하면 비활성)
+	 */
+	public void setHandoffStagingCapacity(int stagingCapacity) {
+		this.stagingCapacity = stagingCapacity;
+	}
+
+	/**
+	 * 메모리 예산 설정 (start() 이전에 호출)
+	 * - 적재 시 메시지 추정 크기만큼 예산을 예약하고, flush 완료 후 반납
+	 * - 예산이 부족하면 큐 가득 참과 동일하게 적재 거절 (addAll 은 부분 수용)
+	 * @param memoryBudget null 이면 바이트 추적만 하고 제한하지 않음
+	 */
+	public void setMemoryBudget(ToLongFunction<? super T> sizeEstimator, MemoryBudget memoryBudget) {
+		this.sizeEstimator = sizeEstimator;
+		this.memoryBudget = memoryBudget;
+	}
+
+	/**
+	 * 힙 압박 감지기 설정 (start() 이전에 호출)
+	 * - Old Gen 압박 중에는 전체 accumulator 의 동시 flush 수가 제한됨
+	 */
+	public void setHeapPressureMonitor(HeapPressureMonitor heapPressureMonitor) {
+		this.heapPressureMonitor = heapPressureMonitor;
+	}
+
+	private long[] estimateSizes(List<T> items) {
+		ToLongFunction<? super T> estimator = sizeEstimator;
+		if (estimator == null) {
+			return null;
+		}
+		long[] sizes = new long[items.size()];
+		for (int i = 0; i < sizes.length; i++) {
+			sizes[i] = estimator.applyAsLong(items.get(i));
+		}
+		return sizes;
+	}
+
+	private long estimateBytes(List<T> batch) {
+		ToLongFunction<? super T> estimator = sizeEstimator;
+		if (estimator == null) {
+			return 0;
+		}
+		long bytes = 0;
+		for (T item : batch) {
+			bytes += estimator.applyAsLong(item);
+		}
+		return bytes;
+	}
+
+	/** 배치가 메모리에서 빠져나감: 추적 바이트 차감 + 예산 반납 */
+	private void releaseBytes(List<T> batch, AtomicLong tracked) {
+		long bytes = estimateBytes(batch);
+		if (bytes == 0) {
+			return;
+		}
+		tracked.addAndGet(-bytes);
+		if (memoryBudget != null) {
+			memoryBudget.release(bytes);
+		}
+	}
+
+	public long getQueuedBytes() {
+		return queuedBytes.get();
+	}
+
+	public long getInflightBytes() {
+		return inflightBytes.get();
+	}
+
+	private int currentBatchSize() {
+		AdaptiveBatchController controller = adaptiveController;
+		return controller != null ? controller.getBatchSize() : batchSize;
+	}
+
+	private long currentMaxLatencyMs() {
+		AdaptiveBatchController controller = adaptiveController;
+		return controller != null ? controller.getMaxLatencyMs() : maxLatency.toMillis();
+	}
+
+	private double workerQueueUsageRatio() {
+		if (flushExecutorPool == null) {
+			return 0.0;
+		}
+		return (double) flushExecutorPool.getQueuedTaskCount() / workerQueueCapacity;
+	}
+
+	private Shard shardFor(T item) {
+		if (shards.size() == 1) {
+			return shards.get(0);
+		}
+		int hash = marketKey != null
+			? marketHash(item)
+			: Long.hashCode(Thread.currentThread().getId());
+		return shards.get(Math.floorMod(hash, shards.size()));
+	}
+
+	private int marketHash(T item) {
+		int hash = marketKey.applyAsInt(item);
+		return hash ^ (hash >>> 16);  // 상위 비트 확산 (HashMap과 동일)
+	}
+
+	@PostConstruct
+	public void start() {
+		// 설정 클래스에서 직접 호출 + @PostConstruct 로 두 번 호출될 수 있음 → 코디네이터 중복 기동 방지
+		if (!started.compareAndSet(false, true)) {
+			return;
+		}
+
+		if (shards.size() > 1 && marketKey == null) {
+			log.warn("[{}] {} shards configured without a market key; routing by producer thread",
+				sourceTopic, shards.size());
+		}
+		flushRetry = new FlushRetry<>(sourceTopic, this::flushGuarded, recordKey, circuitBreaker, retryBisect,
+			retryMaxRetries, retryBackoffMs, retryMaxBackoffMs, retryMaxIsolated);
+		if (dltPublisher == null && kafkaTemplate != null) {
+			dltPublisher = new DltPublisher(kafkaTemplate, DEFAULT_DLT_MAX_IN_FLIGHT, DEFAULT_DLT_WINDOW_TIMEOUT_MS, meterRegistry);
+		}
+
+		// 1. 배치 수집 코디네이터 스레드 풀 (샤드당 1개)
+		coordinatorExecutor = Executors.newFixedThreadPool(shards.size(), r -> {
+			Thread t = new Thread(r, "batch-coordinator-" + System.identityHashCode(this));
+			t.setDaemon(true);
+			return t;
+		});
+
+		// 2. 배치 flush 워커 풀 (병렬 처리) - bounded queue로 메모리 누수 방지
+		if (flushMode == FlushExecutor.Mode.PARTITIONED && marketKey == null) {
+			log.warn("[{}] PARTITIONED flush mode requires a market key; falling back to POOLED", sourceTopic);
+			flushMode = FlushExecutor.Mode.POOLED;
+		}
+		String workerThreadName = "batch-flush-worker-" + System.identityHashCode(this);
+		if (sharedFlushScheduler != null) {
+			if (flushMode == FlushExecutor.Mode.VIRTUAL) {
+				log.warn("[{}] VIRTUAL flush mode is ignored with the shared flush scheduler", sourceTopic);
+			}
+			int partitions = flushMode == FlushExecutor.Mode.PARTITIONED ? workerThreadCount : 1;
+			flushExecutorPool = sharedFlushScheduler.register(sourceTopic, sharedFlushWeight, partitions, workerQueueCapacity);
+		} else {
+			flushExecutorPool = switch (flushMode) {
+				case POOLED -> new PooledFlushExecutor(workerThreadCount, workerQueueCapacity, workerThreadName);
+				case PARTITIONED -> new PartitionedFlushExecutor(workerThreadCount, workerQueueCapacity, workerThreadName);
+				case VIRTUAL -> new VirtualThreadFlushExecutor(
+					virtualFlushConcurrency > 0 ? virtualFlushConcurrency : workerThreadCount, workerQueueCapacity,
+					workerThreadName);
+			};
+		}
+
+		// 디스크 스필: 샤드별 세그먼트 디렉터리 (이전 실행에서 남은 스필은 여기서 복구됨)
+		if (spillCodec != null) {
+			if (flushWatermarkTracking) {
+				// addAll(items, onFlushed) 는 스필하지 않음 → 남은 스필 복구만 하고 새 초과분은 nack 재전달
+				log.warn("[{}] Spill is configured together with flush-watermark tracking; overflow of watermark-tracked " +
+					"batches is not spilled (only leftover spill segments are recovered)", sourceTopic);
+			}
+			long perShardMaxBytes = Math.max(spillSegmentBytes, spillMaxBytes / shards.size());
+			for (Shard shard : shards) {
+				shard.spill = new SpillQueue<>(spillDirectory.resolve("shard-" + shard.id), spillCodec,
+					spillSegmentBytes, perShardMaxBytes);
+			}
+		}
+
+		// write-ahead journal: 샤드별 디렉터리, 이전 실행에서 flush 되지 않은 메시지는 코디네이터 기동 전에 flush
+		if (journalCodec != null) {
+			for (Shard shard : shards) {
+				WriteAheadJournal<T> journal = new WriteAheadJournal<>(journalDirectory.resolve("shard-" + shard.id),
+					journalCodec, journalSegmentBytes, journalForceOnCommit);
+				replayJournal(journal);
+				shard.enqueuedSeq = journal.nextSeq();
+				shard.drainSeq = shard.enqueuedSeq;
+				shard.batchFromSeq = shard.enqueuedSeq;
+				shard.flushed.reset(shard.enqueuedSeq);
+				shard.journal = journal;
+			}
+			replayOrphanJournals();
+		}
+
+		// handoff 모드: 샤드별 스테이징 (flush 파티션별 FIFO)
+		if (stagingCapacity > 0) {
+			for (Shard shard : shards) {
+				shard.staging = new Staging(flushExecutorPool.partitionCount());
+			}
+		}
+
+		// 3. AIMD 자동 조정 스케줄러 (설정된 경우)
+		if (adaptiveController != null) {
+			metricsScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread t = new Thread(r, "batch-metrics-updater-" + System.identityHashCode(this));
+				t.setDaemon(true);
+				return t;
+			});
+			long intervalMs = adaptiveController.getAdjustIntervalMs();
+			metricsScheduler.scheduleAtFixedRate(this::adjustBatchParameters, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+		}
+
+		// 샤드마다 전용 코디네이터로 runLoop 실행
+		for (Shard shard : shards) {
+			coordinatorExecutor.submit(() -> {
+				log.info("[{}] Coordinator thread #{} started", sourceTopic, shard.id);
+				runLoop(shard);
+			});
+		}
+
+		log.info("[{}] BatchAccumulator started: batchSize={}, maxLatency={}ms, queueCapacity={}, queueStrategy={}, " +
+			"coordinatorThreads={}, workerThreads={}, flushMode={}, sharedScheduler={}, handoffStagingCapacity={}, journal={}",
+			sourceTopic, batchSize, maxLatency.toMillis(), queueCapacity, queueStrategy, shards.size(), workerThreadCount,
+			flushMode, sharedFlushScheduler != null, stagingCapacity, journalCodec != null);
+	}
+
+	/**
+	 * 현재 큐 사용률 반환 (0.0 ~ 1.0)
+	 * Kafka Consumer pause/resume 판단에 사용
+	 * - 샤드가 여러 개면 가장 많이 찬 샤드 기준 (한 샤드만 가득 차도 적재 거절이 발생하므로)
+	 */
+	public double getQueueUsageRatio() {
+		double max = 0.0;
+		for (Shard shard : shards) {
+			max = Math.max(max, (double) shard.queue.size() / shard.queue.capacity());
+		}
+		return max;
+	}
+
+	/**
+	 * 큐가 임계값 이상으로 차 있는지 확인
+	 * @param threshold 임계값 (0.0 ~ 1.0, 예: 0.8 = 80%)
+	 * @return 임계값 이상이면 true
+	 */
+	public boolean isQueueOverThreshold(double threshold) {
+		return getQueueUsageRatio() >= threshold;
+	}
+
+	/**
+	 * 현재 큐 사이즈 반환
+	 */
+	public int getCurrentQueueSize() {
+		int size = 0;
+		for (Shard shard : shards) {
+			size += shard.queue.size();
+		}
+		return size;
+	}
+
+	private void adjustBatchParameters() {
+		try {
+			adaptiveController.adjust(workerQueueUsageRatio());
+		} catch (Exception e) {
+			log.error("[{}] Failed to adjust adaptive batch parameters", sourceTopic, e);
+		}
+	}
+
+	@PreDestroy
+	public void stop() {
+		running = false;
+
+		// 메트릭 스케줄러 종료
+		if (metricsScheduler != null) {
+			metricsScheduler.shutdownNow();
+		}
+
+		coordinatorExecutor.shutdownNow();
+		boolean coordinatorsTerminated = false;
+		try {
+			coordinatorsTerminated = coordinatorExecutor.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException ignored) {
+			Thread.currentThread().interrupt();
+		}
+
+		// 남은 것 최종 flush (종료 후 적재된 것 포함)
+		// - 코디네이터가 아직 살아 있는 샤드(파티션 put / 차단기 대기 등으로 종료 대기 시간 초과)는 건너뜀
+		//   → 큐의 단일 소비자 / 버퍼 단독 접근 유지, 코디네이터가 끝날 때 finally 에서 직접 flush
+		for (Shard shard : shards) {
+			if (coordinatorsTerminated || shard.coordinatorExited) {
+				flushRemainder(shard);
+			} else {
+				log.warn("[{}] Coordinator still running after shutdown timeout; leaving final flush to it (shard={})",
+					sourceTopic, shard.id);
+			}
+		}
+
+		// 스필은 디스크에 남겨두고 재기동 시 복구
+		for (Shard shard : shards) {
+			if (shard.spill != null) {
+				if (!shard.spill.isEmpty()) {
+					log.info("[{}] Keeping {} spilled messages on disk for next start (shard={})",
+						sourceTopic, shard.spill.size(), shard.id);
+				}
+				shard.spill.close();
+			}
+		}
+
+		// flush 워커 풀 종료
+		flushExecutorPool.shutdown();
+		try {
+			flushExecutorPool.awaitTermination(10, TimeUnit.SECONDS);
+		} catch (InterruptedException ignored) {
+			Thread.currentThread().interrupt();
+		}
+
+		// DLT 전송 중인 배치: 완료 표시(journal 정리 / watermark 전진)가 끝나도록 잠시 대기
+		long dltDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DEFAULT_DLT_WINDOW_TIMEOUT_MS);
+		while (pendingDltBatches.get() > 0 && System.nanoTime() < dltDeadline) {
+			sleepQuiet(10);
+		}
+		if (pendingDltBatches.get() > 0) {
+			log.warn("[{}] {} batches still pending on DLT at shutdown", sourceTopic, pendingDltBatches.get());
+		}
+
+		// journal: 워커 종료 후 닫음 (flush 되지 못한 구간은 재기동 시 복구)
+		for (Shard shard : shards) {
+			if (shard.journal != null) {
+				if (shard.journal.pendingEntries() > 0) {
+					log.info("[{}] Keeping {} unflushed journal entries for next start (shard={})",
+						sourceTopic, shard.journal.pendingEntries(), shard.id);
+				}
+				shard.journal.close();
+			}
+		}
+
+		log.info("BatchAccumulator stopped");
+	}
+
+	/** 샘플 메시지가 이번 drain(buffer[fromIndex..])에 포함되었으면 큐 대기시간 기록 후 다음 샘플 허용 */
+	private void recordQueueWait(Shard shard, int fromIndex, long nowNanos) {
+		QueueProbe probe = shard.queueProbe.get();
+		if (probe == null) {
+			return;
+		}
+		List<T> buffer = shard.buffer;
+		for (int i = buffer.size() - 1; i >= fromIndex; i--) {
+			if (buffer.get(i) == probe.item()) {
+				long waitNanos = nowNanos - probe.enqueuedNanos();
+				queueWaitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+				shard.queueProbe.compareAndSet(probe, null);
+				if (latencyRecorder != null) {
+					latencyRecorder.record(PipelineLatencyRecorder.Stage.QUEUE, sourceTopic, exchangeOf(buffer.get(i)), waitNanos);
+					commitProbe.compareAndSet(null, probe);  // 추적 중인 샘플이 없으면 DB 커밋까지 이어서 추적
+				}
+				return;
+			}
+		}
+	}
+
+	/** 코디네이터 메인 루프: 자기 샤드의 큐/버퍼만 사용하여 N 또는 T 조건으로 flush */
+	private void runLoop(Shard shard) {
+		AccumulatorQueue<T> queue = shard.queue;
+		List<T> buffer = shard.buffer;
+		Staging staging = shard.staging;
+		long lastFlushNanos = System.nanoTime();
+
+		try {
+			while (running) {
+				// 자동 조정 모드면 루프마다 현재 N/T 를 다시 읽음
+				int effectiveBatchSize = currentBatchSize();
+				long effectiveMaxLatencyMs = currentMaxLatencyMs();
+				long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(effectiveMaxLatencyMs);
+
+				// DB flush 차단 중: 배치를 만들지 않고 대기 (큐가 차오르면 적재 백프레셔, 컨슈머는 차단 통지로 pause)
+				FlushCircuitBreaker breaker = circuitBreaker;
+				if (breaker != null && !breaker.awaitClosed(effectiveMaxLatencyMs)) {
+					continue;
+				}
+
+				// handoff 모드: 스테이징된 배치를 워커 빈자리만큼 넘기고, 가득 찬 경우에만 drain 중단
+				long pollTimeoutMs = effectiveMaxLatencyMs;
+				if (staging != null) {
+					staging.handoff();
+					if (staging.isFull()) {
+						awaitStagingSpace(staging);
+					}
+					if (!staging.isEmpty()) {
+						pollTimeoutMs = Math.min(pollTimeoutMs, 1);  // 워커 빈자리를 빨리 확인하도록 짧게 대기
+					}
+				}
+				if (shard.flushRequested) {
+					pollTimeoutMs = Math.min(pollTimeoutMs, 1);
+				}
+
+				// 0) 스필 복귀: 메모리 큐가 비었을 때만 (스필 중에는 새 메시지도 스필로 가므로 곧 비게 됨)
+				int restored = 0;
+				if (shard.isSpilling() && queue.size() == 0) {
+					restored = restoreFromSpill(shard, effectiveBatchSize - buffer.size());
+				}
+
+				// 1) 첫 건을 poll (최대 maxLatency 대기) → 없으면 타임아웃으로 주기적 flush 기회
+				//    스필에서 읽어온 경우 대기 없이 바로 flush 판단
+				T first = restored > 0 ? null : queue.poll(pollTimeoutMs, TimeUnit.MILLISECONDS);
+				long now = System.nanoTime();
+
+				if (first != null) {
+					int drainFrom = buffer.size();
+					buffer.add(first);
+					int coordinatorProcessedCount = 1;  // poll로 1개 가져옴
+
+					// 2) 큐에 남은 것 한 번에 더 가져오기 (drainTo로 I/O 호출 수 최소화)
+					int drained = queue.drainTo(buffer, Math.max(0, effectiveBatchSize - buffer.size()));
+					coordinatorProcessedCount += drained;
+					shard.drainSeq += coordinatorProcessedCount;  // 큐 순서 = 적재 순번
+
+					// Coordinator 처리량 메트릭 기록
+					coordinatorProcessedCounter.increment(coordinatorProcessedCount);
+					coordinatorRate.record(coordinatorProcessedCount);
+					recordQueueWait(shard, drainFrom, now);
+				}
+
+				// 과부하 해제 확인 (drain 직후 사용률이 해제 임계값 이하로 내려갔는지)
+				checkPressureOff();
+
+				boolean sizeReached = buffer.size() >= effectiveBatchSize;
+				boolean timeReached = !buffer.isEmpty() && (now - lastFlushNanos) >= maxWaitNanos;
+
+				// 즉시 flush 요청: 큐가 빌 때까지 버퍼를 바로 넘김
+				if (shard.flushRequested) {
+					timeReached |= !buffer.isEmpty();
+					if (queue.size() == 0) {
+						shard.flushRequested = false;
+					}
+				}
+
+				if (sizeReached || timeReached) {
+					List<T> toFlush = new ArrayList<>(buffer);
+					buffer.clear();
+					lastFlushNanos = now;
+
+					// 추정 바이트: 큐/버퍼 → in-flight (예산은 flush 완료 시 반납)
+					long bytes = estimateBytes(toFlush);
+					queuedBytes.addAndGet(-bytes);
+					inflightBytes.addAndGet(bytes);
+
+					// 워커 풀에 비동기로 flush 작업 제출 (병렬 처리)
+					FlushRange range = flushRange(shard);
+					if (staging != null) {
+						staging.stage(toFlush, effectiveBatchSize, range);
+						staging.handoff();
+					} else {
+						dispatch(toFlush, range);
+					}
+				}
+			}
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		} finally {
+			flushRemainder(shard);
+			shard.coordinatorExited = true;  // 이후 stop() 이 이 샤드의 큐 / 버퍼를 넘겨받음
+		}
+	}
+
+	/**
+	 * 스테이징이 가득 찬 동안 코디네이터 drain 중단 (명시적 백프레셔)
+	 * - 큐가 차오르면 리스너의 pause/nack 백프레셔로 이어짐
+	 */
+	private void awaitStagingSpace(Staging staging) throws InterruptedException {
+		stagingFullCounter.increment();
+		long startNanos = System.nanoTime();
+		while (running && staging.isFull()) {
+			LockSupport.parkNanos(100_000L);  // 100µs
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			staging.handoff();
+		}
+		stagingBlockedTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
+
+	private int getStagedMessageCount() {
+		int staged = 0;
+		for (Shard shard : shards) {
+			Staging staging = shard.staging;
+			if (staging != null) {
+				staged += staging.stagedMessages;
+			}
+		}
+		return staged;
+	}
+
+	private int getStagedBatchCount() {
+		int staged = 0;
+		for (Shard shard : shards) {
+			Staging staging = shard.staging;
+			if (staging != null) {
+				staged += staging.stagedBatches;
+			}
+		}
+		return staged;
+	}
+
+	private int partitionOf(T item, int partitionCount) {
+		return Math.floorMod(marketHash(item), partitionCount);
+	}
+
+	/**
+	 * 배치를 flush 워커에 제출
+	 * - 파티션 모드: 마켓 키 해시로 나눠 파티션별 고정 워커에 제출 (같은 마켓은 항상 같은 워커)
+	 * - 적재 순번 구간(journal / flush watermark)은 나뉜 조각이 모두 flush 된 뒤 완료 처리
+	 * - 제출이 거절되면(워커 풀 종료 / 대기 중 인터럽트) 호출 스레드에서 최종 flush → 구간이 완료되지 않은 채 남지 않음
+	 */
+	private void dispatch(List<T> batch, FlushRange range) {
+		int partitionCount = flushExecutorPool.partitionCount();
+		List<FlushRange> ranges = rangesOf(range);
+		if (partitionCount == 1) {
+			if (range != null) {
+				range.expectParts(1);
+			}
+			submit(0, batch, ranges);
+			return;
+		}
+
+		List<List<T>> partitioned = new ArrayList<>(partitionCount);
+		for (int i = 0; i < partitionCount; i++) {
+			partitioned.add(null);
+		}
+		for (T item : batch) {
+			int partition = partitionOf(item, partitionCount);
+			List<T> part = partitioned.get(partition);
+			if (part == null) {
+				part = new ArrayList<>();
+				partitioned.set(partition, part);
+			}
+			part.add(item);
+		}
+		if (range != null) {
+			range.expectParts((int) partitioned.stream().filter(part -> part != null).count());
+		}
+		for (int partition = 0; partition < partitionCount; partition++) {
+			List<T> part = partitioned.get(partition);
+			if (part != null) {
+				submit(partition, part, ranges);
+			}
+		}
+	}
+
+	private void submit(int partition, List<T> batch, List<FlushRange> ranges) {
+		try {
+			flushExecutorPool.execute(partition, () -> flushBatch(batch, ranges));
+		} catch (RejectedExecutionException e) {
+			log.warn("[{}] Flush executor rejected batch ({}); flushing {} messages on caller thread",
+				sourceTopic, e.getMessage(), batch.size());
+			flushFinal(batch, ranges);
+		}
+	}
+
+	/** 워커 스레드: DB flush 1회 + 실패 시 재시도 */
+	private void flushBatch(List<T> toFlush, List<FlushRange> ranges) {
+		HeapPressureMonitor pressureMonitor = heapPressureMonitor;
+		if (pressureMonitor != null) {
+			pressureMonitor.acquireFlushSlot();
+		}
+		CompletableFuture<Void> done;
+		try {
+			done = flushWithRetry(toFlush);
+		} finally {
+			if (pressureMonitor != null) {
+				pressureMonitor.releaseFlushSlot();
+			}
+		}
+
+		// 성공/재시도/DLT 전송 모두 끝난 배치 → 메모리 예산 반납 + 적재 순번 구간 완료
+		// (DLT 로 보낸 배치는 브로커 응답 시 producer 스레드에서 완료, 워커는 기다리지 않고 다음 배치 처리)
+		if (done.isDone()) {
+			completeBatch(toFlush, ranges, !done.isCompletedExceptionally());
+			return;
+		}
+		pendingDltBatches.incrementAndGet();
+		done.whenComplete((ignored, ex) -> {
+			completeBatch(toFlush, ranges, ex == null);
+			pendingDltBatches.decrementAndGet();
+		});
+	}
+
+	/** DB 커밋까지 추적 중인 샘플이 이 배치에 있으면 commit/source 지연 기록 (없으면 오래된 샘플만 정리) */
+	private void recordCommitLatency(List<T> flushed) {
+		QueueProbe probe = commitProbe.get();
+		if (probe == null) {
+			return;
+		}
+		for (T item : flushed) {
+			if (item == probe.item()) {
+				long nowMillis = System.currentTimeMillis();
+				String exchange = exchangeOf(item);
+				latencyRecorder.recordSince(PipelineLatencyRecorder.Stage.COMMIT, sourceTopic, exchange,
+					probe.recordTimestampMs(), nowMillis);
+				if (eventTimestampOf != null) {
+					latencyRecorder.recordSince(PipelineLatencyRecorder.Stage.SOURCE, sourceTopic, exchange,
+						TimestampConverter.toEpochMillis(eventTimestampOf.applyAsLong(item)), nowMillis);
+				}
+				commitProbe.compareAndSet(probe, null);
+				return;
+			}
+		}
+		if (System.nanoTime() - probe.enqueuedNanos() > COMMIT_PROBE_TIMEOUT_NANOS) {
+			commitProbe.compareAndSet(probe, null);  // 샘플이 든 배치가 DLT 로 가거나 종료로 버려짐
+		}
+	}
+
+	private String exchangeOf(T item) {
+		return exchangeOf != null ? exchangeOf.apply(item) : null;
+	}
+
+	/**
+	 * flushed=false: 종료 중 차단기 대기를 포기했거나 DLT 로 보내지 못한 배치 → 완료 처리하지 않음
+	 * (journal 에 남겨 재기동 시 복구 / 오프셋 미커밋)
+	 */
+	private void completeBatch(List<T> toFlush, List<FlushRange> ranges, boolean flushed) {
+		releaseBytes(toFlush, inflightBytes);
+		if (!flushed) {
+			return;
+		}
+		for (FlushRange range : ranges) {
+			range.completePart();
+		}
+	}
+
+	/** DB flush + 실패 시 재시도, 최종 실패 시 DLT 전송 (반환 future 는 DLT 전송까지 끝나면 완료) */
+	private CompletableFuture<Void> flushWithRetry(List<T> toFlush) {
+		int currentBatchSize = toFlush.size();
+		long startNanos = System.nanoTime();
+		CompletableFuture<Void> done = FLUSHED;
+		batchSizeSummary.record(currentBatchSize);
+		try {
+			flushGuarded(toFlush); // DB 배치 UPSERT (트랜잭션 내부)
+
+			// 메트릭 기록
+			batchesProcessedCounter.increment();
+			messagesProcessedCounter.increment(currentBatchSize);
+			workerRate.record(currentBatchSize);
+			if (latencyRecorder != null) {
+				latencyRecorder.record(PipelineLatencyRecorder.Stage.FLUSH, sourceTopic, exchangeOf(toFlush.get(0)),
+					System.nanoTime() - startNanos);
+				recordCommitLatency(toFlush);
+			}
+
+			log.debug("Batch flushed successfully: size={}", currentBatchSize);
+		} catch (CancellationException e) {
+			log.warn("[{}] Abandoned flush while circuit is open (shutting down); size={}", sourceTopic, currentBatchSize);
+			done = ABANDONED;
+		} catch (Exception e) {
+			log.error("Batch flush failed; size={}", currentBatchSize, e);
+			try {
+				done = retryFlush(toFlush, e);
+			} catch (CancellationException ce) {
+				log.warn("[{}] Abandoned retry while circuit is open (shutting down); size={}", sourceTopic, currentBatchSize);
+				done = ABANDONED;
+			}
+		}
+		long elapsedNanos = System.nanoTime() - startNanos;
+		flushTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+		AdaptiveBatchController controller = adaptiveController;
+		if (controller != null) {
+			controller.recordFlush(elapsedNanos);
+		}
+		return done;
+	}
+
+	/**
+	 * 차단기를 거친 writer.flush (워커 스레드)
+	 * - 차단 중이면 probe 차례까지 대기, 결과를 차단기에 기록
+	 * @throws CancellationException 종료 중이라 차단기 대기를 포기한 경우
+	 */
+	private void flushGuarded(List<T> batch) {
+		FlushCircuitBreaker breaker = circuitBreaker;
+		if (breaker == null) {
+			writer.flush(batch);
+			return;
+		}
+		if (!breaker.awaitPermit(() -> running)) {
+			throw new CancellationException("Flush circuit open while shutting down");
+		}
+		try {
+			writer.flush(batch);
+		} catch (Throwable t) {
+			breaker.onFailure(t);
+			throw t;
+		}
+		breaker.onSuccess();
+	}
+
+	private CompletableFuture<Void> retryFlush(List<T> batch, Exception cause) {
+		FlushRetry.Outcome<T> outcome = flushRetry.retry(batch, cause);
+		messagesProcessedCounter.increment(outcome.persisted());
+		retrySplitsCounter.increment(outcome.splits());
+		retryIsolatedCounter.increment(outcome.isolated());
+		if (outcome.rejected().isEmpty()) {
+			return FLUSHED;
+		}
+
+		// 최종 실패 구간만 DLT로 전송
+		CompletableFuture<?>[] sent = new CompletableFuture<?>[outcome.rejected().size()];
+		int rejectedCount = 0;
+		for (int i = 0; i < sent.length; i++) {
+			FlushRetry.Rejected<T> rejected = outcome.rejected().get(i);
+			rejectedCount += rejected.items().size();
+			sent[i] = sendToDlt(rejected.items(), rejected.cause(), rejected.attempts());
+		}
+		log.error("[{}] Permanent failure; sending {} of {} messages to DLT (persisted={}, splits={}, isolated={})",
+			sourceTopic, rejectedCount, batch.size(), outcome.persisted(), outcome.splits(), outcome.isolated());
+		return CompletableFuture.allOf(sent);
+	}
+
+	/**
+	 * 큐 오버플로우 시 단건 메시지를 DLT로 즉시 전송 (비동기, 비차단)
+	 * - 리스너 스레드를 차단하지 않도록 완료를 기다리지 않음 (in-flight 상한에서만 대기)
+	 */
+	private void sendSingleMessageToDlt(T message) {
+		sendToDlt(List.of(message), QUEUE_FULL, 0);
+	}
+
+	/**
+	 * 최종 실패한 배치를 DLT(Dead Letter Topic)로 전송
+	 * - 각 메시지의 전체 value 데이터를 JSON으로 직렬화하여 전송 (헤더: 원본 토픽 / 파티션 / 오프셋, 실패 원인, 시도 횟수)
+	 * - DLT 전송 단계에서 비동기로 모아 보내고, 반환 future 는 구간 전체가 브로커에 전송되면 완료
+	 * - 전송 실패(in-flight 대기 초과 / 브로커 오류) 시 구간 전체를 백오프 후 다시 전송 → 그동안 구간을 완료하지 않으므로
+	 *   watermark / 오프셋 커밋 / journal 정리가 전송되지 않은 메시지를 넘어가지 않음
+	 *   (일부만 실패해도 구간 전체를 다시 보내므로 DLT 에 중복이 생길 수 있음)
+	 * - 종료 중 실패하면 예외로 완료 (구간 미완료 → journal 에 남겨 재기동 시 복구 / 오프셋 미커밋으로 재수신)
+	 */
+	private CompletableFuture<Void> sendToDlt(List<T> batch, Throwable cause, int attempts) {
+		DltPublisher publisher = dltPublisher;
+		if (publisher == null || sourceTopic == null) {
+			log.warn("DltPublisher or sourceTopic not configured; cannot send to DLT");
+			return FLUSHED;
+		}
+		int[] partitions = null;
+		long[] offsets = null;
+		if (sourcePartitionOf != null && sourceOffsetOf != null) {
+			partitions = new int[batch.size()];
+			offsets = new long[batch.size()];
+			for (int i = 0; i < partitions.length; i++) {
+				partitions[i] = sourcePartitionOf.applyAsInt(batch.get(i));
+				offsets[i] = sourceOffsetOf.applyAsLong(batch.get(i));
+			}
+		}
+		CompletableFuture<Void> sent = new CompletableFuture<>();
+		publishToDlt(publisher, batch, partitions, offsets, cause, attempts, 0, sent);
+		return sent;
+	}
+
+	private void publishToDlt(DltPublisher publisher, List<T> batch, int[] partitions, long[] offsets, Throwable cause,
+	                          int attempts, int failures, CompletableFuture<Void> sent) {
+		CompletableFuture<Void> published;
+		try {
+			published = publisher.publish(sourceTopic, batch, partitions, offsets, cause, attempts);
+		} catch (RuntimeException e) {
+			published = CompletableFuture.failedFuture(e);
+		}
+		published.whenComplete((ignored, ex) -> {
+			if (ex == null) {
+				sent.complete(null);
+				return;
+			}
+			if (!running) {
+				log.error("[{}] DLT publish failed while shutting down; leaving {} messages uncommitted",
+					sourceTopic, batch.size(), ex);
+				sent.completeExceptionally(ex);
+				return;
+			}
+			long backoffMs = Math.min(retryMaxBackoffMs, Math.max(1, retryBackoffMs) << Math.min(failures, 20));
+			dltRetryCounter.increment();
+			log.warn("[{}] DLT publish failed; re-sending {} messages in {}ms (failures={})",
+				sourceTopic, batch.size(), backoffMs, failures + 1, ex);
+			// producer 콜백 스레드에서 in-flight 대기를 하지 않도록 지연 실행기에서 다시 전송
+			CompletableFuture.runAsync(
+				() -> publishToDlt(publisher, batch, partitions, offsets, cause, attempts, failures + 1, sent),
+				CompletableFuture.delayedExecutor(backoffMs, TimeUnit.MILLISECONDS));
+		});
+	}
+
+	private void sleepQuiet(long ms) {
+		try {
+			Thread.sleep(ms);
+		} catch (InterruptedException ignored) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void flushRemainder(Shard shard) {
+		List<T> buffer = shard.buffer;
+		AccumulatorQueue<T> queue = shard.queue;
+		if (shard.staging != null) {
+			shard.staging.flushAll();  // 스테이징된 배치가 버퍼/큐보다 먼저 들어온 데이터
+		}
+		if (!buffer.isEmpty()) {
+			List<T> remaining = new ArrayList<>(buffer);
+			buffer.clear();
+			log.info("[{}] Final buffer flush: size={}", sourceTopic, remaining.size());
+			flushQueuedFinal(remaining, flushRange(shard));
+		}
+		List<T> tail = new ArrayList<>(queue.size());
+		queue.drainTo(tail, Integer.MAX_VALUE);
+		if (!tail.isEmpty()) {
+			shard.drainSeq += tail.size();
+			log.info("[{}] Final drain flush: size={}", sourceTopic, tail.size());
+			flushQueuedFinal(tail, flushRange(shard));
+		}
+	}
+
+	/** 큐/버퍼에 남아 있던 배치의 최종 flush (추정 바이트: 큐/버퍼 → in-flight) */
+	private void flushQueuedFinal(List<T> batch, FlushRange range) {
+		long bytes = estimateBytes(batch);
+		queuedBytes.addAndGet(-bytes);
+		inflightBytes.addAndGet(bytes);
+		if (range != null) {
+			range.expectParts(1);
+		}
+		flushFinal(batch, rangesOf(range));
+	}
+
+	/**
+	 * 종료 시 최종 flush (호출 스레드): 워커와 같은 차단기/재시도/DLT 경로, DLT 전송이 끝날 때까지 대기
+	 * - 저장 또는 DLT 전송된 구간은 완료, 차단기 대기를 포기한 구간은 완료하지 않음 (journal 에 남겨 재기동 시 복구 / 오프셋 미커밋)
+	 */
+	private void flushFinal(List<T> batch, List<FlushRange> ranges) {
+		boolean flushed;
+		try {
+			flushWithRetry(batch).join();
+			flushed = true;
+		} catch (CancellationException | CompletionException e) {
+			flushed = false;
+		}
+		completeBatch(batch, ranges, flushed);
+	}
+
+	/** 큐 대기시간 샘플: 적재 직전 등록한 메시지, 등록 시각, Kafka 레코드 timestamp (0 이면 없음) */
+	private record QueueProbe(Object item, long enqueuedNanos, long recordTimestampMs) {
+	}
+
+	/** 코디네이터 1개가 전용으로 소유하는 큐 + 배치 버퍼 */
+	private final class Shard {
+		private final int id;
+		private final AccumulatorQueue<T> queue;
+		private final List<T> buffer;
+		private Staging staging;  // handoff 모드에서만 사용 (start() 에서 생성)
+		private SpillQueue<T> spill;  // 스필 설정 시에만 사용 (start() 에서 생성)
+		private WriteAheadJournal<T> journal;  // journal 설정 시에만 사용 (start() 에서 생성)
+		private volatile boolean journalFailed = false;  // 기록 실패 시 이후 적재는 journal 없이 진행
+		private long enqueuedSeq = 0;   // 적재 순번 (다음 적재 메시지 순번, guarded by this) - journal 순번과 동일
+		private long drainSeq = 0;      // 코디네이터: 다음에 큐에서 꺼낼 메시지의 적재 순번
+		private long batchFromSeq = 0;  // 코디네이터: 버퍼에 담긴 첫 큐 메시지의 적재 순번
+		private final FlushWatermark flushed = new FlushWatermark(0);  // 연속 flush 완료 지점
+		private final AtomicReference<QueueProbe> queueProbe = new AtomicReference<>();  // 큐 대기시간 측정 중인 샘플 (샤드당 1건)
+		private volatile boolean flushRequested = false;  // requestFlush(): N/T 대기 없이 바로 flush
+		private volatile boolean coordinatorExited = false;  // 코디네이터 루프 + 최종 flush 종료 (stop() 의 최종 flush 허용)
+
+		private Shard(int id, AccumulatorQueue<T> queue, int batchSize) {
+			this.id = id;
+			this.queue = queue;
+			this.buffer = new ArrayList<>(batchSize);
+		}
+
+		/** journal 또는 flush watermark 추적 중이면 적재 순번 관리 */
+		private boolean tracksSequences() {
+			return journal != null || flushWatermarkTracking;
+		}
+
+		/**
+		 * 큐 적재
+		 * - 순번 추적 시: 적재, 순번 증가, journal 기록을 같은 락 안에서 수행 (큐 순서 = 적재 순번 = journal 순번)
+		 *   → 락 밖에서 journal group commit, completion 은 이 샤드의 watermark 가 적재 지점에 도달할 때까지 대기
+		 */
+		private int offerBatch(List<T> items, FlushCompletion completion, long firstRecordTimestampMs) {
+			QueueProbe probe = items.isEmpty() ? null : startProbe(items.get(0), firstRecordTimestampMs);
+			if (!tracksSequences()) {
+				int accepted = queue.offerBatch(items);
+				endProbe(probe, accepted > 0);
+				return accepted;
+			}
+			int accepted;
+			long uptoSeq;
+			long commitSeq = -1;
+			synchronized (this) {
+				accepted = queue.offerBatch(items);
+				enqueuedSeq += accepted;
+				uptoSeq = enqueuedSeq;
+				if (accepted > 0 && isJournaling()) {
+					commitSeq = appendJournal(items, accepted);
+				}
+			}
+			endProbe(probe, accepted > 0);
+			commitJournal(commitSeq);
+			if (accepted > 0 && completion != null) {
+				completion.waitFor(flushed, uptoSeq);
+			}
+			return accepted;
+		}
+
+		private boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+			QueueProbe probe = startProbe(item, 0);
+			boolean ok = false;
+			long commitSeq = -1;
+			try {
+				if (!tracksSequences()) {
+					ok = queue.offer(item, timeout, unit);
+					return ok;
+				}
+				// 락은 대기 없는 적재 시도에만 잡고, 큐가 가득 차면 락 밖에서 대기 후 재시도 (다른 생산자의 적재 차단 방지)
+				long deadline = System.nanoTime() + unit.toNanos(timeout);
+				while (true) {
+					synchronized (this) {
+						ok = queue.offer(item);
+						if (ok) {
+							enqueuedSeq++;
+							if (isJournaling()) {
+								commitSeq = appendJournal(List.of(item), 1);
+							}
+						}
+					}
+					if (ok) {
+						break;
+					}
+					if (Thread.interrupted()) {
+						throw new InterruptedException();
+					}
+					long remaining = deadline - System.nanoTime();
+					if (remaining <= 0) {
+						break;
+					}
+					LockSupport.parkNanos(Math.min(remaining, OFFER_RETRY_NANOS));
+				}
+			} finally {
+				endProbe(probe, ok);
+			}
+			commitJournal(commitSeq);
+			return ok;
+		}
+
+		/**
+		 * 큐 대기시간 샘플링: 측정 중인 샘플이 없으면 적재 직전에 item 을 샘플로 등록
+		 * (적재 후 등록하면 코디네이터가 먼저 꺼내 샘플이 영영 완료되지 않을 수 있음)
+		 * @return 등록한 샘플 (null: 다른 샘플 측정 중)
+		 */
+		private QueueProbe startProbe(T item, long recordTimestampMs) {
+			if (queueProbe.get() != null) {
+				return null;
+			}
+			QueueProbe probe = new QueueProbe(item, System.nanoTime(), recordTimestampMs);
+			return queueProbe.compareAndSet(null, probe) ? probe : null;
+		}
+
+		/** 샘플 item 이 큐에 들어가지 못했으면 샘플 해제 */
+		private void endProbe(QueueProbe probe, boolean offered) {
+			if (probe != null && !offered) {
+				queueProbe.compareAndSet(probe, null);
+			}
+		}
+
+		private boolean isJournaling() {
+			return journal != null && !journalFailed;
+		}
+
+		/** [fromSeq, toSeq) flush 완료: journal 정리 + watermark 전진 (대기 중인 completion 실행) */
+		private void onFlushed(long fromSeq, long toSeq) {
+			if (journal != null) {
+				journal.markFlushed(fromSeq, toSeq);
+			}
+			flushed.markFlushed(fromSeq, toSeq);
+		}
+
+		/** @return commit 대상 순번 (기록 실패 시 -1) */
+		private long appendJournal(List<T> items, int count) {
+			try {
+				return journal.append(items, count) + count;
+			} catch (RuntimeException e) {
+				// 이미 큐에 들어간 메시지와 순번이 어긋나므로 이후 journal 기록 중단 (처리는 계속)
+				journalFailed = true;
+				log.error("[{}] Journal append failed; continuing without journal (shard={})", sourceTopic, id, e);
+				return -1;
+			}
+		}
+
+		private void commitJournal(long uptoSeq) {
+			if (uptoSeq < 0) {
+				return;
+			}
+			long startNanos = System.nanoTime();
+			journal.commit(uptoSeq);
+			journalCommitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+		}
+
+		/** 스필에 대기 중인 메시지가 있으면 새 메시지도 스필로 (FIFO 유지) */
+		private boolean isSpilling() {
+			return spill != null && !spill.isEmpty();
+		}
+	}
+
+	/**
+	 * handoff 스테이징: 코디네이터 전용 (단일 스레드 접근), flush 파티션별 FIFO
+	 * - 같은 파티션의 마지막 대기 배치가 batchSize 미만이면 새 배치를 합쳐 flush 횟수를 줄임 (순서 유지)
+	 * - 워커 대기열에 자리가 날 때마다 trySubmit() 으로 앞에서부터 넘김 (코디네이터는 flush 를 직접 실행하지 않음)
+	 */
+	private final class Staging {
+		private final List<ArrayDeque<StagedBatch<T>>> partitions;
+		private volatile int stagedMessages = 0;  // 게이지 조회용 (쓰기는 코디네이터만)
+		private volatile int stagedBatches = 0;
+
+		private Staging(int partitionCount) {
+			this.partitions = new ArrayList<>(partitionCount);
+			for (int i = 0; i < partitionCount; i++) {
+				partitions.add(new ArrayDeque<>());
+			}
+		}
+
+		private boolean isFull() {
+			return stagedMessages >= stagingCapacity;
+		}
+
+		private boolean isEmpty() {
+			return stagedBatches == 0;
+		}
+
+		private void stage(List<T> batch, int coalesceLimit, FlushRange range) {
+			int partitionCount = partitions.size();
+			if (partitionCount == 1) {
+				if (range != null) {
+					range.expectParts(1);
+				}
+				stage(0, batch, coalesceLimit, range);
+				return;
+			}
+			List<List<T>> split = new ArrayList<>(partitionCount);
+			for (int i = 0; i < partitionCount; i++) {
+				split.add(null);
+			}
+			for (T item : batch) {
+				int partition = partitionOf(item, partitionCount);
+				List<T> part = split.get(partition);
+				if (part == null) {
+					part = new ArrayList<>();
+					split.set(partition, part);
+				}
+				part.add(item);
+			}
+			if (range != null) {
+				range.expectParts((int) split.stream().filter(part -> part != null).count());
+			}
+			for (int partition = 0; partition < partitionCount; partition++) {
+				List<T> part = split.get(partition);
+				if (part != null) {
+					stage(partition, part, coalesceLimit, range);
+				}
+			}
+		}
+
+		private void stage(int partition, List<T> batch, int coalesceLimit, FlushRange range) {
+			ArrayDeque<StagedBatch<T>> pending = partitions.get(partition);
+			StagedBatch<T> last = pending.peekLast();
+			if (last != null && last.items().size() + batch.size() <= coalesceLimit) {
+				last.items().addAll(batch);
+				if (range != null) {
+					last.ranges().add(range);
+				}
+				stagingCoalescedCounter.increment();
+			} else {
+				pending.addLast(new StagedBatch<>(batch, new ArrayList<>(rangesOf(range)), System.nanoTime()));
+				stagedBatches++;
+			}
+			stagedMessages += batch.size();
+		}
+
+		/** 워커 대기열에 자리가 있는 만큼 파티션별로 앞에서부터 넘김 */
+		private void handoff() {
+			if (stagedBatches == 0) {
+				return;
+			}
+			for (int partition = 0; partition < partitions.size(); partition++) {
+				ArrayDeque<StagedBatch<T>> pending = partitions.get(partition);
+				while (!pending.isEmpty()) {
+					StagedBatch<T> head = pending.peekFirst();
+					List<T> items = head.items();
+					List<FlushRange> ranges = head.ranges();
+					if (!flushExecutorPool.trySubmit(partition, () -> flushBatch(items, ranges))) {
+						break;  // 이 파티션은 아직 자리 없음 → 다음 파티션 확인
+					}
+					pending.pollFirst();
+					stagedBatches--;
+					stagedMessages -= items.size();
+					stagingWaitTimer.record(System.nanoTime() - head.stagedAtNanos(), TimeUnit.NANOSECONDS);
+				}
+			}
+		}
+
+		/** 종료 시: 남은 배치를 호출 스레드에서 순서대로 flush (재시도/DLT 포함) */
+		private void flushAll() {
+			for (ArrayDeque<StagedBatch<T>> pending : partitions) {
+				StagedBatch<T> batch;
+				while ((batch = pending.pollFirst()) != null) {
+					stagedBatches--;
+					stagedMessages -= batch.items().size();
+					log.info("[{}] Final staged flush: size={}", sourceTopic, batch.items().size());
+					flushFinal(batch.items(), batch.ranges());
+				}
+			}
+		}
+	}
+
+	private record StagedBatch<T>(List<T> items, List<BatchAccumulator<T>.FlushRange> ranges, long stagedAtNanos) {
+	}
+
+	/**
+	 * 코디네이터 배치 1개의 적재 순번 구간 [fromSeq, toSeq)
+	 * - 파티션별로 나뉜 조각이 모두 flush(재시도/DLT 포함) 되면 샤드에 완료 표시 (journal 정리 + watermark 전진)
+	 */
+	private final class FlushRange {
+		private final Shard shard;
+		private final long fromSeq;
+		private final long toSeq;
+		private final AtomicInteger remainingParts = new AtomicInteger();
+
+		private FlushRange(Shard shard, long fromSeq, long toSeq) {
+			this.shard = shard;
+			this.fromSeq = fromSeq;
+			this.toSeq = toSeq;
+		}
+
+		/** 제출 전에 호출 (코디네이터 스레드) */
+		private void expectParts(int parts) {
+			remainingParts.set(parts);
+		}
+
+		private void completePart() {
+			if (remainingParts.decrementAndGet() == 0) {
+				shard.onFlushed(fromSeq, toSeq);
+			}
+		}
+	}
+
+	/**
+	 * addAll(items, onFlushed) 1회분
+	 * - 메시지가 들어간 샤드마다 watermark 도달을 기다리고, 모두 도달하면 onFlushed 1회 실행
+	 * - 등록이 끝나기 전에 완료되지 않도록 초기값 1 (arm() 에서 차감)
+	 */
+	private static final class FlushCompletion {
+		private final Runnable onFlushed;
+		private final AtomicInteger pending = new AtomicInteger(1);
+
+		private FlushCompletion(Runnable onFlushed) {
+			this.onFlushed = onFlushed;
+		}
+
+		private void waitFor(FlushWatermark watermark, long seq) {
+			pending.incrementAndGet();
+			watermark.whenFlushed(seq, this::countDown);
+		}
+
+		private void arm() {
+			countDown();
+		}
+
+		private void countDown() {
+			if (pending.decrementAndGet() == 0) {
+				onFlushed.run();
+			}
+		}
+	}
+
+	/**
+	 * addAll() 결과
+	 * @param requested 적재 요청 건수
+	 * @param accepted 적재된 건수 (요청 목록의 앞쪽 accepted 건)
+	 */
+	public record EnqueueResult(int requested, int accepted) {
+
+		public boolean isFullyAccepted() {
+			return accepted == requested;
+		}
+
+		public int rejected() {
+			return requested - accepted;
+		}
+	}
+
+	/** 백프레셔 상태 변화 통지 (적재 스레드 또는 코디네이터 스레드에서 호출되므로 빠르게 끝나야 함) */
+	public interface PressureListener {
+		void onPressureChanged(boolean overloaded, double pressureRatio);
 	}
 
 	/** DB 벌크 저장기: JPA 네이티브 UPSERT 등을 수행 */
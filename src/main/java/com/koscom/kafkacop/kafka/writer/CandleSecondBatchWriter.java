@@ -1,6 +1,8 @@
 package com.koscom.kafkacop.kafka.writer;
 
 import com.koscom.kafkacop.kafka.dto.CandleSecondMessage;
+import com.koscom.kafkacop.kafka.serde.LazyMessage;
+import com.koscom.kafkacop.kafka.serde.MarketSymbolTable;
 import com.koscom.kafkacop.market.domain.Market;
 import com.koscom.kafkacop.market.repository.MarketRepository;
 import lombok.RequiredArgsConstructor;
@@ -12,6 +14,8 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -20,30 +24,33 @@ import java.util.stream.Collectors;
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class CandleSecondBatchWriter implements BatchAccumulator.BatchWriter<CandleSecondMessage> {
+public class CandleSecondBatchWriter implements BatchAccumulator.BatchWriter<LazyMessage<CandleSecondMessage>> {
 
 	private final MarketRepository marketRepository;
+	private final MarketSymbolTable marketSymbolTable;
 	private final JdbcTemplate jdbcTemplate;
 
 	private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
 
 	@Override
 	@Transactional
-	public void flush(List<CandleSecondMessage> batch) {
+	public void flush(List<LazyMessage<CandleSecondMessage>> batch) {
 		if (batch == null || batch.isEmpty()) {
 			return;
 		}
 
 		// 0. null 필터링 및 유효성 검증 (스킵 원인 추적)
+		//    mktCode / exchange / timestamp 는 raw-passthrough 모드면 역직렬화 때 색인한 값 (나머지 필드 디코딩은 4. 바인딩 직전)
+		//    마켓은 역직렬화 때 intern 한 심볼 ID 로 식별 (메시지별 마켓코드 문자열 생성 없음)
 		AtomicInteger nullMessages = new AtomicInteger(0);
 		AtomicInteger invalidMktCode = new AtomicInteger(0);
 		AtomicInteger invalidTimestamp = new AtomicInteger(0);
 		AtomicInteger index = new AtomicInteger(0);
 
-		List<CandleSecondMessage> validBatch = batch.stream()
+		List<LazyMessage<CandleSecondMessage>> validBatch = batch.stream()
 			.filter(msg -> {
 				int idx = index.getAndIncrement();
-				if (msg == null) {
+				if (msg == null || (!msg.isIndexed() && msg.get() == null)) {  // 색인 없는 메시지는 역직렬화 때 디코딩한 DTO 로 판단
 					nullMessages.incrementAndGet();
 					// log.error("[CandleSecond] NULL message detected at batch index {}! batchSize={}, batchHashCode={}",
 					// 	idx, batch.size(), System.identityHashCode(batch));
@@ -52,7 +59,7 @@ public class CandleSecondBatchWriter implements BatchAccumulator.BatchWriter<Can
 				return true;
 			})
 			.filter(msg -> {
-				if (msg.mktCode() == null || msg.mktCode().isEmpty()) {
+				if (msg.symbol() == MarketSymbolTable.NO_SYMBOL) {  // mktCode 없음 / 빈 목록
 					invalidMktCode.incrementAndGet();
 					log.warn("[CandleSecond] Invalid mktCode: msg={}", msg);
 					return false;
@@ -81,35 +88,39 @@ public class CandleSecondBatchWriter implements BatchAccumulator.BatchWriter<Can
 				nullMessages.get(), invalidMktCode.get(), invalidTimestamp.get());
 		}
 
-		// 1. 거래소명과 마켓코드 추출
+		// 1. 거래소명과 마켓 심볼 추출 (마켓코드 문자열은 심볼 테이블이 심볼당 1회만 생성)
 		String exchangeCode = validBatch.get(0).exchange();
-		List<String> marketCodes = validBatch.stream()
-			.map(msg -> String.join("/", msg.mktCode()))
-			.distinct()
+		BitSet symbols = new BitSet();
+		for (LazyMessage<CandleSecondMessage> msg : validBatch) {
+			symbols.set(msg.symbol());
+		}
+		List<String> marketCodes = symbols.stream()
+			.mapToObj(marketSymbolTable::marketCode)
 			.toList();
 
-		// 2. Market 조회 (배치)
+		// 2. Market 조회 (배치) → 심볼 ID 로 바로 찾는 배열 (DB 에 없는 마켓은 null)
 		Map<String, Market> marketMap = marketRepository
 			.findAllByExchange_ExchangeCodeAndMarketCodeIn(exchangeCode, marketCodes)
 			.stream()
 			.collect(Collectors.toMap(Market::getMarketCode, m -> m));
+		Market[] marketBySymbol = new Market[symbols.length()];
+		symbols.stream().forEach(symbol -> marketBySymbol[symbol] = marketMap.get(marketSymbolTable.marketCode(symbol)));
 
 		// 3. Market이 존재하는 메시지만 필터링 (Market 미존재 추적)
 		AtomicInteger marketNotFound = new AtomicInteger(0);
-		List<CandleSecondMessage> processableBatch = validBatch.stream()
+		List<LazyMessage<CandleSecondMessage>> marketMatchedBatch = validBatch.stream()
 			.filter(msg -> {
-				String marketCode = String.join("/", msg.mktCode());
-				boolean exists = marketMap.containsKey(marketCode);
+				boolean exists = marketBySymbol[msg.symbol()] != null;
 				if (!exists) {
 					marketNotFound.incrementAndGet();
 					log.warn("[CandleSecond] Market not found in DB: marketCode={}, exchange={}, msg={}",
-						marketCode, exchangeCode, msg);
+						marketSymbolTable.marketCode(msg.symbol()), exchangeCode, msg);
 				}
 				return exists;
 			})
 			.toList();
 
-		if (processableBatch.isEmpty()) {
+		if (marketMatchedBatch.isEmpty()) {
 			log.warn("[CandleSecond] No valid markets found for batch (marketNotFound={}), skipping flush",
 				marketNotFound.get());
 			return;
@@ -120,7 +131,23 @@ public class CandleSecondBatchWriter implements BatchAccumulator.BatchWriter<Can
 			log.warn("[CandleSecond] Market not found: count={}", marketNotFound.get());
 		}
 
-		// 4. JDBC Batch UPSERT
+		// 4. 바인딩할 메시지만 디코딩 (raw-passthrough 모드면 가격 필드는 여기서 처음 파싱, 실패 시 스킵)
+		List<LazyMessage<CandleSecondMessage>> processableBatch = new ArrayList<>(marketMatchedBatch.size());
+		for (LazyMessage<CandleSecondMessage> lazy : marketMatchedBatch) {
+			CandleSecondMessage msg = lazy.get();
+			if (msg == null) {
+				nullMessages.incrementAndGet();
+				continue;
+			}
+			processableBatch.add(lazy);
+		}
+
+		if (processableBatch.isEmpty()) {
+			log.warn("[CandleSecond] No decodable messages left for batch (nullMsg={}), skipping flush", nullMessages.get());
+			return;
+		}
+
+		// 5. JDBC Batch UPSERT
 		String sql = """
 			INSERT INTO md_candle (
 				market_id, candle_date_time, code, type,
@@ -138,9 +165,10 @@ public class CandleSecondBatchWriter implements BatchAccumulator.BatchWriter<Can
 				candle_acc_trade_price = VALUES(candle_acc_trade_price)
 			""";
 
-		jdbcTemplate.batchUpdate(sql, processableBatch, processableBatch.size(), (ps, msg) -> {
-			String marketCode = String.join("/", msg.mktCode());
-			Market market = marketMap.get(marketCode);
+		jdbcTemplate.batchUpdate(sql, processableBatch, processableBatch.size(), (ps, lazy) -> {
+			CandleSecondMessage msg = lazy.get();  // 4. 에서 디코딩 완료
+			String marketCode = marketSymbolTable.marketCode(lazy.symbol());
+			Market market = marketBySymbol[lazy.symbol()];
 			LocalDateTime candleKst = LocalDateTime.parse(msg.candleDateTimeKst(), FORMATTER);
 
 			int idx = 1;
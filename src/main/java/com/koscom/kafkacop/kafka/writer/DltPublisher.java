@@ -0,0 +1,216 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import com.koscom.kafkacop.kafka.serde.LazyMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * DLT 전송 단계 (전체 accumulator 공유)
+ * - 전용 producer(linger / batch / 압축 설정)로 메시지를 비동기 전송 → flush 워커는 건별 응답을 기다리지 않음
+ * - in-flight 메시지 수를 max-in-flight 로 제한 (가득 차면 window-timeout-ms 까지 대기 후 실패 처리)
+ * - 헤더: 원본 토픽 / 파티션 / 오프셋, 실패 원인 (예외 클래스 / 메시지, 스프링 DeadLetterPublishingRecoverer 와 같은 헤더 이름),
+ *   재시도 횟수, 실패 배치 크기
+ * - publish() 가 반환하는 future 는 모든 메시지의 전송이 끝나면 완료, 하나라도 전송하지 못했으면(in-flight 대기 초과 /
+ *   브로커 오류) 예외로 완료 → 호출자는 해당 구간을 완료 처리(오프셋 커밋 / journal 정리)하지 않고 다시 보내야 함
+ */
+@Slf4j
+public class DltPublisher {
+
+	public static final String ATTEMPTS_HEADER = "x-flush-attempts";
+	public static final String BATCH_SIZE_HEADER = "x-flush-batch-size";
+
+	private final KafkaTemplate<String, Object> kafkaTemplate;
+	private final Semaphore window;
+	private final int maxInFlight;
+	private final long windowTimeoutMs;
+	private final MeterRegistry meterRegistry;
+	private final Map<String, TopicMetrics> metrics = new ConcurrentHashMap<>();
+
+	public DltPublisher(KafkaTemplate<String, Object> kafkaTemplate, int maxInFlight, long windowTimeoutMs,
+	                    MeterRegistry meterRegistry) {
+		this.kafkaTemplate = kafkaTemplate;
+		this.maxInFlight = maxInFlight;
+		this.window = new Semaphore(maxInFlight);
+		this.windowTimeoutMs = windowTimeoutMs;
+		this.meterRegistry = meterRegistry;
+
+		Gauge.builder("dlt.publisher.inflight", this, publisher -> publisher.getInFlight())
+			.description("DLT messages sent but not yet acknowledged by the broker")
+			.register(meterRegistry);
+	}
+
+	public int getInFlight() {
+		return maxInFlight - window.availablePermits();
+	}
+
+	/** 원본 위치 없이 전송 (파티션 / 오프셋 헤더 생략) */
+	public CompletableFuture<Void> publish(String sourceTopic, List<?> messages, Throwable cause, int attempts) {
+		return publish(sourceTopic, messages, null, null, cause, attempts);
+	}
+
+	/**
+	 * {sourceTopic}.DLT 로 messages 비동기 전송
+	 * @param partitions / offsets messages 와 같은 순서의 원본 레코드 위치 (null 이거나 음수면 해당 헤더 생략)
+	 * @param cause 실패 원인 (null 이면 원인 헤더 생략)
+	 * @param attempts flush 시도 횟수
+	 * @return 전부 전송되면 정상 완료, 하나라도 실패하면 예외로 완료 (모든 메시지의 전송 시도가 끝난 뒤)
+	 */
+	public CompletableFuture<Void> publish(String sourceTopic, List<?> messages, int[] partitions, long[] offsets,
+	                                       Throwable cause, int attempts) {
+		String dltTopic = sourceTopic + ".DLT";
+		TopicMetrics topicMetrics = metrics.computeIfAbsent(sourceTopic, TopicMetrics::new);
+		Header[] shared = headers(sourceTopic, cause, attempts, messages.size());
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[messages.size()];
+		for (int i = 0; i < futures.length; i++) {
+			RecordHeaders headers = partitions != null && offsets != null
+				? headers(shared, partitions[i], offsets[i])
+				: new RecordHeaders(shared);
+			futures[i] = send(dltTopic, messages.get(i), headers, topicMetrics);
+		}
+		return CompletableFuture.allOf(futures);
+	}
+
+	/** LazyMessage 는 디코딩된 DTO 로 전송 (디코딩 실패 시 원본 바이트 그대로 - LazyMessage.jsonValue()) */
+	private static Object dltValue(Object message) {
+		if (message instanceof LazyMessage<?> lazy) {
+			Object decoded = lazy.get();
+			return decoded != null ? decoded : lazy;
+		}
+		return message;
+	}
+
+	private CompletableFuture<?> send(String dltTopic, Object message, RecordHeaders headers,
+	                                  TopicMetrics topicMetrics) {
+		if (!acquire(topicMetrics)) {
+			topicMetrics.failed.increment();
+			log.error("DLT in-flight window full for {}ms; message not sent to topic={}", windowTimeoutMs, dltTopic);
+			return CompletableFuture.failedFuture(
+				new TimeoutException("DLT in-flight window full for " + windowTimeoutMs + "ms"));
+		}
+		long startNanos = System.nanoTime();
+		try {
+			ProducerRecord<String, Object> record = new ProducerRecord<>(dltTopic, null, null, dltValue(message),
+				headers);
+			return kafkaTemplate.send(record).whenComplete((result, ex) -> {
+				window.release();
+				topicMetrics.latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+				if (ex != null) {
+					topicMetrics.failed.increment();
+					log.error("Failed to send message to DLT topic={}", dltTopic, ex);
+				} else {
+					topicMetrics.sent.increment();
+				}
+			});
+		} catch (Exception e) {
+			window.release();
+			topicMetrics.failed.increment();
+			log.error("Failed to send message to DLT topic={}", dltTopic, e);
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
+	private boolean acquire(TopicMetrics topicMetrics) {
+		if (window.tryAcquire()) {
+			return true;
+		}
+		long startNanos = System.nanoTime();
+		try {
+			return window.tryAcquire(windowTimeoutMs, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		} finally {
+			topicMetrics.windowWait.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/** 종료 시: 남은 DLT 메시지 전송 후 전용 producer 종료 */
+	public void close() {
+		kafkaTemplate.flush();
+		kafkaTemplate.getProducerFactory().reset();
+	}
+
+	/**
+	 * 레코드별 헤더: 공유 헤더 복사 + 원본 파티션 / 오프셋
+	 * (스프링 DeadLetterPublishingRecoverer 와 같은 형식: int 4바이트 / long 8바이트 big-endian)
+	 */
+	private static RecordHeaders headers(Header[] shared, int partition, long offset) {
+		RecordHeaders headers = new RecordHeaders(shared);
+		if (partition >= 0) {
+			headers.add(KafkaHeaders.DLT_ORIGINAL_PARTITION, ByteBuffer.allocate(Integer.BYTES).putInt(partition).array());
+		}
+		if (offset >= 0) {
+			headers.add(KafkaHeaders.DLT_ORIGINAL_OFFSET, ByteBuffer.allocate(Long.BYTES).putLong(offset).array());
+		}
+		return headers;
+	}
+
+	/** 배치 내 메시지가 공유하는 헤더 값 (전송 시 헤더가 읽기 전용이 되므로 레코드마다 RecordHeaders 로 복사) */
+	private static Header[] headers(String sourceTopic, Throwable cause, int attempts, int batchSize) {
+		RecordHeaders headers = new RecordHeaders();
+		headers.add(KafkaHeaders.DLT_ORIGINAL_TOPIC, bytes(sourceTopic));
+		if (cause != null) {
+			headers.add(KafkaHeaders.DLT_EXCEPTION_FQCN, bytes(cause.getClass().getName()));
+			headers.add(KafkaHeaders.DLT_EXCEPTION_MESSAGE, bytes(String.valueOf(cause.getMessage())));
+			Throwable root = cause;
+			while (root.getCause() != null && root.getCause() != root) {
+				root = root.getCause();
+			}
+			if (root != cause) {
+				headers.add(KafkaHeaders.DLT_EXCEPTION_CAUSE_FQCN, bytes(root.getClass().getName()));
+			}
+		}
+		headers.add(ATTEMPTS_HEADER, bytes(String.valueOf(attempts)));
+		headers.add(BATCH_SIZE_HEADER, bytes(String.valueOf(batchSize)));
+		return headers.toArray();
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/** 원본 토픽별 DLT 메트릭 */
+	private final class TopicMetrics {
+		private final Counter sent;
+		private final Counter failed;
+		private final Timer latency;
+		private final Timer windowWait;
+
+		private TopicMetrics(String topic) {
+			this.sent = Counter.builder("dlt.publisher.messages.sent")
+				.tag("topic", topic)
+				.description("Messages acknowledged by the broker on the DLT")
+				.register(meterRegistry);
+			this.failed = Counter.builder("dlt.publisher.messages.failed")
+				.tag("topic", topic)
+				.description("Messages that could not be sent to the DLT")
+				.register(meterRegistry);
+			this.latency = Timer.builder("dlt.publisher.send.latency")
+				.tag("topic", topic)
+				.description("Time from DLT send until broker acknowledgement")
+				.register(meterRegistry);
+			this.windowWait = Timer.builder("dlt.publisher.window.wait")
+				.tag("topic", topic)
+				.description("Time a flush worker waited for a free slot in the DLT in-flight window")
+				.register(meterRegistry);
+		}
+	}
+}
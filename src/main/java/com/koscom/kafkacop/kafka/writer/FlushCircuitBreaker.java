@@ -0,0 +1,255 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * DB flush 경로 차단기 (전체 accumulator 공유)
+ * - CLOSED: 일시 장애(커넥션/타임아웃 등)로 인한 flush 실패가 failure-threshold 회 연속되면 OPEN
+ * - OPEN: 코디네이터는 배치를 만들지 않고, 리스너는 컨슈머 pause, 워커는 재시도 없이 대기
+ *   → open-ms 후 대기 중인 워커 1개가 probe flush 실행 (HALF_OPEN)
+ * - HALF_OPEN: probe 성공 시 CLOSED (전체 재개), 실패 시 OPEN 대기시간을 2배로 늘려 다시 OPEN (최대 max-open-ms)
+ * - 데이터 오류는 DB 에 도달했다는 뜻이므로 성공으로 취급
+ * - 대기는 ReentrantLock/Condition 사용 (VIRTUAL flush 모드에서 synchronized 대기는 캐리어 스레드를 고정시킴)
+ */
+@Slf4j
+@Component
+public class FlushCircuitBreaker {
+
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	@Value("${app.batch-accumulator.circuit-breaker.enabled:false}")
+	private boolean enabled;
+
+	@Value("${app.batch-accumulator.circuit-breaker.failure-threshold:5}")
+	private int failureThreshold;
+
+	@Value("${app.batch-accumulator.circuit-breaker.open-ms:1000}")
+	private long baseOpenMs;
+
+	@Value("${app.batch-accumulator.circuit-breaker.max-open-ms:30000}")
+	private long maxOpenMs;
+
+	private final MeterRegistry meterRegistry;
+	private final List<Consumer<Boolean>> listeners = new CopyOnWriteArrayList<>();
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition stateChanged = lock.newCondition();
+	private volatile State state = State.CLOSED;     // 변경은 lock 보유 시
+	private volatile int consecutiveFailures = 0;    // 변경은 lock 보유 시
+	private volatile long openMs;                    // 현재 OPEN 대기시간 (probe 실패마다 2배)
+	private long probeAtNanos = 0;                   // guarded by lock
+	private long openedAtNanos = 0;                  // guarded by lock
+
+	private final Map<State, Counter> transitionCounters = new EnumMap<>(State.class);
+	private Timer openDurationTimer;
+
+	public FlushCircuitBreaker(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@PostConstruct
+	public void init() {
+		openMs = baseOpenMs;
+
+		Gauge.builder("flush.circuit.state", () -> (double) state.ordinal())
+			.description("Flush circuit breaker state (0=closed, 1=open, 2=half-open)")
+			.register(meterRegistry);
+
+		Gauge.builder("flush.circuit.consecutive_failures", () -> (double) consecutiveFailures)
+			.description("Consecutive transient flush failures while the circuit is closed")
+			.register(meterRegistry);
+
+		Gauge.builder("flush.circuit.open_backoff_ms", () -> (double) openMs)
+			.description("Current wait before the next probe flush while the circuit is open")
+			.register(meterRegistry);
+
+		for (State to : State.values()) {
+			transitionCounters.put(to, Counter.builder("flush.circuit.transitions")
+				.tag("to", to.name().toLowerCase())
+				.description("Flush circuit breaker state transitions")
+				.register(meterRegistry));
+		}
+
+		openDurationTimer = Timer.builder("flush.circuit.open.duration")
+			.description("Time from opening the flush circuit until a probe flush closed it")
+			.register(meterRegistry);
+
+		log.info("Flush circuit breaker: enabled={}, failureThreshold={}, openMs={}, maxOpenMs={}",
+			enabled, failureThreshold, baseOpenMs, maxOpenMs);
+	}
+
+	public boolean isClosed() {
+		return state == State.CLOSED;
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	/** 차단(true) / 재개(false) 통지 등록 (flush 워커 스레드에서 호출되므로 빠르게 끝나야 함) */
+	public void addListener(Consumer<Boolean> listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * flush 직전 호출 (워커 스레드)
+	 * - CLOSED 면 바로 통과, OPEN 이면 probe 시각까지 대기 후 이 스레드가 probe 로 통과 (HALF_OPEN)
+	 * - 다른 워커가 probe 중이면 결과가 나올 때까지 대기
+	 * @param running false 가 되면 대기를 포기 (종료 중)
+	 * @return 통과 여부 (false: 종료 중이라 flush 하지 않음)
+	 */
+	public boolean awaitPermit(BooleanSupplier running) {
+		if (state == State.CLOSED) {
+			return true;
+		}
+		lock.lock();
+		try {
+			while (true) {
+				if (state == State.CLOSED) {
+					return true;
+				}
+				if (!running.getAsBoolean()) {
+					return false;
+				}
+				long now = System.nanoTime();
+				if (state == State.OPEN && now >= probeAtNanos) {
+					transition(State.HALF_OPEN);
+					log.info("Flush circuit HALF_OPEN - running probe flush on {}", Thread.currentThread().getName());
+					return true;
+				}
+				long waitNanos = state == State.OPEN ? probeAtNanos - now : Long.MAX_VALUE;
+				try {
+					stateChanged.awaitNanos(Math.min(waitNanos, TimeUnit.MILLISECONDS.toNanos(100)));  // 종료 여부를 주기적으로 확인
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 차단기가 닫힐 때까지 최대 timeoutMs 대기 (코디네이터 스레드)
+	 * @return 닫혔는지 여부
+	 */
+	public boolean awaitClosed(long timeoutMs) throws InterruptedException {
+		if (state == State.CLOSED) {
+			return true;
+		}
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+		lock.lock();
+		try {
+			long remaining;
+			while (state != State.CLOSED && (remaining = deadline - System.nanoTime()) > 0) {
+				stateChanged.awaitNanos(remaining);
+			}
+			return state == State.CLOSED;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void onSuccess() {
+		if (state == State.CLOSED && consecutiveFailures == 0) {
+			return;
+		}
+		boolean closed = false;
+		lock.lock();
+		try {
+			consecutiveFailures = 0;
+			if (state != State.CLOSED) {
+				openDurationTimer.record(System.nanoTime() - openedAtNanos, TimeUnit.NANOSECONDS);
+				openMs = baseOpenMs;
+				transition(State.CLOSED);
+				stateChanged.signalAll();
+				closed = true;
+			}
+		} finally {
+			lock.unlock();
+		}
+		if (closed) {
+			log.info("▶️  Flush circuit CLOSED - probe flush succeeded, resuming flushes and consumers");
+			notifyListeners(false);
+		}
+	}
+
+	public void onFailure(Throwable error) {
+		if (!enabled) {
+			return;
+		}
+		if (!FlushRetry.isTransient(error)) {
+			onSuccess();  // 데이터 오류: DB 는 응답함
+			return;
+		}
+		boolean opened = false;
+		lock.lock();
+		try {
+			long now = System.nanoTime();
+			switch (state) {
+				case CLOSED -> {
+					if (++consecutiveFailures >= failureThreshold) {
+						openedAtNanos = now;
+						openMs = baseOpenMs;
+						probeAtNanos = now + TimeUnit.MILLISECONDS.toNanos(openMs);
+						transition(State.OPEN);
+						opened = true;
+					}
+				}
+				case HALF_OPEN -> {
+					openMs = Math.min(maxOpenMs, openMs * 2);
+					probeAtNanos = now + TimeUnit.MILLISECONDS.toNanos(openMs);
+					transition(State.OPEN);
+					stateChanged.signalAll();
+					log.warn("Flush circuit OPEN - probe flush failed; next probe in {}ms", openMs);
+				}
+				case OPEN -> {
+					// 차단 전에 시작된 flush 의 실패: probe 일정 유지
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+		if (opened) {
+			log.warn("⏸️  Flush circuit OPEN - {} consecutive transient flush failures; " +
+				"pausing consumers and flushes, next probe in {}ms", failureThreshold, openMs, error);
+			notifyListeners(true);
+		}
+	}
+
+	/** 상태 변경 + 전이 메트릭 (호출자가 락 보유) */
+	private void transition(State to) {
+		state = to;
+		transitionCounters.get(to).increment();
+	}
+
+	private void notifyListeners(boolean open) {
+		for (Consumer<Boolean> listener : listeners) {
+			try {
+				listener.accept(open);
+			} catch (Exception e) {
+				log.error("Flush circuit listener failed (open={})", open, e);
+			}
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BatchAccumulator 의 배치 flush 작업 실행기
+ * - POOLED: 워커 풀 공유 (기존 방식)
+ * - PARTITIONED: 마켓 해시 파티션마다 고정 워커 1개 (같은 마켓의 upsert 직렬화)
+ * - VIRTUAL: 배치마다 가상 스레드 1개, 동시 flush 수는 세마포어로 제한
+ */
+public interface FlushExecutor {
+
+	/**
+	 * flush 작업 제출
+	 * @param partition 마켓 해시 파티션 (0 ~ partitionCount()-1, 파티션 모드가 아니면 무시)
+	 */
+	void execute(int partition, Runnable task);
+
+	/**
+	 * 비차단 flush 작업 제출 (handoff 모드)
+	 * - 워커 대기열에 자리가 없으면 즉시 false (호출 스레드에서 실행하거나 대기하지 않음)
+	 */
+	boolean trySubmit(int partition, Runnable task);
+
+	/** 파티션 수 (1 이면 배치를 나누지 않음) */
+	int partitionCount();
+
+	/** 대기 중인 flush 작업 수 */
+	int getQueuedTaskCount();
+
+	/** 실행 중인 flush 작업 수 */
+	int getActiveCount();
+
+	void shutdown();
+
+	boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException;
+
+	/** 배치 flush 실행 방식 */
+	enum Mode {
+		POOLED,
+		PARTITIONED,
+		VIRTUAL
+	}
+}
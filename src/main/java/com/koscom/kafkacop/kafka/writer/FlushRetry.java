@@ -0,0 +1,163 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
+
+/**
+ * flush 실패 배치 재시도 (워커 스레드에서 실행)
+ * - 일시 장애(커넥션/타임아웃/락 등): 같은 구간을 지수 백오프로 최대 maxRetries 회 재시도 → 실패 시 구간 전체 DLT
+ * - 데이터 오류(bisect 모드): 실패 구간을 반으로 나눠 앞 절반부터 다시 flush → 실패한 절반만 계속 분할하여
+ *   문제 레코드만 DLT 로 보내고 나머지는 저장 (분할마다 backoffMs 대기)
+ * - 분할 구간은 원래 순서대로 flush (뒤쪽 구간이 앞쪽보다 먼저 저장되지 않음 → 같은 마켓 upsert 순서 유지)
+ * - 격리한 레코드가 maxIsolated 개 이상이면 배치 전체가 불량인 것으로 보고 남은 실패 구간은 분할 없이 DLT
+ * - 차단기(FlushCircuitBreaker)가 열린 동안의 일시 장애는 재시도 횟수에 넣지 않음 (차단기의 probe 일정에 따라 대기)
+ * - writer 가 CancellationException 을 던지면(종료 중 차단기 대기 포기) 그대로 전달
+ * - 격리한 레코드는 토픽 / 레코드 키 / 예외 클래스만 로그 (메시지 본문이나 값이 담긴 예외 메시지는 남기지 않음)
+ */
+@Slf4j
+final class FlushRetry<T> {
+
+	private final String topic;
+	private final BatchAccumulator.BatchWriter<T> writer;
+	private final Function<? super T, ?> recordKey;  // 로그용 레코드 키 (null 이면 생략)
+	private final FlushCircuitBreaker circuitBreaker;  // null 이면 차단기 없음
+	private final boolean bisect;
+	private final int maxRetries;
+	private final long backoffMs;
+	private final long maxBackoffMs;
+	private final int maxIsolated;
+
+	FlushRetry(String topic, BatchAccumulator.BatchWriter<T> writer, Function<? super T, ?> recordKey,
+	           FlushCircuitBreaker circuitBreaker, boolean bisect, int maxRetries, long backoffMs, long maxBackoffMs,
+	           int maxIsolated) {
+		this.topic = topic;
+		this.writer = writer;
+		this.recordKey = recordKey;
+		this.circuitBreaker = circuitBreaker;
+		this.bisect = bisect;
+		this.maxRetries = maxRetries;
+		this.backoffMs = backoffMs;
+		this.maxBackoffMs = maxBackoffMs;
+		this.maxIsolated = maxIsolated;
+	}
+
+	/** DLT 로 보낼 구간 (연속 구간 단위, 원래 순서) */
+	record Rejected<T>(List<T> items, Exception cause, int attempts) {
+	}
+
+	/**
+	 * @param persisted 재시도로 저장된 메시지 수
+	 * @param splits 분할 횟수
+	 * @param isolated 분할로 격리한 단건 레코드 수
+	 */
+	record Outcome<T>(int persisted, int splits, int isolated, List<Rejected<T>> rejected) {
+	}
+
+	/** 실패 구간: error 가 null 이면 아직 시도하지 않은 분할 구간 */
+	private record Split<T>(List<T> items, Exception error, int attempts, int transientFailures) {
+	}
+
+	/** batch 의 첫 flush 가 cause 로 실패한 뒤 호출 */
+	Outcome<T> retry(List<T> batch, Exception cause) {
+		ArrayDeque<Split<T>> pending = new ArrayDeque<>();
+		pending.addFirst(new Split<>(batch, cause, 1, transientOrNotBisecting(cause) ? 1 : 0));
+		List<Rejected<T>> rejected = new ArrayList<>();
+		int persisted = 0;
+		int splits = 0;
+		int isolated = 0;
+
+		Split<T> split;
+		while ((split = pending.pollFirst()) != null) {
+			List<T> items = split.items();
+			Exception error = split.error();
+			if (error != null) {
+				if (transientOrNotBisecting(error)) {
+					if (split.transientFailures() > maxRetries) {
+						rejected.add(new Rejected<>(items, error, split.attempts()));
+						continue;
+					}
+					sleepQuiet(Math.min(maxBackoffMs, backoffMs << Math.min(split.transientFailures() - 1, 20)));
+				} else if (items.size() == 1) {
+					isolated++;
+					rejected.add(new Rejected<>(items, error, split.attempts()));
+					log.warn("[{}] Isolated poison record after {} attempts: key={}, error={}", topic, split.attempts(),
+						recordKey != null ? recordKey.apply(items.get(0)) : "-", error.getClass().getName());
+					continue;
+				} else if (isolated >= maxIsolated) {
+					rejected.add(new Rejected<>(items, error, split.attempts()));
+					continue;
+				} else {
+					// 앞 절반이 먼저 처리되도록 뒤 절반부터 넣음
+					int mid = items.size() >>> 1;
+					pending.addFirst(new Split<>(items.subList(mid, items.size()), null, split.attempts(), 0));
+					pending.addFirst(new Split<>(items.subList(0, mid), null, split.attempts(), 0));
+					splits++;
+					continue;
+				}
+			} else {
+				sleepQuiet(backoffMs);  // 분할 구간 재시도 전 대기
+			}
+
+			try {
+				writer.flush(items);
+				persisted += items.size();
+				if (error != null) {
+					log.info("Retry succeeded after {} attempts: size={}", split.attempts() + 1, items.size());
+				}
+			} catch (CancellationException e) {
+				throw e;
+			} catch (Exception e) {
+				int transientFailures = !transientOrNotBisecting(e) ? 0
+					: heldByCircuit(e) ? split.transientFailures()
+					: split.transientFailures() + 1;
+				log.warn("Retry failed: size={}, attempt={}", items.size(), split.attempts() + 1, e);
+				pending.addFirst(new Split<>(items, e, split.attempts() + 1, transientFailures));
+			}
+		}
+		return new Outcome<>(persisted, splits, isolated, rejected);
+	}
+
+	/** 차단기가 열려 있고 일시 장애인 경우: 재시도 횟수를 쓰지 않음 */
+	private boolean heldByCircuit(Exception error) {
+		return circuitBreaker != null && !circuitBreaker.isClosed() && isTransient(error);
+	}
+
+	/** 같은 구간을 그대로 재시도할 오류인지 (bisect 비활성 시 모든 오류) */
+	private boolean transientOrNotBisecting(Exception error) {
+		return !bisect || isTransient(error);
+	}
+
+	static boolean isTransient(Throwable error) {
+		for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+			if (t instanceof TransientDataAccessException
+				|| t instanceof RecoverableDataAccessException
+				|| t instanceof DataAccessResourceFailureException
+				|| t instanceof SQLTransientException
+				|| t instanceof SQLRecoverableException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void sleepQuiet(long ms) {
+		if (ms <= 0) {
+			return;
+		}
+		try {
+			Thread.sleep(ms);
+		} catch (InterruptedException ignored) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
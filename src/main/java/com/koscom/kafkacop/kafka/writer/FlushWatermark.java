@@ -0,0 +1,85 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 샤드 적재 순번 기준 flush 완료 지점 (샤드당 1개)
+ * - flush 는 워커/파티션별로 순서와 무관하게 끝나므로 완료 구간 [from, to) 을 모아 연속된 지점까지만 watermark 전진
+ * - whenFlushed(seq): watermark 가 seq 이상이 되면 콜백 실행 (완료 표시한 워커 스레드에서, 락 밖에서 실행)
+ */
+@Slf4j
+final class FlushWatermark {
+
+	private final TreeMap<Long, Long> flushedRanges = new TreeMap<>();        // from → to(exclusive)
+	private final TreeMap<Long, List<Runnable>> waiters = new TreeMap<>();    // 기다리는 순번 → 콜백
+	private volatile long watermark;
+
+	FlushWatermark(long start) {
+		this.watermark = start;
+	}
+
+	long get() {
+		return watermark;
+	}
+
+	/** 기동 시 시작 순번 재설정 (journal 복구 후) */
+	synchronized void reset(long start) {
+		flushedRanges.clear();
+		watermark = start;
+	}
+
+	/** [fromSeq, toSeq) 구간 flush 완료 */
+	void markFlushed(long fromSeq, long toSeq) {
+		List<Runnable> ready = null;
+		synchronized (this) {
+			if (toSeq <= fromSeq) {
+				return;
+			}
+			flushedRanges.put(fromSeq, toSeq);
+			long advanced = watermark;
+			Long to;
+			while ((to = flushedRanges.remove(advanced)) != null) {
+				advanced = to;
+			}
+			if (advanced == watermark) {
+				return;
+			}
+			watermark = advanced;
+			Map<Long, List<Runnable>> reached = waiters.headMap(advanced, true);
+			if (!reached.isEmpty()) {
+				ready = new ArrayList<>();
+				for (List<Runnable> callbacks : reached.values()) {
+					ready.addAll(callbacks);
+				}
+				reached.clear();
+			}
+		}
+		if (ready != null) {
+			ready.forEach(FlushWatermark::runQuietly);
+		}
+	}
+
+	/** watermark 가 seq 이상이 되면 callback 실행 (이미 도달했으면 호출 스레드에서 즉시) */
+	void whenFlushed(long seq, Runnable callback) {
+		synchronized (this) {
+			if (watermark < seq) {
+				waiters.computeIfAbsent(seq, key -> new ArrayList<>(1)).add(callback);
+				return;
+			}
+		}
+		runQuietly(callback);
+	}
+
+	private static void runQuietly(Runnable callback) {
+		try {
+			callback.run();
+		} catch (Exception e) {
+			log.error("Flush watermark callback failed", e);
+		}
+	}
+}
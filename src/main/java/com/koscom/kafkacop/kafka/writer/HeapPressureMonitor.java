@@ -0,0 +1,291 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Old Gen 점유율 기반 힙 압박 감지
+ * - 진입: GC 후 점유율(collection usage)이 enter-ratio 이상 (MemoryPoolMXBean collection usage threshold 알림)
+ *   → 큐 사용률과 무관하게 리스너 pause + 동시 flush 수 제한
+ * - 해제: GC 후 점유율 또는 현재 점유율이 exit-ratio 이하이고 min-pause-ms 경과 (히스테리시스)
+ * - GC 후 점유율은 GC 알림마다 pool.getCollectionUsage() 로 갱신 (com.sun.management 의존 없음)
+ */
+@Slf4j
+@Component
+public class HeapPressureMonitor {
+
+	@Value("${app.kafka.backpressure.heap-pressure.enabled:false}")
+	private boolean enabled;
+
+	@Value("${app.kafka.backpressure.heap-pressure.enter-ratio:0.85}")
+	private double enterRatio;
+
+	@Value("${app.kafka.backpressure.heap-pressure.exit-ratio:0.70}")
+	private double exitRatio;
+
+	@Value("${app.kafka.backpressure.heap-pressure.min-pause-ms:2000}")
+	private long minPauseMs;
+
+	@Value("${app.kafka.backpressure.heap-pressure.max-concurrent-flushes:2}")
+	private int maxConcurrentFlushes;
+
+	private final MeterRegistry meterRegistry;
+	private final List<MemoryPoolMXBean> oldGenPools = new ArrayList<>();
+	private final List<Registration> registrations = new ArrayList<>();
+	private final List<Consumer<Boolean>> listeners = new CopyOnWriteArrayList<>();
+
+	private volatile boolean underPressure = false;
+	private volatile double lastPostGcRatio = 0.0;
+	private volatile long pressureStartNanos = 0;
+
+	// 압박 중 flush 동시 실행 제한
+	private final ReentrantLock flushLock = new ReentrantLock();
+	private final Condition flushSlotAvailable = flushLock.newCondition();
+	private int activeFlushes = 0;        // guarded by flushLock
+	private volatile int waitingFlushes = 0;
+
+	private Counter pressureEpisodesCounter;
+	private Timer pressureDurationTimer;
+
+	public HeapPressureMonitor(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@PostConstruct
+	public void start() {
+		Gauge.builder("heap.pressure.active", () -> underPressure ? 1.0 : 0.0)
+			.description("1 while old generation occupancy after GC is above the enter ratio")
+			.register(meterRegistry);
+
+		Gauge.builder("heap.pressure.old_gen.post_gc_ratio", () -> lastPostGcRatio)
+			.description("Old generation occupancy after the most recent GC (0.0 to 1.0)")
+			.register(meterRegistry);
+
+		Gauge.builder("heap.pressure.flushes.waiting", () -> (double) waitingFlushes)
+			.description("Flushes waiting for a slot while heap pressure throttling is active")
+			.register(meterRegistry);
+
+		pressureEpisodesCounter = Counter.builder("heap.pressure.episodes")
+			.description("Number of times heap pressure throttling was entered")
+			.register(meterRegistry);
+
+		pressureDurationTimer = Timer.builder("heap.pressure.duration")
+			.description("Duration of heap pressure throttling episodes")
+			.register(meterRegistry);
+
+		if (!enabled) {
+			log.info("Heap pressure monitor disabled");
+			return;
+		}
+
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported() && isOldGen(pool)) {
+				long max = maxOf(pool);
+				if (max > 0) {
+					// GC 후에도 enter-ratio 이상 남아있으면 알림 (MEMORY_COLLECTION_THRESHOLD_EXCEEDED)
+					pool.setCollectionUsageThreshold((long) (max * enterRatio));
+					oldGenPools.add(pool);
+				}
+			}
+		}
+		if (oldGenPools.isEmpty()) {
+			log.warn("Heap pressure monitor: no old generation pool supporting collection usage threshold found");
+			return;
+		}
+
+		// 1) 임계값 초과 알림 (MemoryMXBean)
+		NotificationListener thresholdListener = (notification, handback) -> {
+			if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType())) {
+				evaluate();
+			}
+		};
+		register((NotificationEmitter) ManagementFactory.getMemoryMXBean(), thresholdListener);
+
+		// 2) GC 완료 알림 → GC 후 점유율 갱신 (해제 판단)
+		NotificationListener gcListener = (notification, handback) -> evaluate();
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			if (gc instanceof NotificationEmitter emitter) {
+				register(emitter, gcListener);
+			}
+		}
+
+		log.info("Heap pressure monitor started: pools={}, enterRatio={}, exitRatio={}, minPauseMs={}, maxConcurrentFlushes={}",
+			oldGenPools.stream().map(MemoryPoolMXBean::getName).toList(), enterRatio, exitRatio, minPauseMs,
+			maxConcurrentFlushes);
+	}
+
+	@PreDestroy
+	public void stop() {
+		for (Registration registration : registrations) {
+			try {
+				registration.emitter().removeNotificationListener(registration.listener());
+			} catch (ListenerNotFoundException ignored) {
+				// 이미 제거됨
+			}
+		}
+		registrations.clear();
+		exitPressure();
+	}
+
+	/**
+	 * GC 가 한동안 없으면 알림도 없으므로 주기적으로 재평가
+	 * - 현재 점유율(GC 전)이 exit-ratio 이하면 GC 후 점유율도 그 이하 → 해제 가능
+	 */
+	@Scheduled(fixedDelay = 1000)
+	public void periodicCheck() {
+		if (underPressure) {
+			evaluate();
+		}
+	}
+
+	public boolean isUnderPressure() {
+		return underPressure;
+	}
+
+	/** 압박 진입(true) / 해제(false) 통지 등록 (GC 알림 스레드에서 호출되므로 빠르게 끝나야 함) */
+	public void addListener(Consumer<Boolean> listener) {
+		listeners.add(listener);
+	}
+
+	private void notifyListeners(boolean pressure) {
+		for (Consumer<Boolean> listener : listeners) {
+			try {
+				listener.accept(pressure);
+			} catch (Exception e) {
+				log.error("Heap pressure listener failed (pressure={})", pressure, e);
+			}
+		}
+	}
+
+	/**
+	 * flush 시작 전 호출 (워커 스레드)
+	 * - 압박 중이면 동시 flush 수를 max-concurrent-flushes 로 제한 (배치 SQL 파라미터 등 대량 할당 억제)
+	 */
+	public void acquireFlushSlot() {
+		flushLock.lock();
+		try {
+			if (underPressure && activeFlushes >= maxConcurrentFlushes) {
+				waitingFlushes++;
+				try {
+					while (underPressure && activeFlushes >= maxConcurrentFlushes) {
+						flushSlotAvailable.await(100, TimeUnit.MILLISECONDS);
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();  // 종료 중: 제한 없이 진행
+				} finally {
+					waitingFlushes--;
+				}
+			}
+			activeFlushes++;
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	public void releaseFlushSlot() {
+		flushLock.lock();
+		try {
+			activeFlushes--;
+			flushSlotAvailable.signal();
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	private synchronized void evaluate() {
+		double postGcRatio = 0.0;
+		double currentRatio = 0.0;
+		for (MemoryPoolMXBean pool : oldGenPools) {
+			long max = maxOf(pool);
+			MemoryUsage collectionUsage = pool.getCollectionUsage();
+			if (collectionUsage != null) {
+				postGcRatio = Math.max(postGcRatio, (double) collectionUsage.getUsed() / max);
+			}
+			currentRatio = Math.max(currentRatio, (double) pool.getUsage().getUsed() / max);
+		}
+		evaluate(postGcRatio, currentRatio);
+	}
+
+	/**
+	 * 점유율로 압박 진입/해제 판단 (히스테리시스)
+	 * @param postGcRatio 최근 GC 후 Old Gen 점유율
+	 * @param currentRatio 현재 Old Gen 점유율
+	 */
+	synchronized void evaluate(double postGcRatio, double currentRatio) {
+		lastPostGcRatio = postGcRatio;
+
+		if (!underPressure && postGcRatio >= enterRatio) {
+			underPressure = true;
+			pressureStartNanos = System.nanoTime();
+			pressureEpisodesCounter.increment();
+			log.warn(String.format("Heap pressure ON - old gen after GC: %.1f%% >= %.1f%%. " +
+				"Pausing consumers and throttling flushes.", postGcRatio * 100, enterRatio * 100));
+			notifyListeners(true);
+		} else if (underPressure
+			&& Math.min(postGcRatio, currentRatio) <= exitRatio
+			&& System.nanoTime() - pressureStartNanos >= TimeUnit.MILLISECONDS.toNanos(minPauseMs)) {
+			log.info(String.format("Heap pressure OFF - old gen after GC: %.1f%%, current: %.1f%% <= %.1f%%.",
+				postGcRatio * 100, currentRatio * 100, exitRatio * 100));
+			exitPressure();
+		}
+	}
+
+	private void exitPressure() {
+		if (!underPressure) {
+			return;
+		}
+		underPressure = false;
+		pressureDurationTimer.record(System.nanoTime() - pressureStartNanos, TimeUnit.NANOSECONDS);
+		flushLock.lock();
+		try {
+			flushSlotAvailable.signalAll();
+		} finally {
+			flushLock.unlock();
+		}
+		notifyListeners(false);
+	}
+
+	private void register(NotificationEmitter emitter, NotificationListener listener) {
+		emitter.addNotificationListener(listener, null, null);
+		registrations.add(new Registration(emitter, listener));
+	}
+
+	/** G1 Old Gen, PS Old Gen, Tenured Gen, ZGC/Shenandoah 단일 힙 등 (Eden/Survivor 제외) */
+	private static boolean isOldGen(MemoryPoolMXBean pool) {
+		String name = pool.getName();
+		return !name.contains("Eden") && !name.contains("Survivor");
+	}
+
+	private static long maxOf(MemoryPoolMXBean pool) {
+		long max = pool.getUsage().getMax();
+		return max > 0 ? max : Runtime.getRuntime().maxMemory();
+	}
+
+	private record Registration(NotificationEmitter emitter, NotificationListener listener) {
+	}
+}
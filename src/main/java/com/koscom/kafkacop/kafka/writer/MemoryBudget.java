@@ -0,0 +1,92 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 전체 BatchAccumulator 가 공유하는 메모리 예산 (추정 바이트)
+ * - 적재 시 예약(reserve), flush 완료 시 반납(release)
+ * - 메시지 개수가 아니라 타입별 추정 크기 기준으로 큐/버퍼/스테이징/flush 중인 배치 전체를 제한
+ * - 리스너 pause/resume 은 usageRatio() 를 기준으로 판단
+ */
+public class MemoryBudget {
+
+	private final long limitBytes;
+	private final AtomicLong usedBytes = new AtomicLong(0);
+
+	public MemoryBudget(long limitBytes, MeterRegistry meterRegistry) {
+		this.limitBytes = Math.max(1, limitBytes);
+
+		Gauge.builder("batch.memory.budget.limit_bytes", () -> (double) this.limitBytes)
+			.description("Global memory budget for queued and in-flight batches (estimated bytes)")
+			.register(meterRegistry);
+
+		Gauge.builder("batch.memory.budget.used_bytes", usedBytes, AtomicLong::get)
+			.description("Estimated bytes reserved by all accumulators")
+			.register(meterRegistry);
+
+		Gauge.builder("batch.memory.budget.usage_ratio", this::usageRatio)
+			.description("Global memory budget usage ratio (0.0 to 1.0)")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * 가능한 만큼 예약
+	 * @return 실제 예약된 바이트 (0 ~ requested)
+	 */
+	public long tryReserveUpTo(long requested) {
+		if (requested <= 0) {
+			return 0;
+		}
+		while (true) {
+			long used = usedBytes.get();
+			long granted = Math.min(requested, limitBytes - used);
+			if (granted <= 0) {
+				return 0;
+			}
+			if (usedBytes.compareAndSet(used, used + granted)) {
+				return granted;
+			}
+		}
+	}
+
+	/** 전부 예약되거나 전혀 예약되지 않음 */
+	public boolean tryReserve(long bytes) {
+		while (true) {
+			long used = usedBytes.get();
+			if (used + bytes > limitBytes) {
+				return false;
+			}
+			if (usedBytes.compareAndSet(used, used + bytes)) {
+				return true;
+			}
+		}
+	}
+
+	/** 한도와 무관하게 예약 (디스크 스필에서 복귀한 메시지 등 이미 수용한 데이터) */
+	public void forceReserve(long bytes) {
+		if (bytes > 0) {
+			usedBytes.addAndGet(bytes);
+		}
+	}
+
+	public void release(long bytes) {
+		if (bytes > 0) {
+			usedBytes.addAndGet(-bytes);
+		}
+	}
+
+	public long getUsedBytes() {
+		return usedBytes.get();
+	}
+
+	public long getLimitBytes() {
+		return limitBytes;
+	}
+
+	public double usageRatio() {
+		return (double) usedBytes.get() / limitBytes;
+	}
+}
@@ -0,0 +1,107 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import com.koscom.kafkacop.kafka.dto.CandleSecondMessage;
+import com.koscom.kafkacop.kafka.dto.MarketDataMessage;
+import com.koscom.kafkacop.kafka.dto.Orderbook5Message;
+import com.koscom.kafkacop.kafka.dto.TickerBasicMessage;
+import com.koscom.kafkacop.kafka.serde.LazyMessage;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * 메시지 타입별 retained size 추정 (64bit JVM, compressed oops, 8바이트 정렬 기준)
+ * - 정확한 측정(Instrumentation)이 아니라 메모리 예산용 근사치: 필드 구성만 보고 계산하므로 호출 비용이 작음
+ * - 객체 헤더 12B, 참조 4B, 배열 헤더 16B
+ */
+public final class MessageSizeEstimator {
+
+	private static final int OBJECT_HEADER = 12;
+	private static final int ARRAY_HEADER = 16;
+	private static final int REFERENCE = 4;
+	private static final int STRING_SHALLOW = 24;     // String 객체 (hash, coder, value 참조)
+	private static final int ARRAY_LIST_SHALLOW = 24; // ArrayList 객체 (size, modCount, elementData 참조)
+
+	// 레코드 shallow size (헤더 + 참조 필드 + 원시 필드)
+	private static final long TICKER_SHALLOW = align(OBJECT_HEADER + 2 * REFERENCE + 6 * 8);
+	private static final long CANDLE_SHALLOW = align(OBJECT_HEADER + 4 * REFERENCE + 7 * 8);
+	private static final long ORDERBOOK_SHALLOW = align(OBJECT_HEADER + 3 * REFERENCE + 3 * 8);
+	private static final long ORDERBOOK_UNIT_SHALLOW = align(OBJECT_HEADER + 4 * 8);
+	private static final long LAZY_SHALLOW = align(OBJECT_HEADER + 5 * REFERENCE + 8 + 4);
+
+	private MessageSizeEstimator() {
+	}
+
+	public static long tickerBasic(TickerBasicMessage message) {
+		return TICKER_SHALLOW
+			+ stringList(message.mktCode())
+			+ string(message.exchange());
+	}
+
+	public static long candleSecond(CandleSecondMessage message) {
+		return CANDLE_SHALLOW
+			+ stringList(message.mktCode())
+			+ string(message.exchange())
+			+ string(message.candleDateTimeUtc())
+			+ string(message.candleDateTimeKst());
+	}
+
+	public static long orderbook5(Orderbook5Message message) {
+		long size = ORDERBOOK_SHALLOW
+			+ stringList(message.mktCode())
+			+ string(message.exchange());
+		List<Orderbook5Message.OrderbookUnit> units = message.orderbookUnits();
+		if (units != null) {
+			size += list(units.size()) + units.size() * ORDERBOOK_UNIT_SHALLOW;
+		}
+		return size;
+	}
+
+	/**
+	 * LazyMessage 래퍼 포함 추정치
+	 * - 원본 바이트 보관: 바이트 배열 (색인된 mkt_code / exchange 는 심볼 테이블의 공유 인스턴스라 제외)
+	 *   (적재/반납 시 같은 값이 나와야 하므로 나중에 디코딩된 DTO 는 포함하지 않음, 색인 실패로 미리 디코딩한 DTO 만 포함)
+	 * - 디코딩된 메시지: 메시지 타입별 추정치
+	 */
+	public static <T extends MarketDataMessage> ToLongFunction<LazyMessage<T>> lazy(ToLongFunction<T> decodedEstimator) {
+		return message -> {
+			if (message.hasPayload()) {
+				long size = LAZY_SHALLOW + align(ARRAY_HEADER + message.payload().length);
+				if (message.isIndexed()) {
+					return size;
+				}
+				T value = message.get();
+				return value != null ? size + decodedEstimator.applyAsLong(value) : size;
+			}
+			T value = message.get();
+			return LAZY_SHALLOW + (value != null ? decodedEstimator.applyAsLong(value) : 0);
+		};
+	}
+
+	private static long stringList(List<String> values) {
+		if (values == null) {
+			return 0;
+		}
+		long size = list(values.size());
+		for (String value : values) {
+			size += string(value);
+		}
+		return size;
+	}
+
+	/** Latin-1 compact string 기준 (마켓 코드/거래소/시각 문자열은 ASCII) */
+	private static long string(String value) {
+		if (value == null) {
+			return 0;
+		}
+		return STRING_SHALLOW + align(ARRAY_HEADER + value.length());
+	}
+
+	private static long list(int elements) {
+		return ARRAY_LIST_SHALLOW + align(ARRAY_HEADER + (long) elements * REFERENCE);
+	}
+
+	private static long align(long bytes) {
+		return (bytes + 7) & ~7L;
+	}
+}
@@ -1,6 +1,8 @@
 package com.koscom.kafkacop.kafka.writer;
 
 import com.koscom.kafkacop.kafka.dto.Orderbook5Message;
+import com.koscom.kafkacop.kafka.serde.LazyMessage;
+import com.koscom.kafkacop.kafka.serde.MarketSymbolTable;
 import com.koscom.kafkacop.kafka.util.TimestampConverter;
 import com.koscom.kafkacop.market.domain.Market;
 import com.koscom.kafkacop.market.repository.MarketRepository;
@@ -14,6 +16,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -22,29 +26,32 @@ import java.util.stream.Collectors;
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class Orderbook5BatchWriter implements BatchAccumulator.BatchWriter<Orderbook5Message> {
+public class Orderbook5BatchWriter implements BatchAccumulator.BatchWriter<LazyMessage<Orderbook5Message>> {
 
 	private final MarketRepository marketRepository;
+	private final MarketSymbolTable marketSymbolTable;
 	private final JdbcTemplate jdbcTemplate;
 
 	@Override
 	@Transactional
-	public void flush(List<Orderbook5Message> batch) {
+	public void flush(List<LazyMessage<Orderbook5Message>> batch) {
 		if (batch == null || batch.isEmpty()) {
 			return;
 		}
 
 		// 0. null 필터링 및 유효성 검증 (스킵 원인 추적)
+		//    mktCode / exchange / timestamp 는 raw-passthrough 모드면 역직렬화 때 색인한 값 (나머지 필드 디코딩은 4. 바인딩 직전)
+		//    마켓은 역직렬화 때 intern 한 심볼 ID 로 식별 (메시지별 마켓코드 문자열 생성 없음)
 		AtomicInteger nullMessages = new AtomicInteger(0);
 		AtomicInteger invalidMktCode = new AtomicInteger(0);
 		AtomicInteger invalidOrderbookUnits = new AtomicInteger(0);
 		AtomicInteger invalidTimestamp = new AtomicInteger(0);
 		AtomicInteger index = new AtomicInteger(0);
 
-		List<Orderbook5Message> validBatch = batch.stream()
+		List<LazyMessage<Orderbook5Message>> validBatch = batch.stream()
 			.filter(msg -> {
 				int idx = index.getAndIncrement();
-				if (msg == null) {
+				if (msg == null || (!msg.isIndexed() && msg.get() == null)) {  // 색인 없는 메시지는 역직렬화 때 디코딩한 DTO 로 판단
 					nullMessages.incrementAndGet();
 					// log.error("[Orderbook5] NULL message detected at batch index {}! batchSize={}, batchHashCode={}",
 					// 	idx, batch.size(), System.identityHashCode(batch));
@@ -53,22 +60,13 @@ public class Orderbook5BatchWriter implements BatchAccumulator.BatchWriter<Order
 				return true;
 			})
 			.filter(msg -> {
-				if (msg.mktCode() == null || msg.mktCode().isEmpty()) {
+				if (msg.symbol() == MarketSymbolTable.NO_SYMBOL) {  // mktCode 없음 / 빈 목록
 					invalidMktCode.incrementAndGet();
 					log.warn("[Orderbook5] Invalid mktCode: msg={}", msg);
 					return false;
 				}
 				return true;
 			})
-			.filter(msg -> {
-				if (msg.orderbookUnits() == null || msg.orderbookUnits().size() < 5) {
-					invalidOrderbookUnits.incrementAndGet();
-					log.warn("[Orderbook5] Invalid orderbookUnits (need 5): size={}, msg={}",
-						msg.orderbookUnits() != null ? msg.orderbookUnits().size() : 0, msg);
-					return false;
-				}
-				return true;
-			})
 			.filter(msg -> {
 				if (msg.timestamp() <= 0) {
 					invalidTimestamp.incrementAndGet();
@@ -91,35 +89,39 @@ public class Orderbook5BatchWriter implements BatchAccumulator.BatchWriter<Order
 				nullMessages.get(), invalidMktCode.get(), invalidOrderbookUnits.get(), invalidTimestamp.get());
 		}
 
-		// 1. 거래소명과 마켓코드 추출
+		// 1. 거래소명과 마켓 심볼 추출 (마켓코드 문자열은 심볼 테이블이 심볼당 1회만 생성)
 		String exchangeCode = validBatch.get(0).exchange();
-		List<String> marketCodes = validBatch.stream()
-			.map(msg -> String.join("/", msg.mktCode()))
-			.distinct()
+		BitSet symbols = new BitSet();
+		for (LazyMessage<Orderbook5Message> msg : validBatch) {
+			symbols.set(msg.symbol());
+		}
+		List<String> marketCodes = symbols.stream()
+			.mapToObj(marketSymbolTable::marketCode)
 			.toList();
 
-		// 2. Market 조회 (배치)
+		// 2. Market 조회 (배치) → 심볼 ID 로 바로 찾는 배열 (DB 에 없는 마켓은 null)
 		Map<String, Market> marketMap = marketRepository
 			.findAllByExchange_ExchangeCodeAndMarketCodeIn(exchangeCode, marketCodes)
 			.stream()
 			.collect(Collectors.toMap(Market::getMarketCode, m -> m));
+		Market[] marketBySymbol = new Market[symbols.length()];
+		symbols.stream().forEach(symbol -> marketBySymbol[symbol] = marketMap.get(marketSymbolTable.marketCode(symbol)));
 
 		// 3. Market이 존재하는 메시지만 필터링 (Market 미존재 추적)
 		AtomicInteger marketNotFound = new AtomicInteger(0);
-		List<Orderbook5Message> processableBatch = validBatch.stream()
+		List<LazyMessage<Orderbook5Message>> marketMatchedBatch = validBatch.stream()
 			.filter(msg -> {
-				String marketCode = String.join("/", msg.mktCode());
-				boolean exists = marketMap.containsKey(marketCode);
+				boolean exists = marketBySymbol[msg.symbol()] != null;
 				if (!exists) {
 					marketNotFound.incrementAndGet();
 					log.warn("[Orderbook5] Market not found in DB: marketCode={}, exchange={}, msg={}",
-						marketCode, exchangeCode, msg);
+						marketSymbolTable.marketCode(msg.symbol()), exchangeCode, msg);
 				}
 				return exists;
 			})
 			.toList();
 
-		if (processableBatch.isEmpty()) {
+		if (marketMatchedBatch.isEmpty()) {
 			log.warn("[Orderbook5] No valid markets found for batch (marketNotFound={}), skipping flush",
 				marketNotFound.get());
 			return;
@@ -130,7 +132,30 @@ public class Orderbook5BatchWriter implements BatchAccumulator.BatchWriter<Order
 			log.warn("[Orderbook5] Market not found: count={}", marketNotFound.get());
 		}
 
-		// 4. JDBC Batch UPSERT (진짜 배치 처리)
+		// 4. 바인딩할 메시지만 디코딩 + 호가 5단계 검증 (raw-passthrough 모드면 가격 / 수량 / 호가 목록은 여기서 처음 파싱)
+		List<LazyMessage<Orderbook5Message>> processableBatch = new ArrayList<>(marketMatchedBatch.size());
+		for (LazyMessage<Orderbook5Message> lazy : marketMatchedBatch) {
+			Orderbook5Message msg = lazy.get();
+			if (msg == null) {
+				nullMessages.incrementAndGet();
+				continue;
+			}
+			if (msg.orderbookUnits() == null || msg.orderbookUnits().size() < 5) {
+				invalidOrderbookUnits.incrementAndGet();
+				log.warn("[Orderbook5] Invalid orderbookUnits (need 5): size={}, msg={}",
+					msg.orderbookUnits() != null ? msg.orderbookUnits().size() : 0, msg);
+				continue;
+			}
+			processableBatch.add(lazy);
+		}
+
+		if (processableBatch.isEmpty()) {
+			log.warn("[Orderbook5] No decodable messages left for batch (nullMsg={}, invalidUnits={}), skipping flush",
+				nullMessages.get(), invalidOrderbookUnits.get());
+			return;
+		}
+
+		// 5. JDBC Batch UPSERT (진짜 배치 처리)
 		String sql = """
 			INSERT INTO md_ob_top5 (
 				market_id, orderbook_date_time, code,
@@ -157,9 +182,10 @@ public class Orderbook5BatchWriter implements BatchAccumulator.BatchWriter<Order
 				bid_p5 = VALUES(bid_p5), bid_q5 = VALUES(bid_q5)
 			""";
 
-		jdbcTemplate.batchUpdate(sql, processableBatch, processableBatch.size(), (ps, msg) -> {
-			String marketCode = String.join("/", msg.mktCode());
-			Market market = marketMap.get(marketCode);
+		jdbcTemplate.batchUpdate(sql, processableBatch, processableBatch.size(), (ps, lazy) -> {
+			Orderbook5Message msg = lazy.get();  // 4. 에서 디코딩 완료
+			String marketCode = marketSymbolTable.marketCode(lazy.symbol());
+			Market market = marketBySymbol[lazy.symbol()];
 			List<Orderbook5Message.OrderbookUnit> units = msg.orderbookUnits();
 
 			// timestamp를 자동으로 마이크로초/밀리초 구분하여 KST LocalDateTime으로 변환
@@ -0,0 +1,106 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 마켓 해시 파티션별 고정 워커 방식
+ * - 파티션마다 단일 스레드 실행기 → 같은 마켓의 배치는 항상 같은 워커가 순서대로 upsert
+ *   (서로 다른 워커가 같은 (market_id, time) PK 범위를 동시에 잠그지 않음 → InnoDB 락 대기/데드락 제거)
+ * - 파티션 큐가 가득 차면 Coordinator가 빈자리가 날 때까지 대기
+ *   (CallerRunsPolicy 처럼 Coordinator가 직접 실행하면 같은 파티션이 동시에 flush 되므로 사용하지 않음)
+ */
+public class PartitionedFlushExecutor implements FlushExecutor {
+
+	private final List<ThreadPoolExecutor> partitions;
+
+	public PartitionedFlushExecutor(int partitionCount, int workerQueueCapacity, String threadNamePrefix) {
+		int perPartitionCapacity = Math.max(1, workerQueueCapacity / partitionCount);
+		List<ThreadPoolExecutor> executors = new ArrayList<>(partitionCount);
+		for (int i = 0; i < partitionCount; i++) {
+			String threadName = threadNamePrefix + "-p" + i;
+			executors.add(new ThreadPoolExecutor(
+				1, 1,
+				60L, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(perPartitionCapacity),
+				r -> {
+					Thread t = new Thread(r, threadName);
+					t.setDaemon(true);
+					return t;
+				},
+				(r, executor) -> {
+					// 큐 빈자리까지 대기 (순서 보존 + 백프레셔)
+					if (executor.isShutdown()) {
+						throw new RejectedExecutionException("Flush partition executor is shut down");
+					}
+					try {
+						executor.getQueue().put(r);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new RejectedExecutionException("Interrupted while waiting for flush partition queue", e);
+					}
+				}
+			));
+		}
+		executors.forEach(ThreadPoolExecutor::prestartCoreThread);  // trySubmit() 이 큐에 바로 넣어도 처리할 워커가 있도록
+		this.partitions = List.copyOf(executors);
+	}
+
+	@Override
+	public void execute(int partition, Runnable task) {
+		partitions.get(partition).execute(task);
+	}
+
+	@Override
+	public boolean trySubmit(int partition, Runnable task) {
+		ThreadPoolExecutor executor = partitions.get(partition);
+		if (executor.isShutdown()) {
+			throw new RejectedExecutionException("Flush partition executor is shut down");
+		}
+		return executor.getQueue().offer(task);
+	}
+
+	@Override
+	public int partitionCount() {
+		return partitions.size();
+	}
+
+	@Override
+	public int getQueuedTaskCount() {
+		int queued = 0;
+		for (ThreadPoolExecutor executor : partitions) {
+			queued += executor.getQueue().size();
+		}
+		return queued;
+	}
+
+	@Override
+	public int getActiveCount() {
+		int active = 0;
+		for (ThreadPoolExecutor executor : partitions) {
+			active += executor.getActiveCount();
+		}
+		return active;
+	}
+
+	@Override
+	public void shutdown() {
+		partitions.forEach(ThreadPoolExecutor::shutdown);
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		for (ThreadPoolExecutor executor : partitions) {
+			long remaining = deadline - System.nanoTime();
+			if (!executor.awaitTermination(Math.max(0, remaining), TimeUnit.NANOSECONDS)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,77 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 워커 풀 공유 방식 (기존 방식)
+ * - bounded queue + caller-runs: 큐 가득 차면 Coordinator가 직접 실행 → 자연스러운 백프레셔
+ * - 종료 후 제출은 RejectedExecutionException (CallerRunsPolicy 처럼 조용히 버리지 않음 → 호출자가 직접 최종 flush)
+ * - trySubmit(): 코어 스레드를 미리 띄워두고 작업 큐에 직접 offer (rejection handler 를 거치지 않음)
+ */
+public class PooledFlushExecutor implements FlushExecutor {
+
+	private final ThreadPoolExecutor executor;
+
+	public PooledFlushExecutor(int workerThreadCount, int workerQueueCapacity, String threadName) {
+		this.executor = new ThreadPoolExecutor(
+			workerThreadCount,                       // corePoolSize
+			workerThreadCount,                       // maximumPoolSize
+			60L, TimeUnit.SECONDS,                   // keepAliveTime
+			new ArrayBlockingQueue<>(workerQueueCapacity),  // bounded queue (메모리 제한)
+			r -> {
+				Thread t = new Thread(r, threadName);
+				t.setDaemon(true);
+				return t;
+			},
+			(r, executor) -> {
+				// 큐 가득 차면 Coordinator가 직접 실행 → 자연스러운 백프레셔
+				if (executor.isShutdown()) {
+					throw new RejectedExecutionException("Flush executor is shut down");
+				}
+				r.run();
+			}
+		);
+		this.executor.prestartAllCoreThreads();  // trySubmit() 이 큐에 바로 넣어도 처리할 워커가 있도록
+	}
+
+	@Override
+	public void execute(int partition, Runnable task) {
+		executor.execute(task);
+	}
+
+	@Override
+	public boolean trySubmit(int partition, Runnable task) {
+		if (executor.isShutdown()) {
+			throw new RejectedExecutionException("Flush executor is shut down");
+		}
+		return executor.getQueue().offer(task);
+	}
+
+	@Override
+	public int partitionCount() {
+		return 1;
+	}
+
+	@Override
+	public int getQueuedTaskCount() {
+		return executor.getQueue().size();
+	}
+
+	@Override
+	public int getActiveCount() {
+		return executor.getActiveCount();
+	}
+
+	@Override
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return executor.awaitTermination(timeout, unit);
+	}
+}
@@ -0,0 +1,345 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 모든 BatchAccumulator 가 공유하는 flush 스케줄러
+ * - 워커 수 = DB 커넥션 풀 크기 - 예약 커넥션 → flush 스레드가 getConnection() 에서 대기하지 않음
+ * - 토픽별 레인(lane)에 작업을 쌓고, 작업이 있는 레인 중 가중치 기반 Smooth Weighted Round-Robin 으로 선택
+ *   (orderbook 이 몰려도 candle 레인은 가중치만큼 항상 순번을 받음)
+ * - 파티션 레인: 같은 파티션의 작업은 동시에 1개만 실행 (PARTITIONED flush 모드의 마켓 직렬화 유지)
+ * - 토픽별 메트릭은 레인이 FlushExecutor 로 그대로 제공 (worker.queue.size / worker.active_threads)
+ */
+@Slf4j
+public class SharedFlushScheduler {
+
+	private final int concurrency;
+	private final MeterRegistry meterRegistry;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition taskAvailable = lock.newCondition();   // 실행 가능한 작업 생김
+	private final Condition spaceAvailable = lock.newCondition();  // 레인 대기열에 빈자리 생김
+	private final Condition laneIdle = lock.newCondition();        // 레인 작업 모두 완료
+
+	private final List<Lane> lanes = new ArrayList<>();            // guarded by lock
+	private final List<Thread> workers = new ArrayList<>();        // guarded by lock
+	private volatile boolean running = true;
+	private volatile int activeCount = 0;                          // written under lock
+
+	public SharedFlushScheduler(int concurrency, MeterRegistry meterRegistry) {
+		this.concurrency = Math.max(1, concurrency);
+		this.meterRegistry = meterRegistry;
+
+		Gauge.builder("batch.flush.scheduler.concurrency", () -> (double) this.concurrency)
+			.description("Maximum concurrent flushes (DB connections available to flush workers)")
+			.register(meterRegistry);
+
+		Gauge.builder("batch.flush.scheduler.active", () -> (double) activeCount)
+			.description("Flushes currently running on the shared scheduler")
+			.register(meterRegistry);
+
+		Gauge.builder("batch.flush.scheduler.queued", this::getQueuedTaskCount)
+			.description("Flush tasks waiting on the shared scheduler across all topics")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * 토픽 레인 등록 (BatchAccumulator.start() 에서 호출)
+	 * @param weight 스케줄링 가중치 (클수록 더 자주 선택)
+	 * @param partitionCount 1 이면 동시 실행 제한 없음, 2 이상이면 파티션별 직렬 실행
+	 * @param capacity 레인 대기열 최대 작업 수 (가득 차면 제출한 코디네이터가 대기)
+	 */
+	public FlushExecutor register(String topic, int weight, int partitionCount, int capacity) {
+		lock.lock();
+		try {
+			Lane lane = new Lane(topic, Math.max(1, weight), Math.max(1, partitionCount), Math.max(1, capacity));
+			lanes.add(lane);
+			if (workers.isEmpty()) {
+				startWorkers();
+			}
+			log.info("[{}] Registered on shared flush scheduler: weight={}, partitions={}, capacity={}, concurrency={}",
+				topic, lane.weight, lane.partitionCount, lane.capacity, concurrency);
+			return lane;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void startWorkers() {
+		for (int i = 0; i < concurrency; i++) {
+			Thread t = new Thread(this::workerLoop, "shared-flush-worker-" + i);
+			t.setDaemon(true);
+			t.start();
+			workers.add(t);
+		}
+	}
+
+	private double getQueuedTaskCount() {
+		lock.lock();
+		try {
+			int queued = 0;
+			for (Lane lane : lanes) {
+				queued += lane.pending;
+			}
+			return queued;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		lock.lock();
+		try {
+			running = false;
+			taskAvailable.signalAll();
+			spaceAvailable.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/** 워커 루프: 가중치 라운드로빈으로 레인 선택 → 작업 실행 → 완료 처리 */
+	private void workerLoop() {
+		while (true) {
+			Lane lane;
+			Task task;
+			lock.lock();
+			try {
+				while ((lane = selectLane()) == null) {
+					if (!running) {
+						return;  // 남은 작업까지 모두 처리한 뒤 종료
+					}
+					taskAvailable.await();
+				}
+				task = lane.take();
+				activeCount++;
+				spaceAvailable.signalAll();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} finally {
+				lock.unlock();
+			}
+
+			lane.waitTimer.record(System.nanoTime() - task.enqueuedNanos, TimeUnit.NANOSECONDS);
+			lane.dispatchedCounter.increment();
+			try {
+				task.runnable.run();
+			} catch (Throwable t) {
+				log.error("[{}] Flush task failed on shared scheduler", lane.topic, t);
+			} finally {
+				lock.lock();
+				try {
+					lane.complete(task.partition);
+					activeCount--;
+					taskAvailable.signalAll();
+					if (lane.isIdle()) {
+						laneIdle.signalAll();
+					}
+				} finally {
+					lock.unlock();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Smooth Weighted Round-Robin (nginx 방식): 실행 가능한 레인만 후보
+	 * - 후보마다 currentWeight += weight, 최대값 선택 후 선택된 레인은 -= 후보 가중치 합
+	 */
+	private Lane selectLane() {
+		Lane best = null;
+		int totalWeight = 0;
+		for (Lane lane : lanes) {
+			if (!lane.hasRunnable()) {
+				continue;
+			}
+			lane.currentWeight += lane.weight;
+			totalWeight += lane.weight;
+			if (best == null || lane.currentWeight > best.currentWeight) {
+				best = lane;
+			}
+		}
+		if (best != null) {
+			best.currentWeight -= totalWeight;
+		}
+		return best;
+	}
+
+	private record Task(int partition, Runnable runnable, long enqueuedNanos) {
+	}
+
+	/** 토픽별 레인: 모든 상태는 스케줄러 lock 으로 보호 */
+	private final class Lane implements FlushExecutor {
+		private final String topic;
+		private final int weight;
+		private final int partitionCount;
+		private final int capacity;
+		private final List<ArrayDeque<Task>> queues;
+		private final boolean[] partitionBusy;
+		private final ArrayDeque<Integer> readyPartitions = new ArrayDeque<>();  // 대기 작업 있고 실행 중 아닌 파티션
+		private final Timer waitTimer;
+		private final Counter dispatchedCounter;
+
+		private int currentWeight = 0;
+		private volatile int pending = 0;
+		private volatile int active = 0;
+		private boolean closed = false;
+
+		private Lane(String topic, int weight, int partitionCount, int capacity) {
+			this.topic = topic;
+			this.weight = weight;
+			this.partitionCount = partitionCount;
+			this.capacity = capacity;
+			this.queues = new ArrayList<>(partitionCount);
+			for (int i = 0; i < partitionCount; i++) {
+				queues.add(new ArrayDeque<>());
+			}
+			this.partitionBusy = new boolean[partitionCount];
+			this.waitTimer = Timer.builder("batch.flush.scheduler.wait")
+				.tag("topic", topic)
+				.description("Time a flush task waited on the shared scheduler before running")
+				.register(meterRegistry);
+			this.dispatchedCounter = Counter.builder("batch.flush.scheduler.dispatched")
+				.tag("topic", topic)
+				.description("Flush tasks dispatched by the shared scheduler")
+				.register(meterRegistry);
+		}
+
+		private boolean serialized() {
+			return partitionCount > 1;
+		}
+
+		private boolean hasRunnable() {
+			return serialized() ? !readyPartitions.isEmpty() : pending > 0;
+		}
+
+		private Task take() {
+			int partition = serialized() ? readyPartitions.poll() : 0;
+			Task task = queues.get(partition).poll();
+			if (serialized()) {
+				partitionBusy[partition] = true;
+			}
+			pending--;
+			active++;
+			return task;
+		}
+
+		private void complete(int partition) {
+			active--;
+			if (serialized()) {
+				partitionBusy[partition] = false;
+				if (!queues.get(partition).isEmpty()) {
+					readyPartitions.add(partition);
+				}
+			}
+		}
+
+		private boolean isIdle() {
+			return pending == 0 && active == 0;
+		}
+
+		@Override
+		public void execute(int partition, Runnable runnable) {
+			lock.lock();
+			try {
+				// 대기열 가득 참 → 제출한 코디네이터가 빈자리까지 대기 (DB 커넥션 수 이상으로 실행하지 않음)
+				while (pending >= capacity && running && !closed) {
+					spaceAvailable.await();
+				}
+				enqueue(partition, runnable);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RejectedExecutionException("Interrupted while waiting for shared flush scheduler", e);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		@Override
+		public boolean trySubmit(int partition, Runnable runnable) {
+			lock.lock();
+			try {
+				if (pending >= capacity && running && !closed) {
+					return false;
+				}
+				enqueue(partition, runnable);
+				return true;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/** lock 보유 상태에서 호출 */
+		private void enqueue(int partition, Runnable runnable) {
+			if (!running || closed) {
+				throw new RejectedExecutionException("Shared flush scheduler lane is closed: " + topic);
+			}
+			int target = serialized() ? partition : 0;
+			ArrayDeque<Task> queue = queues.get(target);
+			queue.add(new Task(target, runnable, System.nanoTime()));
+			pending++;
+			if (serialized() && !partitionBusy[target] && queue.size() == 1) {
+				readyPartitions.add(target);
+			}
+			taskAvailable.signal();
+		}
+
+		@Override
+		public int partitionCount() {
+			return partitionCount;
+		}
+
+		@Override
+		public int getQueuedTaskCount() {
+			return pending;
+		}
+
+		@Override
+		public int getActiveCount() {
+			return active;
+		}
+
+		@Override
+		public void shutdown() {
+			lock.lock();
+			try {
+				closed = true;
+				spaceAvailable.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		@Override
+		public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+			long remaining = unit.toNanos(timeout);
+			lock.lock();
+			try {
+				while (!isIdle()) {
+					if (remaining <= 0) {
+						return false;
+					}
+					remaining = laneIdle.awaitNanos(remaining);
+				}
+				return true;
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 가상 스레드 방식
+ * - 배치마다 가상 스레드 1개 → JDBC I/O 대기 중에는 캐리어 스레드를 점유하지 않음
+ * - 동시 flush 수는 스레드 수가 아닌 세마포어(maxConcurrency)로 제한 (DB 커넥션 풀 크기에 맞춤)
+ * - 제출 가능한 작업 수는 maxConcurrency + workerQueueCapacity 로 제한 → 가득 차면 Coordinator가 빈자리까지 대기
+ *   (POOLED 의 bounded queue + CallerRunsPolicy 와 같은 백프레셔, 코디네이터 스레드에서 flush 하지 않음)
+ */
+public class VirtualThreadFlushExecutor implements FlushExecutor {
+
+	private final ExecutorService executor;
+	private final Semaphore admission;     // 제출된(대기 + 실행 중) 작업 수 제한
+	private final Semaphore concurrency;   // 실행 중 작업 수 제한
+	private final AtomicInteger admitted = new AtomicInteger(0);
+	private final AtomicInteger active = new AtomicInteger(0);
+
+	public VirtualThreadFlushExecutor(int maxConcurrency, int workerQueueCapacity, String threadNamePrefix) {
+		this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadNamePrefix + "-v", 0).factory());
+		this.admission = new Semaphore(maxConcurrency + workerQueueCapacity);
+		this.concurrency = new Semaphore(maxConcurrency);
+	}
+
+	@Override
+	public void execute(int partition, Runnable task) {
+		if (executor.isShutdown()) {
+			throw new RejectedExecutionException("Flush executor is shut down");
+		}
+		try {
+			admission.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RejectedExecutionException("Interrupted while waiting for a flush slot", e);
+		}
+		start(task);
+	}
+
+	@Override
+	public boolean trySubmit(int partition, Runnable task) {
+		if (executor.isShutdown()) {
+			throw new RejectedExecutionException("Flush executor is shut down");
+		}
+		if (!admission.tryAcquire()) {
+			return false;
+		}
+		start(task);
+		return true;
+	}
+
+	private void start(Runnable task) {
+		admitted.incrementAndGet();
+		try {
+			executor.execute(() -> run(task));
+		} catch (RejectedExecutionException e) {
+			admitted.decrementAndGet();
+			admission.release();
+			throw e;
+		}
+	}
+
+	private void run(Runnable task) {
+		try {
+			concurrency.acquireUninterruptibly();
+			active.incrementAndGet();
+			try {
+				task.run();
+			} finally {
+				active.decrementAndGet();
+				concurrency.release();
+			}
+		} finally {
+			admitted.decrementAndGet();
+			admission.release();
+		}
+	}
+
+	@Override
+	public int partitionCount() {
+		return 1;
+	}
+
+	@Override
+	public int getQueuedTaskCount() {
+		return Math.max(0, admitted.get() - active.get());
+	}
+
+	@Override
+	public int getActiveCount() {
+		return active.get();
+	}
+
+	@Override
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return executor.awaitTermination(timeout, unit);
+	}
+}
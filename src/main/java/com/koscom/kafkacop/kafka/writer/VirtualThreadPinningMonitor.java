@@ -0,0 +1,108 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 가상 스레드 캐리어 고정(pinning) 감시 (flush-mode=VIRTUAL 일 때만 동작)
+ * - JFR jdk.VirtualThreadPinned 이벤트를 스트리밍으로 받아 메트릭 기록
+ *   (synchronized 블록 안에서 JDBC I/O 로 대기하면 가상 스레드가 캐리어 스레드를 놓지 못함)
+ * - site 태그: 스택에서 JDK 외 첫 프레임의 클래스 (예: JDBC 드라이버 / 커넥션 풀 클래스)
+ */
+@Slf4j
+@Component
+public class VirtualThreadPinningMonitor {
+
+	private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+	private static final int MAX_SITES = 50;  // site 태그 카디널리티 상한 (초과분은 "other")
+
+	@Value("${app.batch-accumulator.flush-mode:POOLED}")
+	private FlushExecutor.Mode flushMode;
+
+	@Value("${app.batch-accumulator.virtual.pinned-threshold-ms:20}")
+	private long pinnedThresholdMs;
+
+	private final MeterRegistry meterRegistry;
+	private final Map<String, Timer> pinnedTimers = new ConcurrentHashMap<>();
+	private Counter pinnedCounter;
+	private RecordingStream recordingStream;
+
+	public VirtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@PostConstruct
+	public void start() {
+		if (flushMode != FlushExecutor.Mode.VIRTUAL) {
+			return;
+		}
+		pinnedCounter = Counter.builder("virtual_thread.pinned.events")
+			.description("Virtual thread pinned-carrier events longer than the JFR threshold")
+			.register(meterRegistry);
+
+		try {
+			recordingStream = new RecordingStream();
+			recordingStream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(pinnedThresholdMs)).withStackTrace();
+			recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+			recordingStream.startAsync();
+			log.info("Virtual thread pinning monitor started: threshold={}ms", pinnedThresholdMs);
+		} catch (Exception e) {
+			log.warn("Virtual thread pinning monitor unavailable (JFR streaming not supported)", e);
+			recordingStream = null;
+		}
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (recordingStream != null) {
+			recordingStream.close();
+		}
+	}
+
+	private void onPinned(RecordedEvent event) {
+		pinnedCounter.increment();
+		String site = siteOf(event.getStackTrace());
+		if (!pinnedTimers.containsKey(site) && pinnedTimers.size() >= MAX_SITES) {
+			site = "other";
+		}
+		pinnedTimers.computeIfAbsent(site, key -> Timer.builder("virtual_thread.pinned.duration")
+				.tag("site", key)
+				.description("Time a virtual thread stayed pinned to its carrier thread")
+				.register(meterRegistry))
+			.record(event.getDuration());
+		if (log.isDebugEnabled()) {
+			log.debug("Virtual thread pinned for {}ms at {}", event.getDuration().toMillis(), site);
+		}
+	}
+
+	/** JDK(java./jdk./sun.) 외 첫 프레임의 클래스 */
+	private static String siteOf(RecordedStackTrace stackTrace) {
+		if (stackTrace == null) {
+			return "unknown";
+		}
+		for (RecordedFrame frame : stackTrace.getFrames()) {
+			if (!frame.isJavaFrame() || frame.getMethod() == null) {
+				continue;
+			}
+			String className = frame.getMethod().getType().getName();
+			if (!className.startsWith("java.") && !className.startsWith("jdk.") && !className.startsWith("sun.")) {
+				return className;
+			}
+		}
+		return "jdk";
+	}
+}
@@ -0,0 +1,67 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 슬라이딩 윈도우 처리량 측정 (최근 windowSeconds 초)
+ * - 1초 버킷 링, 버킷마다 LongAdder → 여러 컨슈머/워커 스레드가 기록해도 단일 AtomicLong 처럼 CAS 경합하지 않음
+ * - 조회는 진행 중인 현재 초를 제외한 완료 버킷만 합산 → 주기적 리셋 없이 값이 연속적으로 변함
+ * - 버킷 재사용: 버킷의 초(epoch)가 지난 값이면 그 초에 처음 기록하는 스레드가 비움
+ *   (비우는 순간 다른 스레드가 더한 값은 유실될 수 있음 - 처리량 게이지 용도로 허용)
+ */
+final class WindowedRateMeter {
+
+	private final int windowSeconds;
+	private final LongAdder[] counts;
+	private final AtomicLongArray epochs;  // 버킷이 집계 중인 초 (startNanos 기준, -1: 미사용)
+	private final long startNanos = System.nanoTime();
+
+	WindowedRateMeter(int windowSeconds) {
+		this.windowSeconds = Math.max(1, windowSeconds);
+		int buckets = this.windowSeconds + 2;  // 윈도우 + 현재 초 + 재사용 중인 버킷 여유 1개
+		this.counts = new LongAdder[buckets];
+		this.epochs = new AtomicLongArray(buckets);
+		for (int i = 0; i < buckets; i++) {
+			counts[i] = new LongAdder();
+			epochs.set(i, -1);
+		}
+	}
+
+	void record(long count) {
+		if (count <= 0) {
+			return;
+		}
+		long second = currentSecond();
+		int index = (int) (second % counts.length);
+		long epoch = epochs.get(index);
+		if (epoch < second && epochs.compareAndSet(index, epoch, second)) {
+			counts[index].reset();
+		}
+		counts[index].add(count);
+	}
+
+	/** 최근 windowSeconds 초(완료 버킷) 합계 */
+	long windowSum() {
+		long current = currentSecond();
+		long total = 0;
+		for (long second = Math.max(0, current - windowSeconds); second < current; second++) {
+			int index = (int) (second % counts.length);
+			if (epochs.get(index) == second) {
+				total += counts[index].sum();
+			}
+		}
+		return total;
+	}
+
+	/** 초당 처리량 (기동 후 windowSeconds 가 지나기 전에는 경과한 초 기준) */
+	double ratePerSecond() {
+		long covered = Math.min(windowSeconds, currentSecond());
+		return covered > 0 ? (double) windowSum() / covered : 0.0;
+	}
+
+	private long currentSecond() {
+		return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos);
+	}
+}
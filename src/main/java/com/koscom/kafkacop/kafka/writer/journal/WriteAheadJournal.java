@@ -0,0 +1,318 @@
+package com.koscom.kafkacop.kafka.writer.journal;
+
+import com.koscom.kafkacop.kafka.codec.RecordCodec;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 적재 후 아직 flush 되지 않은 메시지의 write-ahead journal (샤드당 1개)
+ * - 세그먼트: [long baseSeq][long reserved] 헤더 + [int length][payload] 레코드 반복 (length 0 = 끝), mmap 기록
+ * - 레코드 순번(seq) = baseSeq + 세그먼트 내 순서 → 메모리 큐 순서와 같게 기록해야 함 (호출자가 샤드 단위로 직렬화)
+ * - group commit: 여러 리스너 스레드의 append 를 force() 1회로 디스크에 반영 (먼저 force 중인 스레드가 있으면 그 결과를 공유)
+ * - flush 완료 구간은 순서와 무관하게 markFlushed() → 연속된 구간까지 watermark 전진, watermark 이전 세그먼트 삭제
+ * - watermark 는 checkpoint 파일에 기록 → 재기동 시 watermark 이후 레코드만 복구
+ */
+@Slf4j
+public class WriteAheadJournal<T> implements Closeable {
+
+	private static final int HEADER_BYTES = 16;
+	private static final int LENGTH_BYTES = 4;
+	private static final String SEGMENT_SUFFIX = ".wal";
+	private static final String CHECKPOINT_FILE = "checkpoint";
+
+	private final Path directory;
+	private final RecordCodec<T> codec;
+	private final int segmentBytes;
+	private final boolean forceOnCommit;
+
+	private final ArrayDeque<Segment> segments = new ArrayDeque<>();  // guarded by this
+	private final TreeMap<Long, Long> flushedRanges = new TreeMap<>(); // guarded by this, from → to(exclusive)
+	private final ReentrantLock commitLock = new ReentrantLock();      // group commit 리더 선출
+	private final MappedByteBuffer checkpoint;
+	private ByteBuffer scratch = ByteBuffer.allocate(4096);
+
+	private volatile long nextSeq = 0;      // 다음 append 순번
+	private volatile long durableSeq = 0;   // 이 순번 이전까지 force 완료
+	private volatile long watermark = 0;    // 이 순번 이전까지 flush 완료
+	private volatile long bytes = 0;        // watermark 이후 세그먼트 바이트 (근사)
+	private boolean closed = false;         // guarded by this
+
+	public WriteAheadJournal(Path directory, RecordCodec<T> codec, int segmentBytes, boolean forceOnCommit) {
+		this.directory = directory;
+		this.codec = codec;
+		this.segmentBytes = segmentBytes;
+		this.forceOnCommit = forceOnCommit;
+		try {
+			Files.createDirectories(directory);
+			try (FileChannel channel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+				StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				this.checkpoint = channel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to open journal directory " + directory, e);
+		}
+	}
+
+	/**
+	 * 재기동 복구: checkpoint 이후의 (flush 되지 않은) 레코드를 순서대로 replay 에 넘긴 뒤 기존 세그먼트 삭제
+	 * - replay 가 예외를 던지면 세그먼트를 그대로 두어 다음 기동에 다시 복구 (append 시작 전 1회만 호출)
+	 */
+	public synchronized void recover(Consumer<List<T>> replay) {
+		long checkpointSeq = checkpoint.getLong(0);
+		List<T> pending = new ArrayList<>();
+		long maxSeq = checkpointSeq;
+		List<Path> files;
+		try (Stream<Path> stream = Files.list(directory)) {
+			files = stream.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+				.sorted()
+				.toList();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to list journal directory " + directory, e);
+		}
+		for (Path file : files) {
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				long seq = buffer.getLong(0);
+				int pos = HEADER_BYTES;
+				while (pos + LENGTH_BYTES <= buffer.capacity()) {
+					int length = buffer.getInt(pos);
+					if (length <= 0 || pos + LENGTH_BYTES + length > buffer.capacity()) {
+						break;
+					}
+					if (seq >= checkpointSeq) {
+						pending.add(codec.decode(buffer.slice(pos + LENGTH_BYTES, length)));
+					}
+					pos += LENGTH_BYTES + length;
+					seq++;
+				}
+				maxSeq = Math.max(maxSeq, seq);
+			} catch (IOException e) {
+				log.error("Failed to read journal segment {}; skipping", file, e);
+			}
+		}
+		if (!pending.isEmpty()) {
+			log.warn("Recovering {} unflushed journal entries from {}", pending.size(), directory);
+			replay.accept(pending);
+		}
+
+		// 복구분 flush 완료 → 순번은 이어서 사용하고 기존 세그먼트 삭제
+		nextSeq = maxSeq;
+		durableSeq = maxSeq;
+		watermark = maxSeq;
+		storeCheckpoint();
+		checkpoint.force();
+		for (Path file : files) {
+			deleteQuietly(file);
+		}
+	}
+
+	/**
+	 * items 앞에서부터 count 건 기록
+	 * @return 첫 레코드 순번 (기록된 순번 = [반환값, 반환값 + count))
+	 */
+	public synchronized long append(List<? extends T> items, int count) {
+		if (closed) {
+			throw new IllegalStateException("Journal is closed: " + directory);
+		}
+		long firstSeq = nextSeq;
+		try {
+			for (int i = 0; i < count; i++) {
+				ByteBuffer encoded = encode(items.get(i));
+				int recordBytes = LENGTH_BYTES + encoded.remaining();
+				Segment tail = segments.peekLast();
+				if (tail == null || tail.remaining() < recordBytes + LENGTH_BYTES) {
+					tail = openSegment(nextSeq);
+					segments.addLast(tail);
+				}
+				tail.append(encoded);
+				nextSeq++;
+				bytes += recordBytes;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to append to journal in " + directory, e);
+		}
+		return firstSeq;
+	}
+
+	/**
+	 * group commit: uptoSeq 이전까지 디스크 반영 보장
+	 * - 다른 스레드가 force 중이면 기다렸다가 그 결과로 충분한지 다시 확인 (리더 1명만 force)
+	 * - forceOnCommit=false 면 mmap 기록만으로 프로세스 크래시에는 안전 (OS 크래시 대비는 아님)
+	 */
+	public void commit(long uptoSeq) {
+		if (!forceOnCommit || durableSeq >= uptoSeq) {
+			return;
+		}
+		commitLock.lock();
+		try {
+			if (durableSeq >= uptoSeq) {
+				return;  // 앞선 리더의 force 에 포함됨
+			}
+			List<Segment> toForce;
+			long target;
+			synchronized (this) {
+				target = nextSeq;
+				toForce = new ArrayList<>(segments);
+			}
+			for (Segment segment : toForce) {
+				segment.forceIfDirty();
+			}
+			durableSeq = target;
+		} finally {
+			commitLock.unlock();
+		}
+	}
+
+	/** [fromSeq, toSeq) 구간 flush 완료 (순서 무관) */
+	public synchronized void markFlushed(long fromSeq, long toSeq) {
+		if (closed || toSeq <= fromSeq) {
+			return;
+		}
+		flushedRanges.put(fromSeq, toSeq);
+		long advanced = watermark;
+		Long to;
+		while ((to = flushedRanges.remove(advanced)) != null) {
+			advanced = to;
+		}
+		if (advanced == watermark) {
+			return;
+		}
+		watermark = advanced;
+		storeCheckpoint();
+
+		// watermark 이전 레코드만 담긴 세그먼트 삭제 (쓰기 중인 마지막 세그먼트는 유지)
+		while (segments.size() > 1) {
+			Segment head = segments.peekFirst();
+			Segment next = head.next;
+			if (next == null || next.baseSeq > watermark) {
+				break;
+			}
+			segments.pollFirst();
+			bytes -= head.writtenBytes();
+			deleteQuietly(head.path);
+		}
+	}
+
+	/** 다음 append 순번 (= 지금까지 기록된 레코드 수, recover() 이후 이어짐) */
+	public long nextSeq() {
+		return nextSeq;
+	}
+
+	/** watermark 이후 (flush 되지 않은) 레코드 수 */
+	public long pendingEntries() {
+		return nextSeq - watermark;
+	}
+
+	public long bytes() {
+		return Math.max(0, bytes);
+	}
+
+	@Override
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		for (Segment segment : segments) {
+			segment.forceIfDirty();
+		}
+		checkpoint.force();
+		segments.clear();
+	}
+
+	private void storeCheckpoint() {
+		checkpoint.putLong(0, watermark);
+	}
+
+	private ByteBuffer encode(T item) {
+		while (true) {
+			scratch.clear();
+			try {
+				codec.encode(item, scratch);
+				return scratch.flip();
+			} catch (BufferOverflowException e) {
+				scratch = ByteBuffer.allocate(scratch.capacity() * 2);
+			}
+		}
+	}
+
+	private Segment openSegment(long baseSeq) throws IOException {
+		Path path = directory.resolve(String.format("%020d%s", baseSeq, SEGMENT_SUFFIX));
+		try (FileChannel channel = FileChannel.open(path,
+			StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+			buffer.putLong(0, baseSeq);
+			Segment segment = new Segment(path, buffer, baseSeq);
+			Segment tail = segments.peekLast();
+			if (tail != null) {
+				tail.next = segment;
+			}
+			return segment;
+		}
+	}
+
+	private static void deleteQuietly(Path path) {
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException e) {
+			log.warn("Failed to delete journal segment {}", path, e);
+		}
+	}
+
+	/** mmap 세그먼트 1개 */
+	private static final class Segment {
+		private final Path path;
+		private final MappedByteBuffer buffer;
+		private final long baseSeq;
+		private Segment next;
+		private int writePos = HEADER_BYTES;
+		private volatile boolean dirty = false;
+
+		private Segment(Path path, MappedByteBuffer buffer, long baseSeq) {
+			this.path = path;
+			this.buffer = buffer;
+			this.baseSeq = baseSeq;
+		}
+
+		private int remaining() {
+			return buffer.capacity() - writePos;
+		}
+
+		private long writtenBytes() {
+			return writePos - HEADER_BYTES;
+		}
+
+		private void append(ByteBuffer encoded) {
+			int length = encoded.remaining();
+			buffer.put(writePos + LENGTH_BYTES, encoded, encoded.position(), length);
+			buffer.putInt(writePos + LENGTH_BYTES + length, 0);  // 끝 표시
+			buffer.putInt(writePos, length);                     // 길이는 마지막에 기록 (부분 기록 레코드는 복구 시 무시)
+			writePos += LENGTH_BYTES + length;
+			dirty = true;
+		}
+
+		private void forceIfDirty() {
+			if (dirty) {
+				dirty = false;
+				buffer.force();
+			}
+		}
+	}
+}
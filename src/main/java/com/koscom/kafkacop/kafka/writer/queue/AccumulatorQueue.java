@@ -0,0 +1,37 @@
+package com.koscom.kafkacop.kafka.writer.queue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BatchAccumulator 내부 큐 전략
+ * - 생산자: Kafka 리스너(컨슈머) 스레드 (다중)
+ * - 소비자: 코디네이터 스레드 (poll / drainTo)
+ */
+public interface AccumulatorQueue<T> {
+
+	/** 대기 없이 1건 적재 (공간이 없으면 false) */
+	boolean offer(T item);
+
+	/** 공간이 생길 때까지 최대 timeout 동안 대기하며 적재 */
+	boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException;
+
+	/**
+	 * 대기 없이 items 를 앞에서부터 수용 가능한 만큼 적재
+	 * @return 적재된 건수 (items 의 앞쪽 prefix 가 적재됨)
+	 */
+	int offerBatch(List<? extends T> items);
+
+	/** 최대 timeout 동안 대기하며 1건 꺼내기 (없으면 null) */
+	T poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+	/** 대기 없이 최대 maxElements 건을 꺼내 target에 추가 */
+	int drainTo(Collection<? super T> target, int maxElements);
+
+	/** 현재 적재된 건수 */
+	int size();
+
+	/** 최대 용량 */
+	int capacity();
+}
@@ -0,0 +1,62 @@
+package com.koscom.kafkacop.kafka.writer.queue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 기존 ArrayBlockingQueue 기반 큐 (단일 락)
+ */
+public class BlockingAccumulatorQueue<T> implements AccumulatorQueue<T> {
+
+	private final ArrayBlockingQueue<T> queue;
+	private final int capacity;
+
+	public BlockingAccumulatorQueue(int capacity) {
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.capacity = capacity;
+	}
+
+	@Override
+	public boolean offer(T item) {
+		return queue.offer(item);
+	}
+
+	@Override
+	public boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+		return queue.offer(item, timeout, unit);
+	}
+
+	@Override
+	public int offerBatch(List<? extends T> items) {
+		int accepted = 0;
+		for (T item : items) {
+			if (!queue.offer(item)) {
+				break;
+			}
+			accepted++;
+		}
+		return accepted;
+	}
+
+	@Override
+	public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+		return queue.poll(timeout, unit);
+	}
+
+	@Override
+	public int drainTo(Collection<? super T> target, int maxElements) {
+		return queue.drainTo(target, maxElements);
+	}
+
+	@Override
+	public int size() {
+		return queue.size();
+	}
+
+	@Override
+	public int capacity() {
+		return capacity;
+	}
+}
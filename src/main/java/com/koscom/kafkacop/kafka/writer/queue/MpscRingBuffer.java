@@ -0,0 +1,177 @@
+package com.koscom.kafkacop.kafka.writer.queue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free MPSC(다중 생산자 / 단일 소비자) 링 버퍼
+ * - 슬롯 배열과 publish 시퀀스 배열은 생성 시 미리 할당 (적재 경로에서 추가 할당 없음)
+ * - 생산자: tail 시퀀스를 CAS로 예약 → 슬롯 기록 → 슬롯별 시퀀스 publish (락 없음)
+ * - 소비자: head 부터 publish 된 슬롯만 순서대로 소비, drainTo는 head를 한 번만 갱신
+ * - 반드시 소비자(코디네이터) 스레드 1개만 poll/drainTo 를 호출해야 함
+ */
+public class MpscRingBuffer<T> implements AccumulatorQueue<T> {
+
+	private final int capacity;                 // 논리 용량 (설정값 그대로)
+	private final int mask;                     // 물리 슬롯 수(2의 거듭제곱) - 1
+	private final Object[] slots;
+	private final AtomicLongArray published;    // 슬롯별 마지막으로 publish 된 시퀀스
+	private final WaitStrategy waitStrategy;
+
+	private final PaddedSequence tail = new PaddedSequence(0L);  // 다음 예약 시퀀스 (생산자 공유)
+	private final PaddedSequence head = new PaddedSequence(0L);  // 다음 소비 시퀀스 (소비자 전용)
+
+	public MpscRingBuffer(int capacity, WaitStrategy waitStrategy) {
+		if (capacity <= 0 || capacity > (1 << 30)) {
+			throw new IllegalArgumentException("capacity must be in (0, 2^30]: " + capacity);
+		}
+		int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+		this.capacity = capacity;
+		this.mask = size - 1;
+		this.slots = new Object[size];
+		this.published = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			published.set(i, -1L);
+		}
+		this.waitStrategy = waitStrategy;
+	}
+
+	/** 대기 없이 1건 적재 시도 */
+	@Override
+	public boolean offer(T item) {
+		long current;
+		do {
+			current = tail.get();
+			if (current - head.get() >= capacity) {
+				return false;
+			}
+		} while (!tail.compareAndSet(current, current + 1));
+
+		publish(current, item);
+		return true;
+	}
+
+	@Override
+	public boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+		if (offer(item)) {
+			return true;
+		}
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		int attempt = 0;
+		while (!offer(item)) {
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			if (System.nanoTime() - deadline >= 0) {
+				return false;
+			}
+			waitStrategy.idle(attempt++);
+		}
+		return true;
+	}
+
+	/**
+	 * 여러 건을 CAS 한 번으로 예약한 뒤 순서대로 publish
+	 * - 남은 공간이 부족하면 앞에서부터 들어가는 만큼만 예약
+	 */
+	@Override
+	public int offerBatch(List<? extends T> items) {
+		int requested = items.size();
+		if (requested == 0) {
+			return 0;
+		}
+
+		long current;
+		int reserved;
+		do {
+			current = tail.get();
+			long free = capacity - (current - head.get());
+			if (free <= 0) {
+				return 0;
+			}
+			reserved = (int) Math.min(free, requested);
+		} while (!tail.compareAndSet(current, current + reserved));
+
+		for (int i = 0; i < reserved; i++) {
+			publish(current + i, items.get(i));
+		}
+		return reserved;
+	}
+
+	/** 대기 없이 1건 꺼내기 (없으면 null) - 소비자 전용 */
+	@SuppressWarnings("unchecked")
+	public T poll() {
+		long sequence = head.get();
+		int index = (int) sequence & mask;
+		if (published.get(index) != sequence) {
+			return null;
+		}
+		T item = (T) slots[index];
+		slots[index] = null;
+		head.setRelease(sequence + 1);
+		return item;
+	}
+
+	@Override
+	public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+		T item = poll();
+		if (item != null) {
+			return item;
+		}
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		int attempt = 0;
+		while ((item = poll()) == null) {
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			if (System.nanoTime() - deadline >= 0) {
+				return null;
+			}
+			waitStrategy.idle(attempt++);
+		}
+		return item;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public int drainTo(Collection<? super T> target, int maxElements) {
+		long start = head.get();
+		long sequence = start;
+		long limit = start + maxElements;
+		while (sequence < limit) {
+			int index = (int) sequence & mask;
+			if (published.get(index) != sequence) {
+				break;  // 아직 publish 되지 않은 슬롯 (비었거나 생산자가 기록 중)
+			}
+			target.add((T) slots[index]);
+			slots[index] = null;
+			sequence++;
+		}
+		if (sequence != start) {
+			head.setRelease(sequence);
+		}
+		return (int) (sequence - start);
+	}
+
+	@Override
+	public int size() {
+		long size = tail.get() - head.get();
+		if (size < 0) {
+			return 0;
+		}
+		return (int) Math.min(size, capacity);
+	}
+
+	@Override
+	public int capacity() {
+		return capacity;
+	}
+
+	private void publish(long sequence, T item) {
+		int index = (int) sequence & mask;
+		slots[index] = item;
+		published.lazySet(index, sequence);  // release store: 슬롯 기록이 소비자에게 먼저 보이도록 보장
+	}
+}
@@ -0,0 +1,49 @@
+package com.koscom.kafkacop.kafka.writer.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * 캐시 라인 패딩된 long 시퀀스
+ * - 생산자 tail / 소비자 head 가 같은 캐시 라인을 공유하지 않도록 앞뒤 56바이트씩 패딩 (false sharing 방지)
+ */
+public final class PaddedSequence extends SequenceRhsPadding {
+
+	private static final VarHandle VALUE;
+
+	static {
+		try {
+			VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	public PaddedSequence(long initialValue) {
+		VALUE.setRelease(this, initialValue);
+	}
+
+	public long get() {
+		return value;
+	}
+
+	public void setRelease(long newValue) {
+		VALUE.setRelease(this, newValue);
+	}
+
+	public boolean compareAndSet(long expected, long newValue) {
+		return VALUE.compareAndSet(this, expected, newValue);
+	}
+}
+
+abstract class SequenceLhsPadding {
+	protected long p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class SequenceValue extends SequenceLhsPadding {
+	protected volatile long value;
+}
+
+abstract class SequenceRhsPadding extends SequenceValue {
+	protected long p11, p12, p13, p14, p15, p16, p17;
+}
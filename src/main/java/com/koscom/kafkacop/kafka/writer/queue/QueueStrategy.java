@@ -0,0 +1,18 @@
+package com.koscom.kafkacop.kafka.writer.queue;
+
+/**
+ * BatchAccumulator 내부 큐 구현 선택
+ * - BLOCKING: ArrayBlockingQueue (단일 락, 기존 방식)
+ * - MPSC_RING: lock-free MPSC 링 버퍼 (샤드마다 전용 코디네이터 1개만 소비)
+ */
+public enum QueueStrategy {
+	BLOCKING,
+	MPSC_RING;
+
+	public <T> AccumulatorQueue<T> create(int capacity, WaitStrategy waitStrategy) {
+		return switch (this) {
+			case BLOCKING -> new BlockingAccumulatorQueue<>(capacity);
+			case MPSC_RING -> new MpscRingBuffer<>(capacity, waitStrategy);
+		};
+	}
+}
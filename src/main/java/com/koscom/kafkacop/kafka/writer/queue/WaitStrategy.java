@@ -0,0 +1,50 @@
+package com.koscom.kafkacop.kafka.writer.queue;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 링 버퍼가 비었거나(코디네이터) 가득 찼을 때(리스너)의 대기 방식
+ * - attempt: 같은 대기 구간 안에서 몇 번째 재시도인지 (0부터 증가)
+ */
+public enum WaitStrategy {
+
+	/** 바쁜 대기: 지연 최소, 대기 중에도 코어 1개를 점유 */
+	SPIN {
+		@Override
+		public void idle(int attempt) {
+			Thread.onSpinWait();
+		}
+	},
+
+	/** 짧게 스핀 후 Thread.yield() 반복 */
+	YIELD {
+		@Override
+		public void idle(int attempt) {
+			if (attempt < SPIN_TRIES) {
+				Thread.onSpinWait();
+			} else {
+				Thread.yield();
+			}
+		}
+	},
+
+	/** 스핀 → yield → parkNanos 단계적 후퇴 (유휴 시 CPU 사용 최소, 기본값) */
+	PARK {
+		@Override
+		public void idle(int attempt) {
+			if (attempt < SPIN_TRIES) {
+				Thread.onSpinWait();
+			} else if (attempt < SPIN_TRIES + YIELD_TRIES) {
+				Thread.yield();
+			} else {
+				LockSupport.parkNanos(PARK_NANOS);
+			}
+		}
+	};
+
+	private static final int SPIN_TRIES = 100;
+	private static final int YIELD_TRIES = 100;
+	private static final long PARK_NANOS = 100_000L;  // 0.1ms
+
+	public abstract void idle(int attempt);
+}
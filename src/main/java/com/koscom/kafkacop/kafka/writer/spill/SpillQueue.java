@@ -0,0 +1,261 @@
+package com.koscom.kafkacop.kafka.writer.spill;
+
+import com.koscom.kafkacop.kafka.codec.RecordCodec;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 메모리 큐가 가득 찼을 때 사용하는 디스크 오버플로 큐 (FIFO)
+ * - append-only 세그먼트 파일을 mmap 으로 열어 기록 (write 시스템 콜 없음)
+ * - 세그먼트 구조: [int readPos][int reserved] 헤더 + [int length][payload] 레코드 반복 (length 0 = 끝)
+ * - 다 읽은 세그먼트는 삭제, 헤더의 readPos 는 drain 마다 갱신 → 재기동 시 읽지 않은 레코드부터 복구
+ * - 생산자(리스너 스레드 여러 개)와 소비자(코디네이터) 모두 synchronized (오버플로 경로 전용이므로 경합 허용)
+ */
+@Slf4j
+public class SpillQueue<T> implements Closeable {
+
+	private static final int HEADER_BYTES = 8;
+	private static final int LENGTH_BYTES = 4;
+	private static final String SEGMENT_SUFFIX = ".seg";
+
+	private final Path directory;
+	private final RecordCodec<T> codec;
+	private final int segmentBytes;
+	private final long maxBytes;
+
+	private final ArrayDeque<Segment> segments = new ArrayDeque<>();  // head = 읽기, tail = 쓰기
+	private ByteBuffer scratch = ByteBuffer.allocate(4096);           // 인코딩 버퍼 (레코드 길이를 먼저 알기 위해)
+	private long nextSegmentId = 0;
+
+	private volatile long size = 0;   // 대기 레코드 수
+	private volatile long bytes = 0;  // 대기 레코드 바이트 (길이 필드 포함)
+
+	public SpillQueue(Path directory, RecordCodec<T> codec, int segmentBytes, long maxBytes) {
+		this.directory = directory;
+		this.codec = codec;
+		this.segmentBytes = segmentBytes;
+		this.maxBytes = maxBytes;
+		try {
+			Files.createDirectories(directory);
+			recover();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to open spill directory " + directory, e);
+		}
+	}
+
+	/**
+	 * 레코드 1건 기록
+	 * @return 최대 용량(maxBytes) 초과 또는 기록 실패 시 false
+	 */
+	public synchronized boolean offer(T item) {
+		ByteBuffer encoded = encode(item);
+		int recordBytes = LENGTH_BYTES + encoded.remaining();
+		if (recordBytes > segmentBytes - HEADER_BYTES - LENGTH_BYTES || bytes + recordBytes > maxBytes) {
+			return false;
+		}
+		try {
+			Segment tail = segments.peekLast();
+			if (tail == null || tail.remaining() < recordBytes + LENGTH_BYTES) {  // 끝 표시(length 0) 자리 확보
+				tail = openSegment(nextSegmentId++);
+				segments.addLast(tail);
+			}
+			tail.append(encoded);
+		} catch (IOException e) {
+			log.error("Failed to append to spill segment in {}", directory, e);
+			return false;
+		}
+		size++;
+		bytes += recordBytes;
+		return true;
+	}
+
+	/** 앞에서부터 최대 max 건을 꺼냄 */
+	public synchronized int drainTo(Collection<? super T> target, int max) {
+		int drained = 0;
+		while (drained < max && size > 0) {
+			Segment head = segments.peekFirst();
+			if (head == null) {
+				break;
+			}
+			if (!head.hasNext()) {
+				if (head == segments.peekLast()) {
+					break;  // 쓰기 중인 세그먼트를 다 읽음
+				}
+				segments.pollFirst();
+				head.delete();
+				continue;
+			}
+			ByteBuffer record = head.next();
+			target.add(codec.decode(record));
+			size--;
+			bytes -= LENGTH_BYTES + record.capacity();
+			drained++;
+		}
+		Segment head = segments.peekFirst();
+		if (head != null) {
+			head.commitReadPosition();
+		}
+		return drained;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public long size() {
+		return size;
+	}
+
+	public long bytes() {
+		return bytes;
+	}
+
+	public long maxBytes() {
+		return maxBytes;
+	}
+
+	/** 매핑된 페이지를 디스크에 기록 (읽지 않은 레코드는 재기동 시 복구) */
+	@Override
+	public synchronized void close() {
+		for (Segment segment : segments) {
+			segment.force();
+		}
+		segments.clear();
+	}
+
+	private ByteBuffer encode(T item) {
+		while (true) {
+			scratch.clear();
+			try {
+				codec.encode(item, scratch);
+				return scratch.flip();
+			} catch (BufferOverflowException e) {
+				scratch = ByteBuffer.allocate(scratch.capacity() * 2);
+			}
+		}
+	}
+
+	private void recover() throws IOException {
+		List<Path> files;
+		try (Stream<Path> stream = Files.list(directory)) {
+			files = stream.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+				.sorted()
+				.toList();
+		}
+		for (Path file : files) {
+			String name = file.getFileName().toString();
+			long id = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+			Segment segment = openSegment(id);
+			long[] pending = segment.scan();
+			if (pending[0] == 0) {
+				segment.delete();
+				continue;
+			}
+			segments.addLast(segment);
+			size += pending[0];
+			bytes += pending[1];
+			nextSegmentId = Math.max(nextSegmentId, id + 1);
+		}
+		if (size > 0) {
+			log.warn("Recovered {} spilled records ({} bytes) from {}", size, bytes, directory);
+		}
+	}
+
+	private Segment openSegment(long id) throws IOException {
+		Path path = directory.resolve(String.format("%020d%s", id, SEGMENT_SUFFIX));
+		try (FileChannel channel = FileChannel.open(path,
+			StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			// 매핑은 채널을 닫아도 유지됨
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+			return new Segment(path, buffer);
+		}
+	}
+
+	/** mmap 세그먼트 1개 (SpillQueue 의 lock 안에서만 접근) */
+	private static final class Segment {
+		private final Path path;
+		private final MappedByteBuffer buffer;
+		private int readPos;
+		private int writePos;
+
+		private Segment(Path path, MappedByteBuffer buffer) {
+			this.path = path;
+			this.buffer = buffer;
+			int storedReadPos = buffer.getInt(0);
+			this.readPos = storedReadPos >= HEADER_BYTES ? storedReadPos : HEADER_BYTES;
+			this.writePos = this.readPos;
+		}
+
+		/** 기존 파일: readPos 부터 끝 표시까지 스캔 → {레코드 수, 바이트} */
+		private long[] scan() {
+			long records = 0;
+			long recordBytes = 0;
+			int pos = readPos;
+			while (pos + LENGTH_BYTES <= buffer.capacity()) {
+				int length = buffer.getInt(pos);
+				if (length <= 0 || pos + LENGTH_BYTES + length > buffer.capacity()) {
+					break;
+				}
+				records++;
+				recordBytes += LENGTH_BYTES + length;
+				pos += LENGTH_BYTES + length;
+			}
+			writePos = pos;
+			return new long[]{records, recordBytes};
+		}
+
+		private int remaining() {
+			return buffer.capacity() - writePos;
+		}
+
+		private void append(ByteBuffer encoded) {
+			int length = encoded.remaining();
+			buffer.put(writePos + LENGTH_BYTES, encoded, encoded.position(), length);
+			buffer.putInt(writePos + LENGTH_BYTES + length, 0);  // 끝 표시
+			buffer.putInt(writePos, length);                     // 길이는 마지막에 기록 (부분 기록 레코드는 복구 시 무시)
+			writePos += LENGTH_BYTES + length;
+		}
+
+		private boolean hasNext() {
+			return readPos < writePos;
+		}
+
+		private ByteBuffer next() {
+			int length = buffer.getInt(readPos);
+			ByteBuffer record = buffer.slice(readPos + LENGTH_BYTES, length);
+			readPos += LENGTH_BYTES + length;
+			return record;
+		}
+
+		private void commitReadPosition() {
+			buffer.putInt(0, readPos);
+		}
+
+		private void force() {
+			commitReadPosition();
+			buffer.force();
+		}
+
+		private void delete() {
+			try {
+				Files.deleteIfExists(path);
+			} catch (IOException e) {
+				log.warn("Failed to delete spill segment {}", path, e);
+			}
+		}
+	}
+}
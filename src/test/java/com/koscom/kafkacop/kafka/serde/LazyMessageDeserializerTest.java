@@ -0,0 +1,106 @@
+package com.koscom.kafkacop.kafka.serde;
+
+import com.koscom.kafkacop.kafka.dto.TickerBasicMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static com.koscom.kafkacop.kafka.serde.StreamingJsonDeserializerTest.bytes;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * raw-passthrough 역직렬화: SSE 로 그대로 나가는 원본 바이트는 올바른 JSON 만, 나머지는 DTO 또는 null
+ */
+class LazyMessageDeserializerTest {
+
+	private static final String TOPIC = "ticker-basic";
+
+	private MeterRegistry meterRegistry;
+	private LazyMessageDeserializer<TickerBasicMessage> deserializer;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		deserializer = new LazyMessageDeserializer<>(TOPIC, new TickerBasicJsonDeserializer(TOPIC, meterRegistry), true,
+			new MarketSymbolTable(), meterRegistry);
+	}
+
+	@Test
+	void indexesValidPayloadAndDefersDecoding() {
+		byte[] payload = bytes(StreamingJsonDeserializerTest.TICKER_JSON);
+
+		LazyMessage<TickerBasicMessage> message = deserializer.deserialize(TOPIC, payload);
+
+		assertThat(message.hasPayload()).isTrue();
+		assertThat(message.payload()).isSameAs(payload);
+		assertThat(message.isIndexed()).isTrue();
+		assertThat(message.isDecoded()).isFalse();
+		assertThat(message.mktCode()).isEqualTo(List.of("KRW", "BTC"));
+		assertThat(message.exchange()).isEqualTo("UPBIT");
+		assertThat(message.timestamp()).isEqualTo(1718000000123L);
+		assertThat(message.symbol()).isNotEqualTo(MarketSymbolTable.NO_SYMBOL);
+		assertThat(message.get()).isEqualTo(StreamingJsonDeserializerTest.springDecode(TickerBasicMessage.class,
+			StreamingJsonDeserializerTest.TICKER_JSON));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"",
+		"not json",
+		"{\"mkt_code\":[\"KRW\",\"BTC\"],\"timestamp\":1",
+		"{\"mkt_code\":[\"KRW\",\"BTC\"],\"u\":[{\"ask_price\":1.0,}],\"timestamp\":1}",
+		"{\"mkt_code\":[\"KRW\",\"BTC\"],\"u\":[{\"ask_price\":tru}],\"timestamp\":1}",
+		"{\"mkt_code\":[\"KRW\",\"BTC\"],\"u\":{\"a\":01},\"timestamp\":1}",
+		"{\"mkt_code\":[\"KRW\",\"BTC\"],\"exchange\":\"\\x\",\"timestamp\":1}"
+	})
+	void returnsNullForMalformedPayload(String json) {
+		assertThat(deserializer.deserialize(TOPIC, bytes(json))).isNull();
+		assertThat(malformedCount("kafka.consumer.deserialize.malformed")).isEqualTo(1.0);
+	}
+
+	@Test
+	void doesNotPassThroughBytesThatOnlyDecodeLeniently() {
+		// 스트리밍 파서는 객체 뒤의 바이트를 읽지 않아 DTO 는 만들어지지만, 원본 바이트는 올바른 JSON 이 아님
+		String json = StreamingJsonDeserializerTest.TICKER_JSON + " trailing";
+
+		LazyMessage<TickerBasicMessage> message = deserializer.deserialize(TOPIC, bytes(json));
+
+		assertThat(message).isNotNull();
+		assertThat(message.hasPayload()).isFalse();
+		assertThat(message.get().mktCode()).isEqualTo(List.of("KRW", "BTC"));
+	}
+
+	@Test
+	void countsDeferredDecodeFailureOfForwardedPayload() {
+		// 문법상 올바른 JSON 이라 색인 / SSE 전송은 되지만 값 타입이 잘못된 레코드 → flush 워커 디코딩에서 스킵 + 집계
+		String json = "{\"mkt_code\":[\"KRW\",\"BTC\"],\"exchange\":\"UPBIT\",\"trade_price\":\"abc\",\"timestamp\":1}";
+
+		LazyMessage<TickerBasicMessage> message = deserializer.deserialize(TOPIC, bytes(json));
+
+		assertThat(message.hasPayload()).isTrue();
+		assertThat(message.get()).isNull();
+		assertThat(malformedCount("kafka.consumer.passthrough.deferred.malformed")).isEqualTo(1.0);
+	}
+
+	@Test
+	void internsSameSymbolForIndexedAndDecodedMessages() {
+		LazyMessageDeserializer<TickerBasicMessage> immediate = new LazyMessageDeserializer<>(TOPIC,
+			new TickerBasicJsonDeserializer(TOPIC, meterRegistry), false, new MarketSymbolTable(), meterRegistry);
+		byte[] payload = bytes(StreamingJsonDeserializerTest.TICKER_JSON);
+
+		LazyMessage<TickerBasicMessage> decoded = immediate.deserialize(TOPIC, payload);
+
+		assertThat(decoded.hasPayload()).isFalse();
+		assertThat(decoded.isDecoded()).isTrue();
+		assertThat(decoded.mktCode()).isEqualTo(deserializer.deserialize(TOPIC, payload).mktCode());
+	}
+
+	private double malformedCount(String name) {
+		return meterRegistry.get(name).tag("topic", TOPIC).counter().count();
+	}
+}
@@ -0,0 +1,169 @@
+package com.koscom.kafkacop.kafka.serde;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.koscom.kafkacop.kafka.dto.TickerBasicMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * content-type 레코드 헤더로 JSON / CBOR / Smile 값을 골라 디코딩하는지 브로커를 거쳐 확인
+ * - 같은 DTO 를 세 포맷으로 인코딩해 헤더 유무 / 헤더 이름(content-type, contentType) / 대소문자 / 파라미터를 바꿔 전송
+ * - 올바른 레코드는 모두 같은 DTO, 모르는 인코딩 / 손상된 값은 null (스트리밍 역직렬화기는 malformed 카운터 증가)
+ */
+@EmbeddedKafka(partitions = 1, topics = {
+	PayloadFormatEmbeddedKafkaTest.STREAMING_TOPIC,
+	PayloadFormatEmbeddedKafkaTest.PASSTHROUGH_TOPIC,
+	PayloadFormatEmbeddedKafkaTest.DATABIND_TOPIC
+})
+class PayloadFormatEmbeddedKafkaTest {
+
+	static final String STREAMING_TOPIC = "payload-format-streaming";
+	static final String PASSTHROUGH_TOPIC = "payload-format-passthrough";
+	static final String DATABIND_TOPIC = "payload-format-databind";
+
+	private static final TickerBasicMessage EXPECTED = new TickerBasicMessage(List.of("KRW", "BTC"), "UPBIT",
+		95000000L, -120000L, -0.0012, 123456789123.5, 250000000000.25, 1718000000123L);
+	private static final int VALID_RECORDS = 7;
+	private static final int MALFORMED_RECORDS = 4;
+
+	private MeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+	}
+
+	@Test
+	void streamingDeserializerDecodesEveryFormat(EmbeddedKafkaBroker broker) throws Exception {
+		LazyMessageDeserializer<TickerBasicMessage> deserializer = new LazyMessageDeserializer<>(STREAMING_TOPIC,
+			new TickerBasicJsonDeserializer(STREAMING_TOPIC, meterRegistry), false, new MarketSymbolTable(),
+			meterRegistry);
+
+		List<LazyMessage<TickerBasicMessage>> values = produceAndConsume(broker, STREAMING_TOPIC, deserializer);
+
+		assertDecoded(values);
+		assertThat(malformedCount(STREAMING_TOPIC)).isEqualTo(MALFORMED_RECORDS);
+	}
+
+	@Test
+	void rawPassthroughDecodesBinaryFormatsImmediately(EmbeddedKafkaBroker broker) throws Exception {
+		LazyMessageDeserializer<TickerBasicMessage> deserializer = new LazyMessageDeserializer<>(PASSTHROUGH_TOPIC,
+			new TickerBasicJsonDeserializer(PASSTHROUGH_TOPIC, meterRegistry), true, new MarketSymbolTable(),
+			meterRegistry);
+
+		List<LazyMessage<TickerBasicMessage>> values = produceAndConsume(broker, PASSTHROUGH_TOPIC, deserializer);
+
+		assertDecoded(values);
+		// JSON 만 원본 바이트를 SSE 로 그대로 전송, CBOR / Smile 은 컨슈머 스레드에서 디코딩한 DTO
+		assertThat(values.subList(0, VALID_RECORDS)).extracting(LazyMessage::hasPayload)
+			.containsExactly(true, true, false, false, false, false, false);
+		assertThat(malformedCount(PASSTHROUGH_TOPIC)).isEqualTo(MALFORMED_RECORDS);
+	}
+
+	@Test
+	void databindDeserializerDecodesEveryFormat(EmbeddedKafkaBroker broker) throws Exception {
+		Map<PayloadFormat, Deserializer<TickerBasicMessage>> delegates = new EnumMap<>(PayloadFormat.class);
+		for (PayloadFormat format : PayloadFormat.values()) {
+			delegates.put(format, new JsonDeserializer<>(TickerBasicMessage.class, new ObjectMapper(format.factory().copy())
+				.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false), false));
+		}
+		LazyMessageDeserializer<TickerBasicMessage> deserializer = new LazyMessageDeserializer<>(DATABIND_TOPIC,
+			new ErrorHandlingDeserializer<>(new ContentTypeDeserializer<>(delegates)), false, new MarketSymbolTable(),
+			meterRegistry);
+
+		assertDecoded(produceAndConsume(broker, DATABIND_TOPIC, deserializer));
+	}
+
+	private static void assertDecoded(List<LazyMessage<TickerBasicMessage>> values) {
+		assertThat(values).hasSize(VALID_RECORDS + MALFORMED_RECORDS);
+		for (LazyMessage<TickerBasicMessage> value : values.subList(0, VALID_RECORDS)) {
+			assertThat(value).isNotNull();
+			assertThat(value.get()).isEqualTo(EXPECTED);
+		}
+		assertThat(values.subList(VALID_RECORDS, values.size())).containsOnlyNulls();
+	}
+
+	/** 올바른 레코드 VALID_RECORDS 건 다음에 잘못된 레코드 MALFORMED_RECORDS 건을 전송하고 같은 순서로 값을 읽음 */
+	private List<LazyMessage<TickerBasicMessage>> produceAndConsume(EmbeddedKafkaBroker broker, String topic,
+		LazyMessageDeserializer<TickerBasicMessage> deserializer) throws Exception {
+		byte[] json = encode(PayloadFormat.JSON);
+		byte[] cbor = encode(PayloadFormat.CBOR);
+		byte[] smile = encode(PayloadFormat.SMILE);
+
+		try (Producer<String, byte[]> producer = new KafkaProducer<>(KafkaTestUtils.producerProps(broker),
+			new StringSerializer(), new ByteArraySerializer())) {
+			// 올바른 레코드
+			send(producer, topic, json, null, null);
+			send(producer, topic, json, "content-type", "application/json; charset=UTF-8");
+			send(producer, topic, cbor, "content-type", "application/cbor");
+			send(producer, topic, cbor, "contentType", "application/cbor");
+			send(producer, topic, smile, "content-type", "application/x-jackson-smile");
+			send(producer, topic, smile, "contentType", "Application/X-Jackson-Smile");
+			send(producer, topic, smile, "content-type", "application/x-jackson-smile;charset=binary");
+			// 모르는 인코딩 / 손상된 값
+			send(producer, topic, cbor, null, null);
+			send(producer, topic, cbor, "content-type", "application/avro");
+			send(producer, topic, Arrays.copyOf(cbor, cbor.length / 2), "content-type", "application/cbor");
+			send(producer, topic, smile, "content-type", "application/json");
+			producer.flush();
+		}
+
+		Map<String, Object> props = KafkaTestUtils.consumerProps(topic + "-group", "false", broker);
+		try (Consumer<String, LazyMessage<TickerBasicMessage>> consumer = new KafkaConsumer<>(props,
+			new StringDeserializer(), deserializer)) {
+			consumer.subscribe(List.of(topic));
+			List<LazyMessage<TickerBasicMessage>> values = new ArrayList<>();
+			for (ConsumerRecord<String, LazyMessage<TickerBasicMessage>> record :
+				KafkaTestUtils.getRecords(consumer, Duration.ofSeconds(30), VALID_RECORDS + MALFORMED_RECORDS)) {
+				values.add(record.value());
+			}
+			return values;
+		}
+	}
+
+	private static void send(Producer<String, byte[]> producer, String topic, byte[] value, String header,
+		String contentType) throws Exception {
+		ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, "KRW/BTC", value);
+		if (header != null) {
+			record.headers().add(new RecordHeader(header, contentType.getBytes(StandardCharsets.US_ASCII)));
+		}
+		producer.send(record).get();
+	}
+
+	private static byte[] encode(PayloadFormat format) throws Exception {
+		return new ObjectMapper(format.factory().copy()).writeValueAsBytes(EXPECTED);
+	}
+
+	private double malformedCount(String topic) {
+		return meterRegistry.get("kafka.consumer.deserialize.malformed").tag("topic", topic).counter().count();
+	}
+}
@@ -0,0 +1,82 @@
+package com.koscom.kafkacop.kafka.serde;
+
+import com.koscom.kafkacop.kafka.dto.CandleSecondMessage;
+import com.koscom.kafkacop.kafka.dto.Orderbook5Message;
+import com.koscom.kafkacop.kafka.dto.TickerBasicMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 스트리밍 역직렬화기 vs Spring JsonDeserializer 처리량 비교 (./gradlew benchmark, 기본 test 태스크에서는 제외)
+ * - 토픽별 고정 페이로드를 워밍업 후 반복 역직렬화해서 건당 ns / 초당 건수 출력
+ * - 결과 DTO 가 같은지만 검증하고 속도 비율은 환경 의존이라 출력만 함
+ */
+@Tag("benchmark")
+class StreamingJsonDeserializerBenchmark {
+
+	private static final String TOPIC = "benchmark";
+	private static final int WARMUP_ITERATIONS = 200_000;
+	private static final int MEASURED_ITERATIONS = 1_000_000;
+	private static final int ROUNDS = 5;
+
+	@Test
+	void tickerBasic() {
+		compare("ticker-basic", StreamingJsonDeserializerTest.TICKER_JSON,
+			new TickerBasicJsonDeserializer(TOPIC, new SimpleMeterRegistry()),
+			new JsonDeserializer<>(TickerBasicMessage.class, false));
+	}
+
+	@Test
+	void candleSecond() {
+		compare("candel-1s", StreamingJsonDeserializerTest.CANDLE_JSON,
+			new CandleSecondJsonDeserializer(TOPIC, new SimpleMeterRegistry()),
+			new JsonDeserializer<>(CandleSecondMessage.class, false));
+	}
+
+	@Test
+	void orderbook5() {
+		compare("orderbook-5", StreamingJsonDeserializerTest.ORDERBOOK_JSON,
+			new Orderbook5JsonDeserializer(TOPIC, new SimpleMeterRegistry()),
+			new JsonDeserializer<>(Orderbook5Message.class, false));
+	}
+
+	private static <T> void compare(String name, String json, Deserializer<T> streaming, Deserializer<T> databind) {
+		byte[] payload = StreamingJsonDeserializerTest.bytes(json);
+		assertThat(streaming.deserialize(TOPIC, payload)).isEqualTo(databind.deserialize(TOPIC, payload));
+
+		run(streaming, payload, WARMUP_ITERATIONS);
+		run(databind, payload, WARMUP_ITERATIONS);
+		long streamingBest = Long.MAX_VALUE;
+		long databindBest = Long.MAX_VALUE;
+		for (int round = 0; round < ROUNDS; round++) {
+			streamingBest = Math.min(streamingBest, run(streaming, payload, MEASURED_ITERATIONS));
+			databindBest = Math.min(databindBest, run(databind, payload, MEASURED_ITERATIONS));
+		}
+		System.out.printf("[%s] %d bytes: streaming %.1f ns/op (%,.0f msg/s), JsonDeserializer %.1f ns/op (%,.0f msg/s), x%.2f%n",
+			name, payload.length,
+			(double) streamingBest / MEASURED_ITERATIONS, MEASURED_ITERATIONS * 1e9 / streamingBest,
+			(double) databindBest / MEASURED_ITERATIONS, MEASURED_ITERATIONS * 1e9 / databindBest,
+			(double) databindBest / streamingBest);
+		streaming.close();
+		databind.close();
+	}
+
+	/** @return 소요 시간 (ns) */
+	private static long run(Deserializer<?> deserializer, byte[] payload, int iterations) {
+		int nonNull = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			if (deserializer.deserialize(TOPIC, payload) != null) {
+				nonNull++;
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		assertThat(nonNull).isEqualTo(iterations);  // 결과를 사용해서 JIT 가 디코딩을 제거하지 못하게 함
+		return elapsed;
+	}
+}
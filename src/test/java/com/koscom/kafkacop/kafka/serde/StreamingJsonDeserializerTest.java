@@ -0,0 +1,141 @@
+package com.koscom.kafkacop.kafka.serde;
+
+import com.koscom.kafkacop.kafka.dto.CandleSecondMessage;
+import com.koscom.kafkacop.kafka.dto.Orderbook5Message;
+import com.koscom.kafkacop.kafka.dto.TickerBasicMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 스트리밍 역직렬화기 ↔ Spring JsonDeserializer 결과 비교 + 잘못된 값 타입 거절
+ */
+class StreamingJsonDeserializerTest {
+
+	private static final String TOPIC = "ticker-basic";
+
+	static final String TICKER_JSON = """
+		{"mkt_code":["KRW","BTC"],"exchange":"UPBIT","trade_price":95000000,"signed_change_price":-120000,
+		 "signed_change_rate":-0.0012,"acc_trade_price":1.234567891E11,"acc_trade_price_24h":2.5E11,
+		 "unknown":{"nested":[1,{"trade_price":1}]},"timestamp":1718000000123}""";
+
+	static final String CANDLE_JSON = """
+		{"mkt_code":["KRW","ETH"],"exchange":"BITHUMB","candle_date_time_utc":"2024-06-10T06:13:20",
+		 "candle_date_time_kst":"2024-06-10T15:13:20","opening_price":5000000,"high_price":5010000,
+		 "low_price":4990000,"trade_price":5005000,"candle_acc_trade_volume":12.5,
+		 "candle_acc_trade_price":62562500.0,"timestamp":1718000000456}""";
+
+	static final String ORDERBOOK_JSON = """
+		{"mkt_code":["KRW","XRP"],"exchange":"UPBIT","timestamp":1718000000789,"total_ask_size":1500.5,
+		 "total_bid_size":2300.25,"OrderbookUnits":[
+		  {"ask_price":701.0,"bid_price":700.0,"ask_size":100.5,"bid_size":200.25},
+		  {"ask_price":702.0,"bid_price":699.0,"ask_size":300,"bid_size":400,"extra":[1,2]}]}""";
+
+	private MeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+	}
+
+	@Test
+	void tickerBasicMatchesSpringJsonDeserializer() {
+		assertThat(new TickerBasicJsonDeserializer(TOPIC, meterRegistry).deserialize(TOPIC, bytes(TICKER_JSON)))
+			.isEqualTo(springDecode(TickerBasicMessage.class, TICKER_JSON));
+	}
+
+	@Test
+	void candleSecondMatchesSpringJsonDeserializer() {
+		assertThat(new CandleSecondJsonDeserializer(TOPIC, meterRegistry).deserialize(TOPIC, bytes(CANDLE_JSON)))
+			.isEqualTo(springDecode(CandleSecondMessage.class, CANDLE_JSON));
+	}
+
+	@Test
+	void orderbook5MatchesSpringJsonDeserializer() {
+		Orderbook5Message message = new Orderbook5JsonDeserializer(TOPIC, meterRegistry)
+			.deserialize(TOPIC, bytes(ORDERBOOK_JSON));
+
+		assertThat(message).isEqualTo(springDecode(Orderbook5Message.class, ORDERBOOK_JSON));
+		assertThat(message.orderbookUnits()).hasSize(2);
+	}
+
+	@Test
+	void acceptsNumericStringsAndNullsLikeDatabind() {
+		String json = """
+			{"mkt_code":["KRW","BTC"],"exchange":null,"trade_price":"95000000","signed_change_rate":"-0.5",
+			 "timestamp":null}""";
+
+		TickerBasicMessage message = new TickerBasicJsonDeserializer(TOPIC, meterRegistry).deserialize(TOPIC, bytes(json));
+
+		assertThat(message).isEqualTo(springDecode(TickerBasicMessage.class, json));
+		assertThat(message.tradePrice()).isEqualTo(95000000L);
+		assertThat(message.signedChangeRate()).isEqualTo(-0.5);
+		assertThat(message.timestamp()).isZero();
+		assertThat(malformedCount()).isZero();
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"{\"mkt_code\":[\"KRW\",\"BTC\"],\"trade_price\":\"abc\",\"timestamp\":1}",
+		"{\"mkt_code\":[\"KRW\",\"BTC\"],\"signed_change_rate\":\"\",\"timestamp\":1}",
+		"{\"mkt_code\":[\"KRW\",\"BTC\"],\"trade_price\":true,\"timestamp\":1}",
+		"{\"mkt_code\":[\"KRW\",\"BTC\"],\"trade_price\":{\"timestamp\":2},\"timestamp\":1}",
+		"{\"mkt_code\":[\"KRW\",\"BTC\"],\"acc_trade_price\":[1.0,2.0],\"timestamp\":1}",
+		"{\"mkt_code\":[\"KRW\",\"BTC\"],\"exchange\":{\"name\":\"UPBIT\"},\"timestamp\":1}",
+		"{\"mkt_code\":[\"KRW\",1],\"timestamp\":1}",
+		"{\"mkt_code\":[\"KRW\",\"BTC\"],\"timestamp\":1",
+		"[{\"mkt_code\":[\"KRW\",\"BTC\"]}]"
+	})
+	void rejectsWrongValueTypesAsMalformed(String json) {
+		TickerBasicJsonDeserializer deserializer = new TickerBasicJsonDeserializer(TOPIC, meterRegistry);
+
+		assertThat(deserializer.deserialize(TOPIC, bytes(json))).isNull();
+		assertThat(malformedCount()).isEqualTo(1.0);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"{\"OrderbookUnits\":[{\"ask_price\":\"x\"}]}",
+		"{\"OrderbookUnits\":[{\"ask_price\":{\"bid_price\":1.0}}]}",
+		"{\"OrderbookUnits\":[1.0]}",
+		"{\"OrderbookUnits\":{\"ask_price\":1.0}}",
+		"{\"total_ask_size\":[1.0]}"
+	})
+	void rejectsMalformedOrderbookUnits(String json) {
+		Orderbook5JsonDeserializer deserializer = new Orderbook5JsonDeserializer(TOPIC, meterRegistry);
+
+		assertThat(deserializer.deserialize(TOPIC, bytes(json))).isNull();
+		assertThat(malformedCount()).isEqualTo(1.0);
+	}
+
+	@Test
+	void keepsTwoElementMarketCodeImmutable() {
+		TickerBasicMessage message = new TickerBasicJsonDeserializer(TOPIC, meterRegistry)
+			.deserialize(TOPIC, bytes(TICKER_JSON));
+
+		assertThat(message.mktCode()).isEqualTo(List.of("KRW", "BTC"));
+	}
+
+	static <T> T springDecode(Class<T> type, String json) {
+		try (JsonDeserializer<T> deserializer = new JsonDeserializer<>(type, false)) {
+			return deserializer.deserialize(TOPIC, bytes(json));
+		}
+	}
+
+	static byte[] bytes(String json) {
+		return json.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private double malformedCount() {
+		return meterRegistry.get("kafka.consumer.deserialize.malformed").tag("topic", TOPIC).counter().count();
+	}
+}
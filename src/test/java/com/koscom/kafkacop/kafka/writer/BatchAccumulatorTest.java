@@ -0,0 +1,204 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import com.koscom.kafkacop.kafka.writer.queue.QueueStrategy;
+import com.koscom.kafkacop.kafka.writer.queue.WaitStrategy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 적재 → flush → 완료 콜백(flush watermark) 경로
+ * - DLT 로 보내지 못한 구간은 완료하지 않음 (오프셋 커밋 / journal 정리가 유실 메시지를 넘어가지 않도록)
+ * - 워커 풀이 제출을 거절하면(종료 후) 코디네이터가 직접 flush 해 구간을 완료
+ * - 메모리 예산이 부족하면 addAll 은 예산 안에 들어가는 앞부분만 수용하고, flush 후 예산 반납
+ */
+class BatchAccumulatorTest {
+
+	private static final String TOPIC = "ticker-basic";
+
+	private MeterRegistry meterRegistry;
+	private KafkaTemplate<String, Object> kafkaTemplate;
+	private AtomicInteger dltSends;
+	private List<ProducerRecord<String, Object>> dltRecords;
+	private volatile int failingDltSends;
+	private BatchAccumulator<String> accumulator;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		kafkaTemplate = mock(KafkaTemplate.class);
+		dltSends = new AtomicInteger();
+		dltRecords = new CopyOnWriteArrayList<>();
+		when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+			dltRecords.add(invocation.getArgument(0));
+			return dltSends.incrementAndGet() <= failingDltSends
+				? CompletableFuture.failedFuture(new TimeoutException("Expiring 1 record(s)"))
+				: CompletableFuture.completedFuture(null);
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (accumulator != null) {
+			accumulator.stop();
+		}
+	}
+
+	@Test
+	void completesRangeOnlyAfterDltPublishSucceeds() throws Exception {
+		failingDltSends = 2;  // 첫 DLT 전송(2건) 실패 → 구간 재전송
+		accumulator = failingAccumulator();
+		CountDownLatch flushed = new CountDownLatch(1);
+		AtomicInteger sendsWhenFlushed = new AtomicInteger();
+
+		accumulator.addAll(List.of("a", "b"), () -> {
+			sendsWhenFlushed.set(dltSends.get());
+			flushed.countDown();
+		});
+
+		assertThat(flushed.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(sendsWhenFlushed.get()).isEqualTo(4);
+		assertThat(dltRetries()).isEqualTo(1.0);
+	}
+
+	@Test
+	void keepsRangeUncommittedWhileDltIsUnavailable() throws Exception {
+		failingDltSends = Integer.MAX_VALUE;
+		accumulator = failingAccumulator();
+		CountDownLatch flushed = new CountDownLatch(1);
+
+		accumulator.addAll(List.of("a", "b"), flushed::countDown);
+
+		assertThat(flushed.await(300, TimeUnit.MILLISECONDS)).isFalse();
+		assertThat(dltRetries()).isGreaterThan(1.0);
+
+		accumulator.stop();
+		assertThat(flushed.getCount()).isEqualTo(1L);  // 종료 시에도 완료하지 않음 → 재기동 후 재수신
+	}
+
+	@Test
+	void sendsOriginalPositionOfEachMessageToDlt() throws Exception {
+		accumulator = failingAccumulator(failing -> failing.setSourcePosition(item -> 3, item -> item.equals("a") ? 100 : 101));
+		CountDownLatch flushed = new CountDownLatch(1);
+
+		accumulator.addAll(List.of("a", "b"), flushed::countDown);
+
+		assertThat(flushed.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(dltRecords).hasSize(2);
+		for (ProducerRecord<String, Object> record : dltRecords) {
+			long expectedOffset = record.value().equals("a") ? 100 : 101;
+			assertThat(ByteBuffer.wrap(record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_PARTITION).value()).getInt())
+				.isEqualTo(3);
+			assertThat(ByteBuffer.wrap(record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_OFFSET).value()).getLong())
+				.isEqualTo(expectedOffset);
+		}
+	}
+
+	@Test
+	void flushesOnCallerThreadWhenExecutorRejects() throws Exception {
+		List<String> written = new CopyOnWriteArrayList<>();
+		accumulator = new BatchAccumulator<>(written::addAll, 10, Duration.ofMillis(5), 100, 1, 1, 10,
+			QueueStrategy.BLOCKING, WaitStrategy.PARK, TOPIC, kafkaTemplate, meterRegistry);
+		accumulator.setFlushWatermarkTracking(true);
+		accumulator.start();
+		// 종료 대기 시간을 넘긴 코디네이터가 워커 풀 종료 후에 배치를 제출하는 상황
+		((FlushExecutor) ReflectionTestUtils.getField(accumulator, "flushExecutorPool")).shutdown();
+		CountDownLatch flushed = new CountDownLatch(1);
+
+		accumulator.addAll(List.of("a", "b"), flushed::countDown);
+
+		assertThat(flushed.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(written).containsExactly("a", "b");
+	}
+
+	@Test
+	void acceptsOnlyPrefixThatFitsMemoryBudget() throws Exception {
+		assertPartialAcceptance(1);
+	}
+
+	@Test
+	void acceptsOnlyPrefixThatFitsMemoryBudgetAcrossShards() throws Exception {
+		assertPartialAcceptance(2);
+	}
+
+	/** 메시지당 10바이트, 예산 25바이트 → 4건 중 앞 2건만 수용 (나머지 5바이트는 반납) */
+	private void assertPartialAcceptance(int coordinators) throws Exception {
+		MemoryBudget budget = new MemoryBudget(25, meterRegistry);
+		CountDownLatch writerBlocked = new CountDownLatch(1);
+		List<String> written = new CopyOnWriteArrayList<>();
+		accumulator = new BatchAccumulator<>(batch -> {
+			try {
+				writerBlocked.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			written.addAll(batch);
+		}, 10, Duration.ofMillis(5), 100, 1, coordinators, 10, QueueStrategy.BLOCKING, WaitStrategy.PARK, TOPIC,
+			kafkaTemplate, meterRegistry);
+		accumulator.setMarketKey(String::hashCode);
+		accumulator.setMemoryBudget(item -> 10, budget);
+		accumulator.start();
+
+		BatchAccumulator.EnqueueResult result = accumulator.addAll(List.of("a", "b", "c", "d"));
+
+		assertThat(result.requested()).isEqualTo(4);
+		assertThat(result.accepted()).isEqualTo(2);
+		assertThat(result.isFullyAccepted()).isFalse();
+		assertThat(budget.getUsedBytes()).isEqualTo(20L);  // flush 가 끝나기 전까지 수용분 예약 유지
+
+		writerBlocked.countDown();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while ((written.size() < 2 || budget.getUsedBytes() > 0) && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		assertThat(written).containsExactlyInAnyOrder("a", "b");
+		assertThat(budget.getUsedBytes()).isZero();
+		assertThat(accumulator.addAll(List.of("c", "d")).isFullyAccepted()).isTrue();
+	}
+
+	private BatchAccumulator<String> failingAccumulator() {
+		return failingAccumulator(failing -> {
+		});
+	}
+
+	/** 모든 flush 가 데이터 오류로 실패하고 재시도 없이 DLT 로 가는 accumulator */
+	private BatchAccumulator<String> failingAccumulator(Consumer<BatchAccumulator<String>> configure) {
+		BatchAccumulator<String> failing = new BatchAccumulator<>(batch -> {
+			throw new DataIntegrityViolationException("check constraint violated");
+		}, 10, Duration.ofMillis(5), 100, 1, 1, 10, QueueStrategy.BLOCKING, WaitStrategy.PARK, TOPIC, kafkaTemplate,
+			meterRegistry);
+		failing.setFlushRetry(false, 0, 1, 10, 0);
+		failing.setFlushWatermarkTracking(true);
+		configure.accept(failing);
+		failing.start();
+		return failing;
+	}
+
+	private double dltRetries() {
+		return meterRegistry.get("batch.accumulator.dlt.retries").tag("topic", TOPIC).counter().count();
+	}
+}
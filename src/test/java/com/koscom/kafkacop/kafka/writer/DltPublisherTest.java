@@ -0,0 +1,152 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * DLT 전송 결과: 모든 메시지가 브로커에 전송되어야 정상 완료, in-flight 대기 초과 / 전송 실패는 예외로 완료
+ * (호출자가 구간을 완료 처리하지 않고 다시 보내도록)
+ * - 원본 파티션 / 오프셋 헤더는 메시지마다 각자의 값
+ */
+class DltPublisherTest {
+
+	private static final String TOPIC = "ticker-basic";
+	private static final Exception CAUSE = new IllegalStateException("flush failed");
+
+	private KafkaTemplate<String, Object> kafkaTemplate;
+	private MeterRegistry meterRegistry;
+	private List<ProducerRecord<String, Object>> records;
+	private List<CompletableFuture<SendResult<String, Object>>> sends;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		kafkaTemplate = mock(KafkaTemplate.class);
+		meterRegistry = new SimpleMeterRegistry();
+		records = new ArrayList<>();
+		sends = new ArrayList<>();
+		when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+			records.add(invocation.getArgument(0));
+			CompletableFuture<SendResult<String, Object>> future = new CompletableFuture<>();
+			sends.add(future);
+			return future;
+		});
+	}
+
+	@Test
+	void completesWhenEveryMessageIsAcknowledged() {
+		DltPublisher publisher = new DltPublisher(kafkaTemplate, 10, 100, meterRegistry);
+
+		CompletableFuture<Void> published = publisher.publish(TOPIC, List.of("a", "b"), CAUSE, 1);
+
+		assertThat(published).isNotDone();
+		assertThat(publisher.getInFlight()).isEqualTo(2);
+		sends.forEach(send -> send.complete(null));
+
+		assertThat(published).isCompleted();
+		assertThat(records).extracting(ProducerRecord::topic).containsExactly(TOPIC + ".DLT", TOPIC + ".DLT");
+		assertThat(counter("dlt.publisher.messages.sent")).isEqualTo(2.0);
+		assertThat(publisher.getInFlight()).isZero();
+	}
+
+	@Test
+	void addsOriginalPartitionAndOffsetPerRecord() {
+		DltPublisher publisher = new DltPublisher(kafkaTemplate, 10, 100, meterRegistry);
+
+		publisher.publish(TOPIC, List.of("a", "b", "c"), new int[] {0, 3, -1}, new long[] {41, 7, -1}, CAUSE, 2);
+
+		assertThat(records).hasSize(3);
+		assertThat(intHeader(records.get(0), KafkaHeaders.DLT_ORIGINAL_PARTITION)).isEqualTo(0);
+		assertThat(longHeader(records.get(0), KafkaHeaders.DLT_ORIGINAL_OFFSET)).isEqualTo(41L);
+		assertThat(intHeader(records.get(1), KafkaHeaders.DLT_ORIGINAL_PARTITION)).isEqualTo(3);
+		assertThat(longHeader(records.get(1), KafkaHeaders.DLT_ORIGINAL_OFFSET)).isEqualTo(7L);
+		// 위치를 모르는 메시지(스필 / journal 복원)는 위치 헤더 없이 공유 헤더만
+		assertThat(records.get(2).headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_PARTITION)).isNull();
+		assertThat(records.get(2).headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_OFFSET)).isNull();
+		for (ProducerRecord<String, Object> record : records) {
+			assertThat(new String(record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC).value(),
+				StandardCharsets.UTF_8)).isEqualTo(TOPIC);
+		}
+	}
+
+	@Test
+	void omitsPositionHeadersWithoutSourcePosition() {
+		DltPublisher publisher = new DltPublisher(kafkaTemplate, 10, 100, meterRegistry);
+
+		publisher.publish(TOPIC, List.of("a"), CAUSE, 1);
+
+		assertThat(records.get(0).headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_PARTITION)).isNull();
+		assertThat(records.get(0).headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_OFFSET)).isNull();
+	}
+
+	@Test
+	void failsWhenBrokerRejectsAnyMessage() {
+		DltPublisher publisher = new DltPublisher(kafkaTemplate, 10, 100, meterRegistry);
+
+		CompletableFuture<Void> published = publisher.publish(TOPIC, List.of("a", "b"), CAUSE, 1);
+		sends.get(0).complete(null);
+		sends.get(1).completeExceptionally(new TimeoutException("Expiring 1 record(s)"));
+
+		assertThat(published).isCompletedExceptionally();
+		assertThat(counter("dlt.publisher.messages.sent")).isEqualTo(1.0);
+		assertThat(counter("dlt.publisher.messages.failed")).isEqualTo(1.0);
+		assertThat(publisher.getInFlight()).isZero();
+	}
+
+	@Test
+	void failsWhenSendThrows() {
+		when(kafkaTemplate.send(any(ProducerRecord.class))).thenThrow(new IllegalStateException("producer closed"));
+		DltPublisher publisher = new DltPublisher(kafkaTemplate, 10, 100, meterRegistry);
+
+		CompletableFuture<Void> published = publisher.publish(TOPIC, List.of("a"), CAUSE, 1);
+
+		assertThat(published).isCompletedExceptionally();
+		assertThat(publisher.getInFlight()).isZero();
+	}
+
+	@Test
+	void failsWhenInFlightWindowStaysFull() {
+		DltPublisher publisher = new DltPublisher(kafkaTemplate, 1, 50, meterRegistry);
+
+		CompletableFuture<Void> first = publisher.publish(TOPIC, List.of("a"), CAUSE, 1);
+		CompletableFuture<Void> second = publisher.publish(TOPIC, List.of("b"), CAUSE, 1);
+
+		// 두 번째 메시지는 window-timeout-ms 동안 자리가 나지 않아 보내지 않음 → 유실이 아니라 실패로 완료
+		assertThat(second).isCompletedExceptionally();
+		assertThat(sends).hasSize(1);
+		assertThat(counter("dlt.publisher.messages.failed")).isEqualTo(1.0);
+
+		sends.get(0).complete(null);
+		assertThat(first).isCompleted();
+	}
+
+	private static int intHeader(ProducerRecord<String, Object> record, String name) {
+		return ByteBuffer.wrap(record.headers().lastHeader(name).value()).getInt();
+	}
+
+	private static long longHeader(ProducerRecord<String, Object> record, String name) {
+		return ByteBuffer.wrap(record.headers().lastHeader(name).value()).getLong();
+	}
+
+	private double counter(String name) {
+		return meterRegistry.get(name).tag("topic", TOPIC).counter().count();
+	}
+}
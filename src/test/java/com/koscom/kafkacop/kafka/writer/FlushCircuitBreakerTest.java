@@ -0,0 +1,203 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLDataException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 차단기 상태 전이: 연속 일시 장애 → OPEN, probe 대기시간 2배 증가(상한), HALF_OPEN probe 성공/실패
+ * - 데이터 오류는 DB 가 응답한 것이므로 차단하지 않음
+ */
+class FlushCircuitBreakerTest {
+
+	private static final int FAILURE_THRESHOLD = 3;
+	private static final long OPEN_MS = 50;
+	private static final long MAX_OPEN_MS = 200;
+	private static final Exception TRANSIENT = new SQLTransientConnectionException("connection refused");
+	private static final Exception DATA_ERROR = new SQLDataException("value too long for column");
+
+	private MeterRegistry meterRegistry;
+	private FlushCircuitBreaker breaker;
+	private List<Boolean> notifications;
+	private ExecutorService executor;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		breaker = new FlushCircuitBreaker(meterRegistry);
+		ReflectionTestUtils.setField(breaker, "enabled", true);
+		ReflectionTestUtils.setField(breaker, "failureThreshold", FAILURE_THRESHOLD);
+		ReflectionTestUtils.setField(breaker, "baseOpenMs", OPEN_MS);
+		ReflectionTestUtils.setField(breaker, "maxOpenMs", MAX_OPEN_MS);
+		breaker.init();
+		notifications = new CopyOnWriteArrayList<>();
+		breaker.addListener(notifications::add);
+		executor = Executors.newCachedThreadPool();
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void opensAfterConsecutiveTransientFailures() {
+		failTransient(FAILURE_THRESHOLD - 1);
+		breaker.onSuccess();  // 성공하면 연속 횟수 초기화
+		failTransient(FAILURE_THRESHOLD - 1);
+
+		assertThat(breaker.getState()).isEqualTo(FlushCircuitBreaker.State.CLOSED);
+		assertThat(notifications).isEmpty();
+
+		breaker.onFailure(TRANSIENT);
+
+		assertThat(breaker.getState()).isEqualTo(FlushCircuitBreaker.State.OPEN);
+		assertThat(breaker.isClosed()).isFalse();
+		assertThat(notifications).containsExactly(true);
+	}
+
+	@Test
+	void dataErrorsDoNotTripBreaker() {
+		for (int i = 0; i < FAILURE_THRESHOLD * 2; i++) {
+			breaker.onFailure(DATA_ERROR);
+		}
+		assertThat(breaker.getState()).isEqualTo(FlushCircuitBreaker.State.CLOSED);
+
+		// 일시 장애 사이의 데이터 오류는 연속 횟수를 끊음
+		failTransient(FAILURE_THRESHOLD - 1);
+		breaker.onFailure(DATA_ERROR);
+		failTransient(FAILURE_THRESHOLD - 1);
+
+		assertThat(breaker.getState()).isEqualTo(FlushCircuitBreaker.State.CLOSED);
+		assertThat(gauge("flush.circuit.consecutive_failures")).isEqualTo(FAILURE_THRESHOLD - 1.0);
+		assertThat(notifications).isEmpty();
+	}
+
+	@Test
+	void dataErrorOnProbeClosesBreaker() {
+		open();
+		assertThat(breaker.awaitPermit(() -> true)).isTrue();
+
+		breaker.onFailure(DATA_ERROR);
+
+		assertThat(breaker.getState()).isEqualTo(FlushCircuitBreaker.State.CLOSED);
+		assertThat(notifications).containsExactly(true, false);
+	}
+
+	@Test
+	void disabledBreakerNeverOpens() {
+		ReflectionTestUtils.setField(breaker, "enabled", false);
+
+		failTransient(FAILURE_THRESHOLD * 2);
+
+		assertThat(breaker.getState()).isEqualTo(FlushCircuitBreaker.State.CLOSED);
+		assertThat(notifications).isEmpty();
+	}
+
+	@Test
+	void probeWaitsForOpenMs() {
+		long openedAt = System.nanoTime();
+		open();
+
+		assertThat(breaker.awaitPermit(() -> true)).isTrue();
+
+		assertThat(elapsedMs(openedAt)).isGreaterThanOrEqualTo(OPEN_MS);
+		assertThat(breaker.getState()).isEqualTo(FlushCircuitBreaker.State.HALF_OPEN);
+	}
+
+	@Test
+	void failedProbesDoubleOpenTimeUpToMax() {
+		open();
+		assertThat(gauge("flush.circuit.open_backoff_ms")).isEqualTo((double) OPEN_MS);
+		assertThat(breaker.awaitPermit(() -> true)).isTrue();
+
+		for (long expectedOpenMs : new long[] {100, 200, MAX_OPEN_MS}) {
+			long failedAt = System.nanoTime();
+			breaker.onFailure(TRANSIENT);
+
+			assertThat(breaker.getState()).isEqualTo(FlushCircuitBreaker.State.OPEN);
+			assertThat(gauge("flush.circuit.open_backoff_ms")).isEqualTo((double) expectedOpenMs);
+			assertThat(breaker.awaitPermit(() -> true)).isTrue();
+			assertThat(elapsedMs(failedAt)).isGreaterThanOrEqualTo(expectedOpenMs);
+			assertThat(breaker.getState()).isEqualTo(FlushCircuitBreaker.State.HALF_OPEN);
+		}
+		assertThat(notifications).containsExactly(true);  // probe 실패는 재차단 통지 없음
+	}
+
+	@Test
+	void successfulProbeClosesAndResetsOpenTime() throws Exception {
+		open();
+		assertThat(breaker.awaitPermit(() -> true)).isTrue();
+		breaker.onFailure(TRANSIENT);
+		assertThat(breaker.awaitPermit(() -> true)).isTrue();
+
+		// probe 진행 중에는 다른 워커가 결과를 기다림
+		Future<Boolean> waiting = executor.submit(() -> breaker.awaitPermit(() -> true));
+		Thread.sleep(OPEN_MS);
+		assertThat(waiting.isDone()).isFalse();
+
+		breaker.onSuccess();
+
+		assertThat(waiting.get(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(breaker.getState()).isEqualTo(FlushCircuitBreaker.State.CLOSED);
+		assertThat(gauge("flush.circuit.open_backoff_ms")).isEqualTo((double) OPEN_MS);
+		assertThat(notifications).containsExactly(true, false);
+	}
+
+	@Test
+	void awaitPermitGivesUpWhenStopped() {
+		open();
+
+		assertThat(breaker.awaitPermit(() -> false)).isFalse();
+		assertThat(breaker.getState()).isEqualTo(FlushCircuitBreaker.State.OPEN);
+	}
+
+	@Test
+	void awaitClosedWakesUpOnClose() throws Exception {
+		open();
+		assertThat(breaker.awaitClosed(10)).isFalse();
+
+		Future<Boolean> closed = executor.submit(() -> breaker.awaitClosed(TimeUnit.SECONDS.toMillis(30)));
+		assertThat(breaker.awaitPermit(() -> true)).isTrue();
+		assertThat(closed.isDone()).isFalse();
+
+		long closedAt = System.nanoTime();
+		breaker.onSuccess();
+
+		assertThat(closed.get(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(elapsedMs(closedAt)).isLessThan(TimeUnit.SECONDS.toMillis(5));
+	}
+
+	private void open() {
+		failTransient(FAILURE_THRESHOLD);
+		assertThat(breaker.getState()).isEqualTo(FlushCircuitBreaker.State.OPEN);
+	}
+
+	private void failTransient(int times) {
+		for (int i = 0; i < times; i++) {
+			breaker.onFailure(TRANSIENT);
+		}
+	}
+
+	private double gauge(String name) {
+		return meterRegistry.get(name).gauge().value();
+	}
+
+	private static long elapsedMs(long startNanos) {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+	}
+}
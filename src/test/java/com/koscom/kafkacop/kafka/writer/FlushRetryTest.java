@@ -0,0 +1,157 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.sql.SQLDataException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * flush 실패 배치 재시도: 데이터 오류는 반씩 분할해 문제 레코드만 격리, 일시 장애는 같은 구간 재시도
+ * - 저장된 구간은 원래 순서대로 flush 되어야 함 (같은 마켓 upsert 순서)
+ */
+class FlushRetryTest {
+
+	private static final String TOPIC = "ticker-basic";
+	private static final Exception TRANSIENT = new SQLTransientConnectionException("connection refused");
+	private static final Exception DATA_ERROR = new SQLDataException("value too long for column");
+	private static final List<Integer> BATCH = IntStream.range(0, 8).boxed().toList();
+
+	@Test
+	void bisectsDownToSinglePoisonRecord() {
+		RecordingWriter writer = new RecordingWriter(Set.of(5));
+
+		FlushRetry.Outcome<Integer> outcome = bisecting(writer, 10).retry(BATCH, DATA_ERROR);
+
+		assertThat(outcome.rejected()).hasSize(1);
+		assertThat(outcome.rejected().get(0).items()).containsExactly(5);
+		assertThat(outcome.rejected().get(0).cause()).isSameAs(writer.lastError);
+		assertThat(outcome.isolated()).isEqualTo(1);
+		assertThat(outcome.splits()).isEqualTo(3);  // 8 → 4+4 → 2+2 → 1+1
+		assertThat(outcome.persisted()).isEqualTo(7);
+		assertThat(writer.persisted()).containsExactly(0, 1, 2, 3, 4, 6, 7);
+	}
+
+	@Test
+	void keepsOriginalOrderForGoodHalves() {
+		RecordingWriter writer = new RecordingWriter(Set.of(1, 6));
+
+		FlushRetry.Outcome<Integer> outcome = bisecting(writer, 10).retry(BATCH, DATA_ERROR);
+
+		assertThat(rejectedItems(outcome)).containsExactly(List.of(1), List.of(6));
+		assertThat(outcome.isolated()).isEqualTo(2);
+		assertThat(writer.persisted()).containsExactly(0, 2, 3, 4, 5, 7);
+		// 저장된 구간이 원래 배치 순서대로 flush 됨
+		assertThat(writer.flushed).containsExactly(List.of(0), List.of(2, 3), List.of(4, 5), List.of(7));
+	}
+
+	@Test
+	void stopsBisectingAfterMaxIsolated() {
+		RecordingWriter writer = new RecordingWriter(Set.copyOf(BATCH));
+
+		FlushRetry.Outcome<Integer> outcome = bisecting(writer, 2).retry(BATCH, DATA_ERROR);
+
+		// 2건 격리 후 남은 실패 구간은 분할하지 않고 그대로 DLT
+		assertThat(outcome.isolated()).isEqualTo(2);
+		assertThat(rejectedItems(outcome)).containsExactly(List.of(0), List.of(1), List.of(2, 3), List.of(4, 5, 6, 7));
+		assertThat(outcome.persisted()).isZero();
+	}
+
+	@Test
+	void retriesWholeBatchOnTransientFailure() {
+		RecordingWriter writer = new RecordingWriter(Set.of());
+		writer.transientFailures = 1;
+
+		FlushRetry.Outcome<Integer> outcome = bisecting(writer, 10).retry(BATCH, TRANSIENT);
+
+		assertThat(outcome.rejected()).isEmpty();
+		assertThat(outcome.splits()).isZero();
+		assertThat(outcome.persisted()).isEqualTo(BATCH.size());
+		assertThat(writer.attempts).containsExactly(BATCH, BATCH);
+	}
+
+	@Test
+	void rejectsWholeBatchAfterMaxRetries() {
+		RecordingWriter writer = new RecordingWriter(Set.of());
+		writer.transientFailures = Integer.MAX_VALUE;
+
+		FlushRetry.Outcome<Integer> outcome = bisecting(writer, 10).retry(BATCH, TRANSIENT);
+
+		assertThat(outcome.rejected()).hasSize(1);
+		assertThat(outcome.rejected().get(0).items()).isEqualTo(BATCH);
+		assertThat(outcome.rejected().get(0).attempts()).isEqualTo(3);  // 첫 flush + 재시도 2회
+		assertThat(writer.attempts).hasSize(2);
+	}
+
+	@Test
+	void retriesDataErrorAsWholeBatchWithoutBisect() {
+		RecordingWriter writer = new RecordingWriter(Set.of(5));
+
+		FlushRetry.Outcome<Integer> outcome = new FlushRetry<>(TOPIC, writer, null, null, false, 2, 0, 0, 10)
+			.retry(BATCH, DATA_ERROR);
+
+		assertThat(outcome.splits()).isZero();
+		assertThat(outcome.rejected()).hasSize(1);
+		assertThat(outcome.rejected().get(0).items()).isEqualTo(BATCH);
+		assertThat(writer.attempts).containsExactly(BATCH, BATCH);
+	}
+
+	@Test
+	void classifiesTransientAndDataErrors() {
+		assertThat(FlushRetry.isTransient(TRANSIENT)).isTrue();
+		assertThat(FlushRetry.isTransient(new QueryTimeoutException("statement timeout"))).isTrue();
+		assertThat(FlushRetry.isTransient(new DataAccessResourceFailureException("pool exhausted"))).isTrue();
+		assertThat(FlushRetry.isTransient(new IllegalStateException("wrapped", TRANSIENT))).isTrue();
+
+		assertThat(FlushRetry.isTransient(DATA_ERROR)).isFalse();
+		assertThat(FlushRetry.isTransient(new DataIntegrityViolationException("duplicate key", DATA_ERROR))).isFalse();
+		assertThat(FlushRetry.isTransient(new IllegalArgumentException("bad value"))).isFalse();
+	}
+
+	private static List<List<Integer>> rejectedItems(FlushRetry.Outcome<Integer> outcome) {
+		return outcome.rejected().stream().map(FlushRetry.Rejected::items).toList();
+	}
+
+	private static FlushRetry<Integer> bisecting(RecordingWriter writer, int maxIsolated) {
+		return new FlushRetry<>(TOPIC, writer, item -> "market-" + item, null, true, 2, 0, 0, maxIsolated);
+	}
+
+	/** poison 레코드가 포함된 구간은 데이터 오류, transientFailures 회까지는 일시 장애로 실패 */
+	private static final class RecordingWriter implements BatchAccumulator.BatchWriter<Integer> {
+		private final Set<Integer> poison;
+		private final List<List<Integer>> attempts = new ArrayList<>();
+		private final List<List<Integer>> flushed = new ArrayList<>();
+		private int transientFailures = 0;
+		private Exception lastError;
+
+		private RecordingWriter(Set<Integer> poison) {
+			this.poison = poison;
+		}
+
+		@Override
+		public void flush(List<Integer> batch) {
+			attempts.add(List.copyOf(batch));
+			if (transientFailures > 0) {
+				transientFailures--;
+				throw new DataAccessResourceFailureException("connection refused", TRANSIENT);
+			}
+			if (batch.stream().anyMatch(poison::contains)) {
+				lastError = new DataIntegrityViolationException("check constraint violated: " + batch);
+				throw (DataIntegrityViolationException) lastError;
+			}
+			flushed.add(List.copyOf(batch));
+		}
+
+		private List<Integer> persisted() {
+			return flushed.stream().flatMap(List::stream).toList();
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * flush watermark: 구간이 순서와 무관하게 완료되어도 빈틈 없는 앞부분(prefix)까지만 전진
+ * - whenFlushed 콜백은 watermark 가 해당 순번에 도달했을 때 한 번만 실행
+ */
+class FlushWatermarkTest {
+
+	private FlushWatermark watermark;
+	private List<String> fired;
+
+	@BeforeEach
+	void setUp() {
+		watermark = new FlushWatermark(0);
+		fired = new CopyOnWriteArrayList<>();
+	}
+
+	@Test
+	void advancesOnlyOverContiguousPrefix() {
+		watermark.markFlushed(10, 20);
+		watermark.markFlushed(30, 40);
+		assertThat(watermark.get()).isZero();  // [0, 10) 미완료
+
+		watermark.markFlushed(0, 10);
+		assertThat(watermark.get()).isEqualTo(20L);  // [20, 30) 미완료 → 20 에서 멈춤
+
+		watermark.markFlushed(20, 30);
+		assertThat(watermark.get()).isEqualTo(40L);
+	}
+
+	@Test
+	void firesCallbacksInOrderWhenGapCloses() {
+		watermark.whenFlushed(5, () -> fired.add("5"));
+		watermark.whenFlushed(15, () -> fired.add("15"));
+		watermark.whenFlushed(25, () -> fired.add("25"));
+
+		watermark.markFlushed(10, 20);
+		assertThat(fired).isEmpty();
+
+		watermark.markFlushed(0, 10);
+		assertThat(fired).containsExactly("5", "15");
+
+		watermark.markFlushed(20, 30);
+		assertThat(fired).containsExactly("5", "15", "25");
+	}
+
+	@Test
+	void firesImmediatelyWhenAlreadyReached() {
+		watermark.markFlushed(0, 10);
+
+		watermark.whenFlushed(10, () -> fired.add("10"));
+		watermark.whenFlushed(11, () -> fired.add("11"));
+
+		assertThat(fired).containsExactly("10");
+		watermark.markFlushed(10, 11);
+		assertThat(fired).containsExactly("10", "11");
+	}
+
+	@Test
+	void ignoresEmptyRangesAndFailingCallbacks() {
+		watermark.whenFlushed(1, () -> {
+			throw new IllegalStateException("commit failed");
+		});
+		watermark.whenFlushed(1, () -> fired.add("1"));
+
+		watermark.markFlushed(0, 0);
+		watermark.markFlushed(5, 3);
+		assertThat(watermark.get()).isZero();
+
+		watermark.markFlushed(0, 1);  // 앞 콜백이 실패해도 나머지는 실행
+		assertThat(fired).containsExactly("1");
+	}
+
+	@Test
+	void resetDropsPendingRanges() {
+		watermark.markFlushed(10, 20);
+
+		watermark.reset(100);
+		watermark.markFlushed(100, 110);
+
+		assertThat(watermark.get()).isEqualTo(110L);
+	}
+}
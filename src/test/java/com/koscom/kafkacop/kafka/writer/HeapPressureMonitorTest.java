@@ -0,0 +1,163 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 힙 압박 진입/해제 히스테리시스 + 압박 중 flush 동시성 제한
+ * - GC 알림 대신 evaluate(GC 후 점유율, 현재 점유율) 을 직접 호출 (모니터는 비활성 상태로 시작해 JVM 알림을 등록하지 않음)
+ */
+class HeapPressureMonitorTest {
+
+	private static final double ENTER_RATIO = 0.85;
+	private static final double EXIT_RATIO = 0.70;
+	private static final int MAX_CONCURRENT_FLUSHES = 1;
+
+	private MeterRegistry meterRegistry;
+	private HeapPressureMonitor monitor;
+	private List<Boolean> notifications;
+	private ExecutorService executor;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		monitor = new HeapPressureMonitor(meterRegistry);
+		ReflectionTestUtils.setField(monitor, "enterRatio", ENTER_RATIO);
+		ReflectionTestUtils.setField(monitor, "exitRatio", EXIT_RATIO);
+		ReflectionTestUtils.setField(monitor, "minPauseMs", 0L);
+		ReflectionTestUtils.setField(monitor, "maxConcurrentFlushes", MAX_CONCURRENT_FLUSHES);
+		monitor.start();
+		notifications = new CopyOnWriteArrayList<>();
+		monitor.addListener(notifications::add);
+		executor = Executors.newCachedThreadPool();
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+		monitor.stop();
+	}
+
+	@Test
+	void entersWhenPostGcOccupancyReachesEnterRatio() {
+		monitor.evaluate(0.84, 0.95);  // 현재 점유율은 GC 전 값이라 진입 판단에 쓰지 않음
+		assertThat(monitor.isUnderPressure()).isFalse();
+
+		monitor.evaluate(ENTER_RATIO, ENTER_RATIO);
+
+		assertThat(monitor.isUnderPressure()).isTrue();
+		assertThat(notifications).containsExactly(true);
+		assertThat(meterRegistry.get("heap.pressure.episodes").counter().count()).isEqualTo(1.0);
+		assertThat(meterRegistry.get("heap.pressure.old_gen.post_gc_ratio").gauge().value()).isEqualTo(ENTER_RATIO);
+	}
+
+	@Test
+	void staysUnderPressureBetweenExitAndEnterRatio() {
+		monitor.evaluate(0.90, 0.90);
+
+		monitor.evaluate(0.80, 0.80);
+		monitor.evaluate(EXIT_RATIO + 0.01, 0.95);
+
+		assertThat(monitor.isUnderPressure()).isTrue();
+		assertThat(notifications).containsExactly(true);
+	}
+
+	@Test
+	void exitsWhenPostGcOrCurrentOccupancyDropsToExitRatio() {
+		monitor.evaluate(0.90, 0.90);
+		monitor.evaluate(EXIT_RATIO, 0.90);
+		assertThat(monitor.isUnderPressure()).isFalse();
+
+		monitor.evaluate(0.90, 0.90);
+		monitor.evaluate(0.90, 0.50);  // GC 가 한동안 없어도 현재 점유율이 낮으면 해제
+		assertThat(monitor.isUnderPressure()).isFalse();
+
+		// 해제 후에는 다시 enter-ratio 이상이어야 진입
+		monitor.evaluate(0.80, 0.80);
+		assertThat(monitor.isUnderPressure()).isFalse();
+		assertThat(notifications).containsExactly(true, false, true, false);
+		assertThat(meterRegistry.get("heap.pressure.episodes").counter().count()).isEqualTo(2.0);
+	}
+
+	@Test
+	void holdsPressureForMinPause() throws Exception {
+		ReflectionTestUtils.setField(monitor, "minPauseMs", 200L);
+		monitor.evaluate(0.90, 0.90);
+
+		monitor.evaluate(0.10, 0.10);
+		assertThat(monitor.isUnderPressure()).isTrue();
+
+		Thread.sleep(250);
+		monitor.evaluate(0.10, 0.10);
+		assertThat(monitor.isUnderPressure()).isFalse();
+	}
+
+	@Test
+	void doesNotLimitFlushesWithoutPressure() {
+		for (int i = 0; i < MAX_CONCURRENT_FLUSHES + 3; i++) {
+			monitor.acquireFlushSlot();
+		}
+		for (int i = 0; i < MAX_CONCURRENT_FLUSHES + 3; i++) {
+			monitor.releaseFlushSlot();
+		}
+	}
+
+	@Test
+	void releasedSlotWakesWaitingFlushUnderPressure() throws Exception {
+		monitor.evaluate(0.90, 0.90);
+		monitor.acquireFlushSlot();
+
+		Future<?> waiting = executor.submit(monitor::acquireFlushSlot);
+		awaitWaitingFlushes(1);
+		assertThat(waiting.isDone()).isFalse();
+
+		monitor.releaseFlushSlot();
+
+		waiting.get(5, TimeUnit.SECONDS);
+		assertThat(monitor.isUnderPressure()).isTrue();
+		assertThat(waitingFlushes()).isZero();
+	}
+
+	@Test
+	void waitingFlushesProceedWhenPressureClears() throws Exception {
+		monitor.evaluate(0.90, 0.90);
+		monitor.acquireFlushSlot();
+
+		Future<?> first = executor.submit(monitor::acquireFlushSlot);
+		Future<?> second = executor.submit(monitor::acquireFlushSlot);
+		awaitWaitingFlushes(2);
+
+		monitor.evaluate(0.50, 0.50);
+
+		// 슬롯 반납 없이도 압박 해제만으로 전부 진행
+		first.get(5, TimeUnit.SECONDS);
+		second.get(5, TimeUnit.SECONDS);
+		assertThat(waitingFlushes()).isZero();
+		assertThat(notifications).containsExactly(true, false);
+	}
+
+	private void awaitWaitingFlushes(int expected) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (waitingFlushes() < expected && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		assertThat(waitingFlushes()).isEqualTo((double) expected);
+	}
+
+	private double waitingFlushes() {
+		return meterRegistry.get("heap.pressure.flushes.waiting").gauge().value();
+	}
+}
@@ -0,0 +1,114 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 공유 메모리 예산: 부분 예약 / 전부 아니면 없음 예약 / 한도 무시 예약 / 반납
+ * - 여러 스레드가 동시에 예약해도 한도를 넘지 않아야 함
+ */
+class MemoryBudgetTest {
+
+	private static final long LIMIT = 100;
+
+	private SimpleMeterRegistry meterRegistry;
+	private MemoryBudget budget;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		budget = new MemoryBudget(LIMIT, meterRegistry);
+	}
+
+	@Test
+	void tryReserveUpToGrantsWhatIsLeft() {
+		assertThat(budget.tryReserveUpTo(60)).isEqualTo(60L);
+		assertThat(budget.tryReserveUpTo(60)).isEqualTo(40L);  // 남은 만큼만
+		assertThat(budget.tryReserveUpTo(1)).isZero();
+		assertThat(budget.tryReserveUpTo(0)).isZero();
+		assertThat(budget.tryReserveUpTo(-5)).isZero();
+
+		assertThat(budget.getUsedBytes()).isEqualTo(LIMIT);
+		assertThat(budget.usageRatio()).isEqualTo(1.0);
+	}
+
+	@Test
+	void tryReserveIsAllOrNothing() {
+		assertThat(budget.tryReserve(70)).isTrue();
+
+		assertThat(budget.tryReserve(31)).isFalse();
+		assertThat(budget.getUsedBytes()).isEqualTo(70L);
+
+		assertThat(budget.tryReserve(30)).isTrue();
+		assertThat(budget.getUsedBytes()).isEqualTo(LIMIT);
+	}
+
+	@Test
+	void forceReserveExceedsLimitUntilReleased() {
+		budget.tryReserve(80);
+		budget.forceReserve(50);  // 스필에서 복귀한 메시지 등 이미 수용한 데이터
+
+		assertThat(budget.getUsedBytes()).isEqualTo(130L);
+		assertThat(budget.usageRatio()).isEqualTo(1.3);
+		assertThat(budget.tryReserveUpTo(10)).isZero();
+		assertThat(budget.tryReserve(0)).isFalse();
+
+		budget.release(50);
+		assertThat(budget.tryReserveUpTo(50)).isEqualTo(20L);
+	}
+
+	@Test
+	void releaseIgnoresNonPositiveBytes() {
+		budget.tryReserve(40);
+		budget.release(0);
+		budget.release(-10);
+		budget.forceReserve(-10);
+
+		assertThat(budget.getUsedBytes()).isEqualTo(40L);
+
+		budget.release(40);
+		assertThat(budget.getUsedBytes()).isZero();
+		assertThat(meterRegistry.get("batch.memory.budget.used_bytes").gauge().value()).isZero();
+	}
+
+	@Test
+	void concurrentReservationsNeverExceedLimit() throws Exception {
+		int threads = 8;
+		int rounds = 10_000;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		try {
+			for (int t = 0; t < threads; t++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < rounds; i++) {
+						long granted = budget.tryReserveUpTo(7);
+						assertThat(budget.getUsedBytes()).isLessThanOrEqualTo(LIMIT);
+						budget.release(granted);
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(budget.getUsedBytes()).isZero();
+	}
+}
@@ -0,0 +1,70 @@
+package com.koscom.kafkacop.kafka.writer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 공유 워커 풀: 큐가 가득 차면 호출 스레드(코디네이터)가 직접 실행, 종료 후 제출은 버리지 않고 거절
+ */
+class PooledFlushExecutorTest {
+
+	private PooledFlushExecutor executor;
+	private CountDownLatch workerBlocked;
+
+	@BeforeEach
+	void setUp() {
+		executor = new PooledFlushExecutor(1, 1, "flush-test");
+		workerBlocked = new CountDownLatch(1);
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		workerBlocked.countDown();
+		executor.shutdown();
+		executor.awaitTermination(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void runsOnCallerThreadWhenQueueIsFull() throws Exception {
+		CountDownLatch workerStarted = new CountDownLatch(1);
+		executor.execute(0, () -> {
+			workerStarted.countDown();
+			awaitQuietly(workerBlocked);
+		});
+		assertThat(workerStarted.await(5, TimeUnit.SECONDS)).isTrue();
+		executor.execute(0, () -> {
+		});  // 워커 큐 1칸 채움
+
+		AtomicReference<Thread> ranOn = new AtomicReference<>();
+		executor.execute(0, () -> ranOn.set(Thread.currentThread()));
+
+		assertThat(ranOn.get()).isSameAs(Thread.currentThread());
+	}
+
+	@Test
+	void rejectsAfterShutdownInsteadOfDiscarding() {
+		executor.shutdown();
+
+		assertThatThrownBy(() -> executor.execute(0, () -> {
+		})).isInstanceOf(RejectedExecutionException.class);
+		assertThatThrownBy(() -> executor.trySubmit(0, () -> {
+		})).isInstanceOf(RejectedExecutionException.class);
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package com.koscom.kafkacop.kafka.writer.journal;
+
+import com.koscom.kafkacop.kafka.codec.RecordCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * journal 재기동 복구: checkpoint(flush watermark) 이후의 온전한 레코드만 순서대로 replay
+ * - 프로세스가 기록 도중 죽어 잘린 마지막 레코드(파일 끝이 잘림 / 길이 미기록)는 무시하고 앞 레코드는 모두 복구
+ */
+class WriteAheadJournalTest {
+
+	private static final int SEGMENT_BYTES = 4096;
+	private static final int HEADER_BYTES = 16;
+	private static final int LENGTH_BYTES = 4;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void replaysUnflushedRecordsAcrossSegmentsAfterRestart() {
+		WriteAheadJournal<String> journal = open(256);  // 작은 세그먼트 → 여러 세그먼트에 걸쳐 기록
+		List<String> records = records(40);
+		journal.append(records, records.size());
+		journal.markFlushed(0, 10);
+		journal.markFlushed(20, 25);  // 순서 밖 완료는 watermark 를 넘기지 못함 → 복구 대상
+		journal.close();
+
+		List<String> replayed = recover(open(256));
+
+		assertThat(replayed).isEqualTo(records.subList(10, 40));
+	}
+
+	@Test
+	void ignoresRecordCutOffByTruncatedFile() throws IOException {
+		WriteAheadJournal<String> journal = open(SEGMENT_BYTES);
+		journal.append(records(5), 5);
+		journal.close();
+
+		// 마지막 레코드 payload 중간에서 파일이 끝남 (세그먼트 확장 / 기록 중 크래시)
+		Path segment = onlySegment();
+		long lastRecordEnd = HEADER_BYTES + 5L * (LENGTH_BYTES + recordBytes());
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+			channel.truncate(lastRecordEnd - 3);
+		}
+
+		WriteAheadJournal<String> recovered = open(SEGMENT_BYTES);
+		List<String> replayed = recover(recovered);
+
+		assertThat(replayed).isEqualTo(records(4));
+		assertThat(recovered.nextSeq()).isEqualTo(4L);  // 잘린 레코드 순번부터 이어서 사용
+	}
+
+	@Test
+	void ignoresRecordWhoseLengthWasNotWritten() throws IOException {
+		WriteAheadJournal<String> journal = open(SEGMENT_BYTES);
+		journal.append(records(3), 3);
+		journal.close();
+
+		// payload 는 기록됐지만 길이(마지막에 기록)가 없음 → 끝 표시로 보고 멈춤
+		Path segment = onlySegment();
+		ByteBuffer zero = ByteBuffer.allocate(LENGTH_BYTES);
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+			channel.write(zero, HEADER_BYTES + 2L * (LENGTH_BYTES + recordBytes()));
+		}
+
+		assertThat(recover(open(SEGMENT_BYTES))).isEqualTo(records(2));
+	}
+
+	@Test
+	void continuesSequenceAndSkipsRecoveredRecordsOnNextRestart() {
+		WriteAheadJournal<String> journal = open(SEGMENT_BYTES);
+		journal.append(records(3), 3);
+		journal.close();
+
+		WriteAheadJournal<String> restarted = open(SEGMENT_BYTES);
+		assertThat(recover(restarted)).hasSize(3);
+		List<String> next = List.of("next-0", "next-1");
+		assertThat(restarted.append(next, 2)).isEqualTo(3L);
+		restarted.commit(restarted.nextSeq());
+		restarted.markFlushed(3, 4);
+		restarted.close();
+
+		// 첫 복구분과 flush 완료분은 다시 복구하지 않음
+		assertThat(recover(open(SEGMENT_BYTES))).containsExactly("next-1");
+	}
+
+	@Test
+	void keepsSegmentsWhenReplayFails() {
+		WriteAheadJournal<String> journal = open(SEGMENT_BYTES);
+		journal.append(records(2), 2);
+		journal.close();
+
+		WriteAheadJournal<String> failing = open(SEGMENT_BYTES);
+		assertThatThrownBy(() -> failing.recover(replayed -> {
+			throw new IllegalStateException("database unavailable");
+		})).isInstanceOf(IllegalStateException.class);
+
+		assertThat(recover(open(SEGMENT_BYTES))).isEqualTo(records(2));
+	}
+
+	private WriteAheadJournal<String> open(int segmentBytes) {
+		return new WriteAheadJournal<>(directory, new StringCodec(), segmentBytes, true);
+	}
+
+	private static List<String> recover(WriteAheadJournal<String> journal) {
+		List<String> replayed = new ArrayList<>();
+		journal.recover(replayed::addAll);
+		return replayed;
+	}
+
+	private Path onlySegment() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			List<Path> segments = files.filter(path -> path.toString().endsWith(".wal")).toList();
+			assertThat(segments).hasSize(1);
+			return segments.get(0);
+		}
+	}
+
+	/** 같은 길이의 레코드 (잘림 위치 계산용) */
+	private static List<String> records(int count) {
+		List<String> records = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			records.add(String.format("record-%04d", i));
+		}
+		return records;
+	}
+
+	private static int recordBytes() {
+		return Integer.BYTES + "record-0000".length();
+	}
+
+	/** [int length][UTF-8 bytes] */
+	private static final class StringCodec implements RecordCodec<String> {
+
+		@Override
+		public void encode(String value, ByteBuffer out) {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.putInt(bytes.length).put(bytes);
+		}
+
+		@Override
+		public String decode(ByteBuffer in) {
+			byte[] bytes = new byte[in.getInt()];
+			in.get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -0,0 +1,179 @@
+package com.koscom.kafkacop.kafka.writer.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * MPSC 링 버퍼: 가득 참 / 비어 있음, 슬롯 배열 한 바퀴 이상 돌 때의 순서, 일괄 적재 / 소비
+ * - 다중 생산자 동시 적재: 유실 / 중복 없고 생산자별 FIFO 유지
+ */
+class MpscRingBufferTest {
+
+	@Test
+	void rejectsOfferWhenFullAndReturnsNullWhenEmpty() throws Exception {
+		MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(3, WaitStrategy.SPIN);  // 물리 슬롯 4, 논리 용량 3
+
+		assertThat(buffer.poll()).isNull();
+		assertThat(buffer.poll(1, TimeUnit.MILLISECONDS)).isNull();
+		assertThat(buffer.offer(1)).isTrue();
+		assertThat(buffer.offer(2)).isTrue();
+		assertThat(buffer.offer(3)).isTrue();
+
+		assertThat(buffer.offer(4)).isFalse();
+		assertThat(buffer.offer(4, 1, TimeUnit.MILLISECONDS)).isFalse();
+		assertThat(buffer.size()).isEqualTo(3);
+		assertThat(buffer.capacity()).isEqualTo(3);
+
+		assertThat(buffer.poll()).isEqualTo(1);
+		assertThat(buffer.offer(4)).isTrue();
+		assertThat(drain(buffer, 10)).containsExactly(2, 3, 4);
+		assertThat(buffer.size()).isZero();
+		assertThat(buffer.poll()).isNull();
+	}
+
+	@Test
+	void keepsOrderAcrossWraparound() {
+		MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4, WaitStrategy.SPIN);
+		List<Integer> consumed = new ArrayList<>();
+
+		// 시퀀스가 물리 슬롯 수의 여러 배를 지나도록 적재 / 소비를 번갈아 반복
+		int next = 0;
+		for (int round = 0; round < 25; round++) {
+			while (buffer.offer(next)) {
+				next++;
+			}
+			assertThat(buffer.size()).isEqualTo(4);
+			consumed.add(buffer.poll());
+			drain(buffer, round % 3 + 1).forEach(consumed::add);
+		}
+		drain(buffer, Integer.MAX_VALUE).forEach(consumed::add);
+
+		assertThat(consumed).isEqualTo(IntStream.range(0, next).boxed().toList());
+		assertThat(next).isGreaterThan(4 * 10);
+	}
+
+	@Test
+	void offerBatchReservesOnlyWhatFits() {
+		MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(5, WaitStrategy.SPIN);
+		buffer.offer(0);
+
+		assertThat(buffer.offerBatch(List.of())).isZero();
+		assertThat(buffer.offerBatch(List.of(1, 2, 3, 4, 5, 6))).isEqualTo(4);  // 앞에서부터 남은 4칸만
+		assertThat(buffer.offerBatch(List.of(7))).isZero();
+
+		assertThat(drain(buffer, 2)).containsExactly(0, 1);
+		assertThat(buffer.offerBatch(List.of(5, 6, 7))).isEqualTo(2);  // 슬롯 배열 끝을 넘어 앞쪽 슬롯으로
+		assertThat(drain(buffer, 10)).containsExactly(2, 3, 4, 5, 6);
+	}
+
+	@Test
+	void drainToStopsAtMaxElements() {
+		MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(8, WaitStrategy.SPIN);
+		buffer.offerBatch(List.of(1, 2, 3, 4, 5));
+
+		assertThat(drain(buffer, 2)).containsExactly(1, 2);
+		assertThat(buffer.size()).isEqualTo(3);
+		assertThat(drain(buffer, 0)).isEmpty();
+		assertThat(drain(buffer, 8)).containsExactly(3, 4, 5);
+		assertThat(drain(buffer, 8)).isEmpty();
+	}
+
+	@Test
+	void rejectsInvalidCapacity() {
+		for (int capacity : new int[] {0, -1, (1 << 30) + 1}) {
+			assertThatThrownBy(() -> new MpscRingBuffer<Integer>(capacity, WaitStrategy.SPIN))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining(String.valueOf(capacity));
+		}
+	}
+
+	@Test
+	void concurrentProducersLoseNothingAndKeepPerProducerOrder() throws Exception {
+		int producers = 4;
+		int perProducer = 200_000;
+		MpscRingBuffer<Long> buffer = new MpscRingBuffer<>(1000, WaitStrategy.YIELD);  // 물리 슬롯 1024 → 수백 바퀴
+		ExecutorService executor = Executors.newFixedThreadPool(producers);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		try {
+			for (int p = 0; p < producers; p++) {
+				long producer = p;
+				boolean batched = p % 2 == 1;  // 절반은 offerBatch 로 적재
+				futures.add(executor.submit(() -> {
+					start.await();
+					int seq = 0;
+					while (seq < perProducer) {
+						if (batched) {
+							List<Long> chunk = new ArrayList<>();
+							for (int i = seq; i < Math.min(seq + 16, perProducer); i++) {
+								chunk.add(encode(producer, i));
+							}
+							seq += buffer.offerBatch(chunk);
+						} else if (buffer.offer(encode(producer, seq), 1, TimeUnit.MILLISECONDS)) {
+							seq++;
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+
+			// 소비자(이 스레드): 생산자별로 다음에 와야 할 순번과 비교
+			int[] expected = new int[producers];
+			long total = (long) producers * perProducer;
+			long consumed = 0;
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+			List<Long> drained = new ArrayList<>(256);
+			while (consumed < total) {
+				assertThat(System.nanoTime() - deadline).isLessThan(0L);
+				drained.clear();
+				if (buffer.drainTo(drained, 256) == 0) {
+					Long item = buffer.poll(1, TimeUnit.MILLISECONDS);
+					if (item == null) {
+						continue;
+					}
+					drained.add(item);
+				}
+				for (long item : drained) {
+					int producer = (int) (item >>> 32);
+					int seq = (int) item;
+					assertThat(seq).isEqualTo(expected[producer]);
+					expected[producer]++;
+					consumed++;
+				}
+			}
+			for (Future<?> future : futures) {
+				future.get(5, TimeUnit.SECONDS);
+			}
+
+			for (int p = 0; p < producers; p++) {
+				assertThat(expected[p]).isEqualTo(perProducer);
+			}
+			assertThat(buffer.size()).isZero();
+			assertThat(buffer.poll()).isNull();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static long encode(long producer, int seq) {
+		return producer << 32 | seq;
+	}
+
+	private static List<Integer> drain(MpscRingBuffer<Integer> buffer, int maxElements) {
+		List<Integer> drained = new ArrayList<>();
+		buffer.drainTo(drained, maxElements);
+		return drained;
+	}
+}
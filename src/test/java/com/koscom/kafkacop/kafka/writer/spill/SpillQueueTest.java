@@ -0,0 +1,144 @@
+package com.koscom.kafkacop.kafka.writer.spill;
+
+import com.koscom.kafkacop.kafka.codec.RecordCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 스필 큐 왕복: 세그먼트가 차서 다음 세그먼트로 넘어가고 다 읽은 세그먼트가 삭제되는 동안 FIFO 유지
+ * - 재기동 시 읽지 않은 레코드부터 복구, 용량 초과 시 기록 거절
+ */
+class SpillQueueTest {
+
+	private static final int SEGMENT_BYTES = 128;
+	private static final int RECORD_BYTES = 4 + 4 + "record-0000".length();  // [length][codec 길이][payload]
+	private static final int RECORDS_PER_SEGMENT = (SEGMENT_BYTES - 8 - 4) / RECORD_BYTES;  // 헤더, 끝 표시 제외
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void roundTripsInOrderAcrossSegmentRollover() throws IOException {
+		SpillQueue<String> spill = open(Long.MAX_VALUE);
+		List<String> consumed = new ArrayList<>();
+
+		// 적재 / 소비를 번갈아 세그먼트 수십 개를 거치게 함 (읽은 세그먼트는 삭제되어 파일 수가 늘지 않음)
+		int next = 0;
+		for (int round = 0; round < 30; round++) {
+			for (int i = 0; i < 7; i++) {
+				assertThat(spill.offer(record(next++))).isTrue();
+			}
+			spill.drainTo(consumed, 5);
+			// 대기 레코드가 걸친 세그먼트 + 다 읽었지만 아직 삭제 전인 세그먼트 1개
+			long pendingSegments = (spill.size() + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT;
+			assertThat(segmentFiles()).isLessThanOrEqualTo(pendingSegments + 2);
+		}
+		assertThat(spill.size()).isEqualTo((long) next - consumed.size());
+		spill.drainTo(consumed, Integer.MAX_VALUE);
+
+		assertThat(consumed).isEqualTo(records(next));
+		assertThat(spill.isEmpty()).isTrue();
+		assertThat(spill.bytes()).isZero();
+		assertThat(segmentFiles()).isLessThanOrEqualTo(1L);
+	}
+
+	@Test
+	void recoversUnreadRecordsAfterRestart() {
+		SpillQueue<String> spill = open(Long.MAX_VALUE);
+		for (String record : records(20)) {
+			spill.offer(record);
+		}
+		List<String> consumed = new ArrayList<>();
+		spill.drainTo(consumed, 8);  // 첫 세그먼트 일부 + 다음 세그먼트 일부
+		spill.close();
+
+		SpillQueue<String> restarted = open(Long.MAX_VALUE);
+		assertThat(restarted.size()).isEqualTo(12L);
+		assertThat(restarted.bytes()).isEqualTo(12L * RECORD_BYTES);
+		restarted.drainTo(consumed, Integer.MAX_VALUE);
+
+		assertThat(consumed).isEqualTo(records(20));
+	}
+
+	@Test
+	void appendsAfterRecoveredRecords() {
+		SpillQueue<String> spill = open(Long.MAX_VALUE);
+		spill.offer("record-0000");
+		spill.offer("record-0001");
+		spill.close();
+
+		SpillQueue<String> restarted = open(Long.MAX_VALUE);
+		restarted.offer("record-0002");
+		List<String> consumed = new ArrayList<>();
+		restarted.drainTo(consumed, Integer.MAX_VALUE);
+
+		assertThat(consumed).isEqualTo(records(3));
+	}
+
+	@Test
+	void rejectsWhenMaxBytesOrSegmentSizeExceeded() {
+		SpillQueue<String> spill = open(3L * RECORD_BYTES);
+
+		assertThat(spill.offer(record(0))).isTrue();
+		assertThat(spill.offer(record(1))).isTrue();
+		assertThat(spill.offer(record(2))).isTrue();
+		assertThat(spill.offer(record(3))).isFalse();  // maxBytes 초과
+		assertThat(spill.offer("x".repeat(SEGMENT_BYTES))).isFalse();  // 세그먼트 1개에 들어가지 않음
+
+		List<String> consumed = new ArrayList<>();
+		spill.drainTo(consumed, 1);
+		assertThat(spill.offer(record(3))).isTrue();  // 읽은 만큼 다시 기록 가능
+		spill.drainTo(consumed, Integer.MAX_VALUE);
+		assertThat(consumed).isEqualTo(records(4));
+	}
+
+	private SpillQueue<String> open(long maxBytes) {
+		return new SpillQueue<>(directory, new StringCodec(), SEGMENT_BYTES, maxBytes);
+	}
+
+	private long segmentFiles() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(path -> path.toString().endsWith(".seg")).count();
+		}
+	}
+
+	private static String record(int i) {
+		return String.format("record-%04d", i);
+	}
+
+	private static List<String> records(int count) {
+		List<String> records = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			records.add(record(i));
+		}
+		return records;
+	}
+
+	/** [int length][UTF-8 bytes] */
+	private static final class StringCodec implements RecordCodec<String> {
+
+		@Override
+		public void encode(String value, ByteBuffer out) {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.putInt(bytes.length).put(bytes);
+		}
+
+		@Override
+		public String decode(ByteBuffer in) {
+			byte[] bytes = new byte[in.getInt()];
+			in.get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+}